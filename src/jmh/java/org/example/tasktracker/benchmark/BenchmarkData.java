@@ -0,0 +1,77 @@
+package org.example.tasktracker.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.tasktracker.model.Task;
+import org.example.tasktracker.model.User;
+import org.example.tasktracker.service.TaskService;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/**
+ * Deterministic users and tasks for the benchmarks, and throwaway data directories so runs never touch {@code data/}.
+ */
+final class BenchmarkData {
+
+    static final String PASSWORD = "Passw0rd!";
+    private static final String[] PRIORITIES = {"low", "medium", "high"};
+    private static final String[] WORDS = {"report", "review", "deploy", "invoice", "meeting", "backup", "design", "refactor"};
+
+    private BenchmarkData() {
+    }
+
+    static List<User> users(int count, String passwordHash) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            User user = new User("user" + i, "user" + i + "@example.com", passwordHash);
+            user.setId((long) i);
+            users.add(user);
+        }
+        return users;
+    }
+
+    /**
+     * Tasks spread evenly over the users, with a fixed mix of priorities, statuses and due dates.
+     */
+    static List<Task> tasks(List<User> users, int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        LocalDate today = LocalDate.now();
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            Task task = new Task("Task " + i + " " + word, "Benchmark task about the " + word, users.get(i % users.size()));
+            task.setPriority(PRIORITIES[random.nextInt(PRIORITIES.length)]);
+            int status = random.nextInt(3);
+            if (status == 1) task.setInProgress(true);
+            if (status == 2) task.setCompleted(true);
+            if (random.nextBoolean()) task.setDueDate(today.plusDays(random.nextInt(-30, 60)));
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    static TaskService taskService(Path dataDir) {
+        TaskService service = new TaskService(event -> { }, new SimpleMeterRegistry(), dataDir.toString(), false);
+        service.init();
+        return service;
+    }
+
+    static Path tempDir() throws IOException {
+        return Files.createTempDirectory("tasktracker-bench");
+    }
+
+    static void delete(Path dir) throws IOException {
+        if (dir == null || !Files.exists(dir)) return;
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+}
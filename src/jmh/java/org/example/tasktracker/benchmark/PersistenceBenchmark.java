@@ -0,0 +1,67 @@
+package org.example.tasktracker.benchmark;
+
+import org.example.tasktracker.model.User;
+import org.example.tasktracker.service.TaskService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing and reading the tasks file, by number of tasks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PersistenceBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int taskCount;
+
+    private Path dataDir;
+    private TaskService taskService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataDir = BenchmarkData.tempDir();
+        taskService = BenchmarkData.taskService(dataDir);
+        List<User> users = BenchmarkData.users(1000, "unused");
+        taskService.importTasks(BenchmarkData.tasks(users, taskCount, 1)); // also writes the file once
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        taskService.shutdown();
+        BenchmarkData.delete(dataDir);
+    }
+
+    @Benchmark
+    public void saveTasksToFile() {
+        taskService.saveTasksToFile();
+    }
+
+    // A fresh service reads and indexes the file, as at startup
+    @Benchmark
+    public TaskService loadTasksFromFile() {
+        TaskService loaded = BenchmarkData.taskService(dataDir);
+        loaded.shutdown();
+        return loaded;
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.tasktracker.benchmark;
+
+import org.example.tasktracker.model.Task;
+import org.example.tasktracker.model.User;
+import org.example.tasktracker.service.AdminQueryResult;
+import org.example.tasktracker.service.AdminTaskQuery;
+import org.example.tasktracker.service.TaskQuery;
+import org.example.tasktracker.service.TaskQueryEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admin queries of {@link TaskQueryEngine} over millions of tasks, by fork-join pool size. The speedup of a
+ * pool size is its score divided into the score of {@code parallelism=1} at the same {@code taskCount};
+ * sizes above the number of cores only show the scheduling overhead. To run on one machine's core counts:
+ * <pre>-Djmh.args="TaskQueryEngineBenchmark -p parallelism=1,2,4,8 -rf json -rff target/jmh-result.json"</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class TaskQueryEngineBenchmark {
+
+    @Param({"1000000", "4000000"})
+    public int taskCount;
+
+    @Param({"1", "2", "4", "8", "16"})
+    public int parallelism;
+
+    @Param({"8192"})
+    public int chunkSize;
+
+    private List<Task> tasks;
+    private ForkJoinPool pool;
+    private TaskQueryEngine engine;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<User> users = BenchmarkData.users(10_000, "unused");
+        tasks = BenchmarkData.tasks(users, taskCount, 1);
+        for (int i = 0; i < tasks.size(); i++) tasks.get(i).setId(i + 1L);
+        pool = new ForkJoinPool(parallelism);
+        engine = new TaskQueryEngine(null, chunkSize); // only the overload taking the task list is used
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    // Search every task and keep the first page by priority: matching and the top-k merge
+    @Benchmark
+    public AdminQueryResult searchSortedByPriority() {
+        AdminTaskQuery query = new AdminTaskQuery(TaskQuery.of("report", null, TaskQuery.SORT_PRIORITY),
+                null, null, false, null, null);
+        return engine.execute(tasks, query, 50, pool);
+    }
+
+    // Cheap per-task predicate over everything: mostly the scan and the counting
+    @Benchmark
+    public AdminQueryResult overdueCounts() {
+        AdminTaskQuery query = new AdminTaskQuery(TaskQuery.of(null, null, null), null, null, true, null, null);
+        return engine.execute(tasks, query, 0, pool);
+    }
+}
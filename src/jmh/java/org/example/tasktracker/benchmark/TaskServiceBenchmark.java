@@ -0,0 +1,104 @@
+package org.example.tasktracker.benchmark;
+
+import org.example.tasktracker.model.Task;
+import org.example.tasktracker.model.User;
+import org.example.tasktracker.service.TaskQuery;
+import org.example.tasktracker.service.TaskService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory read paths of {@link TaskService} and the (file-writing) create path, by dataset size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskServiceBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int taskCount;
+
+    @Param({"100", "10000", "100000"})
+    public int userCount;
+
+    private Path dataDir;
+    private TaskService taskService;
+    private List<User> users;
+    private List<Task> tasks;
+
+    @State(Scope.Thread)
+    public static class Picker {
+        final SplittableRandom random = new SplittableRandom(42);
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataDir = BenchmarkData.tempDir();
+        taskService = BenchmarkData.taskService(dataDir);
+        users = BenchmarkData.users(userCount, "unused");
+        tasks = BenchmarkData.tasks(users, taskCount, 1);
+        taskService.importTasks(tasks);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        taskService.shutdown();
+        BenchmarkData.delete(dataDir);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void createTask(Picker picker) {
+        User user = users.get(picker.random.nextInt(users.size()));
+        taskService.createTask(new Task("Benchmark task", "Created by the benchmark", user));
+    }
+
+    @Benchmark
+    public Task findTaskById(Picker picker) {
+        Task task = tasks.get(picker.random.nextInt(tasks.size()));
+        return taskService.findTaskById(task.getId(), task.getUser());
+    }
+
+    @Benchmark
+    public List<Task> getTasksByUser(Picker picker) {
+        return taskService.getTasksByUser(users.get(picker.random.nextInt(users.size())));
+    }
+
+    // The four counters the dashboard shows
+    @Benchmark
+    public void dashboardCounters(Picker picker, Blackhole blackhole) {
+        User user = users.get(picker.random.nextInt(users.size()));
+        blackhole.consume(taskService.getTotalTasksByUser(user));
+        blackhole.consume(taskService.getCompletedTasksByUser(user));
+        blackhole.consume(taskService.getPendingTasksByUser(user));
+        blackhole.consume(taskService.getInProgressTasksByUser(user));
+    }
+
+    // First page of the task management page with a search and a sort
+    @Benchmark
+    public Object taskManagementSearchSort(Picker picker) {
+        User user = users.get(picker.random.nextInt(users.size()));
+        return taskService.findTaskListing(user, TaskQuery.of("report", null, TaskQuery.SORT_PRIORITY), 0, 50);
+    }
+}
@@ -0,0 +1,79 @@
+package org.example.tasktracker.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.tasktracker.model.User;
+import org.example.tasktracker.service.UserService;
+import org.mindrot.jbcrypt.BCrypt;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * User lookups and login verification, by number of users.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserServiceBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    public int userCount;
+
+    private Path dataDir;
+    private UserService userService;
+
+    @State(Scope.Thread)
+    public static class Picker {
+        final SplittableRandom random = new SplittableRandom(42);
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataDir = BenchmarkData.tempDir();
+        userService = new UserService(event -> { }, new SimpleMeterRegistry(), dataDir.toString());
+        userService.init();
+        // One real hash shared by everyone: registering each user would spend the setup in BCrypt
+        String hash = BCrypt.hashpw(BenchmarkData.PASSWORD, BCrypt.gensalt());
+        userService.getAllUsers().addAll(BenchmarkData.users(userCount, hash));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkData.delete(dataDir);
+    }
+
+    @Benchmark
+    public User findByEmail(Picker picker) {
+        return userService.findByEmail("user" + (picker.random.nextInt(userCount) + 1) + "@example.com");
+    }
+
+    // Misses walk every user, as at registration with a new address
+    @Benchmark
+    public boolean isEmailTaken(Picker picker) {
+        return userService.isEmailTaken("new" + picker.random.nextInt(userCount) + "@example.com");
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public User login(Picker picker) {
+        return userService.authenticate("user" + (picker.random.nextInt(userCount) + 1), BenchmarkData.PASSWORD);
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.tasktracker.controller;
+
+import org.example.tasktracker.service.TaskActivityService;
+import org.example.tasktracker.service.TaskStatisticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import jakarta.servlet.http.HttpSession;
+import java.util.Map;
+
+/**
+ * System-wide task statistics for admins, read from the incrementally maintained counters.
+ */
+@RestController
+@RequestMapping("/api/admin/stats")
+public class AdminStatsController {
+
+    private final TaskStatisticsService statisticsService;
+    private final TaskActivityService activityService;
+
+    @Autowired
+    public AdminStatsController(TaskStatisticsService statisticsService, TaskActivityService activityService) {
+        this.statisticsService = statisticsService;
+        this.activityService = activityService;
+    }
+
+    @GetMapping
+    public ResponseEntity<?> statistics(HttpSession session) {
+        if (!AdminTaskController.isAdmin(session)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", "Admin access required"));
+        }
+        return ResponseEntity.ok(statisticsService.getStatistics());
+    }
+
+    @GetMapping("/users/{userId}")
+    public ResponseEntity<?> userStatistics(@PathVariable Long userId, HttpSession session) {
+        if (!AdminTaskController.isAdmin(session)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", "Admin access required"));
+        }
+        return ResponseEntity.ok(statisticsService.getUserStatistics(userId));
+    }
+
+    /**
+     * Created/completed counts per bucket across all users, or for one user with {@code userId}.
+     */
+    @GetMapping("/activity")
+    public ResponseEntity<?> activity(@RequestParam(defaultValue = "day") String resolution,
+                                      @RequestParam(defaultValue = "90") int points,
+                                      @RequestParam(required = false) Long userId,
+                                      HttpSession session) {
+        if (!AdminTaskController.isAdmin(session)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", "Admin access required"));
+        }
+        try {
+            return ResponseEntity.ok(activityService.getActivity(userId, TaskActivityService.Resolution.parse(resolution), points));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package org.example.tasktracker.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.tasktracker.model.Task;
+import org.example.tasktracker.model.User;
+import org.example.tasktracker.service.AdminQueryResult;
+import org.example.tasktracker.service.AdminTaskQuery;
+import org.example.tasktracker.service.TaskArchiveService;
+import org.example.tasktracker.service.TaskImportService;
+import org.example.tasktracker.service.TaskQuery;
+import org.example.tasktracker.service.TaskQueryEngine;
+import org.example.tasktracker.service.TaskService;
+import org.example.tasktracker.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * System-wide task endpoints, restricted to users holding {@code ROLE_ADMIN}.
+ */
+@RestController
+@RequestMapping("/api/admin/tasks")
+public class AdminTaskController {
+
+    static final String ADMIN_ROLE = "ROLE_ADMIN";
+
+    private final TaskService taskService;
+    private final UserService userService;
+    private final TaskImportService taskImportService;
+    private final TaskQueryEngine queryEngine;
+    private final TaskArchiveService archiveService;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public AdminTaskController(TaskService taskService, UserService userService,
+                               TaskImportService taskImportService, TaskQueryEngine queryEngine,
+                               TaskArchiveService archiveService, ObjectMapper objectMapper) {
+        this.taskService = taskService;
+        this.userService = userService;
+        this.taskImportService = taskImportService;
+        this.queryEngine = queryEngine;
+        this.archiveService = archiveService;
+        this.objectMapper = objectMapper;
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportAllTasks(HttpSession session) {
+        if (!isAdmin(session)) {
+            return TaskApiController.jsonError(objectMapper, HttpStatus.FORBIDDEN, "Admin access required");
+        }
+        return ResponseEntity.ok()
+                .contentType(TaskApiController.NDJSON)
+                .body(TaskApiController.exportNdjson(taskService, objectMapper, null));
+    }
+
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/plain"})
+    public ResponseEntity<?> importTasks(@RequestParam(defaultValue = "" + TaskImportService.DEFAULT_BATCH_SIZE) int batchSize,
+                                         HttpServletRequest request,
+                                         HttpSession session) throws IOException {
+        if (!isAdmin(session)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", "Admin access required"));
+        }
+        return ResponseEntity.ok(taskImportService.importTasks(request.getReader(), userService::findUserById, batchSize));
+    }
+
+    // Archive old completed tasks now instead of waiting for the next scheduled run
+    @PostMapping("/archive")
+    public ResponseEntity<?> archiveTasks(HttpSession session) throws IOException {
+        if (!isAdmin(session)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", "Admin access required"));
+        }
+        return ResponseEntity.ok(Map.of("archived", archiveService.archiveNow()));
+    }
+
+    /**
+     * Query every user's tasks, e.g. {@code ?overdue=true&priority=high&sortBy=due_date}.
+     * Returns counts over all matches plus the first {@code limit} matches in sort order.
+     */
+    @GetMapping("/query")
+    public ResponseEntity<StreamingResponseBody> queryTasks(@RequestParam(required = false) String search,
+                                                             @RequestParam(required = false) String priority,
+                                                             @RequestParam(required = false) String status,
+                                                             @RequestParam(required = false) Long userId,
+                                                             @RequestParam(defaultValue = "false") boolean overdue,
+                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdFrom,
+                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdTo,
+                                                             @RequestParam(required = false) String sortBy,
+                                                             @RequestParam(required = false) Integer limit,
+                                                             @RequestParam(required = false) String fields,
+                                                             HttpSession session) {
+        if (!isAdmin(session)) {
+            return TaskApiController.jsonError(objectMapper, HttpStatus.FORBIDDEN, "Admin access required");
+        }
+        if (status != null && !TaskService.isValidStatus(status)) {
+            return TaskApiController.jsonError(objectMapper, HttpStatus.BAD_REQUEST, "status must be todo, in_progress or completed");
+        }
+
+        Set<TaskJsonWriter.Field> selectedFields;
+        try {
+            selectedFields = TaskJsonWriter.parseFields(fields);
+        } catch (IllegalArgumentException e) {
+            return TaskApiController.jsonError(objectMapper, HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        int topK = (limit == null) ? TaskApiController.DEFAULT_LIMIT : Math.max(0, Math.min(limit, TaskApiController.MAX_LIMIT));
+        AdminTaskQuery query = new AdminTaskQuery(TaskQuery.of(search, priority, sortBy), status, userId, overdue, createdFrom, createdTo);
+        AdminQueryResult result = queryEngine.execute(query, topK);
+
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+                gen.writeStartObject();
+                gen.writeNumberField("matched", result.matched());
+                gen.writeObjectField("byStatus", result.byStatus());
+                gen.writeObjectField("byPriority", result.byPriority());
+                gen.writeNumberField("chunks", result.chunks());
+                gen.writeNumberField("elapsedMillis", result.elapsedMillis());
+                gen.writeArrayFieldStart("tasks");
+                for (Task task : result.tasks()) {
+                    TaskJsonWriter.write(gen, task, selectedFields);
+                }
+                gen.writeEndArray();
+                gen.writeEndObject();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    static boolean isAdmin(HttpSession session) {
+        User loggedUser = (User) session.getAttribute("user");
+        return loggedUser != null && loggedUser.hasRole(ADMIN_ROLE);
+    }
+}
@@ -2,7 +2,6 @@ package org.example.tasktracker.controller;
 
 import org.example.tasktracker.model.User;
 import org.example.tasktracker.service.UserService;
-import org.mindrot.jbcrypt.BCrypt;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -34,14 +33,7 @@ public class AuthController {
                               HttpSession session,
                               RedirectAttributes redirectAttributes) {
 
-        User foundUser = null;
-
-        for (User u : userService.getAllUsers()) {
-            if (u.getName().equals(username) && BCrypt.checkpw(password, u.getPassword())) {
-                foundUser = u;
-                break;
-            }
-        }
+        User foundUser = userService.authenticate(username, password);
 
         if (foundUser != null) {
             session.setAttribute("user", foundUser);
@@ -0,0 +1,113 @@
+package org.example.tasktracker.controller;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches rendered HTML fragments per user, keyed by the user's data version.
+ * Only the latest version of each (user, fragment) pair is kept; a version bump makes the entry stale
+ * and the next request renders it again. Enabled by {@code tasktracker.fragment-cache.enabled} (on in the prod profile).
+ * Lookups are counted in {@code tasktracker.fragment-cache.gets} by result, and the entry count is a gauge.
+ */
+@Component
+public class FragmentCache {
+
+    private record Key(Long userId, String fragment) {
+    }
+
+    private record Entry(long version, String html) {
+    }
+
+    private final ITemplateEngine templateEngine;
+    private final boolean enabled;
+    private final Map<Key, Entry> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @Autowired
+    public FragmentCache(ITemplateEngine templateEngine,
+                         MeterRegistry meterRegistry,
+                         @Value("${tasktracker.fragment-cache.enabled:false}") boolean enabled,
+                         @Value("${tasktracker.fragment-cache.max-entries:10000}") int maxEntries) {
+        this.templateEngine = templateEngine;
+        this.enabled = enabled;
+        // Access-ordered map doubles as an LRU
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        FunctionCounter.builder("tasktracker.fragment-cache.gets", this, FragmentCache::getHits).tag("result", "hit")
+                .description("Fragment cache lookups").register(meterRegistry);
+        FunctionCounter.builder("tasktracker.fragment-cache.gets", this, FragmentCache::getMisses).tag("result", "miss")
+                .description("Fragment cache lookups").register(meterRegistry);
+        Gauge.builder("tasktracker.fragment-cache.size", this, FragmentCache::size)
+                .description("Rendered fragments in the cache").register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Cached HTML of the fragment for this user at exactly this version, or null.
+     */
+    public String get(Long userId, String fragment, long version) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(new Key(userId, fragment));
+        }
+        if (entry != null && entry.version() == version) {
+            hits.incrementAndGet();
+            return entry.html();
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Render {@code template :: fragment} with the given variables and remember the result for this version.
+     * The version must be read before the data in {@code variables} is loaded, so a cached entry is never older than its key.
+     */
+    public String render(HttpServletRequest request, HttpServletResponse response,
+                         String template, String fragment, Map<String, Object> variables,
+                         Long userId, long version) {
+        JakartaServletWebApplication application = JakartaServletWebApplication.buildApplication(request.getServletContext());
+        WebContext context = new WebContext(application.buildExchange(request, response), request.getLocale(), variables);
+        String html = templateEngine.process(template, Set.of(fragment), context);
+
+        synchronized (entries) {
+            entries.put(new Key(userId, fragment), new Entry(version, html));
+        }
+        return html;
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+}
@@ -4,47 +4,103 @@ import org.example.tasktracker.model.Task;
 import org.example.tasktracker.model.User;
 import org.example.tasktracker.service.TaskService;
 import org.example.tasktracker.service.UserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
 import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Controller
 public class HomeController {
 
+    private static final Logger log = LoggerFactory.getLogger(HomeController.class);
+
     private final TaskService taskService;
     private final UserService userService;
+    private final FragmentCache fragmentCache;
 
     @Autowired
-    public HomeController(TaskService taskService, UserService userService) {
+    public HomeController(TaskService taskService, UserService userService, FragmentCache fragmentCache) {
         this.taskService = taskService;
         this.userService = userService;
+        this.fragmentCache = fragmentCache;
     }
 
     @GetMapping("/home")
-    public String home(Model model, HttpSession session) {
+    public String home(Model model, HttpSession session, WebRequest webRequest,
+                       HttpServletRequest request, HttpServletResponse response) {
         User loggedUser = (User) session.getAttribute("user");
         if (loggedUser == null) return "redirect:/login";
 
+        // Unchanged since the client's copy: 304 without loading tasks or rendering
+        if (ViewETags.checkNotModified(webRequest, ViewETags.forUser(taskService, loggedUser, "home"))) return null;
+
         model.addAttribute("user", loggedUser);
+        // Version the live-update script starts from; read before the tasks, so the page is never older than it
+        long version = taskService.getUserVersion(loggedUser.getId());
+
+        if (fragmentCache.isEnabled()) {
+            addCachedFragments(model, loggedUser, version, request, response);
+        } else {
+            // Load tasks for this user
+            List<Task> userTasks = taskService.getTasksByUser(loggedUser);
+            model.addAttribute("tasks", userTasks);
+
+            // Task counts
+            model.addAttribute("totalTasks", taskService.getTotalTasksByUser(loggedUser));
+            model.addAttribute("completedTasks", taskService.getCompletedTasksByUser(loggedUser));
+            model.addAttribute("pendingTasks", taskService.getPendingTasksByUser(loggedUser));
+            model.addAttribute("inProgressTasks", taskService.getInProgressTasksByUser(loggedUser));
+        }
 
-        // Load tasks for this user
-        List<Task> userTasks = taskService.getTasksByUser(loggedUser);
-        model.addAttribute("tasks", userTasks);
+        // A change while loading may or may not be on the page: the script reloads it, and it is not cached
+        if (taskService.getUserVersion(loggedUser.getId()) != version) {
+            version = -1;
+            response.setHeader("Cache-Control", "no-store");
+        }
+        model.addAttribute("versionEpoch", taskService.getVersionEpoch());
+        model.addAttribute("dataVersion", version);
+        return "dashboard/index";
+    }
 
-        // Task counts
-        model.addAttribute("totalTasks", taskService.getTotalTasksByUser(loggedUser));
-        model.addAttribute("completedTasks", taskService.getCompletedTasksByUser(loggedUser));
-        model.addAttribute("pendingTasks", taskService.getPendingTasksByUser(loggedUser));
-        model.addAttribute("inProgressTasks", taskService.getInProgressTasksByUser(loggedUser));
+    // Stat cards and task list come from the fragment cache; tasks are only loaded when a fragment is stale
+    private void addCachedFragments(Model model, User loggedUser, long version,
+                                    HttpServletRequest request, HttpServletResponse response) {
+        String statCardsHtml = fragmentCache.get(loggedUser.getId(), "statCards", version);
+        String taskListHtml = fragmentCache.get(loggedUser.getId(), "taskList", version);
+
+        if (statCardsHtml == null || taskListHtml == null) {
+            Map<String, Object> variables = new HashMap<>();
+            variables.put("tasks", taskService.getTasksByUser(loggedUser));
+            variables.put("totalTasks", taskService.getTotalTasksByUser(loggedUser));
+            variables.put("completedTasks", taskService.getCompletedTasksByUser(loggedUser));
+            variables.put("pendingTasks", taskService.getPendingTasksByUser(loggedUser));
+            variables.put("inProgressTasks", taskService.getInProgressTasksByUser(loggedUser));
+
+            if (statCardsHtml == null) {
+                statCardsHtml = fragmentCache.render(request, response, "dashboard/fragments", "statCards",
+                        variables, loggedUser.getId(), version);
+            }
+            if (taskListHtml == null) {
+                taskListHtml = fragmentCache.render(request, response, "dashboard/fragments", "taskList",
+                        variables, loggedUser.getId(), version);
+            }
+        }
 
-        return "dashboard/index";
+        model.addAttribute("statCardsHtml", statCardsHtml);
+        model.addAttribute("taskListHtml", taskListHtml);
     }
 
     @PostMapping("/home/add-task")
@@ -62,7 +118,7 @@ public class HomeController {
         if (priority != null && !priority.isEmpty()) task.setPriority(priority);
         if (dueDate != null && !dueDate.isEmpty()) {
             try { task.setDueDate(LocalDate.parse(dueDate)); }
-            catch (Exception e) { System.out.println("Invalid date format: " + dueDate); }
+            catch (Exception e) { log.debug("Invalid date format: {}", dueDate); }
         }
 
         taskService.createTask(task);
@@ -99,17 +155,13 @@ public class HomeController {
 
         User loggedUser = (User) session.getAttribute("user");
         if (loggedUser == null) return "redirect:/login";
-        Task task = taskService.findTaskById(id, loggedUser);
-        if (task != null) {
-            task.setTitle(title);
-            task.setDescription(description);
-            if (priority != null && !priority.isEmpty()) task.setPriority(priority);
-            if (dueDate != null && !dueDate.isEmpty()) {
-                try { task.setDueDate(LocalDate.parse(dueDate)); }
-                catch (Exception e) { System.out.println("Invalid date format: " + dueDate); }
-            }
-            taskService.saveTasksToFile();
+
+        LocalDate parsedDueDate = null;
+        if (dueDate != null && !dueDate.isEmpty()) {
+            try { parsedDueDate = LocalDate.parse(dueDate); }
+            catch (Exception e) { log.debug("Invalid date format: {}", dueDate); }
         }
+        taskService.updateTaskDetails(id, title, description, priority, parsedDueDate, loggedUser);
         return "redirect:/home";
     }
 
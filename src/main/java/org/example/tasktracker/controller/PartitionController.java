@@ -0,0 +1,84 @@
+package org.example.tasktracker.controller;
+
+import com.google.gson.JsonParseException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import org.example.tasktracker.service.PartitionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Calls between partitioned instances (see {@link PartitionService}), authenticated with the shared secret in
+ * the {@value PartitionService#SECRET_HEADER} header. Membership changes and status are also open to admins.
+ */
+@RestController
+@RequestMapping("/internal/partition")
+@ConditionalOnProperty(name = "tasktracker.partition.instances")
+public class PartitionController {
+
+    private final PartitionService partitionService;
+
+    @Autowired
+    public PartitionController(PartitionService partitionService) {
+        this.partitionService = partitionService;
+    }
+
+    @GetMapping("/users")
+    public ResponseEntity<?> users(@RequestParam(required = false) String name,
+                                   @RequestParam(required = false) String email,
+                                   @RequestHeader(value = PartitionService.SECRET_HEADER, required = false) String secret) {
+        if (!partitionService.isValidSecret(secret)) return forbidden();
+        return ResponseEntity.ok(Map.of("ids", partitionService.localUserIds(name, email)));
+    }
+
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    public ResponseEntity<?> importUser(HttpServletRequest request,
+                                        @RequestHeader(value = PartitionService.SECRET_HEADER, required = false) String secret) throws IOException {
+        if (!partitionService.isValidSecret(secret)) return forbidden();
+        try {
+            return ResponseEntity.ok(Map.of("tasks", partitionService.importUser(request.getReader())));
+        } catch (IllegalArgumentException | JsonParseException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Replace the instance list ({@code name=url,...}); passed on to every old and new instance unless
+     * {@code propagate=false}.
+     */
+    @PostMapping("/membership")
+    public ResponseEntity<?> membership(@RequestParam String instances,
+                                        @RequestParam(defaultValue = "true") boolean propagate,
+                                        @RequestHeader(value = PartitionService.SECRET_HEADER, required = false) String secret,
+                                        HttpSession session) {
+        if (!partitionService.isValidSecret(secret) && !AdminTaskController.isAdmin(session)) return forbidden();
+        try {
+            partitionService.updateMembership(instances, propagate);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        return ResponseEntity.ok(partitionService.status());
+    }
+
+    @GetMapping("/status")
+    public ResponseEntity<?> status(@RequestHeader(value = PartitionService.SECRET_HEADER, required = false) String secret,
+                                    HttpSession session) {
+        if (!partitionService.isValidSecret(secret) && !AdminTaskController.isAdmin(session)) return forbidden();
+        return ResponseEntity.ok(partitionService.status());
+    }
+
+    private static ResponseEntity<?> forbidden() {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", "Partition secret required"));
+    }
+}
@@ -0,0 +1,242 @@
+package org.example.tasktracker.controller;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.apache.catalina.Engine;
+import org.example.tasktracker.model.User;
+import org.example.tasktracker.service.PartitionRing;
+import org.example.tasktracker.service.PartitionService;
+import org.example.tasktracker.service.UserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Routing layer of a partitioned deployment (see {@link PartitionService}); every instance runs it, so a load
+ * balancer can send any request to any instance.
+ *
+ * <p>Sessions are created by the instance that owns the user, and their ids end in that instance's name
+ * (Tomcat's {@code jvmRoute}, e.g. {@code 5F1C...A2.b}). A request whose session belongs to another instance is
+ * forwarded there and the answer streamed back. Logins go to the instance that stores the user name, and a
+ * registration with an e-mail address stored elsewhere goes there, so it is refused as a duplicate. A session
+ * whose user has moved away is dropped, so the user signs in again at the new owner. While the user is being
+ * moved, requests that may change its data are answered with 503 and {@code Retry-After}.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "tasktracker.partition.instances")
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class PartitionRoutingFilter extends OncePerRequestFilter implements WebServerFactoryCustomizer<TomcatServletWebServerFactory> {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionRoutingFilter.class);
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    // Managed by the HTTP client or meaningful for one connection only
+    private static final Set<String> HOP_HEADERS = Set.of("connection", "content-length", "expect", "host", "upgrade",
+            "keep-alive", "transfer-encoding", "te", "trailer", "proxy-authorization", "proxy-connection");
+
+    private final PartitionService partitionService;
+    private final UserService userService;
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @Autowired
+    public PartitionRoutingFilter(PartitionService partitionService, UserService userService) {
+        this.partitionService = partitionService;
+        this.userService = userService;
+    }
+
+    @Override
+    public void customize(TomcatServletWebServerFactory factory) {
+        factory.addContextCustomizers(context -> ((Engine) context.getParent().getParent()).setJvmRoute(partitionService.self()));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return path.startsWith("/internal/") || path.startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        // Already routed by another instance, which names the client for the rate limiter
+        if (partitionService.isValidSecret(request.getHeader(PartitionService.SECRET_HEADER))) {
+            String client = request.getHeader(PartitionService.CLIENT_HEADER);
+            if (client != null) request.setAttribute(RateLimitFilter.CLIENT_ATTRIBUTE, client);
+            handleLocally(request, response, chain);
+            return;
+        }
+
+        String route = sessionRoute(request);
+        if (route != null && !route.equals(partitionService.self())) {
+            forward(route, request, response, false);
+            return;
+        }
+
+        if (request.getMethod().equals("POST") && route == null) {
+            String instance = null;
+            if (request.getRequestURI().equals("/login")) {
+                String username = request.getParameter("username");
+                if (username != null && userService.findByName(username) == null) {
+                    instance = partitionService.findInstanceWithUser("name", username);
+                }
+            } else if (request.getRequestURI().equals("/register")) {
+                String email = request.getParameter("email");
+                if (email != null && !userService.isEmailTaken(email)) {
+                    instance = partitionService.findInstanceWithUser("email", email);
+                }
+            }
+            if (instance != null) {
+                forward(instance, request, response, true);
+                return;
+            }
+        }
+        handleLocally(request, response, chain);
+    }
+
+    private void handleLocally(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        HttpSession session = request.getSession(false);
+        User user = (session != null) ? (User) session.getAttribute("user") : null;
+        if (user != null && userService.findUserById(user.getId()) == null) {
+            session.invalidate(); // the user's data has moved to another instance
+            user = null;
+        }
+        if (user == null || !isWrite(request)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!partitionService.beginWrite(user.getId())) {
+            response.setHeader("Retry-After", "1");
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Your data is being moved, try again shortly");
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            partitionService.endWrite(user.getId());
+        }
+    }
+
+    // Some dashboard and task page links change a task with a GET, as RateLimitFilter also counts them
+    private static boolean isWrite(HttpServletRequest request) {
+        if (!SAFE_METHODS.contains(request.getMethod())) return true;
+        String path = request.getRequestURI();
+        for (String prefix : ReadOnlyReplicaFilter.CHANGING_GETS) {
+            if (path.startsWith(prefix)) return true;
+        }
+        return false;
+    }
+
+    // Instance named by the session id suffix, if it is a current member
+    private String sessionRoute(HttpServletRequest request) {
+        String sessionId = request.getRequestedSessionId();
+        if (sessionId == null) return null;
+        int dot = sessionId.lastIndexOf('.');
+        if (dot < 0) return null;
+        String route = sessionId.substring(dot + 1);
+        return partitionService.ring().contains(route) ? route : null;
+    }
+
+    /**
+     * Send the request to another instance and stream its answer back. Form parameters that have already been
+     * parsed here are sent again as the body, since the original body has been consumed. The client's address
+     * goes along, so the other instance rate-limits the client rather than this instance.
+     */
+    private void forward(String instance, HttpServletRequest request, HttpServletResponse response, boolean parametersRead)
+            throws IOException {
+        PartitionRing ring = partitionService.ring();
+        String baseUrl = ring.urlOf(instance);
+        String query = parametersRead ? null : request.getQueryString();
+        byte[] body = parametersRead ? form(request.getParameterMap()) : request.getInputStream().readAllBytes();
+
+        HttpRequest.Builder forwarded = HttpRequest.newBuilder(URI.create(baseUrl + request.getRequestURI() + (query == null ? "" : "?" + query)))
+                .method(request.getMethod(), body.length == 0 ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofByteArray(body));
+        for (String name : Collections.list(request.getHeaderNames())) {
+            String lower = name.toLowerCase();
+            if (HOP_HEADERS.contains(lower) || lower.equals(PartitionService.SECRET_HEADER.toLowerCase())
+                    || lower.equals(PartitionService.CLIENT_HEADER.toLowerCase())) continue;
+            if (parametersRead && lower.equals("content-type")) continue;
+            for (String value : Collections.list(request.getHeaders(name))) {
+                forwarded.header(name, value);
+            }
+        }
+        if (parametersRead) {
+            forwarded.header("Content-Type", "application/x-www-form-urlencoded");
+        }
+        forwarded.header(PartitionService.CLIENT_HEADER, request.getRemoteAddr());
+        partitionService.authenticate(forwarded);
+
+        HttpResponse<InputStream> answer;
+        try {
+            answer = client.send(forwarded.build(), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (IOException e) {
+            log.warn("Forwarding {} {} to instance {} failed: {}", request.getMethod(), request.getRequestURI(), instance, e.getMessage());
+            response.sendError(HttpServletResponse.SC_BAD_GATEWAY, "Instance " + instance + " is not reachable");
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            return;
+        }
+
+        response.setStatus(answer.statusCode());
+        answer.headers().map().forEach((name, values) -> {
+            String lower = name.toLowerCase();
+            if (HOP_HEADERS.contains(lower) || lower.startsWith(":")) return;
+            for (String value : values) {
+                // Absolute redirects name the other instance; the client should stay on this address
+                response.addHeader(name, lower.equals("location") && value.startsWith(baseUrl) ? value.substring(baseUrl.length()) : value);
+            }
+        });
+        // Flushed whenever the other instance pauses, so event streams pass through as they are written
+        try (InputStream in = answer.body(); OutputStream out = response.getOutputStream()) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                out.write(buffer, 0, read);
+                if (in.available() == 0) out.flush();
+            }
+        }
+    }
+
+    private static byte[] form(Map<String, String[]> parameters) {
+        StringBuilder form = new StringBuilder();
+        parameters.forEach((name, values) -> {
+            for (String value : values) {
+                if (form.length() > 0) form.append('&');
+                form.append(URLEncoder.encode(name, StandardCharsets.UTF_8)).append('=')
+                        .append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+            }
+        });
+        return form.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,162 @@
+package org.example.tasktracker.controller;
+
+import org.example.tasktracker.model.Project;
+import org.example.tasktracker.model.Task;
+import org.example.tasktracker.model.User;
+import org.example.tasktracker.service.ProjectService;
+import org.example.tasktracker.service.ProjectSummary;
+import org.example.tasktracker.service.TaskService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import jakarta.servlet.http.HttpSession;
+import java.util.Map;
+
+/**
+ * JSON API for the session user's projects. Counters come from {@link ProjectService}'s incrementally kept
+ * indexes; a project's tasks are listed with {@code GET /api/tasks?project=<id>}.
+ */
+@RestController
+@RequestMapping("/api/projects")
+public class ProjectApiController {
+
+    private final ProjectService projectService;
+    private final TaskService taskService;
+
+    @Autowired
+    public ProjectApiController(ProjectService projectService, TaskService taskService) {
+        this.projectService = projectService;
+        this.taskService = taskService;
+    }
+
+    // Depth first, each project followed by its sub-projects
+    @GetMapping
+    public ResponseEntity<?> listProjects(HttpSession session) {
+        User loggedUser = (User) session.getAttribute("user");
+        if (loggedUser == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Not logged in"));
+        }
+        return ResponseEntity.ok(Map.of("projects", projectService.getProjects(loggedUser.getId())));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getProject(@PathVariable Long id, HttpSession session) {
+        User loggedUser = (User) session.getAttribute("user");
+        if (loggedUser == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Not logged in"));
+        }
+        ProjectSummary project = projectService.getProject(loggedUser.getId(), id);
+        if (project == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Project not found"));
+        }
+        return ResponseEntity.ok(project);
+    }
+
+    @PostMapping
+    public ResponseEntity<?> createProject(@RequestParam String name,
+                                           @RequestParam(required = false) Long parentId,
+                                           HttpSession session) {
+        User loggedUser = (User) session.getAttribute("user");
+        if (loggedUser == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Not logged in"));
+        }
+        try {
+            Project project = projectService.createProject(loggedUser.getId(), name, parentId);
+            return ResponseEntity.status(HttpStatus.CREATED).body(projectService.getProject(loggedUser.getId(), project.getId()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/{id}/rename")
+    public ResponseEntity<?> renameProject(@PathVariable Long id, @RequestParam String name, HttpSession session) {
+        User loggedUser = (User) session.getAttribute("user");
+        if (loggedUser == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Not logged in"));
+        }
+        try {
+            if (!projectService.renameProject(loggedUser.getId(), id, name)) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Project not found"));
+            }
+            return ResponseEntity.ok(projectService.getProject(loggedUser.getId(), id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Without parentId the project becomes a top-level one
+    @PostMapping("/{id}/move")
+    public ResponseEntity<?> moveProject(@PathVariable Long id,
+                                         @RequestParam(required = false) Long parentId,
+                                         HttpSession session) {
+        User loggedUser = (User) session.getAttribute("user");
+        if (loggedUser == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Not logged in"));
+        }
+        try {
+            if (!projectService.moveProject(loggedUser.getId(), id, parentId)) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Project not found"));
+            }
+            return ResponseEntity.ok(projectService.getProject(loggedUser.getId(), id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> deleteProject(@PathVariable Long id, HttpSession session) {
+        User loggedUser = (User) session.getAttribute("user");
+        if (loggedUser == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Not logged in"));
+        }
+        try {
+            if (!projectService.deleteProject(loggedUser.getId(), id)) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Project not found"));
+            }
+            return ResponseEntity.noContent().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Put a task in the project, taking it out of any other
+    @PutMapping("/{id}/tasks/{taskId}")
+    public ResponseEntity<?> addTask(@PathVariable Long id, @PathVariable Long taskId, HttpSession session) {
+        User loggedUser = (User) session.getAttribute("user");
+        if (loggedUser == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Not logged in"));
+        }
+        // Held while the task moves, so a concurrent delete cannot leave the task in a deleted project
+        Boolean assigned = projectService.withProject(loggedUser.getId(), id, () -> taskService.assignProject(taskId, id, loggedUser));
+        if (assigned == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Project not found"));
+        }
+        if (!assigned) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Task not found"));
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/{id}/tasks/{taskId}")
+    public ResponseEntity<?> removeTask(@PathVariable Long id, @PathVariable Long taskId, HttpSession session) {
+        User loggedUser = (User) session.getAttribute("user");
+        if (loggedUser == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Not logged in"));
+        }
+        Task task = taskService.findTaskById(taskId, loggedUser);
+        if (task == null || !id.equals(task.getProjectId())) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Task not found in this project"));
+        }
+        taskService.assignProject(taskId, null, loggedUser);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.tasktracker.controller;
+
+import org.example.tasktracker.model.User;
+import org.example.tasktracker.service.ProjectService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+
+import jakarta.servlet.http.HttpSession;
+
+/**
+ * Project dashboard: the session user's project tree with rolled-up counters, and forms to create, move
+ * and delete projects.
+ */
+@Controller
+@RequestMapping("/projects")
+public class ProjectController {
+
+    @Autowired
+    private ProjectService projectService;
+
+    @GetMapping
+    public String showProjects(HttpSession session, Model model) {
+        User loggedUser = (User) session.getAttribute("user");
+        if (loggedUser == null) {
+            return "redirect:/login";
+        }
+        model.addAttribute("projects", projectService.getProjects(loggedUser.getId()));
+        return "task/projects";
+    }
+
+    @PostMapping("/add")
+    public String addProject(@RequestParam String name,
+                             @RequestParam(required = false) Long parentId,
+                             HttpSession session,
+                             RedirectAttributes redirectAttributes) {
+        User loggedUser = (User) session.getAttribute("user");
+        if (loggedUser == null) {
+            return "redirect:/login";
+        }
+        try {
+            projectService.createProject(loggedUser.getId(), name, parentId);
+            redirectAttributes.addFlashAttribute("success", "Project created");
+        } catch (IllegalArgumentException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+        }
+        return "redirect:/projects";
+    }
+
+    @PostMapping("/move/{id}")
+    public String moveProject(@PathVariable Long id,
+                              @RequestParam(required = false) Long parentId,
+                              HttpSession session,
+                              RedirectAttributes redirectAttributes) {
+        User loggedUser = (User) session.getAttribute("user");
+        if (loggedUser == null) {
+            return "redirect:/login";
+        }
+        try {
+            if (projectService.moveProject(loggedUser.getId(), id, parentId)) {
+                redirectAttributes.addFlashAttribute("success", "Project moved");
+            } else {
+                redirectAttributes.addFlashAttribute("error", "Project not found or access denied");
+            }
+        } catch (IllegalArgumentException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+        }
+        return "redirect:/projects";
+    }
+
+    @PostMapping("/delete/{id}")
+    public String deleteProject(@PathVariable Long id, HttpSession session, RedirectAttributes redirectAttributes) {
+        User loggedUser = (User) session.getAttribute("user");
+        if (loggedUser == null) {
+            return "redirect:/login";
+        }
+        try {
+            if (projectService.deleteProject(loggedUser.getId(), id)) {
+                redirectAttributes.addFlashAttribute("success", "Project deleted");
+            } else {
+                redirectAttributes.addFlashAttribute("error", "Project not found or access denied");
+            }
+        } catch (IllegalStateException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+        }
+        return "redirect:/projects";
+    }
+}
@@ -0,0 +1,166 @@
+package org.example.tasktracker.controller;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.example.tasktracker.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission control: a {@link TokenBucket} per user and endpoint class, so one runaway client cannot flood the
+ * task store with saves. Reads and writes are counted against the session user, or the client address before
+ * login; logins, registrations and password resets always against the client address. A request over its limit
+ * is answered at once with 429 and a {@code Retry-After} header, before any task work.
+ *
+ * <p>In a partitioned deployment a request is limited by the instance it is forwarded to, against the client
+ * address the forwarding instance vouches for (see {@link #CLIENT_ATTRIBUTE}) rather than the instance's own.
+ * The requests of the {@link TrafficWarmup} are not limited.</p>
+ *
+ * <p>Limits are {@code tasktracker.rate-limit.<reads|writes|auth>.per-second} and {@code .burst};
+ * {@code tasktracker.rate-limit.enabled=false} turns the filter off. Buckets that have refilled completely
+ * are dropped once a minute, which forgets nothing, as a new bucket starts full.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "tasktracker.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    enum EndpointClass {
+        READ, WRITE, AUTH
+    }
+
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+    private static final Set<String> AUTH_POSTS = Set.of("/login", "/register", "/forgot-password");
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    // Client address of a request forwarded by another instance, set by PartitionRoutingFilter once it has
+    // checked the instance's secret
+    static final String CLIENT_ATTRIBUTE = RateLimitFilter.class.getName() + ".client";
+
+    // who is a user id, or the client address
+    private record BucketKey(EndpointClass endpointClass, Object who) {
+    }
+
+    private record Limit(double perSecond, int burst) {
+        Limit {
+            if (perSecond <= 0 || burst < 1) {
+                throw new IllegalArgumentException("tasktracker.rate-limit per-second and burst settings must be positive");
+            }
+        }
+    }
+
+    private final Map<EndpointClass, Limit> limits = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter> throttled = new EnumMap<>(EndpointClass.class);
+    private final ConcurrentHashMap<BucketKey, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweep = new AtomicLong(System.nanoTime() + SWEEP_INTERVAL_NANOS);
+    private final Optional<TrafficWarmup> warmup;
+
+    @Autowired
+    public RateLimitFilter(MeterRegistry meterRegistry,
+                           Optional<TrafficWarmup> warmup,
+                           @Value("${tasktracker.rate-limit.reads.per-second:50}") double readsPerSecond,
+                           @Value("${tasktracker.rate-limit.reads.burst:100}") int readsBurst,
+                           @Value("${tasktracker.rate-limit.writes.per-second:5}") double writesPerSecond,
+                           @Value("${tasktracker.rate-limit.writes.burst:20}") int writesBurst,
+                           @Value("${tasktracker.rate-limit.auth.per-second:0.2}") double authPerSecond,
+                           @Value("${tasktracker.rate-limit.auth.burst:10}") int authBurst) {
+        this.warmup = warmup;
+        limits.put(EndpointClass.READ, new Limit(readsPerSecond, readsBurst));
+        limits.put(EndpointClass.WRITE, new Limit(writesPerSecond, writesBurst));
+        limits.put(EndpointClass.AUTH, new Limit(authPerSecond, authBurst));
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            throttled.put(endpointClass, Counter.builder("tasktracker.ratelimit.throttled")
+                    .tag("class", endpointClass.name().toLowerCase())
+                    .description("Requests refused with 429 by the rate limiter").register(meterRegistry));
+        }
+        Gauge.builder("tasktracker.ratelimit.buckets", buckets, Map::size)
+                .description("Token buckets currently tracked").register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return path.startsWith("/internal/") || path.startsWith("/actuator")
+                || warmup.map(w -> w.isWarmupRequest(request)).orElse(false);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long now = System.nanoTime();
+        sweep(now);
+
+        EndpointClass endpointClass = classify(request);
+        BucketKey key = new BucketKey(endpointClass, who(request, endpointClass));
+        TokenBucket bucket = buckets.computeIfAbsent(key, k -> {
+            Limit limit = limits.get(k.endpointClass());
+            return new TokenBucket(limit.perSecond(), limit.burst());
+        });
+        long wait = bucket.tryAcquire(now);
+        if (wait == 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        throttled.get(endpointClass).increment();
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + 999_999_999L));
+        response.setHeader("Retry-After", Long.toString(retryAfterSeconds));
+        if (request.getRequestURI().startsWith("/api/")) {
+            response.setStatus(429);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Too many requests\",\"retryAfterMillis\":"
+                    + TimeUnit.NANOSECONDS.toMillis(wait + 999_999L) + "}");
+        } else {
+            response.sendError(429, "Too many requests, retry in " + retryAfterSeconds + " s");
+        }
+    }
+
+    static EndpointClass classify(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (!READ_METHODS.contains(request.getMethod())) {
+            return AUTH_POSTS.contains(path) ? EndpointClass.AUTH : EndpointClass.WRITE;
+        }
+        for (String prefix : ReadOnlyReplicaFilter.CHANGING_GETS) {
+            if (path.startsWith(prefix)) return EndpointClass.WRITE;
+        }
+        return EndpointClass.READ;
+    }
+
+    private static Object who(HttpServletRequest request, EndpointClass endpointClass) {
+        if (endpointClass != EndpointClass.AUTH) {
+            HttpSession session = request.getSession(false);
+            User user = session == null ? null : (User) session.getAttribute("user");
+            if (user != null) return user.getId();
+        }
+        Object client = request.getAttribute(CLIENT_ATTRIBUTE);
+        return client != null ? client : request.getRemoteAddr();
+    }
+
+    // At most one thread sweeps per interval; a request racing the removal of its bucket just gets a fresh one
+    private void sweep(long now) {
+        long due = nextSweep.get();
+        if (now - due < 0 || !nextSweep.compareAndSet(due, now + SWEEP_INTERVAL_NANOS)) return;
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+}
@@ -0,0 +1,122 @@
+package org.example.tasktracker.controller;
+
+import org.example.tasktracker.model.Task;
+import org.example.tasktracker.model.User;
+import org.example.tasktracker.service.TaskService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import jakarta.servlet.http.HttpSession;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Non-blocking variant of the task JSON operations, enabled with {@code tasktracker.reactive.enabled=true}.
+ *
+ * <p>Writes return a {@link Mono} that completes when the store has acknowledged the write, so the request
+ * thread is handed back to the container while the file is saved instead of waiting on it. Concurrent writes
+ * share the store's group commit (see {@link TaskService#saveTasksAsync()}).</p>
+ */
+@RestController
+@RequestMapping("/api/reactive/tasks")
+@ConditionalOnProperty(name = "tasktracker.reactive.enabled", havingValue = "true")
+public class ReactiveTaskController {
+
+    private final TaskService taskService;
+
+    @Autowired
+    public ReactiveTaskController(TaskService taskService) {
+        this.taskService = taskService;
+    }
+
+    public record TaskView(Long id, String title, String description, String status, String priority,
+                           LocalDate dueDate, LocalDateTime createdAt, LocalDateTime completedAt) {
+
+        static TaskView of(Task task) {
+            return new TaskView(task.getId(), task.getTitle(), task.getDescription(), task.getStatus(),
+                    task.getPriority(), task.getDueDate(), task.getCreatedAt(), task.getCompletedAt());
+        }
+    }
+
+    public record CreateTaskRequest(String title, String description, String priority, LocalDate dueDate) {
+    }
+
+    /**
+     * The session user's tasks in id order, streamed as newline-delimited JSON.
+     */
+    @GetMapping(produces = "application/x-ndjson")
+    public ResponseEntity<Flux<TaskView>> listTasks(HttpSession session) {
+        User loggedUser = (User) session.getAttribute("user");
+        if (loggedUser == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(Flux.fromIterable(taskService.getTasksByUser(loggedUser)).map(TaskView::of));
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<?>> createTask(@RequestBody CreateTaskRequest request, HttpSession session) {
+        User loggedUser = (User) session.getAttribute("user");
+        if (loggedUser == null) {
+            return Mono.just(error(HttpStatus.UNAUTHORIZED, "Not logged in"));
+        }
+        if (request.title() == null || request.title().isBlank()) {
+            return Mono.just(error(HttpStatus.BAD_REQUEST, "title is required"));
+        }
+
+        Task task = new Task(request.title(), request.description(), loggedUser);
+        if (request.priority() != null) {
+            task.setPriority(request.priority());
+        }
+        task.setDueDate(request.dueDate());
+
+        return Mono.fromFuture(taskService.createTaskAsync(task))
+                .<ResponseEntity<?>>map(saved -> ResponseEntity.status(HttpStatus.CREATED).body(TaskView.of(saved)));
+    }
+
+    @PostMapping("/{id}/status")
+    public Mono<ResponseEntity<?>> updateStatus(@PathVariable Long id,
+                                                @RequestParam String status,
+                                                HttpSession session) {
+        User loggedUser = (User) session.getAttribute("user");
+        if (loggedUser == null) {
+            return Mono.just(error(HttpStatus.UNAUTHORIZED, "Not logged in"));
+        }
+        if (!TaskService.isValidStatus(status)) {
+            return Mono.just(error(HttpStatus.BAD_REQUEST, "status must be todo, in_progress or completed"));
+        }
+
+        return Mono.fromFuture(taskService.updateTaskStatusAsync(id, status, loggedUser))
+                .<ResponseEntity<?>>map(task -> ResponseEntity.ok(TaskView.of(task)))
+                .defaultIfEmpty(error(HttpStatus.NOT_FOUND, "Task not found"));
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<?>> deleteTask(@PathVariable Long id, HttpSession session) {
+        User loggedUser = (User) session.getAttribute("user");
+        if (loggedUser == null) {
+            return Mono.just(error(HttpStatus.UNAUTHORIZED, "Not logged in"));
+        }
+
+        return Mono.fromFuture(taskService.deleteTaskByIdAsync(id, loggedUser))
+                .<ResponseEntity<?>>map(deleted -> deleted
+                        ? ResponseEntity.noContent().build()
+                        : error(HttpStatus.NOT_FOUND, "Task not found"));
+    }
+
+    private static ResponseEntity<?> error(HttpStatus status, String message) {
+        return ResponseEntity.status(status).body(Map.of("error", message));
+    }
+}
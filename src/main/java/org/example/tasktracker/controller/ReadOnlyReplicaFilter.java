@@ -0,0 +1,49 @@
+package org.example.tasktracker.controller;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * On a replication follower ({@code tasktracker.replication.role=follower}) refuses every request that would
+ * change data with 403, so the replica only serves reads. Logging in stays possible, since it only touches
+ * the session, and so do the password reset form and logout.
+ */
+@Component
+@ConditionalOnProperty(name = "tasktracker.replication.role", havingValue = "follower")
+public class ReadOnlyReplicaFilter extends OncePerRequestFilter {
+
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+    private static final Set<String> ALLOWED_POSTS = Set.of("/login", "/forgot-password");
+    // Links on the dashboard and task pages that change a task with a GET; RateLimitFilter counts them as writes
+    static final List<String> CHANGING_GETS = List.of("/tasks/delete/", "/home/delete-task/", "/home/toggle-task/");
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (isChange(request)) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN, "This instance is a read-only replica");
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    private static boolean isChange(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (!READ_METHODS.contains(request.getMethod())) {
+            return !ALLOWED_POSTS.contains(path);
+        }
+        for (String prefix : CHANGING_GETS) {
+            if (path.startsWith(prefix)) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.tasktracker.controller;
+
+import org.example.tasktracker.service.Reminder;
+import org.example.tasktracker.service.ReminderSink;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Sends each reminder as a "reminder" event on the owner's open {@code /api/tasks/events} streams. Users
+ * without an open stream do not get it.
+ */
+@Component
+@ConditionalOnProperty(name = "tasktracker.reminders.sink", havingValue = "sse")
+public class SseReminderSink implements ReminderSink {
+
+    private final TaskEventBroadcaster eventBroadcaster;
+
+    @Autowired
+    public SseReminderSink(TaskEventBroadcaster eventBroadcaster) {
+        this.eventBroadcaster = eventBroadcaster;
+    }
+
+    @Override
+    public void deliver(Reminder reminder) {
+        eventBroadcaster.send(reminder.userId(), "reminder", () -> payload(reminder));
+    }
+
+    private static Map<String, Object> payload(Reminder reminder) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("kind", reminder.kind().name().toLowerCase());
+        payload.put("id", reminder.taskId());
+        payload.put("title", reminder.title());
+        payload.put("priority", reminder.priority());
+        payload.put("dueDate", reminder.dueDate() == null ? null : reminder.dueDate().toString());
+        return payload;
+    }
+}
@@ -0,0 +1,91 @@
+package org.example.tasktracker.controller;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.tasktracker.service.TaskService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Startup milestones, in milliseconds since the JVM started: application ready, all tasks loaded, and the first
+ * request served, published as {@code tasktracker.startup{phase=...}}.
+ *
+ * <p>With {@code tasktracker.startup.exit-on-ready=true} the application exits once it is ready and the tasks are
+ * loaded; the {@code fast-startup} build profile uses that for its AppCDS training run.</p>
+ */
+@Component
+public class StartupTracker extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupTracker.class);
+
+    private final TaskService taskService;
+    private final boolean exitOnReady;
+    private final long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+    private final AtomicLong readyMillis = new AtomicLong(-1);
+    private final AtomicLong loadedMillis = new AtomicLong(-1);
+    private final AtomicLong firstRequestMillis = new AtomicLong(-1);
+
+    @Autowired
+    public StartupTracker(TaskService taskService,
+                          MeterRegistry meterRegistry,
+                          @Value("${tasktracker.startup.exit-on-ready:false}") boolean exitOnReady) {
+        this.taskService = taskService;
+        this.exitOnReady = exitOnReady;
+        milestone(meterRegistry, "ready", readyMillis);
+        milestone(meterRegistry, "data-loaded", loadedMillis);
+        milestone(meterRegistry, "first-request", firstRequestMillis);
+        taskService.whenLoaded(() -> record(loadedMillis, "All tasks loaded"));
+    }
+
+    private static void milestone(MeterRegistry registry, String phase, AtomicLong millis) {
+        TimeGauge.builder("tasktracker.startup", millis, TimeUnit.MILLISECONDS, value -> value.get() < 0 ? Double.NaN : value.get())
+                .tag("phase", phase)
+                .description("Time from JVM start to the startup milestone")
+                .register(registry);
+    }
+
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        record(readyMillis, "Application ready");
+        if (exitOnReady) {
+            taskService.awaitLoaded();
+            log.info("Exiting after startup (tasktracker.startup.exit-on-ready)");
+            System.exit(SpringApplication.exit(event.getApplicationContext()));
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (firstRequestMillis.get() < 0) {
+                record(firstRequestMillis, "First request served");
+            }
+        }
+    }
+
+    private void record(AtomicLong milestone, String message) {
+        long millis = System.currentTimeMillis() - jvmStart;
+        if (milestone.compareAndSet(-1, millis)) {
+            log.info("{} {} ms after JVM start", message, millis);
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package org.example.tasktracker.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.tasktracker.model.Task;
+import org.example.tasktracker.model.User;
+import org.example.tasktracker.service.BatchResult;
+import org.example.tasktracker.model.TaskSnapshot;
+import org.example.tasktracker.service.FacetFilter;
+import org.example.tasktracker.service.ProjectService;
+import org.example.tasktracker.service.TaskActivityService;
+import org.example.tasktracker.service.TaskArchiveService;
+import org.example.tasktracker.service.TaskCursor;
+import org.example.tasktracker.service.TaskFacetService;
+import org.example.tasktracker.service.TaskImportService;
+import org.example.tasktracker.service.TaskOperation;
+import org.example.tasktracker.service.TaskPage;
+import org.example.tasktracker.service.TaskQuery;
+import org.example.tasktracker.service.TaskService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * JSON task API for the session user.
+ * Pages are selected with a bounded heap and written to the response as they are serialized.
+ */
+@RestController
+@RequestMapping("/api/tasks")
+public class TaskApiController {
+
+    static final int DEFAULT_LIMIT = 50;
+    static final int MAX_LIMIT = 500;
+    static final int EXPORT_CHUNK = 1000;
+    static final int MAX_BATCH_OPERATIONS = 1000;
+    static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final TaskService taskService;
+    private final TaskImportService taskImportService;
+    private final TaskEventBroadcaster eventBroadcaster;
+    private final TaskActivityService activityService;
+    private final TaskArchiveService archiveService;
+    private final ProjectService projectService;
+    private final TaskFacetService facetService;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public TaskApiController(TaskService taskService, TaskImportService taskImportService,
+                             TaskEventBroadcaster eventBroadcaster, TaskActivityService activityService,
+                             TaskArchiveService archiveService, ProjectService projectService,
+                             TaskFacetService facetService, ObjectMapper objectMapper) {
+        this.taskService = taskService;
+        this.taskImportService = taskImportService;
+        this.eventBroadcaster = eventBroadcaster;
+        this.activityService = activityService;
+        this.archiveService = archiveService;
+        this.projectService = projectService;
+        this.facetService = facetService;
+        this.objectMapper = objectMapper;
+    }
+
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> listTasks(@RequestParam(required = false) String search,
+                                                            @RequestParam(required = false) String priority,
+                                                            @RequestParam(required = false) String sortBy,
+                                                            @RequestParam(required = false) Long project,
+                                                            @RequestParam(required = false) String filter,
+                                                            @RequestParam(required = false) String cursor,
+                                                            @RequestParam(required = false) Integer limit,
+                                                            @RequestParam(required = false) String fields,
+                                                            HttpSession session,
+                                                            WebRequest webRequest) {
+
+        User loggedUser = (User) session.getAttribute("user");
+        if (loggedUser == null) {
+            return error(HttpStatus.UNAUTHORIZED, "Not logged in");
+        }
+
+        String etag = ViewETags.forUser(taskService, loggedUser, "api", search, priority, sortBy, project, filter, cursor, limit, fields,
+                project == null ? 0 : projectService.getVersion(loggedUser.getId()), filter == null ? null : LocalDate.now());
+        if (ViewETags.checkNotModified(webRequest, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
+        int pageSize = (limit == null) ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        TaskQuery query = TaskQuery.of(search, priority, sortBy);
+        List<Long> candidateIds = projectTaskIds(loggedUser, project);
+        if (project != null) {
+            query = query.inProjects(projectSubtree(loggedUser, project));
+        }
+
+        Set<TaskJsonWriter.Field> selectedFields;
+        TaskPage page;
+        try {
+            selectedFields = TaskJsonWriter.parseFields(fields);
+            FacetFilter facetFilter = FacetFilter.parse(filter);
+            if (facetFilter != null) {
+                query = query.withFilter(facetFilter);
+                candidateIds = facetService.select(loggedUser.getId(), facetFilter, candidateIds);
+            }
+            page = taskService.findTasksPage(loggedUser, query, candidateIds, cursor, pageSize);
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        String nextCursor = page.hasMore() ? TaskCursor.encode(page.last(), query.getSortBy()) : null;
+
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+                gen.writeStartObject();
+                gen.writeArrayFieldStart("tasks");
+                for (Task task : page.tasks()) {
+                    TaskJsonWriter.write(gen, task, selectedFields);
+                }
+                gen.writeEndArray();
+                gen.writeNumberField("count", page.tasks().size());
+                gen.writeStringField("nextCursor", nextCursor);
+                gen.writeEndObject();
+            }
+        };
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * Task counts per facet value (status, priority, due bucket and tag) among the tasks matching {@code filter}
+     * and {@code project}, e.g. {@code ?filter=tag:work AND NOT status:completed}.
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<?> facets(@RequestParam(required = false) String filter,
+                                    @RequestParam(required = false) Long project,
+                                    HttpSession session) {
+        User loggedUser = (User) session.getAttribute("user");
+        if (loggedUser == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Not logged in"));
+        }
+        FacetFilter facetFilter;
+        try {
+            facetFilter = FacetFilter.parse(filter);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        return ResponseEntity.ok(facetService.countFacets(loggedUser.getId(), facetFilter, projectTaskIds(loggedUser, project)));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTasks(HttpSession session) {
+        User loggedUser = (User) session.getAttribute("user");
+        if (loggedUser == null) {
+            return error(HttpStatus.UNAUTHORIZED, "Not logged in");
+        }
+        return ResponseEntity.ok().contentType(NDJSON).body(exportNdjson(taskService, objectMapper, loggedUser));
+    }
+
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<?> importTasks(@RequestParam(defaultValue = "" + TaskImportService.DEFAULT_BATCH_SIZE) int batchSize,
+                                         HttpServletRequest request,
+                                         HttpSession session) throws IOException {
+        User loggedUser = (User) session.getAttribute("user");
+        if (loggedUser == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Not logged in"));
+        }
+        return ResponseEntity.ok(taskImportService.importForUser(request.getReader(), loggedUser, batchSize));
+    }
+
+    /**
+     * Server-sent events with one compact "task" event per change to the session user's tasks, and a
+     * "reminder" event per due-date reminder when {@code tasktracker.reminders.sink=sse}. The first event,
+     * "ready", carries the version epoch and the user's current version; each "task" event carries its version.
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> events(HttpSession session) {
+        User loggedUser = (User) session.getAttribute("user");
+        if (loggedUser == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        Long userId = loggedUser.getId();
+        SseEmitter emitter = eventBroadcaster.subscribe(userId,
+                () -> Map.of("epoch", taskService.getVersionEpoch(), "version", taskService.getUserVersion(userId)));
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+
+    /**
+     * Tasks created and completed per bucket for the session user, e.g. {@code ?resolution=day&points=90}.
+     */
+    @GetMapping("/activity")
+    public ResponseEntity<?> activity(@RequestParam(defaultValue = "day") String resolution,
+                                      @RequestParam(defaultValue = "30") int points,
+                                      HttpSession session) {
+        User loggedUser = (User) session.getAttribute("user");
+        if (loggedUser == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Not logged in"));
+        }
+        try {
+            return ResponseEntity.ok(activityService.getActivity(loggedUser.getId(),
+                    TaskActivityService.Resolution.parse(resolution), points));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * The session user's archived tasks (see {@link TaskArchiveService}), most recently completed first.
+     * Read from the archive segments on each call.
+     */
+    @GetMapping("/archive")
+    public ResponseEntity<?> archive(@RequestParam(defaultValue = "0") int offset,
+                                     @RequestParam(defaultValue = "" + DEFAULT_LIMIT) int limit,
+                                     HttpSession session) throws IOException {
+        User loggedUser = (User) session.getAttribute("user");
+        if (loggedUser == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Not logged in"));
+        }
+        List<TaskSnapshot> history = archiveService.history(loggedUser.getId());
+        int from = Math.max(0, Math.min(offset, history.size()));
+        List<TaskSnapshot> page = history.subList(from, Math.min(history.size(), from + Math.max(1, Math.min(limit, MAX_LIMIT))));
+        return ResponseEntity.ok(Map.of("tasks", page, "count", page.size(), "total", history.size()));
+    }
+
+    public record BatchRequest(List<TaskOperation> operations) {
+    }
+
+    /**
+     * Apply many {@code {id, op, args}} operations in one request; see {@link TaskService#applyBatch}.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> batch(@RequestBody BatchRequest request, HttpSession session) {
+        User loggedUser = (User) session.getAttribute("user");
+        if (loggedUser == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Not logged in"));
+        }
+        if (request.operations() == null || request.operations().isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "operations must not be empty"));
+        }
+        if (request.operations().size() > MAX_BATCH_OPERATIONS) {
+            return ResponseEntity.badRequest().body(Map.of("error", "At most " + MAX_BATCH_OPERATIONS + " operations per batch"));
+        }
+
+        BatchResult result = taskService.applyBatch(loggedUser, request.operations());
+        return ResponseEntity.status(result.applied() ? HttpStatus.OK : HttpStatus.UNPROCESSABLE_ENTITY).body(result);
+    }
+
+    /**
+     * Stream tasks as NDJSON in id order, copying at most one chunk at a time out of the service.
+     * A null user exports every task.
+     */
+    static StreamingResponseBody exportNdjson(TaskService taskService, ObjectMapper objectMapper, User user) {
+        return out -> {
+            try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+                gen.setRootValueSeparator(null); // lines are separated by '\n' alone
+                long afterId = 0;
+                List<Task> chunk;
+                while (!(chunk = taskService.getTasksAfter(user, afterId, EXPORT_CHUNK)).isEmpty()) {
+                    for (Task task : chunk) {
+                        TaskJsonWriter.write(gen, task, TaskJsonWriter.ALL_FIELDS);
+                        gen.writeRaw('\n');
+                    }
+                    afterId = chunk.get(chunk.size() - 1).getId();
+                    gen.flush();
+                }
+            }
+        };
+    }
+
+    // The project and its sub-projects; empty if it is not the user's
+    private Set<Long> projectSubtree(User user, Long project) {
+        Set<Long> projectIds = projectService.getSubtree(user.getId(), project);
+        return projectIds == null ? Set.of() : projectIds;
+    }
+
+    // Ids of the tasks in the project's subtree, or null without a project filter
+    private List<Long> projectTaskIds(User user, Long project) {
+        return project == null ? null : projectService.getTaskIds(projectSubtree(user, project));
+    }
+
+    private ResponseEntity<StreamingResponseBody> error(HttpStatus status, String message) {
+        return jsonError(objectMapper, status, message);
+    }
+
+    // Streaming handlers must keep the StreamingResponseBody type, so errors are streamed as well
+    static ResponseEntity<StreamingResponseBody> jsonError(ObjectMapper objectMapper, HttpStatus status, String message) {
+        StreamingResponseBody body = out -> objectMapper.writeValue(out, Map.of("error", message));
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+}
@@ -2,97 +2,117 @@ package org.example.tasktracker.controller;
 
 import org.example.tasktracker.model.Task;
 import org.example.tasktracker.model.User;
+import org.example.tasktracker.service.FacetFilter;
+import org.example.tasktracker.service.ProjectService;
+import org.example.tasktracker.service.TaskFacetService;
+import org.example.tasktracker.service.TaskListing;
+import org.example.tasktracker.service.TaskQuery;
 import org.example.tasktracker.service.TaskService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import jakarta.servlet.http.HttpSession;
 import java.time.LocalDate;
-import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
 
 @Controller
 @RequestMapping("/tasks")
 public class TaskController {
 
+    private static final Logger log = LoggerFactory.getLogger(TaskController.class);
+
     @Autowired
     private TaskService taskService;
 
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private TaskFacetService facetService;
+
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 200;
+
     @GetMapping
     public String showTaskManagement(@RequestParam(required = false) String search,
                                      @RequestParam(required = false) String priority,
                                      @RequestParam(required = false) String sortBy,
-                                     HttpSession session, Model model) {
+                                     @RequestParam(required = false) Long project,
+                                     @RequestParam(required = false) String filter,
+                                     @RequestParam(defaultValue = "1") int page,
+                                     @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size,
+                                     HttpSession session, Model model, WebRequest webRequest) {
 
         User loggedUser = (User) session.getAttribute("user");
         if (loggedUser == null) {
             return "redirect:/login";
         }
 
-        // Get all tasks for the user
-        List<Task> userTasks = taskService.getTasksByUser(loggedUser);
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        int pageNumber = Math.max(1, page);
 
-        // Filter by priority if provided
-        if (priority != null && !priority.isEmpty()) {
-            userTasks.removeIf(task -> task.getPriority() == null || !task.getPriority().equalsIgnoreCase(priority));
+        // Unchanged since the client's copy: 304 without loading tasks or rendering (due buckets move with the day)
+        String etag = ViewETags.forUser(taskService, loggedUser, "tasks", search, priority, sortBy, project, filter, pageNumber, pageSize,
+                projectService.getVersion(loggedUser.getId()), LocalDate.now());
+        if (ViewETags.checkNotModified(webRequest, etag)) {
+            return null;
         }
 
-        // Filter by search term if provided
-        if (search != null && !search.isEmpty()) {
-            String lowerSearch = search.toLowerCase();
-            userTasks.removeIf(task ->
-                    (task.getTitle() == null || !task.getTitle().toLowerCase().contains(lowerSearch)) &&
-                            (task.getDescription() == null || !task.getDescription().toLowerCase().contains(lowerSearch))
-            );
+        // Filter, sort, count and cut out the page in one pass, with the same query semantics as the JSON API
+        // A project filter starts from the project index (the project and its sub-projects) instead of every task
+        TaskQuery query = TaskQuery.of(search, priority, sortBy);
+        List<Long> candidateIds = null;
+        if (project != null) {
+            Set<Long> projectIds = projectService.getSubtree(loggedUser.getId(), project);
+            if (projectIds == null) projectIds = Set.of();
+            query = query.inProjects(projectIds);
+            candidateIds = projectService.getTaskIds(projectIds);
         }
-
-        // Sorting
-        if (sortBy != null) {
-            switch (sortBy) {
-                case "title":
-                    userTasks.sort(Comparator.comparing(Task::getTitle, String.CASE_INSENSITIVE_ORDER));
-                    break;
-                case "priority":
-                    userTasks.sort(Comparator.comparingInt(task -> {
-                        if ("high".equalsIgnoreCase(task.getPriority())) return 1;
-                        if ("medium".equalsIgnoreCase(task.getPriority())) return 2;
-                        if ("low".equalsIgnoreCase(task.getPriority())) return 3;
-                        return 4; // default for null or unknown
-                    }));
-                    break;
-                case "due_date":
-                    userTasks.sort(Comparator.comparing(Task::getDueDate, Comparator.nullsLast(LocalDate::compareTo)));
-                    break;
-                case "created":
-                default:
-                    userTasks.sort(Comparator.comparing(
-                            task -> task.getCreatedAt(),
-                            Comparator.nullsLast(Comparator.naturalOrder())
-                    ));
-            }
+        List<Long> projectTaskIds = candidateIds;
+        // A facet filter narrows the candidates with bitmap operations; the query rechecks them
+        FacetFilter facetFilter = null;
+        try {
+            facetFilter = FacetFilter.parse(filter);
+        } catch (IllegalArgumentException e) {
+            model.addAttribute("filterError", e.getMessage());
+        }
+        if (facetFilter != null) {
+            query = query.withFilter(facetFilter);
+            candidateIds = facetService.select(loggedUser.getId(), facetFilter, candidateIds);
         }
+        int offset = (int) Math.min(Integer.MAX_VALUE - pageSize, (long) (pageNumber - 1) * pageSize);
+        TaskListing listing = taskService.findTaskListing(loggedUser, query, candidateIds, offset, pageSize);
 
         // Pass filtered tasks to view
-        model.addAttribute("tasks", userTasks);
+        model.addAttribute("tasks", listing.tasks());
         model.addAttribute("search", search);
         model.addAttribute("priority", priority);
         model.addAttribute("sortBy", sortBy);
+        model.addAttribute("project", project);
+        model.addAttribute("filter", filter);
+        model.addAttribute("page", pageNumber);
+        model.addAttribute("size", pageSize);
+        model.addAttribute("totalPages", listing.totalPages(pageSize));
+        model.addAttribute("matchedCount", listing.matched());
 
         // --- COUNTS FOR THYMELEAF ---
-        long completedCount = userTasks.stream().filter(Task::isCompleted).count();
-        long inProgressCount = userTasks.stream().filter(Task::isInProgress).count();
-        long todoCount = userTasks.stream().filter(t -> !t.isCompleted() && !t.isInProgress()).count();
-
-        model.addAttribute("completedCount", completedCount);
-        model.addAttribute("inProgressCount", inProgressCount);
-        model.addAttribute("todoCount", todoCount);
+        model.addAttribute("completedCount", listing.completed());
+        model.addAttribute("inProgressCount", listing.inProgress());
+        model.addAttribute("todoCount", listing.todo());
         // ----------------------------
 
-        // Projects list (empty for now)
-        model.addAttribute("projects", List.of());
+        // The user's projects, depth first, for the filter and the new task form
+        model.addAttribute("projects", projectService.getProjects(loggedUser.getId()));
+
+        // Sidebar counts per facet value within the project and facet filters (not the text search)
+        model.addAttribute("facets", facetService.countFacets(loggedUser.getId(), facetFilter, projectTaskIds));
 
         return "task/task-management";
     }
@@ -102,6 +122,8 @@ public class TaskController {
                           @RequestParam(required = false) String description,
                           @RequestParam(required = false) String priority,
                           @RequestParam(required = false) String dueDate,
+                          @RequestParam(required = false) Long projectId,
+                          @RequestParam(required = false) String tags,
                           HttpSession session,
                           RedirectAttributes redirectAttributes) {
 
@@ -121,16 +143,28 @@ public class TaskController {
                 try {
                     task.setDueDate(LocalDate.parse(dueDate));
                 } catch (Exception e) {
-                    System.out.println("Invalid date format: " + dueDate);
+                    log.debug("Invalid date format: {}", dueDate);
                 }
             }
 
-            taskService.createTask(task);
+            task.setTags(TaskService.parseTags(tags));
+
+            // Created while the project is held, so it cannot be deleted in between; outside any project if it is not the user's
+            Task created = (projectId == null) ? null : projectService.withProject(loggedUser.getId(), projectId, () -> {
+                task.setProjectId(projectId);
+                taskService.createTask(task);
+                return task;
+            });
+            if (created == null) {
+                taskService.createTask(task);
+            }
             redirectAttributes.addFlashAttribute("success", "Task added successfully");
 
+        } catch (IllegalArgumentException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("error", "Failed to add task");
-            e.printStackTrace();
+            log.error("Failed to add task", e);
         }
 
         return "redirect:/tasks";
@@ -148,30 +182,18 @@ public class TaskController {
         }
 
         try {
-            Task task = taskService.findTaskById(id, loggedUser);
-            if (task != null && task.getUser().getId().equals(loggedUser.getId())) {
-                switch (status.toLowerCase()) {
-                    case "todo":
-                        task.setCompleted(false);
-                        task.setInProgress(false);
-                        break;
-                    case "in_progress":
-                        task.setCompleted(false);
-                        task.setInProgress(true);
-                        break;
-                    case "completed":
-                        task.setCompleted(true);
-                        task.setInProgress(false);
-                        break;
-                }
-                taskService.saveTasksToFile();
+            String normalizedStatus = status.toLowerCase();
+            boolean found = TaskService.isValidStatus(normalizedStatus)
+                    ? taskService.updateTaskStatus(id, normalizedStatus, loggedUser)
+                    : taskService.findTaskById(id, loggedUser) != null; // unknown statuses leave the task as it was
+            if (found) {
                 redirectAttributes.addFlashAttribute("success", "Task status updated");
             } else {
                 redirectAttributes.addFlashAttribute("error", "Task not found or access denied");
             }
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("error", "Failed to update task status");
-            e.printStackTrace();
+            log.error("Failed to update status of task {}", id, e);
         }
 
         return "redirect:/tasks";
@@ -210,31 +232,23 @@ public class TaskController {
         }
 
         try {
-            Task task = taskService.findTaskById(id, loggedUser);
-            if (task != null && task.getUser().getId().equals(loggedUser.getId())) {
-                task.setTitle(title);
-                task.setDescription(description);
-
-                if (priority != null && !priority.isEmpty()) {
-                    task.setPriority(priority);
-                }
-
-                if (dueDate != null && !dueDate.isEmpty()) {
-                    try {
-                        task.setDueDate(LocalDate.parse(dueDate));
-                    } catch (Exception e) {
-                        System.out.println("Invalid date format: " + dueDate);
-                    }
+            LocalDate parsedDueDate = null;
+            if (dueDate != null && !dueDate.isEmpty()) {
+                try {
+                    parsedDueDate = LocalDate.parse(dueDate);
+                } catch (Exception e) {
+                    log.debug("Invalid date format: {}", dueDate);
                 }
+            }
 
-                taskService.saveTasksToFile();
+            if (taskService.updateTaskDetails(id, title, description, priority, parsedDueDate, loggedUser)) {
                 redirectAttributes.addFlashAttribute("success", "Task updated successfully");
             } else {
                 redirectAttributes.addFlashAttribute("error", "Task not found or access denied");
             }
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("error", "Failed to update task");
-            e.printStackTrace();
+            log.error("Failed to update task {}", id, e);
         }
 
         return "redirect:/tasks";
@@ -260,7 +274,7 @@ public class TaskController {
             }
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("error", "Failed to delete task");
-            e.printStackTrace();
+            log.error("Failed to delete task {}", id, e);
         }
 
         return "redirect:/tasks";
@@ -282,14 +296,11 @@ public class TaskController {
         }
 
         try {
-            Task task = taskService.findTaskById(id, loggedUser);
-            if (task != null && task.getUser().getId().equals(loggedUser.getId())) {
-                task.setCompleted(!task.isCompleted());
-                taskService.saveTasksToFile();
+            if (taskService.toggleTaskStatusForUser(id, loggedUser)) {
                 return "success";
             }
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Failed to toggle task {}", id, e);
         }
         return "error";
     }
@@ -310,7 +321,10 @@ public class TaskController {
 
     @GetMapping("/all")
     @ResponseBody
-    public List<Task> getTasks() {
+    public List<Task> getTasks(WebRequest webRequest) {
+        if (ViewETags.checkNotModified(webRequest, ViewETags.forAllTasks(taskService))) {
+            return null;
+        }
         return taskService.getAllTasks();
     }
 }
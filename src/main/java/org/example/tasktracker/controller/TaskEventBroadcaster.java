@@ -0,0 +1,211 @@
+package org.example.tasktracker.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.example.tasktracker.model.TaskSnapshot;
+import org.example.tasktracker.service.TaskChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Pushes compact task change events to the owner's open server-sent-event connections.
+ *
+ * <p>Connections are async servlet requests, so an idle one costs an emitter and a small queue, not a thread.
+ * Each connection has a bounded queue drained by a small shared pool; a client that falls so far behind
+ * that its queue fills up is disconnected (its browser reconnects and reloads), so one slow consumer
+ * never holds back the request thread that published the change or other subscribers.</p>
+ */
+@Component
+public class TaskEventBroadcaster {
+
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final int maxConnectionsPerUser;
+    private final long timeoutMillis;
+    private final ScheduledExecutorService executor;
+    private final Map<Long, Set<Subscriber>> subscribersByUser = new ConcurrentHashMap<>();
+    private final AtomicLong evictions = new AtomicLong();
+
+    @Autowired
+    public TaskEventBroadcaster(ObjectMapper objectMapper,
+                                @Value("${tasktracker.events.buffer-size:256}") int bufferSize,
+                                @Value("${tasktracker.events.max-connections-per-user:8}") int maxConnectionsPerUser,
+                                @Value("${tasktracker.events.timeout-minutes:30}") long timeoutMinutes,
+                                @Value("${tasktracker.events.heartbeat-seconds:30}") long heartbeatSeconds,
+                                @Value("${tasktracker.events.sender-threads:2}") int senderThreads) {
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.maxConnectionsPerUser = maxConnectionsPerUser;
+        this.timeoutMillis = TimeUnit.MINUTES.toMillis(timeoutMinutes);
+        this.executor = Executors.newScheduledThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "task-events");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.scheduleAtFixedRate(this::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    private final class Subscriber {
+        final Long userId;
+        final SseEmitter emitter;
+        final BlockingQueue<SseEmitter.SseEventBuilder> queue = new ArrayBlockingQueue<>(bufferSize);
+        final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscriber(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void offer(SseEmitter.SseEventBuilder event) {
+            if (!queue.offer(event)) {
+                evictions.incrementAndGet();
+                remove(this);
+                emitter.complete(); // slow consumer: drop the connection instead of buffering without bound
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+        }
+
+        void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while ((event = queue.poll()) != null) {
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                remove(this); // client went away
+            } finally {
+                draining.set(false);
+            }
+            // An event may have been queued after the last poll but before the flag was cleared
+            if (!queue.isEmpty() && draining.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+        }
+    }
+
+    /**
+     * Open an event stream for the user, or return null if the user already has too many open. The stream
+     * starts with a "ready" event carrying {@code ready}, read once the stream is registered, so the client
+     * can tell whether it missed changes since its page was rendered.
+     */
+    public SseEmitter subscribe(Long userId, Supplier<Object> ready) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(userId, emitter);
+        // Limit check and add in one step, so a concurrent remove() cannot drop the set in between
+        AtomicBoolean added = new AtomicBoolean();
+        subscribersByUser.compute(userId, (id, subscribers) -> {
+            if (subscribers == null) subscribers = ConcurrentHashMap.newKeySet();
+            if (subscribers.size() < maxConnectionsPerUser) added.set(subscribers.add(subscriber));
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+        if (!added.get()) {
+            return null;
+        }
+
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(ready.get());
+        } catch (JsonProcessingException e) {
+            json = "{}";
+        }
+        subscriber.offer(SseEmitter.event().name("ready").data(json, MediaType.APPLICATION_JSON));
+        return emitter;
+    }
+
+    @EventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        send(event.userId(), "task", () -> payload(event));
+    }
+
+    /**
+     * Send one named event to the user's open streams; the payload is only built and serialized if there are any.
+     */
+    public void send(Long userId, String name, Supplier<Object> payload) {
+        Set<Subscriber> subscribers = subscribersByUser.get(userId);
+        if (subscribers == null || subscribers.isEmpty()) return;
+
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload.get());
+        } catch (JsonProcessingException e) {
+            return;
+        }
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(SseEmitter.event().name(name).data(json, MediaType.APPLICATION_JSON));
+        }
+    }
+
+    // Compact per-task change: enough for the dashboard to patch one row and the counters
+    private static Map<String, Object> payload(TaskChangedEvent event) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("type", event.type().name().toLowerCase());
+        payload.put("id", event.taskId());
+        payload.put("version", event.userVersion());
+        payload.put("previousStatus", event.before() == null ? null : event.before().status());
+
+        TaskSnapshot after = event.after();
+        if (after != null) {
+            payload.put("status", after.status());
+            payload.put("title", after.title());
+            payload.put("description", after.description());
+            payload.put("priority", after.priority());
+            payload.put("dueDate", after.dueDate() == null ? null : after.dueDate().toString());
+        }
+        return payload;
+    }
+
+    // Periodic comment line keeps proxies from closing idle streams and reveals dead clients
+    private void heartbeat() {
+        for (Set<Subscriber> subscribers : subscribersByUser.values()) {
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(SseEmitter.event().comment("ping"));
+            }
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribersByUser.computeIfPresent(subscriber.userId, (userId, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    public int getConnectionCount() {
+        return subscribersByUser.values().stream().mapToInt(Set::size).sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        subscribersByUser.values().forEach(subscribers -> subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+    }
+}
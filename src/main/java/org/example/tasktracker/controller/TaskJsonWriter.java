@@ -0,0 +1,133 @@
+package org.example.tasktracker.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.example.tasktracker.model.Task;
+
+import java.io.IOException;
+import java.time.temporal.Temporal;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Writes tasks as flat JSON objects straight to a Jackson generator.
+ * The owner is written as {@code userId} only, never as a nested {@code User}.
+ */
+public final class TaskJsonWriter {
+
+    public enum Field {
+        ID("id"),
+        TITLE("title"),
+        DESCRIPTION("description"),
+        STATUS("status"),
+        COMPLETED("completed"),
+        IN_PROGRESS("inProgress"),
+        PRIORITY("priority"),
+        DUE_DATE("dueDate"),
+        CREATED_AT("createdAt"),
+        UPDATED_AT("updatedAt"),
+        COMPLETED_AT("completedAt"),
+        USER_ID("userId"),
+        PROJECT_ID("projectId"),
+        TAGS("tags");
+
+        private final String jsonName;
+
+        Field(String jsonName) {
+            this.jsonName = jsonName;
+        }
+
+        public String getJsonName() {
+            return jsonName;
+        }
+    }
+
+    public static final Set<Field> ALL_FIELDS = EnumSet.allOf(Field.class);
+
+    private TaskJsonWriter() {
+    }
+
+    /**
+     * Parse a comma separated {@code fields} parameter; null or blank means every field.
+     *
+     * @throws IllegalArgumentException for unknown field names
+     */
+    public static Set<Field> parseFields(String fields) {
+        if (fields == null || fields.isBlank()) return ALL_FIELDS;
+
+        Set<Field> selected = EnumSet.noneOf(Field.class);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) continue;
+            Field match = null;
+            for (Field field : Field.values()) {
+                if (field.jsonName.equals(trimmed)) {
+                    match = field;
+                    break;
+                }
+            }
+            if (match == null) throw new IllegalArgumentException("Unknown field: " + trimmed);
+            selected.add(match);
+        }
+        return selected.isEmpty() ? ALL_FIELDS : selected;
+    }
+
+    public static void write(JsonGenerator gen, Task task, Set<Field> fields) throws IOException {
+        gen.writeStartObject();
+        for (Field field : fields) {
+            switch (field) {
+                case ID:
+                    gen.writeNumberField(field.jsonName, task.getId());
+                    break;
+                case TITLE:
+                    gen.writeStringField(field.jsonName, task.getTitle());
+                    break;
+                case DESCRIPTION:
+                    gen.writeStringField(field.jsonName, task.getDescription());
+                    break;
+                case STATUS:
+                    gen.writeStringField(field.jsonName, task.getStatus());
+                    break;
+                case COMPLETED:
+                    gen.writeBooleanField(field.jsonName, task.isCompleted());
+                    break;
+                case IN_PROGRESS:
+                    gen.writeBooleanField(field.jsonName, task.isInProgress());
+                    break;
+                case PRIORITY:
+                    gen.writeStringField(field.jsonName, task.getPriority());
+                    break;
+                case DUE_DATE:
+                    writeTemporal(gen, field, task.getDueDate());
+                    break;
+                case CREATED_AT:
+                    writeTemporal(gen, field, task.getCreatedAt());
+                    break;
+                case UPDATED_AT:
+                    writeTemporal(gen, field, task.getUpdatedAt());
+                    break;
+                case COMPLETED_AT:
+                    writeTemporal(gen, field, task.getCompletedAt());
+                    break;
+                case USER_ID:
+                    if (task.getUser() == null) gen.writeNullField(field.jsonName);
+                    else gen.writeNumberField(field.jsonName, task.getUser().getId());
+                    break;
+                case PROJECT_ID:
+                    if (task.getProjectId() == null) gen.writeNullField(field.jsonName);
+                    else gen.writeNumberField(field.jsonName, task.getProjectId());
+                    break;
+                case TAGS:
+                    gen.writeArrayFieldStart(field.jsonName);
+                    for (String tag : task.getTags()) gen.writeString(tag);
+                    gen.writeEndArray();
+                    break;
+            }
+        }
+        gen.writeEndObject();
+    }
+
+    private static void writeTemporal(JsonGenerator gen, Field field, Temporal value) throws IOException {
+        if (value == null) gen.writeNullField(field.jsonName);
+        else gen.writeStringField(field.jsonName, value.toString());
+    }
+}
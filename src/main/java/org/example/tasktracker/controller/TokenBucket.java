@@ -0,0 +1,42 @@
+package org.example.tasktracker.controller;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket holding up to {@code burst} tokens that refill at {@code perSecond}. Its only state is
+ * the time at which the bucket will be full again (the "theoretical arrival time" of the generic cell rate
+ * algorithm): taking a token pushes it one refill interval further, and a token is available while it stays
+ * within {@code burst} intervals of now. One compare-and-set per admitted request, none for rejected ones.
+ */
+final class TokenBucket {
+
+    private final long nanosPerToken;
+    private final long capacityNanos;
+    private final AtomicLong fullAt = new AtomicLong(Long.MIN_VALUE);
+
+    TokenBucket(double perSecond, int burst) {
+        if (perSecond <= 0 || burst < 1) throw new IllegalArgumentException("Rate and burst must be positive");
+        this.nanosPerToken = Math.max(1, (long) (1_000_000_000L / perSecond));
+        this.capacityNanos = nanosPerToken * burst;
+    }
+
+    /**
+     * Take a token at {@code now} (from {@link System#nanoTime()}). Returns 0 when one was taken, otherwise the
+     * nanoseconds until the next token.
+     */
+    long tryAcquire(long now) {
+        while (true) {
+            long current = fullAt.get();
+            long next = (current == Long.MIN_VALUE || current - now < 0 ? now : current) + nanosPerToken;
+            long wait = next - now - capacityNanos;
+            if (wait > 0) return wait;
+            if (fullAt.compareAndSet(current, next)) return 0;
+        }
+    }
+
+    // Untouched long enough to be full again, so dropping it loses nothing
+    boolean isFull(long now) {
+        long current = fullAt.get();
+        return current == Long.MIN_VALUE || current - now <= 0;
+    }
+}
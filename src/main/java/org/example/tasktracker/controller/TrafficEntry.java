@@ -0,0 +1,66 @@
+package org.example.tasktracker.controller;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * One captured request, stored as a tab-separated line of the traffic log (see {@link TrafficRecorder}).
+ *
+ * @param offsetMillis time since the capture started
+ * @param actor        pseudonym of the logged-in user ({@code 1}, {@code 2}, ...), or {@link #ANONYMOUS}
+ * @param path         request path with task ids replaced by per-actor ordinals ({@code /tasks/toggle/#3})
+ * @param params       url-encoded parameters after anonymization; query string for GET, form body otherwise
+ * @param status       response status seen during the capture
+ */
+public record TrafficEntry(long offsetMillis, String actor, String method, String path, String params, int status) {
+
+    public static final String ANONYMOUS = "-";
+    static final String HEADER = "# tasktracker traffic v1";
+
+    String format() {
+        return offsetMillis + "\t" + actor + "\t" + method + "\t" + path + "\t" + params + "\t" + status;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the line is not a traffic log entry
+     */
+    public static TrafficEntry parse(String line) {
+        String[] fields = line.split("\t", -1);
+        if (fields.length != 6) {
+            throw new IllegalArgumentException("Expected 6 tab-separated fields: " + line);
+        }
+        return new TrafficEntry(Long.parseLong(fields[0]), fields[1], fields[2], fields[3], fields[4], Integer.parseInt(fields[5]));
+    }
+
+    // Path template shared by every request to the same handler, e.g. "POST /tasks/toggle/#"
+    public String operation() {
+        return method + " " + path.replaceAll("#\\d+", "#");
+    }
+
+    /**
+     * Read a traffic log, gzip-compressed when the name ends in {@code .gz}; comment lines start with {@code #}.
+     */
+    public static List<TrafficEntry> read(Path file) throws IOException {
+        List<TrafficEntry> entries = new ArrayList<>();
+        InputStream in = Files.newInputStream(file);
+        if (file.getFileName().toString().endsWith(".gz")) {
+            in = new GZIPInputStream(in);
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                entries.add(parse(line));
+            }
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,234 @@
+package org.example.tasktracker.controller;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.example.tasktracker.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.SecureRandom;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Records the requests handled by the page controllers (home, tasks, auth) to an anonymized traffic log that
+ * {@link TrafficReplayer} can drive against another instance. Enabled with {@code tasktracker.capture.enabled=true};
+ * the log goes to {@code tasktracker.capture.file} (gzip-compressed when it ends in {@code .gz}).
+ *
+ * <p>Nothing identifying is written: users become sequential pseudonyms, task ids become per-user ordinals,
+ * user names, e-mail addresses and passwords are dropped, and free text (titles, descriptions, searches) is
+ * replaced word by word with same-length words from a keyed hash whose key is never stored. Equal words map to
+ * equal words within one capture, so replayed searches still find the replayed titles.</p>
+ *
+ * <p>Lines are queued and written by a background thread; when the queue is full, or after
+ * {@code tasktracker.capture.max-requests}, requests are not recorded rather than slowed down.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "tasktracker.capture.enabled", havingValue = "true")
+public class TrafficRecorder extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(TrafficRecorder.class);
+
+    private static final Set<String> PATH_PREFIXES = Set.of("/home", "/tasks", "/login", "/register", "/logout", "/forgot-password");
+    // Replaced by the replayer's own identities
+    private static final Set<String> DROPPED_PARAMS = Set.of("username", "password", "email");
+    // Small closed sets of values that say nothing about the user
+    private static final Set<String> KEPT_PARAMS = Set.of("priority", "status", "sortBy", "dueDate", "page", "size");
+
+    private final long salt = new SecureRandom().nextLong();
+    private final long started = System.nanoTime();
+    private final long maxRequests;
+    private final BlockingQueue<String> queue = new ArrayBlockingQueue<>(8192);
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Map<Long, String> actors = new ConcurrentHashMap<>();
+    private final AtomicInteger actorCounter = new AtomicInteger();
+    private final Map<String, Integer> ordinals = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> ordinalCounters = new ConcurrentHashMap<>();
+    private final Writer writer;
+    private final Thread writerThread;
+    private volatile boolean closed;
+    private final AtomicBoolean finished = new AtomicBoolean();
+
+    @Autowired
+    public TrafficRecorder(@Value("${tasktracker.capture.file:traffic.log.gz}") String file,
+                           @Value("${tasktracker.capture.max-requests:1000000}") long maxRequests) throws IOException {
+        this.maxRequests = maxRequests;
+        File target = new File(file);
+        if (target.getParentFile() != null) target.getParentFile().mkdirs();
+        OutputStream out = Files.newOutputStream(target.toPath());
+        if (file.endsWith(".gz")) {
+            out = new GZIPOutputStream(out, 64 * 1024, true);
+        }
+        this.writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        writer.write(TrafficEntry.HEADER + "\n");
+
+        this.writerThread = new Thread(this::writeLoop, "traffic-recorder");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        log.info("Capturing anonymized traffic to {}", target.getAbsolutePath());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (path.equals("/")) return false;
+        for (String prefix : PATH_PREFIXES) {
+            if (path.equals(prefix) || path.startsWith(prefix + "/")) return false;
+        }
+        return true;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        // The user before the request (logout ends the session) or after it (login starts one)
+        Long userId = sessionUserId(request);
+        long offsetMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (userId == null) userId = sessionUserId(request);
+            record(request, response.getStatus(), offsetMillis, userId);
+        }
+    }
+
+    private void record(HttpServletRequest request, int status, long offsetMillis, Long userId) {
+        if (closed || recorded.get() >= maxRequests) return;
+
+        String actor = (userId == null) ? TrafficEntry.ANONYMOUS
+                : actors.computeIfAbsent(userId, id -> Integer.toString(actorCounter.incrementAndGet()));
+        TrafficEntry entry = new TrafficEntry(offsetMillis, actor, request.getMethod(),
+                anonymizePath(actor, request.getRequestURI()), anonymizeParams(request.getParameterMap()), status);
+        if (queue.offer(entry.format())) {
+            recorded.incrementAndGet();
+        } else {
+            dropped.incrementAndGet();
+        }
+    }
+
+    private static Long sessionUserId(HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        if (session == null) return null;
+        try {
+            User user = (User) session.getAttribute("user");
+            return user == null ? null : user.getId();
+        } catch (IllegalStateException e) {
+            return null; // invalidated by the request
+        }
+    }
+
+    // Numeric path segments are task ids: each actor's ids are numbered 1, 2, ... in order of first use
+    private String anonymizePath(String actor, String path) {
+        String[] segments = path.split("/", -1);
+        StringBuilder out = new StringBuilder(path.length());
+        for (int i = 0; i < segments.length; i++) {
+            if (i > 0) out.append('/');
+            String segment = segments[i];
+            if (!segment.isEmpty() && segment.chars().allMatch(Character::isDigit)) {
+                int ordinal = ordinals.computeIfAbsent(actor + ":" + segment,
+                        k -> ordinalCounters.computeIfAbsent(actor, a -> new AtomicInteger()).incrementAndGet());
+                out.append('#').append(ordinal);
+            } else {
+                out.append(segment);
+            }
+        }
+        return out.toString();
+    }
+
+    private String anonymizeParams(Map<String, String[]> params) {
+        StringBuilder out = new StringBuilder();
+        for (Map.Entry<String, String[]> param : params.entrySet()) {
+            String name = param.getKey();
+            if (DROPPED_PARAMS.contains(name)) continue;
+            for (String value : param.getValue()) {
+                if (out.length() > 0) out.append('&');
+                String recordedValue = KEPT_PARAMS.contains(name) ? value : pseudonymize(value);
+                out.append(URLEncoder.encode(name, StandardCharsets.UTF_8)).append('=')
+                        .append(URLEncoder.encode(recordedValue, StandardCharsets.UTF_8));
+            }
+        }
+        return out.toString();
+    }
+
+    // Each run of letters or digits becomes a lowercase word of the same length chosen by a keyed hash
+    String pseudonymize(String text) {
+        StringBuilder out = new StringBuilder(text.length());
+        int i = 0;
+        while (i < text.length()) {
+            if (!Character.isLetterOrDigit(text.charAt(i))) {
+                out.append(text.charAt(i++));
+                continue;
+            }
+            int end = i;
+            while (end < text.length() && Character.isLetterOrDigit(text.charAt(end))) end++;
+            String word = text.substring(i, end).toLowerCase(Locale.ROOT);
+            SplittableRandom letters = new SplittableRandom(salt ^ (word.hashCode() * 0x9E3779B97F4A7C15L));
+            for (int k = i; k < end; k++) {
+                out.append((char) ('a' + letters.nextInt(26)));
+            }
+            i = end;
+        }
+        return out.toString();
+    }
+
+    private void writeLoop() {
+        try {
+            while (!closed || !queue.isEmpty()) {
+                String line = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (line == null) continue;
+                writer.write(line);
+                writer.write('\n');
+                if (queue.isEmpty()) writer.flush();
+            }
+        } catch (IOException e) {
+            log.error("Traffic capture stopped: could not write the log", e);
+            closed = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        // Called both by the application context and by the servlet container
+        if (!finished.compareAndSet(false, true)) return;
+        closed = true;
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(10));
+            writer.close();
+        } catch (IOException e) {
+            log.error("Could not close the traffic log", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Traffic capture finished: {} requests recorded, {} dropped", recorded.get(), dropped.get());
+    }
+}
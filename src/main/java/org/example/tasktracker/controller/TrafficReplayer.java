@@ -0,0 +1,312 @@
+package org.example.tasktracker.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Drives a captured traffic log (see {@link TrafficRecorder}) against a running instance. Every actor of the log
+ * replays its requests in order on its own thread, as a synthetic user ({@code <prefix><letters>}) that is
+ * registered, or logged in if it exists from an earlier run, and is logged in again wherever the capture logged in.
+ * Task ordinals in paths are bound to the synthetic user's own tasks, creating tasks when it has too few.
+ *
+ * <p>With {@code speed} 0 requests go back to back; otherwise the capture's timing is kept, scaled by the speed.</p>
+ */
+public class TrafficReplayer {
+
+    private static final Logger log = LoggerFactory.getLogger(TrafficReplayer.class);
+
+    private static final Pattern SESSION_COOKIE = Pattern.compile("JSESSIONID=([^;]+)");
+    private static final Pattern TASK_ID = Pattern.compile("\"id\":(\\d+)");
+    private static final Pattern ORDINAL = Pattern.compile("#(\\d+)");
+    private static final String PASSWORD = "Replay1!pw";
+
+    /**
+     * Called for every replayed request with the response status (-1 on a transport error) and its latency.
+     */
+    public interface Listener {
+        void onResponse(TrafficEntry entry, int status, long nanos);
+    }
+
+    public record Result(int requests, int errors, long elapsedMillis) {
+    }
+
+    private final String baseUrl;
+    private final String identityPrefix;
+    private final double speed;
+    private final Listener listener;
+    private final HttpClient client = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final Set<String> identities = ConcurrentHashMap.newKeySet();
+    private final Map<String, String> headers = new ConcurrentHashMap<>();
+
+    public TrafficReplayer(String baseUrl, String identityPrefix, double speed, Listener listener) {
+        this.baseUrl = baseUrl;
+        this.identityPrefix = identityPrefix;
+        this.speed = speed;
+        this.listener = listener;
+    }
+
+    public Result replay(List<TrafficEntry> entries) throws InterruptedException {
+        Map<String, List<TrafficEntry>> byActor = new LinkedHashMap<>();
+        for (TrafficEntry entry : entries) {
+            byActor.computeIfAbsent(entry.actor(), k -> new ArrayList<>()).add(entry);
+        }
+
+        AtomicInteger requests = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        long started = System.nanoTime();
+        try (ExecutorService actors = Executors.newVirtualThreadPerTaskExecutor()) {
+            byActor.forEach((actor, actorEntries) -> actors.execute(() -> {
+                actorEntries.sort(Comparator.comparingLong(TrafficEntry::offsetMillis));
+                new Actor(actor).replay(actorEntries, started, requests, errors);
+            }));
+        }
+        return new Result(requests.get(), errors.get(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    /**
+     * Send a header with every replayed request, e.g. to identify the replay to the server.
+     */
+    public TrafficReplayer withHeader(String name, String value) {
+        headers.put(name, value);
+        return this;
+    }
+
+    /**
+     * Names of the synthetic users this replayer has registered or logged in, e.g. to remove them after a
+     * warm-up against live data; see {@link #emailOf}.
+     */
+    public Set<String> identities() {
+        return Set.copyOf(identities);
+    }
+
+    /**
+     * E-mail address a synthetic user is registered with; unlike its name, it identifies the user.
+     */
+    public static String emailOf(String name) {
+        return name.toLowerCase() + "@replay.invalid";
+    }
+
+    /**
+     * Replay state of one captured actor: its session and the binding of ordinals to real task ids.
+     */
+    private final class Actor {
+        final String actor;
+        String session;
+        final Map<Integer, Long> taskIds = new HashMap<>();
+        final Set<Long> boundIds = new HashSet<>();
+        List<Long> knownIds; // this user's task ids, null when they may have changed
+
+        Actor(String actor) {
+            this.actor = actor;
+        }
+
+        void replay(List<TrafficEntry> entries, long started, AtomicInteger requests, AtomicInteger errors) {
+            boolean anonymous = actor.equals(TrafficEntry.ANONYMOUS);
+            boolean loggedIn = false;
+            String name = anonymous ? null : identityPrefix + letters(Integer.parseInt(actor));
+            for (TrafficEntry entry : entries) {
+                if (speed > 0) {
+                    long due = started + (long) (TimeUnit.MILLISECONDS.toNanos(entry.offsetMillis()) / speed);
+                    long wait = due - System.nanoTime();
+                    if (wait > 0) {
+                        try {
+                            TimeUnit.NANOSECONDS.sleep(wait);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                    }
+                }
+
+                boolean authRequest = entry.path().equals("/login") || entry.path().equals("/register");
+                if (!anonymous && !loggedIn && !authRequest) {
+                    loggedIn = loggedIn(registerOrLogin(name));
+                }
+                String path = bindOrdinals(entry.path());
+                if (path == null) {
+                    errors.incrementAndGet();
+                    continue;
+                }
+
+                String params = entry.params();
+                if (name != null && entry.method().equals("POST")) {
+                    params = withIdentity(entry.path(), params, name);
+                } else if (entry.path().equals("/forgot-password") && entry.method().equals("POST")) {
+                    params = withIdentity(entry.path(), params, identityPrefix);
+                }
+                long sent = System.nanoTime();
+                HttpResponse<String> response = (name != null && entry.method().equals("POST") && authRequest)
+                        ? (entry.path().equals("/register") ? registerOrLogin(name) : login(name))
+                        : send(entry.method(), path, params);
+                if (name != null && authRequest && entry.method().equals("POST")) {
+                    loggedIn = loggedIn(response);
+                }
+                int status = (response != null) ? response.statusCode() : -1;
+                listener.onResponse(entry, status, System.nanoTime() - sent);
+                requests.incrementAndGet();
+                if (status < 0 || status >= 500 || (entry.status() < 400 && status >= 400)) {
+                    errors.incrementAndGet();
+                }
+                if (entry.path().equals("/logout")) {
+                    session = null;
+                    loggedIn = false;
+                } else if (entry.path().equals("/tasks/add") || entry.path().equals("/home/add-task")) {
+                    knownIds = null;
+                }
+            }
+        }
+
+        // Bind each new ordinal to a task of this user not bound yet, adding a task when none is left
+        private String bindOrdinals(String path) {
+            Matcher matcher = ORDINAL.matcher(path);
+            StringBuilder out = new StringBuilder();
+            while (matcher.find()) {
+                int ordinal = Integer.parseInt(matcher.group(1));
+                Long id = taskIds.get(ordinal);
+                if (id == null) {
+                    id = unboundTaskId();
+                    if (id == null) {
+                        send("POST", "/tasks/add", "title=Replay+task+" + ordinal + "&description=&priority=low&dueDate=");
+                        knownIds = null;
+                        id = unboundTaskId();
+                    }
+                    if (id == null) return null;
+                    taskIds.put(ordinal, id);
+                    boundIds.add(id);
+                }
+                matcher.appendReplacement(out, Long.toString(id));
+            }
+            matcher.appendTail(out);
+            return out.toString();
+        }
+
+        private Long unboundTaskId() {
+            if (knownIds == null) knownIds = fetchTaskIds();
+            for (Long id : knownIds) {
+                if (!boundIds.contains(id)) return id;
+            }
+            knownIds = fetchTaskIds();
+            for (Long id : knownIds) {
+                if (!boundIds.contains(id)) return id;
+            }
+            return null;
+        }
+
+        List<Long> fetchTaskIds() {
+            List<Long> ids = new ArrayList<>();
+            HttpResponse<String> response = send("GET", "/api/tasks", "fields=id&limit=" + TaskApiController.MAX_LIMIT);
+            if (response == null || response.statusCode() != 200) return ids;
+            Matcher matcher = TASK_ID.matcher(response.body());
+            while (matcher.find()) ids.add(Long.parseLong(matcher.group(1)));
+            return ids;
+        }
+
+        // Registration logs the new user in; on later runs the user exists and logs in instead
+        HttpResponse<String> registerOrLogin(String name) {
+            identities.add(name);
+            String form = "username=" + name + "&email=" + URLEncoder.encode(emailOf(name), StandardCharsets.UTF_8) + "&password="
+                    + URLEncoder.encode(PASSWORD, StandardCharsets.UTF_8);
+            HttpResponse<String> response = send("POST", "/register", form);
+            return loggedIn(response) ? response : login(name);
+        }
+
+        HttpResponse<String> login(String name) {
+            HttpResponse<String> response = send("POST", "/login", withIdentity("/login", "", name));
+            if (!loggedIn(response)) {
+                log.warn("Replay user {} could not log in", name);
+            }
+            return response;
+        }
+
+        HttpResponse<String> send(String method, String path, String params) {
+            boolean get = method.equals("GET");
+            String uri = baseUrl + path + (get && !params.isEmpty() ? "?" + params : "");
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(uri));
+            if (get) {
+                request.GET();
+            } else {
+                request.header("Content-Type", "application/x-www-form-urlencoded")
+                        .method(method, HttpRequest.BodyPublishers.ofString(params));
+            }
+            return send(request);
+        }
+
+        HttpResponse<String> send(HttpRequest.Builder request) {
+            if (session != null) request.header("Cookie", "JSESSIONID=" + session);
+            headers.forEach(request::header);
+            try {
+                HttpResponse<String> response = client.send(request.timeout(Duration.ofSeconds(30)).build(),
+                        HttpResponse.BodyHandlers.ofString());
+                String newSession = sessionOf(response);
+                if (newSession != null) session = newSession;
+                return response;
+            } catch (IOException e) {
+                return null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+    }
+
+    // Login and password reset forms get the synthetic user's credentials in place of the dropped ones
+    private static String withIdentity(String path, String params, String name) {
+        String credentials = switch (path) {
+            case "/login" -> "username=" + name + "&password=" + URLEncoder.encode(PASSWORD, StandardCharsets.UTF_8);
+            case "/forgot-password" -> "email=" + URLEncoder.encode(emailOf(name), StandardCharsets.UTF_8);
+            default -> null;
+        };
+        if (credentials == null) return params;
+        return params.isEmpty() ? credentials : params + "&" + credentials;
+    }
+
+    // Successful logins and registrations redirect to the dashboard (with ";jsessionid=..." on a new session)
+    private static boolean loggedIn(HttpResponse<?> response) {
+        return response != null && response.headers().firstValue("Location").orElse("").replaceFirst(";.*", "").endsWith("/home");
+    }
+
+    private static String sessionOf(HttpResponse<?> response) {
+        for (String cookie : response.headers().allValues("Set-Cookie")) {
+            Matcher matcher = SESSION_COOKIE.matcher(cookie);
+            if (matcher.find()) return matcher.group(1);
+        }
+        return null;
+    }
+
+    // User names may only contain letters
+    private static String letters(int n) {
+        StringBuilder letters = new StringBuilder();
+        do {
+            letters.append((char) ('a' + n % 26));
+            n /= 26;
+        } while (n > 0);
+        return letters.toString();
+    }
+}
@@ -0,0 +1,114 @@
+package org.example.tasktracker.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.example.tasktracker.model.User;
+import org.example.tasktracker.service.ProjectService;
+import org.example.tasktracker.service.TaskService;
+import org.example.tasktracker.service.UserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Replays a captured traffic log ({@code tasktracker.warmup.file}) against this instance before it takes traffic,
+ * so the request paths are JIT-compiled by the time real users arrive. The log is replayed
+ * {@code tasktracker.warmup.passes} times as fast as possible by {@code Warmup...} users, which are deleted with
+ * their tasks and projects afterwards (and, on a replication leader, from the replicas too). The replay carries
+ * a token that is valid only while it runs, by which {@link RateLimitFilter} lets it through: it comes from one
+ * address and signs in every captured actor, far beyond what one real client may.
+ *
+ * <p>This runs in the application ready listener, so the readiness probe ({@code /actuator/health/readiness})
+ * only reports the instance as accepting traffic once the warm-up is done.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "tasktracker.warmup.file")
+public class TrafficWarmup {
+
+    private static final Logger log = LoggerFactory.getLogger(TrafficWarmup.class);
+
+    static final String TOKEN_HEADER = "X-Warmup-Token";
+
+    private final UserService userService;
+    private final TaskService taskService;
+    private final ProjectService projectService;
+    private final Path file;
+    private final int passes;
+    private final String token;
+    private volatile boolean running;
+
+    @Autowired
+    public TrafficWarmup(UserService userService,
+                         TaskService taskService,
+                         ProjectService projectService,
+                         @Value("${tasktracker.warmup.file}") String file,
+                         @Value("${tasktracker.warmup.passes:3}") int passes) {
+        this.userService = userService;
+        this.taskService = taskService;
+        this.projectService = projectService;
+        this.file = Path.of(file);
+        this.passes = passes;
+        byte[] random = new byte[16];
+        new SecureRandom().nextBytes(random);
+        this.token = HexFormat.of().formatHex(random);
+    }
+
+    boolean isWarmupRequest(HttpServletRequest request) {
+        String candidate = request.getHeader(TOKEN_HEADER);
+        return running && candidate != null
+                && MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), candidate.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        String port = event.getApplicationContext().getEnvironment().getProperty("local.server.port");
+        if (port == null) {
+            log.warn("Skipping traffic warm-up: no web server port");
+            return;
+        }
+        TrafficReplayer replayer = new TrafficReplayer("http://localhost:" + port, "Warmup", 0, (entry, status, nanos) -> { })
+                .withHeader(TOKEN_HEADER, token);
+        running = true;
+        try {
+            List<TrafficEntry> entries = TrafficEntry.read(file);
+            for (int pass = 1; pass <= passes; pass++) {
+                TrafficReplayer.Result result = replayer.replay(entries);
+                log.info("Warm-up pass {}/{}: {} requests in {} ms, {} errors",
+                        pass, passes, result.requests(), result.elapsedMillis(), result.errors());
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            log.error("Skipping traffic warm-up: could not read {}", file, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            running = false;
+            removeUsers(replayer);
+        }
+    }
+
+    // Directly rather than over HTTP, so the clean-up needs no logins and cannot be turned away
+    private void removeUsers(TrafficReplayer replayer) {
+        int removed = 0;
+        for (String name : replayer.identities()) {
+            User user = userService.findByEmail(TrafficReplayer.emailOf(name));
+            if (user == null) continue;
+            taskService.removeTasksOfUser(user.getId());
+            projectService.removeProjectsOfUser(user.getId());
+            userService.deleteUserById(user.getId());
+            removed++;
+        }
+        log.info("Warm-up users removed: {}", removed);
+    }
+}
@@ -0,0 +1,46 @@
+package org.example.tasktracker.controller;
+
+import org.example.tasktracker.model.User;
+import org.example.tasktracker.service.TaskService;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.support.RequestContextUtils;
+
+import java.util.Arrays;
+
+/**
+ * Strong ETags for task views, built from the process epoch, the user id, the user's data version
+ * and the request parameters that shape the view. Computing one never touches the task collection.
+ */
+final class ViewETags {
+
+    private ViewETags() {
+    }
+
+    static String forUser(TaskService taskService, User user, Object... variant) {
+        return "\"" + Long.toString(taskService.getVersionEpoch(), 36)
+                + "-" + user.getId()
+                + "-" + taskService.getUserVersion(user.getId())
+                + "-" + Integer.toHexString(Arrays.hashCode(variant)) + "\"";
+    }
+
+    static String forAllTasks(TaskService taskService) {
+        return "\"" + Long.toString(taskService.getVersionEpoch(), 36) + "-all-" + taskService.getGlobalVersion() + "\"";
+    }
+
+    /**
+     * Answers If-None-Match; when this returns true the handler should return null and Spring sends a 304.
+     * Responses are marked private and must be revalidated, so browsers always ask but rarely download.
+     * A redirect carrying flash attributes is always rendered: a failed change leaves the version alone,
+     * and a 304 would hide its error message.
+     */
+    static boolean checkNotModified(WebRequest request, String etag) {
+        if (request instanceof ServletWebRequest servletRequest) {
+            if (servletRequest.getResponse() != null) {
+                servletRequest.getResponse().setHeader("Cache-Control", "private, no-cache");
+            }
+            if (RequestContextUtils.getInputFlashMap(servletRequest.getRequest()) != null) return false;
+        }
+        return request.checkNotModified(etag);
+    }
+}
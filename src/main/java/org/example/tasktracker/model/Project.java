@@ -0,0 +1,76 @@
+package org.example.tasktracker.model;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * A named group of one user's tasks. Projects nest: {@code parentId} is the enclosing project, or null for a
+ * top-level one. Tasks point to their project through {@link Task#getProjectId()}.
+ */
+public class Project {
+    private Long id;
+    private String name;
+    private Long parentId;
+    private Long userId;
+    private LocalDateTime createdAt;
+
+    public Project(String name, Long parentId, Long userId) {
+        this.name = name;
+        this.parentId = parentId;
+        this.userId = userId;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Long getParentId() {
+        return parentId;
+    }
+
+    public void setParentId(Long parentId) {
+        this.parentId = parentId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Project)) return false;
+        Project project = (Project) o;
+        return Objects.equals(id, project.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
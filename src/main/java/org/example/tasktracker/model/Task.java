@@ -1,13 +1,17 @@
 package org.example.tasktracker.model;
 
+import java.lang.ref.Reference;
 import java.time.LocalDateTime;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Objects;
 
 public class Task {
     private static long nextId = 1;
+    private static volatile TextArena textArena;
+
     private Long id;
-    private String title;
+    private String title;        // null while the text is in the arena
     private String description;
     private boolean completed;
     private LocalDateTime createdAt;
@@ -19,14 +23,38 @@ public class Task {
     private String priority = "low"; // low, medium, high
     private LocalDate dueDate;
     private LocalDateTime completedAt;
+    private Long projectId;      // null: not in a project
+    private List<String> tags = List.of(); // normalized by TaskService.parseTags, sorted
+
+    // Set when the task keeps its text off-heap (see useTextArena), with the handles {title, description}:
+    // `text` is replaced on every change and read by getters, `owned` is updated in place and released with the task
+    private final transient TextArena arena;
+    private transient volatile long[] text;
+    private final transient long[] owned;
 
     public static void setNextId(long nextId) {
         Task.nextId = nextId;
     }
 
+    /**
+     * Keep the title and description of tasks created from now on in {@code arena} instead of on the heap;
+     * they are decoded each time a getter is called. Null goes back to heap strings.
+     */
+    public static void useTextArena(TextArena arena) {
+        textArena = arena;
+    }
+
     public Task(String title, String description, User user) {
-        this.title = title;
-        this.description = description;
+        this.arena = textArena;
+        if (arena != null) {
+            this.text = new long[2];
+            this.owned = new long[2];
+            arena.releaseWhenUnreachable(this, owned);
+        } else {
+            this.owned = null;
+        }
+        setTitle(title);
+        setDescription(description);
         this.user = user;
         this.createdAt = LocalDateTime.now();
         this.completed = false;
@@ -44,19 +72,66 @@ public class Task {
     }
 
     public String getTitle() {
-        return title;
+        return readText(0, title);
     }
 
     public void setTitle(String title) {
-        this.title = title;
+        this.title = storeText(0, title);
     }
 
     public String getDescription() {
-        return description;
+        return readText(1, description);
     }
 
     public void setDescription(String description) {
-        this.description = description;
+        this.description = storeText(1, description);
+    }
+
+    // Search without decoding the text; the needle must be lower case
+    public boolean titleContainsIgnoreCase(String lowerNeedle) {
+        return textContainsIgnoreCase(0, title, lowerNeedle);
+    }
+
+    public boolean descriptionContainsIgnoreCase(String lowerNeedle) {
+        return textContainsIgnoreCase(1, description, lowerNeedle);
+    }
+
+    private String readText(int slot, String heapText) {
+        long[] handles = text;
+        if (handles == null || handles[slot] == TextArena.NONE) return heapText;
+        try {
+            return arena.read(handles[slot]);
+        } finally {
+            // The bytes are released once the task, or for replaced text the old array, is unreachable
+            Reference.reachabilityFence(handles);
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    private boolean textContainsIgnoreCase(int slot, String heapText, String lowerNeedle) {
+        long[] handles = text;
+        if (handles == null || handles[slot] == TextArena.NONE) return TextArena.containsIgnoreCase(heapText, lowerNeedle);
+        try {
+            return arena.containsIgnoreCase(handles[slot], lowerNeedle);
+        } finally {
+            Reference.reachabilityFence(handles);
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    // Put the value in the arena when this task uses one; returns what stays on the heap. Readers may still
+    // hold the replaced array, so the replaced text is released only when that array becomes unreachable.
+    private String storeText(int slot, String value) {
+        if (owned == null) return value;
+        long[] replaced = text;
+        long[] handles = replaced.clone();
+        handles[slot] = arena.store(value);
+        owned[slot] = handles[slot];
+        text = handles;
+        if (replaced[slot] != TextArena.NONE) {
+            arena.releaseWhenUnreachable(replaced, new long[]{replaced[slot]});
+        }
+        return handles[slot] == TextArena.NONE ? value : null;
     }
 
     public boolean isCompleted() {
@@ -106,6 +181,13 @@ public class Task {
         this.inProgress = inProgress;
     }
 
+    // Derived status, using the same names as /tasks/update-status: todo, in_progress, completed
+    public String getStatus() {
+        if (completed) return "completed";
+        if (inProgress) return "in_progress";
+        return "todo";
+    }
+
     public String getPriority() {
         return priority;
     }
@@ -130,10 +212,26 @@ public class Task {
         this.completedAt = completedAt;
     }
 
+    public Long getProjectId() {
+        return projectId;
+    }
+
+    public void setProjectId(Long projectId) {
+        this.projectId = projectId;
+    }
+
+    public List<String> getTags() {
+        return tags;
+    }
+
+    public void setTags(List<String> tags) {
+        this.tags = (tags == null) ? List.of() : List.copyOf(tags);
+    }
+
     // --- toString() ---
     @Override
     public String toString() {
-        return id + " " + title + " " + completed;
+        return id + " " + getTitle() + " " + completed;
     }
 
     // --- equals() and hashCode() → based on id ---
@@ -0,0 +1,36 @@
+package org.example.tasktracker.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Immutable copy of a task's fields at one point in time, used in change events.
+ */
+public record TaskSnapshot(Long id,
+                           Long userId,
+                           String title,
+                           String description,
+                           boolean completed,
+                           boolean inProgress,
+                           String priority,
+                           LocalDate dueDate,
+                           LocalDateTime createdAt,
+                           LocalDateTime completedAt,
+                           LocalDateTime updatedAt,
+                           Long projectId,
+                           List<String> tags) {
+
+    public static TaskSnapshot of(Task task) {
+        return new TaskSnapshot(task.getId(), task.getUser().getId(), task.getTitle(), task.getDescription(),
+                task.isCompleted(), task.isInProgress(), task.getPriority(), task.getDueDate(),
+                task.getCreatedAt(), task.getCompletedAt(), task.getUpdatedAt(), task.getProjectId(), task.getTags());
+    }
+
+    // Same names as Task.getStatus()
+    public String status() {
+        if (completed) return "completed";
+        if (inProgress) return "in_progress";
+        return "todo";
+    }
+}
@@ -0,0 +1,199 @@
+package org.example.tasktracker.model;
+
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * Off-heap store for task text: UTF-8 bytes appended to direct {@link ByteBuffer} slabs and addressed by a
+ * {@code long} handle, so titles and descriptions add little to the heap and nothing to GC marking.
+ * Enabled with {@code tasktracker.text.off-heap=true}; see {@link Task#useTextArena}.
+ *
+ * <p>A handle packs an ASCII flag, the slab number, the offset and the length; {@link #NONE} stands for
+ * "not stored here". Space is not reused piecemeal: each slab counts its live bytes, and once every text in
+ * a slab has been released the whole slab is recycled. Empty text, text that does not fit a slab, and text
+ * arriving when the direct memory limit has been reached are not stored and stay on the heap.</p>
+ *
+ * <p>Tasks are rendered outside the service's lock, for as long as a slow client takes, so text is only
+ * released once nothing can read it any more: handles are tied to an object with
+ * {@link #releaseWhenUnreachable}, and readers keep that object reachable until they are done.</p>
+ */
+public final class TextArena {
+
+    public static final long NONE = 0;
+
+    private static final int OFFSET_BITS = 24;
+    private static final int LENGTH_BITS = 25;
+    private static final int SLAB_BITS = 14;
+    private static final long ASCII_FLAG = 1L << 63;
+    private static final int MAX_SLABS = (1 << SLAB_BITS) - 1;  // slab numbers start at 1, so NONE is never a handle
+    private static final int MAX_SLAB_SIZE = 1 << OFFSET_BITS;
+
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final int slabSize;
+    private volatile ByteBuffer[] slabs = new ByteBuffer[16];  // replaced when grown, so readers need no lock
+    private int[] liveBytes = new int[16];
+    private int slabCount;
+    private final ArrayDeque<Integer> freeSlabs = new ArrayDeque<>();
+    private int current = -1;  // slab being filled
+    private int position;
+    private long live;
+
+    public TextArena(int slabSize) {
+        if (slabSize < 1024 || slabSize > MAX_SLAB_SIZE) {
+            throw new IllegalArgumentException("Slab size must be between 1 KiB and 16 MiB");
+        }
+        this.slabSize = slabSize;
+    }
+
+    /**
+     * Copy text into the arena. Returns {@link #NONE} for null and empty text, or when the text has to stay
+     * on the heap.
+     */
+    public long store(String text) {
+        if (text == null || text.isEmpty()) return NONE;  // a zero-length handle would release its slab twice
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > slabSize) return NONE;
+
+        synchronized (this) {
+            if (current < 0 || position + bytes.length > slabSize) {
+                if (!nextSlab()) return NONE;
+            }
+            slabs[current].put(position, bytes);
+            long handle = ((long) (current + 1) << (OFFSET_BITS + LENGTH_BITS)) | ((long) position << LENGTH_BITS) | bytes.length;
+            if (bytes.length == text.length()) handle |= ASCII_FLAG;  // one byte per char: nothing outside ASCII
+            position += bytes.length;
+            liveBytes[current] += bytes.length;
+            live += bytes.length;
+            return handle;
+        }
+    }
+
+    public String read(long handle) {
+        if (handle == NONE) return null;
+        byte[] bytes = new byte[length(handle)];
+        slabs[slab(handle)].get(offset(handle), bytes);
+        return new String(bytes, (handle & ASCII_FLAG) != 0 ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+    }
+
+    // Give a text's bytes back; a slab with nothing live left is recycled
+    synchronized void release(long handle) {
+        if (handle == NONE) return;
+        int slab = slab(handle);
+        liveBytes[slab] -= length(handle);
+        live -= length(handle);
+        if (liveBytes[slab] == 0) {
+            if (slab == current) {
+                position = 0;
+            } else {
+                freeSlabs.push(slab);
+            }
+        }
+    }
+
+    /**
+     * Release {@code handles} once {@code owner} is unreachable. The array is read at that time, so the
+     * owner keeps its current handles in it.
+     */
+    public Cleaner.Cleanable releaseWhenUnreachable(Object owner, long[] handles) {
+        return CLEANER.register(owner, () -> {
+            for (long handle : handles) release(handle);
+        });
+    }
+
+    /**
+     * Same result as {@link #containsIgnoreCase(String, String)} on the decoded text. ASCII text is searched in
+     * place without decoding it.
+     */
+    public boolean containsIgnoreCase(long handle, String lowerNeedle) {
+        if (handle == NONE) return false;
+        if ((handle & ASCII_FLAG) == 0 || !isAscii(lowerNeedle)) {
+            return containsIgnoreCase(read(handle), lowerNeedle);
+        }
+        ByteBuffer slab = slabs[slab(handle)];
+        int start = offset(handle);
+        int max = start + length(handle) - lowerNeedle.length();
+        for (int i = start; i <= max; i++) {
+            int j = 0;
+            while (j < lowerNeedle.length() && toLowerAscii(slab.get(i + j)) == lowerNeedle.charAt(j)) j++;
+            if (j == lowerNeedle.length()) return true;
+        }
+        return false;
+    }
+
+    // Case-insensitive substring test on a string; the needle must already be lower case
+    public static boolean containsIgnoreCase(String text, String lowerNeedle) {
+        if (text == null) return false;
+        int max = text.length() - lowerNeedle.length();
+        for (int i = 0; i <= max; i++) {
+            if (text.regionMatches(true, i, lowerNeedle, 0, lowerNeedle.length())) return true;
+        }
+        return false;
+    }
+
+    // Direct memory reserved by the slabs
+    public synchronized long allocatedBytes() {
+        return (long) slabCount * slabSize;
+    }
+
+    // Bytes of text still referenced
+    public synchronized long liveBytes() {
+        return live;
+    }
+
+    // Caller holds the monitor
+    private boolean nextSlab() {
+        if (current >= 0 && liveBytes[current] == 0) {
+            position = 0;  // the current slab is empty again; keep filling it
+            return true;
+        }
+        if (!freeSlabs.isEmpty()) {
+            current = freeSlabs.pop();
+            position = 0;
+            return true;
+        }
+        if (slabCount == MAX_SLABS) return false;
+        ByteBuffer slab;
+        try {
+            slab = ByteBuffer.allocateDirect(slabSize);
+        } catch (OutOfMemoryError e) {
+            return false;  // -XX:MaxDirectMemorySize reached
+        }
+        if (slabCount == slabs.length) {
+            liveBytes = Arrays.copyOf(liveBytes, slabCount * 2);
+            slabs = Arrays.copyOf(slabs, slabCount * 2);
+        }
+        ByteBuffer[] grown = slabs;
+        grown[slabCount] = slab;
+        slabs = grown;  // volatile write publishes the new slab
+        current = slabCount++;
+        position = 0;
+        return true;
+    }
+
+    private static int slab(long handle) {
+        return (int) ((handle >>> (OFFSET_BITS + LENGTH_BITS)) & MAX_SLABS) - 1;
+    }
+
+    private static int offset(long handle) {
+        return (int) ((handle >>> LENGTH_BITS) & (MAX_SLAB_SIZE - 1));
+    }
+
+    private static int length(long handle) {
+        return (int) (handle & ((1L << LENGTH_BITS) - 1));
+    }
+
+    private static int toLowerAscii(byte b) {
+        return (b >= 'A' && b <= 'Z') ? b + ('a' - 'A') : b;
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) return false;
+        }
+        return true;
+    }
+}
@@ -68,6 +68,14 @@ public class User {
                 this.roles = roles;
         }
 
+        public boolean hasRole(String roleName) {
+                if (roles == null) return false;
+                for (Role role : roles) {
+                        if (roleName.equals(role.getName())) return true;
+                }
+                return false;
+        }
+
         public List<Task> getTasks() {
                 return tasks;
         }
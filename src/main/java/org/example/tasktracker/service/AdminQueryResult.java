@@ -0,0 +1,17 @@
+package org.example.tasktracker.service;
+
+import org.example.tasktracker.model.Task;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of an {@link AdminTaskQuery}: aggregates over every match and the first {@code limit} matches in sort order.
+ */
+public record AdminQueryResult(long matched,
+                               Map<String, Long> byStatus,
+                               Map<String, Long> byPriority,
+                               List<Task> tasks,
+                               int chunks,
+                               long elapsedMillis) {
+}
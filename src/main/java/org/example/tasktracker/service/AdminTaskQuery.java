@@ -0,0 +1,36 @@
+package org.example.tasktracker.service;
+
+import org.example.tasktracker.model.Task;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Cross-user task filter for admin queries: the {@link TaskQuery} search/priority/sort rules plus
+ * status, owner, overdue and creation-date conditions. Absent conditions (null or false) match everything.
+ */
+public record AdminTaskQuery(TaskQuery base,
+                             String status,
+                             Long userId,
+                             boolean overdue,
+                             LocalDate createdFrom,
+                             LocalDate createdTo) {
+
+    /**
+     * @param today the date overdue is judged against, fixed for the whole query
+     */
+    public boolean matches(Task task, LocalDate today) {
+        if (userId != null && !Objects.equals(task.getUser().getId(), userId)) return false;
+        if (status != null && !status.equals(task.getStatus())) return false;
+        if (overdue && (task.isCompleted() || task.getDueDate() == null || !task.getDueDate().isBefore(today))) {
+            return false;
+        }
+        if (createdFrom != null || createdTo != null) {
+            if (task.getCreatedAt() == null) return false;
+            LocalDate created = task.getCreatedAt().toLocalDate();
+            if (createdFrom != null && created.isBefore(createdFrom)) return false;
+            if (createdTo != null && created.isAfter(createdTo)) return false;
+        }
+        return base.matches(task);
+    }
+}
@@ -0,0 +1,21 @@
+package org.example.tasktracker.service;
+
+import java.util.List;
+
+/**
+ * Outcome of a batch mutation. Batches are all-or-nothing: {@code applied} is false
+ * and nothing was changed as soon as one item has an error.
+ */
+public record BatchResult(boolean applied, List<ItemResult> results) {
+
+    public record ItemResult(Long id, String op, boolean ok, String error) {
+
+        static ItemResult ok(TaskOperation operation) {
+            return new ItemResult(operation.id(), operation.op(), true, null);
+        }
+
+        static ItemResult failed(TaskOperation operation, String error) {
+            return new ItemResult(operation.id(), operation.op(), false, error);
+        }
+    }
+}
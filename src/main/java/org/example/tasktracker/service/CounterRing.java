@@ -0,0 +1,86 @@
+package org.example.tasktracker.service;
+
+import java.util.Arrays;
+
+/**
+ * Fixed window of per-bucket counters: the {@code size} buckets up to the newest one seen. Moving the window
+ * forward drops the buckets it passes, and buckets older than the window are ignored.
+ *
+ * <p>Only buckets with a non-zero count are stored, in ascending order, so a series with a handful of events
+ * (a typical user's) costs a few entries instead of {@code size} counters, and an empty one almost nothing.
+ * Not thread-safe; callers synchronize.</p>
+ */
+final class CounterRing {
+
+    private static final long[] NO_BUCKETS = new long[0];
+    private static final int[] NO_COUNTS = new int[0];
+
+    private final int size;
+    private long head = Long.MIN_VALUE; // newest bucket the window covers
+    private long[] buckets = NO_BUCKETS;
+    private int[] counts = NO_COUNTS;
+    private int used;
+
+    CounterRing(int size) {
+        this.size = size;
+    }
+
+    void add(long bucket, int delta) {
+        advanceTo(bucket);
+        if (bucket <= head - size || delta == 0) return; // older than the window
+        int index = Arrays.binarySearch(buckets, 0, used, bucket);
+        if (index >= 0) {
+            counts[index] += delta;
+            if (counts[index] == 0) remove(index, 1);
+            return;
+        }
+        index = -(index + 1);
+        if (used == buckets.length) {
+            int capacity = Math.min(size, Math.max(4, used * 2));
+            buckets = Arrays.copyOf(buckets, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+        }
+        System.arraycopy(buckets, index, buckets, index + 1, used - index);
+        System.arraycopy(counts, index, counts, index + 1, used - index);
+        buckets[index] = bucket;
+        counts[index] = delta;
+        used++;
+    }
+
+    /**
+     * Counts for the {@code points} buckets ending at {@code lastBucket}, oldest first.
+     */
+    long[] read(long lastBucket, int points) {
+        advanceTo(lastBucket);
+        long[] result = new long[points];
+        long first = lastBucket - points + 1;
+        for (int i = 0; i < used; i++) {
+            if (buckets[i] >= first && buckets[i] <= lastBucket) {
+                result[(int) (buckets[i] - first)] = counts[i];
+            }
+        }
+        return result;
+    }
+
+    boolean isEmpty() {
+        return used == 0;
+    }
+
+    private void advanceTo(long bucket) {
+        if (bucket <= head) return;
+        head = bucket;
+        int expired = 0;
+        while (expired < used && buckets[expired] <= head - size) expired++;
+        if (expired > 0) remove(0, expired);
+    }
+
+    private void remove(int from, int count) {
+        System.arraycopy(buckets, from + count, buckets, from, used - from - count);
+        System.arraycopy(counts, from + count, counts, from, used - from - count);
+        used -= count;
+        if (used == 0) {
+            buckets = NO_BUCKETS;
+            counts = NO_COUNTS;
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package org.example.tasktracker.service;
+
+import org.example.tasktracker.model.Task;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Parsed facet filter such as {@code tag:work AND (priority:high OR due:overdue) AND NOT status:completed}.
+ * Terms are {@code tag:<tag>}, {@code status:<todo|in_progress|completed>}, {@code priority:<high|medium|low>}
+ * and {@code due:<overdue|today|week|later|none>}; {@code NOT} binds tightest, then {@code AND}, then
+ * {@code OR}, and terms written side by side are ANDed. Keywords and values are case-insensitive.
+ *
+ * <p>{@link TaskFacetService} answers a filter with bitmap operations; {@link #matches} applies the same
+ * rules to a single task, so a {@link TaskQuery} can recheck candidates.</p>
+ */
+public final class FacetFilter {
+
+    public static final String TAG = "tag";
+    public static final String STATUS = "status";
+    public static final String PRIORITY = "priority";
+    public static final String DUE = "due";
+
+    public static final List<String> STATUSES = List.of("todo", "in_progress", "completed");
+    public static final List<String> PRIORITIES = List.of("high", "medium", "low");
+    // Due buckets by date alone: overdue is before today, week the seven days after it, later beyond that
+    public static final List<String> DUE_BUCKETS = List.of("overdue", "today", "week", "later", "none");
+
+    static final int MAX_LENGTH = 1000;
+    static final int MAX_TERMS = 32;
+
+    // Every eval(facets, universe) returns a subset of universe
+    private interface Node {
+        boolean test(Task task, LocalDate today);
+
+        TaskBitmap eval(Function<String, TaskBitmap> facets, TaskBitmap universe);
+    }
+
+    private record Term(String facet, String value) implements Node {
+        String key() {
+            return facet + ":" + value;
+        }
+
+        @Override
+        public boolean test(Task task, LocalDate today) {
+            switch (facet) {
+                case TAG:
+                    return task.getTags().contains(value);
+                case STATUS:
+                    return value.equals(task.getStatus());
+                case PRIORITY:
+                    return value.equalsIgnoreCase(task.getPriority());
+                default:
+                    return value.equals(dueBucket(task.getDueDate(), today));
+            }
+        }
+
+        @Override
+        public TaskBitmap eval(Function<String, TaskBitmap> facets, TaskBitmap universe) {
+            TaskBitmap facet = facets.apply(key());
+            return facet == null ? new TaskBitmap() : TaskBitmap.and(universe, facet);
+        }
+
+        @Override
+        public String toString() {
+            return key();
+        }
+    }
+
+    private record Not(Node inner) implements Node {
+        @Override
+        public boolean test(Task task, LocalDate today) {
+            return !inner.test(task, today);
+        }
+
+        @Override
+        public TaskBitmap eval(Function<String, TaskBitmap> facets, TaskBitmap universe) {
+            return TaskBitmap.andNot(universe, inner.eval(facets, universe));
+        }
+
+        @Override
+        public String toString() {
+            return "NOT " + inner;
+        }
+    }
+
+    // Each operand is evaluated within the result so far, which narrows as the conjunction goes on
+    private record And(List<Node> operands) implements Node {
+        @Override
+        public boolean test(Task task, LocalDate today) {
+            for (Node operand : operands) {
+                if (!operand.test(task, today)) return false;
+            }
+            return true;
+        }
+
+        @Override
+        public TaskBitmap eval(Function<String, TaskBitmap> facets, TaskBitmap universe) {
+            TaskBitmap result = universe;
+            for (Node operand : operands) {
+                if (result.isEmpty()) break;
+                result = operand.eval(facets, result);
+            }
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return "(" + String.join(" AND ", operands.stream().map(Node::toString).toList()) + ")";
+        }
+    }
+
+    private record Or(List<Node> operands) implements Node {
+        @Override
+        public boolean test(Task task, LocalDate today) {
+            for (Node operand : operands) {
+                if (operand.test(task, today)) return true;
+            }
+            return false;
+        }
+
+        @Override
+        public TaskBitmap eval(Function<String, TaskBitmap> facets, TaskBitmap universe) {
+            TaskBitmap result = new TaskBitmap();
+            for (Node operand : operands) {
+                result = TaskBitmap.or(result, operand.eval(facets, universe));
+            }
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return "(" + String.join(" OR ", operands.stream().map(Node::toString).toList()) + ")";
+        }
+    }
+
+    private final Node root;
+
+    private FacetFilter(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Parse a filter expression; null or blank gives null, meaning no filter.
+     *
+     * @throws IllegalArgumentException with a message fit for the user if the expression is malformed
+     */
+    public static FacetFilter parse(String expression) {
+        if (expression == null || expression.isBlank()) return null;
+        if (expression.length() > MAX_LENGTH) {
+            throw new IllegalArgumentException("Filter is longer than " + MAX_LENGTH + " characters");
+        }
+        Parser parser = new Parser(tokenize(expression));
+        Node root = parser.parseOr();
+        if (parser.position < parser.tokens.size()) {
+            throw new IllegalArgumentException("Unexpected '" + parser.tokens.get(parser.position) + "' in filter");
+        }
+        return new FacetFilter(root);
+    }
+
+    /**
+     * @param today the date due buckets are judged against, fixed for the whole query
+     */
+    public boolean matches(Task task, LocalDate today) {
+        return root.test(task, today);
+    }
+
+    // The ids of universe that match, with facets mapping "facet:value" keys to their bitmaps (null if none)
+    TaskBitmap evaluate(Function<String, TaskBitmap> facets, TaskBitmap universe) {
+        return root.eval(facets, universe);
+    }
+
+    public static String dueBucket(LocalDate dueDate, LocalDate today) {
+        if (dueDate == null) return "none";
+        if (dueDate.isBefore(today)) return "overdue";
+        if (dueDate.isEqual(today)) return "today";
+        if (!dueDate.isAfter(today.plusDays(7))) return "week";
+        return "later";
+    }
+
+    // Fully parenthesized, with normalized keywords and values
+    @Override
+    public String toString() {
+        return root.toString();
+    }
+
+    private static List<String> tokenize(String expression) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < expression.length(); i++) {
+            char c = expression.charAt(i);
+            if (c == '(' || c == ')' || Character.isWhitespace(c)) {
+                if (word.length() > 0) {
+                    tokens.add(word.toString());
+                    word.setLength(0);
+                }
+                if (!Character.isWhitespace(c)) tokens.add(String.valueOf(c));
+            } else {
+                word.append(c);
+            }
+        }
+        if (word.length() > 0) tokens.add(word.toString());
+        return tokens;
+    }
+
+    // Recursive descent over: or := and (OR and)*, and := unary ([AND] unary)*, unary := NOT unary | ( or ) | term
+    private static final class Parser {
+        final List<String> tokens;
+        int position;
+        int terms;
+
+        Parser(List<String> tokens) {
+            this.tokens = tokens;
+        }
+
+        Node parseOr() {
+            List<Node> operands = new ArrayList<>();
+            operands.add(parseAnd());
+            while (accept("OR")) operands.add(parseAnd());
+            return operands.size() == 1 ? operands.get(0) : new Or(List.copyOf(operands));
+        }
+
+        Node parseAnd() {
+            List<Node> operands = new ArrayList<>();
+            operands.add(parseUnary());
+            while (position < tokens.size() && !peekIs("OR") && !peekIs(")")) {
+                accept("AND");
+                operands.add(parseUnary());
+            }
+            return operands.size() == 1 ? operands.get(0) : new And(List.copyOf(operands));
+        }
+
+        Node parseUnary() {
+            if (position >= tokens.size()) throw new IllegalArgumentException("Filter ends where a term is expected");
+            if (accept("NOT")) return new Not(parseUnary());
+            if (accept("(")) {
+                Node inner = parseOr();
+                if (!accept(")")) throw new IllegalArgumentException("Missing ')' in filter");
+                return inner;
+            }
+            return parseTerm(tokens.get(position++));
+        }
+
+        Node parseTerm(String token) {
+            int colon = token.indexOf(':');
+            if (colon <= 0 || colon == token.length() - 1) {
+                throw new IllegalArgumentException("Expected facet:value, found '" + token + "'");
+            }
+            if (++terms > MAX_TERMS) throw new IllegalArgumentException("At most " + MAX_TERMS + " terms per filter");
+            String facet = token.substring(0, colon).toLowerCase();
+            String value = token.substring(colon + 1).toLowerCase();
+            switch (facet) {
+                case TAG:
+                    if (!TaskService.isValidTag(value)) throw new IllegalArgumentException("Invalid tag: " + value);
+                    break;
+                case STATUS:
+                    if (!STATUSES.contains(value)) throw new IllegalArgumentException("status must be one of " + STATUSES);
+                    break;
+                case PRIORITY:
+                    if (!PRIORITIES.contains(value)) throw new IllegalArgumentException("priority must be one of " + PRIORITIES);
+                    break;
+                case DUE:
+                    if (!DUE_BUCKETS.contains(value)) throw new IllegalArgumentException("due must be one of " + DUE_BUCKETS);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown facet: " + facet + " (use tag, status, priority or due)");
+            }
+            return new Term(facet, value);
+        }
+
+        boolean peekIs(String keyword) {
+            return tokens.get(position).equalsIgnoreCase(keyword);
+        }
+
+        boolean accept(String keyword) {
+            if (position < tokens.size() && peekIs(keyword)) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+    }
+}
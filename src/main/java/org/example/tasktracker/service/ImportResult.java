@@ -0,0 +1,17 @@
+package org.example.tasktracker.service;
+
+import java.util.List;
+
+/**
+ * Summary of a bulk import; {@code errors} holds at most the first hundred rejected lines.
+ */
+public record ImportResult(long imported,
+                           long rejected,
+                           int batches,
+                           long elapsedMillis,
+                           double recordsPerSecond,
+                           List<LineError> errors) {
+
+    public record LineError(long line, String message) {
+    }
+}
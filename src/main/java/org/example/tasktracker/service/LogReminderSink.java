@@ -0,0 +1,22 @@
+package org.example.tasktracker.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes each reminder to the application log.
+ */
+@Component
+@ConditionalOnProperty(name = "tasktracker.reminders.sink", havingValue = "log", matchIfMissing = true)
+public class LogReminderSink implements ReminderSink {
+
+    private static final Logger log = LoggerFactory.getLogger(LogReminderSink.class);
+
+    @Override
+    public void deliver(Reminder reminder) {
+        log.info("Reminder {}: task {} of user {} \"{}\" due {}, priority {}", reminder.kind(), reminder.taskId(),
+                reminder.userId(), reminder.title(), reminder.dueDate(), reminder.priority());
+    }
+}
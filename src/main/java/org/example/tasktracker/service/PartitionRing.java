@@ -0,0 +1,100 @@
+package org.example.tasktracker.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Consistent-hash ring over named instances: each instance gets {@code vnodes} points on a 64-bit ring and
+ * a user belongs to the first point at or after the hash of its id. Adding or removing one instance only
+ * moves the users between it and its neighbours, about 1/n of them.
+ *
+ * <p>Written as {@code name=url} pairs separated by commas, e.g.
+ * {@code a=http://10.0.0.1:8080,b=http://10.0.0.2:8080}. Immutable; a membership change builds a new ring.</p>
+ */
+public final class PartitionRing {
+
+    private final Map<String, String> urls;
+    private final NavigableMap<Long, String> points = new TreeMap<>();
+    private final int vnodes;
+
+    private PartitionRing(Map<String, String> urls, int vnodes) {
+        this.urls = Collections.unmodifiableMap(urls);
+        this.vnodes = vnodes;
+        for (String name : urls.keySet()) {
+            for (int i = 0; i < vnodes; i++) {
+                points.put(hash(name + "#" + i), name);
+            }
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the list is empty or an entry is not {@code name=url}
+     */
+    public static PartitionRing parse(String spec, int vnodes) {
+        Map<String, String> urls = new LinkedHashMap<>();
+        for (String entry : spec.split(",")) {
+            entry = entry.trim();
+            if (entry.isEmpty()) continue;
+            int equals = entry.indexOf('=');
+            if (equals <= 0 || equals == entry.length() - 1) {
+                throw new IllegalArgumentException("Partition instances must be name=url, got " + entry);
+            }
+            String url = entry.substring(equals + 1).trim();
+            urls.put(entry.substring(0, equals).trim(), url.endsWith("/") ? url.substring(0, url.length() - 1) : url);
+        }
+        if (urls.isEmpty()) {
+            throw new IllegalArgumentException("No partition instances given");
+        }
+        return new PartitionRing(urls, vnodes);
+    }
+
+    public String ownerOf(long userId) {
+        Map.Entry<Long, String> point = points.ceilingEntry(mix(userId));
+        return (point != null ? point : points.firstEntry()).getValue();
+    }
+
+    public Set<String> names() {
+        return urls.keySet();
+    }
+
+    public boolean contains(String name) {
+        return urls.containsKey(name);
+    }
+
+    public String urlOf(String name) {
+        return urls.get(name);
+    }
+
+    public int vnodes() {
+        return vnodes;
+    }
+
+    // The name=url form accepted by parse()
+    public String spec() {
+        StringBuilder spec = new StringBuilder();
+        urls.forEach((name, url) -> spec.append(spec.length() == 0 ? "" : ",").append(name).append('=').append(url));
+        return spec.toString();
+    }
+
+    // FNV-1a over the bytes, then the same finalizer as ids so points spread over the whole ring
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    // SplitMix64 finalizer: consecutive ids land far apart
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,397 @@
+package org.example.tasktracker.service;
+
+import com.google.gson.Gson;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.tasktracker.model.Project;
+import org.example.tasktracker.model.Task;
+import org.example.tasktracker.model.TaskSnapshot;
+import org.example.tasktracker.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Splits users between several instances by consistent hashing of the user id ({@link PartitionRing}).
+ * Enabled by {@code tasktracker.partition.instances} ({@code name=url,...}); {@code tasktracker.partition.self}
+ * names this instance and {@code tasktracker.partition.secret} authenticates the instances to each other.
+ *
+ * <p>Each instance stores only the users it owns and their tasks, and gives new users ids it owns. Users that
+ * belong elsewhere, after a membership change or when starting from an unpartitioned data directory, are
+ * handed off every {@code tasktracker.partition.rebalance-millis}: the user, its projects and its tasks are
+ * sent to the new owner as NDJSON and removed here once the owner has stored them. Moved users sign in again;
+ * task and project ids are reassigned by the new owner. While a user is moving, its writes are refused (see {@link #beginWrite}), so
+ * nothing changes between the snapshot and the removal.</p>
+ *
+ * <p>A membership change ({@link #updateMembership}) is passed on to every old and new instance. It lives in
+ * memory, so {@code tasktracker.partition.instances} must be updated before the next restart.</p>
+ */
+@Service
+@ConditionalOnProperty(name = "tasktracker.partition.instances")
+public class PartitionService {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionService.class);
+
+    public static final String SECRET_HEADER = "X-Partition-Secret";
+    // Address of the client a forwarded request came from; trusted only together with the secret
+    public static final String CLIENT_HEADER = "X-Forwarded-For";
+    private static final Pattern IDS = Pattern.compile("\"ids\":\\[(\\d+)");
+
+    private static final Gson GSON = TaskService.gsonBuilder().create();
+    private static final long FENCE_TIMEOUT_MILLIS = 30_000;
+
+    private final UserService userService;
+    private final TaskService taskService;
+    private final TaskArchiveService archiveService;
+    private final ProjectService projectService;
+    private final String self;
+    private final String secret;
+    private final long rebalanceMillis;
+    private volatile PartitionRing ring;
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ScheduledExecutorService rebalancer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "partition-rebalancer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Counter usersMoved;
+    private final Counter tasksMoved;
+    private final Set<Long> moving = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Integer> writesInFlight = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PartitionService(UserService userService,
+                            TaskService taskService,
+                            TaskArchiveService archiveService,
+                            ProjectService projectService,
+                            MeterRegistry meterRegistry,
+                            @Value("${tasktracker.partition.instances}") String instances,
+                            @Value("${tasktracker.partition.self}") String self,
+                            @Value("${tasktracker.partition.secret}") String secret,
+                            @Value("${tasktracker.partition.vnodes:128}") int vnodes,
+                            @Value("${tasktracker.partition.rebalance-millis:5000}") long rebalanceMillis) {
+        this.userService = userService;
+        this.taskService = taskService;
+        this.archiveService = archiveService;
+        this.projectService = projectService;
+        this.ring = PartitionRing.parse(instances, vnodes);
+        this.self = self;
+        this.secret = secret;
+        this.rebalanceMillis = rebalanceMillis;
+        if (!ring.contains(self)) {
+            throw new IllegalArgumentException("tasktracker.partition.self (" + self + ") is not in tasktracker.partition.instances");
+        }
+        if (secret.isBlank()) {
+            throw new IllegalArgumentException("tasktracker.partition.secret must be set");
+        }
+
+        this.usersMoved = Counter.builder("tasktracker.partition.moved").tag("kind", "users")
+                .description("Users and tasks handed off to other instances").register(meterRegistry);
+        this.tasksMoved = Counter.builder("tasktracker.partition.moved").tag("kind", "tasks")
+                .description("Users and tasks handed off to other instances").register(meterRegistry);
+        Gauge.builder("tasktracker.partition.instances", this, service -> service.ring.names().size())
+                .description("Instances in the partition ring").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        userService.setUserIdFilter(this::isOwner);
+        rebalancer.scheduleWithFixedDelay(this::rebalance, rebalanceMillis, rebalanceMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        rebalancer.shutdownNow();
+    }
+
+    public String self() {
+        return self;
+    }
+
+    public PartitionRing ring() {
+        return ring;
+    }
+
+    public boolean isOwner(long userId) {
+        return ring.ownerOf(userId).equals(self);
+    }
+
+    // Marks a request to another instance as coming from a member of the partition
+    public HttpRequest.Builder authenticate(HttpRequest.Builder request) {
+        return request.header(SECRET_HEADER, secret);
+    }
+
+    public boolean isValidSecret(String candidate) {
+        return candidate != null && MessageDigest.isEqual(secret.getBytes(StandardCharsets.UTF_8), candidate.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Start a request that may change the user's data, unless the user is being handed off; every successful
+     * call must be paired with {@link #endWrite}. A writer counts itself before looking at the flag, and the
+     * handoff sets the flag before waiting for the count to drop to zero, so one of the two always sees the other.
+     *
+     * @return false if the request must be refused
+     */
+    public boolean beginWrite(Long userId) {
+        writesInFlight.merge(userId, 1, Integer::sum);
+        if (moving.contains(userId)) {
+            endWrite(userId);
+            return false;
+        }
+        return true;
+    }
+
+    public void endWrite(Long userId) {
+        writesInFlight.computeIfPresent(userId, (id, count) -> count == 1 ? null : count - 1);
+    }
+
+    /**
+     * The instance other than this one that stores a user with this name (or e-mail address), or null.
+     * Asks every other instance at once.
+     */
+    public String findInstanceWithUser(String param, String value) {
+        PartitionRing current = ring;
+        List<String> peers = new ArrayList<>();
+        List<CompletableFuture<HttpResponse<String>>> answers = new ArrayList<>();
+        for (String name : current.names()) {
+            if (name.equals(self)) continue;
+            HttpRequest request = HttpRequest.newBuilder(URI.create(current.urlOf(name) + "/internal/partition/users?"
+                            + param + "=" + URLEncoder.encode(value, StandardCharsets.UTF_8)))
+                    .header(SECRET_HEADER, secret)
+                    .timeout(Duration.ofSeconds(5))
+                    .build();
+            peers.add(name);
+            answers.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+        }
+        for (int i = 0; i < peers.size(); i++) {
+            try {
+                HttpResponse<String> answer = answers.get(i).join();
+                if (answer.statusCode() == 200 && IDS.matcher(answer.body()).find()) {
+                    return peers.get(i);
+                }
+            } catch (RuntimeException e) {
+                log.warn("User lookup on instance {} failed: {}", peers.get(i), e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Switch to a new instance list and move users accordingly. With {@code propagate} the change is sent to
+     * every instance of the old and the new list, so it can be made on any one of them.
+     *
+     * @throws IllegalArgumentException if the list is malformed
+     */
+    public void updateMembership(String instances, boolean propagate) {
+        PartitionRing previous = ring;
+        PartitionRing next = PartitionRing.parse(instances, previous.vnodes());
+        ring = next;
+        log.info("Partition membership changed from {} to {}", previous.names(), next.names());
+
+        if (propagate) {
+            Set<String> urls = new LinkedHashSet<>();
+            for (PartitionRing r : List.of(previous, next)) {
+                for (String name : r.names()) {
+                    if (!name.equals(self)) urls.add(r.urlOf(name));
+                }
+            }
+            for (String url : urls) {
+                try {
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(url + "/internal/partition/membership"))
+                            .header(SECRET_HEADER, secret)
+                            .header("Content-Type", "application/x-www-form-urlencoded")
+                            .timeout(Duration.ofSeconds(10))
+                            .POST(HttpRequest.BodyPublishers.ofString("propagate=false&instances="
+                                    + URLEncoder.encode(next.spec(), StandardCharsets.UTF_8)))
+                            .build();
+                    int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    if (status != 200) log.warn("Instance {} refused the membership change: {}", url, status);
+                } catch (IOException e) {
+                    log.warn("Could not send the membership change to {}: {}", url, e.getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+        rebalancer.execute(this::rebalance);
+    }
+
+    // Hand off every user this instance no longer owns; users whose owner cannot be reached are retried later
+    private void rebalance() {
+        PartitionRing current = ring;
+        for (User user : new ArrayList<>(userService.getAllUsers())) {
+            String owner = current.ownerOf(user.getId());
+            if (owner.equals(self)) continue;
+            try {
+                handOff(user, current.urlOf(owner));
+            } catch (IOException e) {
+                log.warn("Moving user {} to instance {} failed, will retry: {}", user.getId(), owner, e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Moving user {} to instance {} failed", user.getId(), owner, e);
+            }
+        }
+    }
+
+    private void handOff(User user, String ownerUrl) throws IOException, InterruptedException {
+        moving.add(user.getId());
+        try {
+            awaitWrites(user.getId());
+            transfer(user, ownerUrl);
+        } finally {
+            moving.remove(user.getId());
+        }
+    }
+
+    // Writes that started before the user was flagged as moving finish before the snapshot is taken
+    private void awaitWrites(Long userId) throws IOException, InterruptedException {
+        long deadline = System.currentTimeMillis() + FENCE_TIMEOUT_MILLIS;
+        while (writesInFlight.containsKey(userId)) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IOException("requests of the user are still running");
+            }
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+
+    private void transfer(User user, String ownerUrl) throws IOException, InterruptedException {
+        List<Task> tasks = taskService.getTasksByUser(user);
+        List<TaskSnapshot> archived = archiveService.history(user.getId());
+        List<Project> projects = projectService.getUsersProjects(user.getId());
+        StringBuilder ndjson = new StringBuilder(GSON.toJson(user)).append('\n');
+        ndjson.append(GSON.toJson(projects)).append('\n');
+        for (Task task : tasks) {
+            ndjson.append(GSON.toJson(TaskSnapshot.of(task))).append('\n');
+        }
+        // Archived tasks travel as live ones; the new owner archives them again on its next run
+        for (TaskSnapshot task : archived) {
+            ndjson.append(GSON.toJson(task)).append('\n');
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(ownerUrl + "/internal/partition/import"))
+                .header(SECRET_HEADER, secret)
+                .header("Content-Type", "application/x-ndjson")
+                .timeout(Duration.ofMinutes(1))
+                .POST(HttpRequest.BodyPublishers.ofString(ndjson.toString()))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("import answered " + response.statusCode() + ": " + response.body());
+        }
+
+        // The user signs in again at the new owner
+        taskService.removeTasksOfUser(user.getId());
+        archiveService.forgetUser(user.getId());
+        projectService.removeProjectsOfUser(user.getId());
+        userService.deleteUserById(user.getId());
+        usersMoved.increment();
+        tasksMoved.increment(tasks.size() + archived.size());
+        log.info("Moved user {} and {} tasks ({} archived) to {}", user.getId(), tasks.size() + archived.size(), archived.size(), ownerUrl);
+    }
+
+    /**
+     * Store a user handed off by another instance: the first line is the user, the second its projects (a JSON
+     * array, parents first), every further line one of its tasks. Anything already stored for that user id is
+     * replaced, so a repeated handoff does no harm.
+     *
+     * @return the number of tasks imported
+     * @throws IllegalArgumentException if the data is malformed or the user does not belong here
+     */
+    public int importUser(BufferedReader ndjson) throws IOException {
+        String first = ndjson.readLine();
+        User user = (first == null) ? null : GSON.fromJson(first, User.class);
+        if (user == null || user.getId() == null) {
+            throw new IllegalArgumentException("The first line must be a user");
+        }
+        if (!isOwner(user.getId())) {
+            throw new IllegalArgumentException("User " + user.getId() + " belongs to instance " + ring.ownerOf(user.getId()));
+        }
+
+        String second = ndjson.readLine();
+        Project[] projects = (second == null) ? null : GSON.fromJson(second, Project[].class);
+        if (projects == null) {
+            throw new IllegalArgumentException("The second line must be the user's projects");
+        }
+
+        List<Task> tasks = new ArrayList<>();
+        String line;
+        while ((line = ndjson.readLine()) != null) {
+            if (line.isBlank()) continue;
+            TaskSnapshot snapshot = GSON.fromJson(line, TaskSnapshot.class);
+            Task task = new Task(snapshot.title(), snapshot.description(), user);
+            task.setCompleted(snapshot.completed());
+            task.setInProgress(snapshot.inProgress());
+            task.setPriority(snapshot.priority());
+            task.setDueDate(snapshot.dueDate());
+            task.setCreatedAt(snapshot.createdAt());
+            task.setCompletedAt(snapshot.completedAt());
+            task.setUpdatedAt(snapshot.updatedAt());
+            task.setProjectId(snapshot.projectId());
+            task.setTags(snapshot.tags());
+            tasks.add(task);
+        }
+
+        userService.importUser(user);
+        taskService.removeTasksOfUser(user.getId());
+        archiveService.forgetUser(user.getId());
+        Map<Long, Long> projectIds = projectService.importProjects(user.getId(), List.of(projects));
+        for (Task task : tasks) {
+            if (task.getProjectId() != null) task.setProjectId(projectIds.get(task.getProjectId()));
+        }
+        taskService.importTasks(tasks);
+        log.info("Received user {} and {} tasks", user.getId(), tasks.size());
+        return tasks.size();
+    }
+
+    // Users stored here whose name or e-mail address matches, for findInstanceWithUser() on other instances
+    public List<Long> localUserIds(String name, String email) {
+        List<Long> ids = new ArrayList<>();
+        for (User user : userService.getAllUsers()) {
+            if ((name != null && name.equals(user.getName())) || (email != null && email.equalsIgnoreCase(user.getEmail()))) {
+                ids.add(user.getId());
+            }
+        }
+        return ids;
+    }
+
+    public Map<String, Object> status() {
+        PartitionRing current = ring;
+        return Map.of("self", self,
+                "instances", current.spec(),
+                "users", userService.getAllUsers().size(),
+                "tasks", taskService.getAllTasks().size());
+    }
+}
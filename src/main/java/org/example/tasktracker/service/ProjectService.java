@@ -0,0 +1,582 @@
+package org.example.tasktracker.service;
+
+import com.google.gson.Gson;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.example.tasktracker.model.Project;
+import org.example.tasktracker.model.TaskSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+/**
+ * Users' projects, stored in {@code <data-dir>/projects.json}, with an index of the tasks in each project and
+ * task counters kept up to date from {@link TaskChangedEvent}s, so project lists and filters never scan tasks.
+ *
+ * <p>Each project counts its own tasks and, rolled up, those of its whole subtree. A task change updates its
+ * project and the project's ancestors, and moving a project moves its subtree's counters from the old
+ * ancestors to the new ones; both cost one step per level, and nesting is limited to {@value #MAX_DEPTH}
+ * levels. Overdue counts roll forward as in {@link TaskStatisticsService}.</p>
+ *
+ * <p>Every change publishes the user's projects as a {@link ProjectsChangedEvent}, which replication ships to
+ * followers ({@link #replaceReplicated}); a partition handoff moves them with the user ({@link #importProjects}).</p>
+ */
+@Service
+public class ProjectService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProjectService.class);
+
+    static final int MAX_DEPTH = 8;
+    private static final int MAX_NAME_LENGTH = 100;
+
+    private static final Gson GSON = TaskService.gsonBuilder()
+            .setPrettyPrinting()
+            .create();
+
+    // The file keeps the next id, so ids of deleted projects are never handed out again
+    private record ProjectFile(long nextId, List<Project> projects) {
+    }
+
+    // Task counters of a project or a subtree
+    private static final class Counters {
+        long total;
+        long completed;
+        long overdue;
+        LocalDate overdueAsOf = LocalDate.now();
+        final NavigableMap<LocalDate, Long> openByDueDate = new TreeMap<>();
+
+        void apply(TaskSnapshot task, int sign) {
+            roll();
+            total += sign;
+            if (task.completed()) completed += sign;
+            if (!task.completed() && task.dueDate() != null) {
+                openByDueDate.merge(task.dueDate(), (long) sign, (a, b) -> a + b == 0 ? null : a + b);
+                if (task.dueDate().isBefore(overdueAsOf)) overdue += sign;
+            }
+        }
+
+        void add(Counters other, int sign) {
+            roll();
+            other.roll();
+            total += sign * other.total;
+            completed += sign * other.completed;
+            overdue += sign * other.overdue;
+            other.openByDueDate.forEach((date, count) ->
+                    openByDueDate.merge(date, sign * count, (a, b) -> a + b == 0 ? null : a + b));
+        }
+
+        // Count the open tasks that have fallen due since the last call
+        void roll() {
+            LocalDate today = LocalDate.now();
+            if (!today.isAfter(overdueAsOf)) return;
+            for (long count : openByDueDate.subMap(overdueAsOf, true, today, false).values()) {
+                overdue += count;
+            }
+            overdueAsOf = today;
+        }
+    }
+
+    private static final class Node {
+        final Project project;
+        Node parent;
+        final List<Node> children = new ArrayList<>();
+        final NavigableSet<Long> taskIds = new TreeSet<>();
+        final Counters own = new Counters();
+        final Counters rolledUp = new Counters();
+        int held; // changes putting tasks in the project that are under way, see withProject()
+
+        Node(Project project) {
+            this.project = project;
+        }
+
+        int depth() {
+            int depth = 0;
+            for (Node node = parent; node != null; node = node.parent) depth++;
+            return depth;
+        }
+
+        // Levels below this node, 0 for a leaf
+        int height() {
+            int height = 0;
+            for (Node child : children) height = Math.max(height, child.height() + 1);
+            return height;
+        }
+    }
+
+    private final TaskService taskService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final File file;
+    private final Map<Long, Node> nodes = new HashMap<>();
+    private final Map<Long, List<Node>> rootsByUser = new HashMap<>();
+    private final Map<Long, Long> versions = new HashMap<>();
+    private long nextId = 1;
+
+    @Autowired
+    public ProjectService(TaskService taskService,
+                          ApplicationEventPublisher eventPublisher,
+                          MeterRegistry meterRegistry,
+                          @Value("${tasktracker.data-dir:data}") String dataDir) {
+        this.taskService = taskService;
+        this.eventPublisher = eventPublisher;
+        this.file = new File(dataDir, "projects.json");
+        Gauge.builder("tasktracker.projects", this, ProjectService::projectCount)
+                .description("Projects of all users").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        load();
+        taskService.whenLoaded(this::seed);
+    }
+
+    // The scan holds the task service's read lock, so no event can slip in between
+    private synchronized void seed() {
+        taskService.forEachTask(task -> {
+            if (task.getProjectId() != null) apply(TaskSnapshot.of(task), 1);
+        });
+        log.info("Project indexes initialized for {} projects", nodes.size());
+    }
+
+    @EventListener
+    public synchronized void onTaskChanged(TaskChangedEvent event) {
+        if (event.before() != null) apply(event.before(), -1);
+        if (event.after() != null) apply(event.after(), 1);
+    }
+
+    // A task counts only in a project of its own user
+    private void apply(TaskSnapshot task, int sign) {
+        Node node = task.projectId() == null ? null : nodes.get(task.projectId());
+        if (node == null || !node.project.getUserId().equals(task.userId())) return;
+        if (sign > 0) node.taskIds.add(task.id());
+        else node.taskIds.remove(task.id());
+        node.own.apply(task, sign);
+        for (Node level = node; level != null; level = level.parent) {
+            level.rolledUp.apply(task, sign);
+        }
+    }
+
+    // Queries
+    /**
+     * The user's projects depth first, each followed by its sub-projects, in creation order at each level.
+     */
+    public synchronized List<ProjectSummary> getProjects(Long userId) {
+        List<ProjectSummary> projects = new ArrayList<>();
+        for (Node root : rootsByUser.getOrDefault(userId, List.of())) {
+            addTree(root, 0, projects);
+        }
+        return projects;
+    }
+
+    private static void addTree(Node node, int depth, List<ProjectSummary> projects) {
+        projects.add(summary(node, depth));
+        for (Node child : node.children) addTree(child, depth + 1, projects);
+    }
+
+    // Null if there is no such project or it is someone else's
+    public synchronized ProjectSummary getProject(Long userId, Long projectId) {
+        Node node = usersNode(userId, projectId);
+        return node == null ? null : summary(node, node.depth());
+    }
+
+    public synchronized boolean isUsersProject(Long userId, Long projectId) {
+        return usersNode(userId, projectId) != null;
+    }
+
+    /**
+     * Ids of the project and all its sub-projects, or null if it is not the user's.
+     */
+    public synchronized Set<Long> getSubtree(Long userId, Long projectId) {
+        Node node = usersNode(userId, projectId);
+        if (node == null) return null;
+        Set<Long> ids = new HashSet<>();
+        collect(node, ids);
+        return ids;
+    }
+
+    private static void collect(Node node, Set<Long> ids) {
+        ids.add(node.project.getId());
+        for (Node child : node.children) collect(child, ids);
+    }
+
+    /**
+     * Ids of the tasks in the given projects, ascending, from the project indexes.
+     */
+    public synchronized List<Long> getTaskIds(Set<Long> projectIds) {
+        List<Long> ids = new ArrayList<>();
+        for (Long projectId : projectIds) {
+            Node node = nodes.get(projectId);
+            if (node != null) ids.addAll(node.taskIds);
+        }
+        if (projectIds.size() > 1) ids.sort(Comparator.naturalOrder());
+        return ids;
+    }
+
+    // Changes to a user's projects, for ETags; task changes are counted by TaskService
+    public synchronized long getVersion(Long userId) {
+        return versions.getOrDefault(userId, 0L);
+    }
+
+    public synchronized int projectCount() {
+        return nodes.size();
+    }
+
+    /**
+     * Copies of the user's projects, parents before children.
+     */
+    public synchronized List<Project> getUsersProjects(Long userId) {
+        List<Project> projects = new ArrayList<>();
+        for (Node root : rootsByUser.getOrDefault(userId, List.of())) collectProjects(root, projects, true);
+        return projects;
+    }
+
+    /**
+     * Copies of every user's projects, each user's parents before children.
+     */
+    public synchronized List<Project> getAllProjects() {
+        List<Project> projects = new ArrayList<>();
+        for (List<Node> roots : rootsByUser.values()) {
+            for (Node root : roots) collectProjects(root, projects, true);
+        }
+        return projects;
+    }
+
+    private static void collectProjects(Node node, List<Project> projects, boolean copy) {
+        projects.add(copy ? copy(node.project) : node.project);
+        for (Node child : node.children) collectProjects(child, projects, copy);
+    }
+
+    private static Project copy(Project project) {
+        Project copy = new Project(project.getName(), project.getParentId(), project.getUserId());
+        copy.setId(project.getId());
+        copy.setCreatedAt(project.getCreatedAt());
+        return copy;
+    }
+
+    // Changes
+    /**
+     * Create a project, at the top level when {@code parentId} is null.
+     *
+     * @throws IllegalArgumentException if the name is blank or too long, or the parent is not one of the user's
+     *                                  projects or is already at the deepest level
+     */
+    public synchronized Project createProject(Long userId, String name, Long parentId) {
+        String trimmed = checkName(name);
+        Node parent = null;
+        if (parentId != null) {
+            parent = usersNode(userId, parentId);
+            if (parent == null) throw new IllegalArgumentException("Parent project not found");
+            if (parent.depth() + 1 >= MAX_DEPTH) {
+                throw new IllegalArgumentException("Projects can be nested at most " + MAX_DEPTH + " levels deep");
+            }
+        }
+        Project project = new Project(trimmed, parentId, userId);
+        project.setId(nextId++);
+        Node node = new Node(project);
+        nodes.put(project.getId(), node);
+        link(node, parent);
+        changed(userId);
+        return project;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the name is blank or too long
+     */
+    public synchronized boolean renameProject(Long userId, Long projectId, String name) {
+        String trimmed = checkName(name);
+        Node node = usersNode(userId, projectId);
+        if (node == null) return false;
+        node.project.setName(trimmed);
+        changed(userId);
+        return true;
+    }
+
+    /**
+     * Move a project with its sub-projects under another of the user's projects, or to the top level with null.
+     *
+     * @throws IllegalArgumentException if the new parent is not the user's, lies inside the moved project,
+     *                                  or the subtree would end up nested too deep
+     */
+    public synchronized boolean moveProject(Long userId, Long projectId, Long parentId) {
+        Node node = usersNode(userId, projectId);
+        if (node == null) return false;
+        Node parent = null;
+        if (parentId != null) {
+            parent = usersNode(userId, parentId);
+            if (parent == null) throw new IllegalArgumentException("Parent project not found");
+            for (Node level = parent; level != null; level = level.parent) {
+                if (level == node) throw new IllegalArgumentException("A project cannot be moved into itself");
+            }
+            if (parent.depth() + 1 + node.height() >= MAX_DEPTH) {
+                throw new IllegalArgumentException("Projects can be nested at most " + MAX_DEPTH + " levels deep");
+            }
+        }
+        if (node.parent == parent) return true;
+
+        for (Node level = node.parent; level != null; level = level.parent) level.rolledUp.add(node.rolledUp, -1);
+        unlink(node);
+        link(node, parent);
+        for (Node level = parent; level != null; level = level.parent) level.rolledUp.add(node.rolledUp, 1);
+        node.project.setParentId(parentId);
+        changed(userId);
+        return true;
+    }
+
+    /**
+     * Run {@code change}, which puts tasks in the user's project, while the project is held: deleting it
+     * meanwhile fails as if the tasks were already in it. Returns null without running the change if the
+     * project is not the user's.
+     */
+    public <T> T withProject(Long userId, Long projectId, Supplier<T> change) {
+        Node node;
+        synchronized (this) {
+            node = usersNode(userId, projectId);
+            if (node == null) return null;
+            node.held++;
+        }
+        // Not under the lock: the task service publishes its events to onTaskChanged() while holding its own
+        try {
+            return change.get();
+        } finally {
+            synchronized (this) {
+                node.held--;
+            }
+        }
+    }
+
+    /**
+     * Delete an empty project. Returns false if it is not the user's.
+     *
+     * @throws IllegalStateException if it still has tasks or sub-projects
+     */
+    public synchronized boolean deleteProject(Long userId, Long projectId) {
+        Node node = usersNode(userId, projectId);
+        if (node == null) return false;
+        if (!node.children.isEmpty() || !node.taskIds.isEmpty() || node.held > 0) {
+            throw new IllegalStateException("Move or delete the project's tasks and sub-projects first");
+        }
+        unlink(node);
+        nodes.remove(projectId);
+        changed(userId);
+        return true;
+    }
+
+    /**
+     * Store the projects of a user handed off by another instance (see {@link PartitionService}), replacing any
+     * the user has here. Project ids are only unique per instance, so the projects get new ids; returns the new
+     * id of each old one, for the user's tasks. Call it once the user's tasks here are gone.
+     */
+    public synchronized Map<Long, Long> importProjects(Long userId, List<Project> projects) {
+        removeNodesOfUser(userId);
+        Map<Long, Long> ids = new HashMap<>();
+        for (Project project : projects) ids.put(project.getId(), nextId++);
+        List<Node> added = new ArrayList<>();
+        for (Project project : projects) {
+            Project imported = new Project(project.getName(), ids.get(project.getParentId()), userId);
+            imported.setId(ids.get(project.getId()));
+            imported.setCreatedAt(project.getCreatedAt());
+            Node node = new Node(imported);
+            nodes.put(imported.getId(), node);
+            added.add(node);
+        }
+        linkAll(added);
+        changed(userId);
+        return ids;
+    }
+
+    /**
+     * Delete all of a user's projects, e.g. once the user has moved to another instance.
+     */
+    public synchronized void removeProjectsOfUser(Long userId) {
+        if (removeNodesOfUser(userId)) changed(userId);
+    }
+
+    /**
+     * Replace a user's projects, or every user's with a null {@code userId}, with the replication leader's.
+     * Ids are the leader's, so replicated tasks stay in their projects. Called by the replication thread, the
+     * only writer on a follower, so no task changes between the scan and the rebuild; nothing is saved.
+     */
+    public void replaceReplicated(Long userId, List<Project> projects) {
+        List<TaskSnapshot> inProjects = new ArrayList<>();
+        taskService.forEachTask(task -> {
+            if (task.getProjectId() != null && (userId == null || userId.equals(task.getUser().getId()))) {
+                inProjects.add(TaskSnapshot.of(task));
+            }
+        });
+        synchronized (this) {
+            Set<Long> users = new HashSet<>();
+            if (userId == null) {
+                users.addAll(rootsByUser.keySet());
+                nodes.clear();
+                rootsByUser.clear();
+            } else {
+                users.add(userId);
+                removeNodesOfUser(userId);
+            }
+            List<Node> added = new ArrayList<>();
+            for (Project project : projects) {
+                Node node = new Node(copy(project));
+                nodes.put(project.getId(), node);
+                added.add(node);
+                users.add(project.getUserId());
+                nextId = Math.max(nextId, project.getId() + 1);
+            }
+            linkAll(added);
+            for (TaskSnapshot task : inProjects) apply(task, 1);
+            for (Long user : users) versions.merge(user, 1L, Long::sum);
+        }
+    }
+
+    // Caller holds the monitor; returns whether the user had any
+    private boolean removeNodesOfUser(Long userId) {
+        List<Node> roots = rootsByUser.remove(userId);
+        if (roots == null) return false;
+        List<Project> projects = new ArrayList<>();
+        for (Node root : roots) collectProjects(root, projects, false);
+        for (Project project : projects) nodes.remove(project.getId());
+        return true;
+    }
+
+    private static String checkName(String name) {
+        String trimmed = name == null ? "" : name.trim();
+        if (trimmed.isEmpty()) throw new IllegalArgumentException("Project name is required");
+        if (trimmed.length() > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("Project name must be at most " + MAX_NAME_LENGTH + " characters");
+        }
+        return trimmed;
+    }
+
+    private Node usersNode(Long userId, Long projectId) {
+        Node node = projectId == null ? null : nodes.get(projectId);
+        return (node != null && node.project.getUserId().equals(userId)) ? node : null;
+    }
+
+    private void link(Node node, Node parent) {
+        node.parent = parent;
+        if (parent != null) {
+            parent.children.add(node);
+        } else {
+            rootsByUser.computeIfAbsent(node.project.getUserId(), k -> new ArrayList<>()).add(node);
+        }
+    }
+
+    private void unlink(Node node) {
+        if (node.parent != null) {
+            node.parent.children.remove(node);
+        } else {
+            List<Node> roots = rootsByUser.get(node.project.getUserId());
+            roots.remove(node);
+            if (roots.isEmpty()) rootsByUser.remove(node.project.getUserId());
+        }
+        node.parent = null;
+    }
+
+    private static ProjectSummary summary(Node node, int depth) {
+        node.own.roll();
+        node.rolledUp.roll();
+        Project project = node.project;
+        return new ProjectSummary(project.getId(), project.getName(), project.getParentId(), depth,
+                node.own.total, node.own.completed, node.own.overdue,
+                node.rolledUp.total, node.rolledUp.completed, node.rolledUp.overdue);
+    }
+
+    // Persistence
+    private void changed(Long userId) {
+        versions.merge(userId, 1L, Long::sum);
+        save();
+        List<Project> projects = new ArrayList<>();
+        for (Node root : rootsByUser.getOrDefault(userId, List.of())) collectProjects(root, projects, false);
+        eventPublisher.publishEvent(new ProjectsChangedEvent(userId, projects));
+    }
+
+    // Caller holds the monitor; the file is small, so it is rewritten on every change
+    private void save() {
+        List<Project> projects = new ArrayList<>();
+        for (Node node : nodes.values()) projects.add(node.project);
+        projects.sort(Comparator.comparing(Project::getId));
+        File temp = new File(file.getPath() + ".tmp");
+        file.getParentFile().mkdirs();
+        try (Writer writer = Files.newBufferedWriter(temp.toPath(), StandardCharsets.UTF_8)) {
+            GSON.toJson(new ProjectFile(nextId, projects), writer);
+        } catch (IOException e) {
+            log.error("Failed to write {}", temp.getAbsolutePath(), e);
+            return;
+        }
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error("Failed to replace {}", file.getAbsolutePath(), e);
+        }
+    }
+
+    private boolean reachesTop(Node node) {
+        Long parentId = node.project.getParentId();
+        for (int steps = 0; parentId != null; steps++) {
+            Node parent = nodes.get(parentId);
+            if (parent == null) return true;
+            if (steps == nodes.size()) return false;
+            parentId = parent.project.getParentId();
+        }
+        return true;
+    }
+
+    private synchronized void load() {
+        if (!file.exists() || file.length() == 0) return;
+        ProjectFile stored;
+        try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            stored = GSON.fromJson(reader, ProjectFile.class);
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to load projects from {}", file.getAbsolutePath(), e);
+            return;
+        }
+        if (stored == null || stored.projects() == null) return;
+
+        for (Project project : stored.projects()) {
+            nodes.put(project.getId(), new Node(project));
+            nextId = Math.max(nextId, project.getId() + 1);
+        }
+        nextId = Math.max(nextId, stored.nextId());
+        linkAll(new ArrayList<>(nodes.values()));
+        log.info("Loaded {} projects from {}", nodes.size(), file.getAbsolutePath());
+    }
+
+    // Link nodes just put in `nodes`, in creation order at every level; a project whose parent is missing,
+    // someone else's or part of a cycle becomes a top-level one
+    private void linkAll(List<Node> added) {
+        List<Node> inOrder = new ArrayList<>(added);
+        inOrder.sort(Comparator.comparing(node -> node.project.getId()));
+        for (Node node : inOrder) {
+            Node parent = node.project.getParentId() == null ? null : nodes.get(node.project.getParentId());
+            if (parent != null && (!parent.project.getUserId().equals(node.project.getUserId()) || !reachesTop(node))) {
+                parent = null;
+            }
+            if (parent == null) node.project.setParentId(null);
+            link(node, parent);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package org.example.tasktracker.service;
+
+/**
+ * One project as listed by {@link ProjectService}: {@code depth} is 0 for top-level projects, the plain counters
+ * cover the project's own tasks and the {@code rolledUp} ones also those of every sub-project below it.
+ */
+public record ProjectSummary(Long id,
+                             String name,
+                             Long parentId,
+                             int depth,
+                             long tasks,
+                             long completed,
+                             long overdue,
+                             long rolledUpTasks,
+                             long rolledUpCompleted,
+                             long rolledUpOverdue) {
+}
@@ -0,0 +1,13 @@
+package org.example.tasktracker.service;
+
+import org.example.tasktracker.model.Project;
+
+import java.util.List;
+
+/**
+ * Published by {@link ProjectService} after any change to a user's projects, with all of that user's projects,
+ * parents before children. Published while the service's lock is held, so listeners see changes in order;
+ * the projects are the live objects, so listeners that keep them past the event must copy them.
+ */
+public record ProjectsChangedEvent(Long userId, List<Project> projects) {
+}
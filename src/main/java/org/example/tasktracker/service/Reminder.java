@@ -0,0 +1,16 @@
+package org.example.tasktracker.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A due-date reminder raised by {@link ReminderService}. {@code priority} is the task's priority after any
+ * escalation that came with the reminder.
+ */
+public record Reminder(Kind kind, Long taskId, Long userId, String title, String priority, LocalDate dueDate,
+                       LocalDateTime raisedAt) {
+
+    public enum Kind {
+        DUE_SOON, DUE, OVERDUE, ESCALATED
+    }
+}
@@ -0,0 +1,244 @@
+package org.example.tasktracker.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.tasktracker.model.TaskSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Due-date reminders and priority escalation for open tasks, without scanning: each task with a due date has
+ * one pending timer in a {@link TimingWheel}, set from {@link TaskChangedEvent}s, for the next of these stages:
+ * <ul>
+ *   <li>DUE_SOON, {@code tasktracker.reminders.lead-hours} (default 24, 0 for none) before the due date starts;</li>
+ *   <li>DUE, when the due date starts;</li>
+ *   <li>OVERDUE, when the due date has passed; the priority is raised one step;</li>
+ *   <li>ESCALATED, every {@code tasktracker.reminders.escalate-every-hours} (default 24) after the last change
+ *       to an overdue task, raising the priority again until it is high.</li>
+ * </ul>
+ * Stages already past when a task is scheduled are skipped, so a restart or an edit does not repeat reminders;
+ * an overdue task that still needs raising is raised right away. Reminders go to the {@link ReminderSink}.
+ *
+ * <p>The wheel advances every {@code tasktracker.reminders.tick-millis} (default 1000). Set
+ * {@code tasktracker.reminders.enabled=false} to turn reminders off and {@code tasktracker.reminders.escalate=false}
+ * to only remind. Replication followers do neither; they get the leader's escalations.</p>
+ */
+@Service
+public class ReminderService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReminderService.class);
+
+    // The pending stage of one task, with the task as last seen in a change event
+    private record Pending(Reminder.Kind kind, TaskSnapshot task) {
+    }
+
+    private final TaskService taskService;
+    private final ReminderSink sink;
+    private final boolean enabled;
+    private final boolean escalate;
+    private final long tickMillis;
+    private final long leadMillis;
+    private final long escalateEveryMillis;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final long originMillis = System.currentTimeMillis();
+    private final TimingWheel<Pending> wheel = new TimingWheel<>(0);
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "task-reminders");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<Reminder.Kind, Counter> delivered = new EnumMap<>(Reminder.Kind.class);
+    private final Counter escalations;
+
+    @Autowired
+    public ReminderService(TaskService taskService,
+                           ReminderSink sink,
+                           MeterRegistry meterRegistry,
+                           @Value("${tasktracker.reminders.enabled:true}") boolean enabled,
+                           @Value("${tasktracker.reminders.escalate:true}") boolean escalate,
+                           @Value("${tasktracker.reminders.tick-millis:1000}") long tickMillis,
+                           @Value("${tasktracker.reminders.lead-hours:24}") long leadHours,
+                           @Value("${tasktracker.reminders.escalate-every-hours:24}") long escalateEveryHours,
+                           @Value("${tasktracker.replication.role:}") String replicationRole) {
+        this.taskService = taskService;
+        this.sink = sink;
+        this.enabled = enabled && !replicationRole.equals("follower");
+        this.escalate = escalate;
+        this.tickMillis = Math.max(1, tickMillis);
+        this.leadMillis = TimeUnit.HOURS.toMillis(leadHours);
+        this.escalateEveryMillis = TimeUnit.HOURS.toMillis(Math.max(1, escalateEveryHours));
+
+        for (Reminder.Kind kind : Reminder.Kind.values()) {
+            delivered.put(kind, Counter.builder("tasktracker.reminders.delivered").tag("kind", kind.name().toLowerCase())
+                    .description("Reminders handed to the reminder sink").register(meterRegistry));
+        }
+        this.escalations = Counter.builder("tasktracker.reminders.escalations")
+                .description("Priorities raised on overdue tasks").register(meterRegistry);
+        Gauge.builder("tasktracker.reminders.pending", this, ReminderService::pendingCount)
+                .description("Tasks with a reminder scheduled").register(meterRegistry);
+    }
+
+    // Seeded once the tasks are loaded; the scan holds the service's read lock, so no event can slip in between
+    @PostConstruct
+    public void init() {
+        if (!enabled) return;
+        taskService.whenLoaded(this::seed);
+    }
+
+    // Escalations publish change events, which @EventListener methods only receive once the context is refreshed
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) return;
+        ticker.scheduleAtFixedRate(this::tickQuietly, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Not synchronized as a whole: the monitor is taken inside the read lock, as in onTaskChanged()
+    private void seed() {
+        long now = System.currentTimeMillis();
+        taskService.forEachTask(task -> schedule(TaskSnapshot.of(task), now));
+        log.info("Reminders scheduled for {} tasks", pendingCount());
+    }
+
+    @EventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        if (!enabled) return;
+        if (event.after() == null) {
+            synchronized (this) {
+                wheel.cancel(event.taskId());
+            }
+        } else {
+            schedule(event.after(), System.currentTimeMillis());
+        }
+    }
+
+    public synchronized int pendingCount() {
+        return wheel.size();
+    }
+
+    /**
+     * One step up from {@code priority}, or null if it cannot be raised.
+     */
+    public static String escalated(String priority) {
+        if ("low".equals(priority)) return "medium";
+        if ("medium".equals(priority)) return "high";
+        return null;
+    }
+
+    private synchronized void schedule(TaskSnapshot task, long now) {
+        if (task.completed() || task.dueDate() == null) {
+            wheel.cancel(task.id());
+            return;
+        }
+        long dueAt = millis(task.dueDate());
+        long overdueAt = millis(task.dueDate().plusDays(1));
+        if (leadMillis > 0 && dueAt - leadMillis > now) {
+            wheel.schedule(task.id(), tick(dueAt - leadMillis), new Pending(Reminder.Kind.DUE_SOON, task));
+        } else if (dueAt > now) {
+            wheel.schedule(task.id(), tick(dueAt), new Pending(Reminder.Kind.DUE, task));
+        } else if (overdueAt > now) {
+            wheel.schedule(task.id(), tick(overdueAt), new Pending(Reminder.Kind.OVERDUE, task));
+        } else if (escalate && escalated(task.priority()) != null) {
+            // Raised once it is overdue, then again every interval after the last change
+            LocalDateTime changed = task.updatedAt() != null ? task.updatedAt() : task.createdAt();
+            long changedAt = changed == null ? 0 : millis(changed);
+            long at = changedAt >= overdueAt ? changedAt + escalateEveryMillis : now;
+            wheel.schedule(task.id(), tick(at), new Pending(Reminder.Kind.ESCALATED, task));
+        } else {
+            wheel.cancel(task.id());
+        }
+    }
+
+    private void tickQuietly() {
+        try {
+            tick();
+        } catch (RuntimeException e) {
+            log.warn("Reminder tick failed", e);
+        }
+    }
+
+    private void tick() {
+        long now = System.currentTimeMillis();
+        List<TimingWheel.Timer<Pending>> expired = new ArrayList<>();
+        synchronized (this) {
+            wheel.advanceTo(Math.floorDiv(now - originMillis, tickMillis), expired);
+            // The next stage is set before the monitor is let go, so a change event that follows replaces it
+            for (TimingWheel.Timer<Pending> timer : expired) {
+                Pending pending = timer.value;
+                if (raises(pending)) {
+                    // Escalating publishes a change that reschedules; this only covers a raise that does not happen
+                    wheel.schedule(timer.key, tick(now + escalateEveryMillis), new Pending(Reminder.Kind.ESCALATED, pending.task));
+                } else {
+                    schedule(pending.task, now);
+                }
+            }
+        }
+        if (expired.isEmpty()) return;
+
+        // Escalations are applied in one batch, outside the monitor: the change events come back through it
+        List<Long> toRaise = new ArrayList<>();
+        for (TimingWheel.Timer<Pending> timer : expired) {
+            if (raises(timer.value)) toRaise.add(timer.key);
+        }
+        Map<Long, String> raised = toRaise.isEmpty() ? Map.of() : taskService.escalatePriorities(toRaise);
+        escalations.increment(raised.size());
+
+        LocalDateTime raisedAt = LocalDateTime.now();
+        for (TimingWheel.Timer<Pending> timer : expired) {
+            Pending pending = timer.value;
+            String priority = raised.get(timer.key);
+            if (pending.kind == Reminder.Kind.ESCALATED && priority == null) continue;  // nothing happened
+            TaskSnapshot task = pending.task;
+            Reminder reminder = new Reminder(pending.kind, task.id(), task.userId(), task.title(),
+                    priority != null ? priority : task.priority(), task.dueDate(), raisedAt);
+            try {
+                sink.deliver(reminder);
+                delivered.get(pending.kind).increment();
+            } catch (RuntimeException e) {
+                log.warn("Reminder for task {} not delivered", task.id(), e);
+            }
+        }
+    }
+
+    private boolean raises(Pending pending) {
+        return escalate && (pending.kind == Reminder.Kind.OVERDUE || pending.kind == Reminder.Kind.ESCALATED)
+                && escalated(pending.task.priority()) != null;
+    }
+
+    // First tick at or after the instant
+    private long tick(long millis) {
+        return Math.ceilDiv(millis - originMillis, tickMillis);
+    }
+
+    private long millis(LocalDate date) {
+        return date.atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+
+    private long millis(LocalDateTime time) {
+        return time.atZone(zone).toInstant().toEpochMilli();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+    }
+}
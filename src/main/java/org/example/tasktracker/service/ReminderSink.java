@@ -0,0 +1,10 @@
+package org.example.tasktracker.service;
+
+/**
+ * Where {@link ReminderService} sends reminders, chosen with {@code tasktracker.reminders.sink}: {@code log}
+ * (default), {@code sse} or {@code webhook}. Called on the reminder timer thread, so it must not block.
+ */
+public interface ReminderSink {
+
+    void deliver(Reminder reminder);
+}
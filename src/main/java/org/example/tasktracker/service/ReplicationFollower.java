@@ -0,0 +1,233 @@
+package org.example.tasktracker.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.tasktracker.model.Project;
+import org.example.tasktracker.model.TaskSnapshot;
+import org.example.tasktracker.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps this instance's users, tasks and projects in line with a {@link ReplicationLeader}, making it a read-only
+ * replica that serves the dashboard, task lists and JSON API. Enabled with
+ * {@code tasktracker.replication.role=follower}; the leader is {@code tasktracker.replication.leader}
+ * ({@code host:port}). Requests that would change data are refused by the read-only filter.
+ *
+ * <p>On every (re)connect the leader's snapshot replaces the local state, so nothing is saved here.
+ * Lag is published as {@code tasktracker.replication.lag.records} (changes the leader has committed but this
+ * replica has not applied, as of the last message) and {@code tasktracker.replication.lag} (time since the
+ * last applied change was committed on the leader, 0 when caught up; while disconnected, time since the
+ * replica was last known to be in sync).</p>
+ */
+@Service
+@ConditionalOnProperty(name = "tasktracker.replication.role", havingValue = "follower")
+public class ReplicationFollower {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicationFollower.class);
+
+    private final TaskService taskService;
+    private final UserService userService;
+    private final ProjectService projectService;
+    private final String leaderHost;
+    private final int leaderPort;
+    private final long reconnectMillis;
+    private final Thread receiver;
+    private volatile Socket socket;
+    private volatile boolean stopped;
+
+    // Progress, written by the receiver thread only
+    private volatile boolean connected;
+    private volatile long appliedSequence;
+    private volatile long appliedMillis;
+    private volatile long leaderSequence;
+
+    @Autowired
+    public ReplicationFollower(TaskService taskService,
+                               UserService userService,
+                               ProjectService projectService,
+                               MeterRegistry meterRegistry,
+                               @Value("${tasktracker.replication.leader:127.0.0.1:9191}") String leader,
+                               @Value("${tasktracker.replication.reconnect-millis:1000}") long reconnectMillis) {
+        this.taskService = taskService;
+        this.userService = userService;
+        this.projectService = projectService;
+        int colon = leader.lastIndexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("tasktracker.replication.leader must be host:port, got " + leader);
+        }
+        this.leaderHost = leader.substring(0, colon);
+        this.leaderPort = Integer.parseInt(leader.substring(colon + 1));
+        this.reconnectMillis = reconnectMillis;
+        this.receiver = new Thread(this::receiveLoop, "replication-follower");
+        receiver.setDaemon(true);
+
+        Gauge.builder("tasktracker.replication.connected", this, follower -> follower.connected ? 1 : 0)
+                .description("1 while the replica is connected to its leader and past the initial snapshot").register(meterRegistry);
+        Gauge.builder("tasktracker.replication.sequence", this, follower -> follower.appliedSequence)
+                .description("Sequence number of the last leader change applied").register(meterRegistry);
+        Gauge.builder("tasktracker.replication.lag.records", this, ReplicationFollower::lagRecords)
+                .description("Changes committed on the leader and not applied here yet").register(meterRegistry);
+        TimeGauge.builder("tasktracker.replication.lag", this, TimeUnit.MILLISECONDS, ReplicationFollower::lagMillis)
+                .description("Time since the last applied change was committed on the leader, 0 when caught up")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        receiver.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        stopped = true;
+        closeSocket();
+        receiver.interrupt();
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    public long lagRecords() {
+        return Math.max(0, leaderSequence - appliedSequence);
+    }
+
+    public long lagMillis() {
+        if (!connected) return System.currentTimeMillis() - appliedMillis;
+        return lagRecords() == 0 ? 0 : Math.max(0, System.currentTimeMillis() - appliedMillis);
+    }
+
+    private void receiveLoop() {
+        while (!stopped) {
+            try (Socket socket = new Socket()) {
+                this.socket = socket;
+                socket.connect(new InetSocketAddress(leaderHost, leaderPort), (int) Math.max(reconnectMillis, 1000));
+                socket.setTcpNoDelay(true);
+                log.info("Connected to replication leader {}:{}", leaderHost, leaderPort);
+                receive(socket);
+            } catch (IOException | RuntimeException e) {
+                if (!stopped) log.warn("Replication from {}:{} interrupted: {}", leaderHost, leaderPort, e.toString());
+            }
+            connected = false;
+            if (stopped) return;
+            try {
+                Thread.sleep(reconnectMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void receive(Socket socket) throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8), 64 * 1024);
+        Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+        List<User> snapshotUsers = null;
+        List<TaskSnapshot> snapshotTasks = null;
+        List<Project> snapshotProjects = null;
+
+        String line;
+        while ((line = in.readLine()) != null) {
+            ReplicationMessage message = ReplicationMessage.parse(line);
+            switch (message.kind()) {
+                case ReplicationMessage.SNAPSHOT_START -> {
+                    snapshotUsers = new ArrayList<>();
+                    snapshotTasks = new ArrayList<>();
+                    snapshotProjects = new ArrayList<>();
+                }
+                case ReplicationMessage.SNAPSHOT_END -> {
+                    userService.replaceReplicated(snapshotUsers);
+                    projectService.replaceReplicated(null, snapshotProjects);
+                    taskService.applyReplicatedSnapshot(snapshotTasks, userService::findUserById);
+                    log.info("Replica loaded the leader's snapshot at sequence {}: {} users, {} tasks, {} projects",
+                            message.seq(), snapshotUsers.size(), snapshotTasks.size(), snapshotProjects.size());
+                    snapshotUsers = null;
+                    snapshotTasks = null;
+                    snapshotProjects = null;
+                    applied(message);
+                    connected = true;
+                }
+                case ReplicationMessage.USER -> {
+                    if (snapshotUsers != null) {
+                        snapshotUsers.add(message.user());
+                    } else {
+                        userService.applyReplicated(UserChangedEvent.Type.valueOf(message.op()), message.user());
+                        applied(message);
+                    }
+                }
+                case ReplicationMessage.TASK -> {
+                    if (snapshotTasks != null) {
+                        snapshotTasks.add(message.task());
+                    } else {
+                        applyTask(message);
+                        applied(message);
+                    }
+                }
+                case ReplicationMessage.PROJECTS -> {
+                    if (snapshotProjects != null) {
+                        snapshotProjects.addAll(message.projects());
+                    } else {
+                        projectService.replaceReplicated(message.userId(), message.projects());
+                        applied(message);
+                    }
+                }
+                case ReplicationMessage.HEARTBEAT -> {
+                    leaderSequence = Math.max(leaderSequence, message.seq());
+                    if (lagRecords() == 0) appliedMillis = message.millis();
+                }
+                default -> log.debug("Ignoring replication message {}", message.kind());
+            }
+            // Acknowledge once the backlog that has arrived so far is applied
+            if (snapshotTasks == null && !in.ready()) {
+                out.write(ReplicationMessage.control(ReplicationMessage.ACK, appliedSequence).toJson());
+                out.write('\n');
+                out.flush();
+            }
+        }
+    }
+
+    private void applyTask(ReplicationMessage message) {
+        TaskSnapshot task = message.task();
+        User owner = userService.findUserById(task.userId());
+        if (owner == null) {
+            log.warn("Replicated task {} skipped: unknown user {}", task.id(), task.userId());
+            return;
+        }
+        taskService.applyReplicated(TaskChangedEvent.Type.valueOf(message.op()), task, owner);
+    }
+
+    private void applied(ReplicationMessage message) {
+        appliedSequence = message.seq();
+        appliedMillis = message.millis();
+        leaderSequence = Math.max(leaderSequence, message.seq());
+    }
+
+    private void closeSocket() {
+        Socket current = socket;
+        if (current == null) return;
+        try {
+            current.close();
+        } catch (IOException e) {
+            log.debug("Closing the replication socket failed", e);
+        }
+    }
+}
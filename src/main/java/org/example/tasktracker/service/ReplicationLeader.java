@@ -0,0 +1,279 @@
+package org.example.tasktracker.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.tasktracker.model.Project;
+import org.example.tasktracker.model.TaskSnapshot;
+import org.example.tasktracker.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ships every committed task, user and project change to read-only followers ({@link ReplicationFollower}) over a TCP
+ * socket. Enabled with {@code tasktracker.replication.role=leader}; followers connect to
+ * {@code tasktracker.replication.bind-address}:{@code tasktracker.replication.port}.
+ *
+ * <p>Changes get consecutive sequence numbers in commit order (task events are published under the task
+ * store's write lock). A new follower is registered first and then sent a snapshot of every user and task,
+ * and project, followed by the changes queued meanwhile; since each change carries the full new state (for
+ * projects, all of the user's), re-applying one the snapshot already contains is harmless. A follower that falls {@code tasktracker.replication.buffer} changes
+ * behind is disconnected and starts over with a new snapshot, so a slow follower never holds up the leader.</p>
+ */
+@Service
+@ConditionalOnProperty(name = "tasktracker.replication.role", havingValue = "leader")
+public class ReplicationLeader {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicationLeader.class);
+
+    private final TaskService taskService;
+    private final UserService userService;
+    private final ProjectService projectService;
+    private final String bindAddress;
+    private final int port;
+    private final int bufferSize;
+    private final long heartbeatMillis;
+    private final List<FollowerLink> followers = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "replication-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private ServerSocket serverSocket;
+    private long sequence; // guarded by this
+
+    @Autowired
+    public ReplicationLeader(TaskService taskService,
+                             UserService userService,
+                             ProjectService projectService,
+                             MeterRegistry meterRegistry,
+                             @Value("${tasktracker.replication.bind-address:127.0.0.1}") String bindAddress,
+                             @Value("${tasktracker.replication.port:9191}") int port,
+                             @Value("${tasktracker.replication.buffer:65536}") int bufferSize,
+                             @Value("${tasktracker.replication.heartbeat-millis:1000}") long heartbeatMillis) {
+        this.taskService = taskService;
+        this.userService = userService;
+        this.projectService = projectService;
+        this.bindAddress = bindAddress;
+        this.port = port;
+        this.bufferSize = bufferSize;
+        this.heartbeatMillis = heartbeatMillis;
+
+        Gauge.builder("tasktracker.replication.followers", followers, List::size)
+                .description("Connected replication followers").register(meterRegistry);
+        Gauge.builder("tasktracker.replication.sequence", this, ReplicationLeader::currentSequence)
+                .description("Sequence number of the last change shipped to followers").register(meterRegistry);
+        Gauge.builder("tasktracker.replication.lag.records", this, ReplicationLeader::maxLag)
+                .description("Changes the furthest-behind follower has not acknowledged yet").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(InetAddress.getByName(bindAddress), port));
+        Thread acceptor = new Thread(this::acceptLoop, "replication-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        heartbeats.scheduleAtFixedRate(this::heartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+        log.info("Replication leader listening on {}:{}", bindAddress, serverSocket.getLocalPort());
+    }
+
+    @PreDestroy
+    public void stop() {
+        heartbeats.shutdownNow();
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            log.debug("Closing the replication socket failed", e);
+        }
+        followers.forEach(FollowerLink::close);
+    }
+
+    @EventListener
+    public synchronized void onTaskChanged(TaskChangedEvent event) {
+        TaskSnapshot task = (event.after() != null) ? event.after() : event.before();
+        ship(ReplicationMessage.task(++sequence, event.type(), task));
+    }
+
+    @EventListener
+    public synchronized void onUserChanged(UserChangedEvent event) {
+        ship(ReplicationMessage.user(++sequence, event.type(), event.user()));
+    }
+
+    @EventListener
+    public synchronized void onProjectsChanged(ProjectsChangedEvent event) {
+        ship(ReplicationMessage.projects(++sequence, event.userId(), event.projects()));
+    }
+
+    private synchronized void heartbeat() {
+        ship(ReplicationMessage.control(ReplicationMessage.HEARTBEAT, sequence));
+    }
+
+    // Caller holds the monitor, so every follower queues messages in sequence order
+    private void ship(ReplicationMessage message) {
+        if (followers.isEmpty()) return;
+        String line = message.toJson();
+        for (FollowerLink follower : followers) {
+            follower.offer(line);
+        }
+    }
+
+    private synchronized long currentSequence() {
+        return sequence;
+    }
+
+    private long maxLag() {
+        long current = currentSequence();
+        long lag = 0;
+        for (FollowerLink follower : followers) {
+            lag = Math.max(lag, current - follower.acked);
+        }
+        return lag;
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                FollowerLink follower = new FollowerLink(socket);
+                long snapshotSequence;
+                synchronized (this) {
+                    snapshotSequence = sequence;
+                    follower.acked = snapshotSequence;
+                    followers.add(follower); // from here on it queues every change
+                }
+                follower.start(snapshotSequence);
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) log.warn("Accepting a replication follower failed", e);
+            }
+        }
+    }
+
+    /**
+     * One connected follower: a sender thread that writes the snapshot and then the queued changes,
+     * and a reader thread for its acknowledgements.
+     */
+    private final class FollowerLink {
+        final Socket socket;
+        final String name;
+        final BlockingQueue<String> queue = new ArrayBlockingQueue<>(bufferSize);
+        volatile long acked;
+        volatile boolean closed;
+
+        FollowerLink(Socket socket) {
+            this.socket = socket;
+            this.name = socket.getRemoteSocketAddress().toString();
+        }
+
+        void start(long snapshotSequence) {
+            Thread sender = new Thread(() -> send(snapshotSequence), "replication-sender " + name);
+            sender.setDaemon(true);
+            sender.start();
+            Thread reader = new Thread(this::readAcks, "replication-acks " + name);
+            reader.setDaemon(true);
+            reader.start();
+            log.info("Replication follower {} connected at sequence {}", name, snapshotSequence);
+        }
+
+        void offer(String line) {
+            if (!queue.offer(line)) {
+                log.warn("Replication follower {} is more than {} changes behind; disconnecting it", name, bufferSize);
+                close();
+            }
+        }
+
+        private void send(long snapshotSequence) {
+            try (Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), 64 * 1024)) {
+                // Tasks first, so every task's owner is in the (later) user list; users are sent first
+                taskService.awaitLoaded();
+                List<TaskSnapshot> tasks = new ArrayList<>();
+                taskService.forEachTask(task -> tasks.add(TaskSnapshot.of(task)));
+                List<User> users = new ArrayList<>(userService.getAllUsers());
+                List<Project> projects = projectService.getAllProjects();
+
+                writeLine(out, ReplicationMessage.control(ReplicationMessage.SNAPSHOT_START, snapshotSequence).toJson());
+                for (User user : users) {
+                    writeLine(out, ReplicationMessage.user(snapshotSequence, UserChangedEvent.Type.CREATED, user).toJson());
+                }
+                for (TaskSnapshot task : tasks) {
+                    writeLine(out, ReplicationMessage.task(snapshotSequence, TaskChangedEvent.Type.CREATED, task).toJson());
+                }
+                writeLine(out, ReplicationMessage.projects(snapshotSequence, null, projects).toJson());
+                writeLine(out, ReplicationMessage.control(ReplicationMessage.SNAPSHOT_END, snapshotSequence).toJson());
+                out.flush();
+
+                while (!closed) {
+                    String line = queue.poll(heartbeatMillis, TimeUnit.MILLISECONDS);
+                    if (line == null) continue;
+                    writeLine(out, line);
+                    if (queue.isEmpty()) out.flush();
+                }
+            } catch (IOException e) {
+                if (!closed) log.info("Replication follower {} disconnected: {}", name, e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                close();
+            }
+        }
+
+        private void writeLine(Writer out, String line) throws IOException {
+            out.write(line);
+            out.write('\n');
+        }
+
+        private void readAcks() {
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    ReplicationMessage message = ReplicationMessage.parse(line);
+                    if (ReplicationMessage.ACK.equals(message.kind())) {
+                        acked = message.seq();
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                if (!closed) log.debug("Reading acknowledgements from {} failed", name, e);
+            } finally {
+                close();
+            }
+        }
+
+        void close() {
+            if (closed) return;
+            closed = true;
+            followers.remove(this);
+            try {
+                socket.close();
+            } catch (IOException e) {
+                log.debug("Closing replication follower {} failed", name, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.tasktracker.service;
+
+import com.google.gson.Gson;
+import org.example.tasktracker.model.Project;
+import org.example.tasktracker.model.TaskSnapshot;
+import org.example.tasktracker.model.User;
+
+import java.util.List;
+
+/**
+ * One line of the replication stream between {@link ReplicationLeader} and {@link ReplicationFollower},
+ * sent as compact JSON.
+ *
+ * <p>A connection starts with {@code snapshot-start}, the leader's users and tasks as {@code user} and
+ * {@code task} messages, every project in one {@code projects} message, and {@code snapshot-end}; after that
+ * every change follows as it is committed, with {@code heartbeat}s in between. The follower answers with
+ * {@code ack}s of the last sequence it applied.</p>
+ *
+ * @param seq    leader sequence number: of the change, of the last change included (snapshot-end, heartbeat)
+ *               or of the last change applied (ack)
+ * @param millis leader wall-clock time at which the change was committed or the heartbeat sent
+ * @param op     CREATED, UPDATED or DELETED for {@code task} and {@code user} changes
+ * @param userId for {@code projects}: the user whose projects these are all of, null for every user's
+ */
+record ReplicationMessage(String kind, long seq, long millis, String op, TaskSnapshot task, User user,
+                          Long userId, List<Project> projects) {
+
+    static final String SNAPSHOT_START = "snapshot-start";
+    static final String SNAPSHOT_END = "snapshot-end";
+    static final String TASK = "task";
+    static final String USER = "user";
+    static final String PROJECTS = "projects";
+    static final String HEARTBEAT = "heartbeat";
+    static final String ACK = "ack";
+
+    private static final Gson GSON = TaskService.gsonBuilder().create();
+
+    static ReplicationMessage control(String kind, long seq) {
+        return new ReplicationMessage(kind, seq, System.currentTimeMillis(), null, null, null, null, null);
+    }
+
+    static ReplicationMessage task(long seq, TaskChangedEvent.Type op, TaskSnapshot task) {
+        return new ReplicationMessage(TASK, seq, System.currentTimeMillis(), op.name(), task, null, null, null);
+    }
+
+    static ReplicationMessage user(long seq, UserChangedEvent.Type op, User user) {
+        return new ReplicationMessage(USER, seq, System.currentTimeMillis(), op.name(), null, user, null, null);
+    }
+
+    static ReplicationMessage projects(long seq, Long userId, List<Project> projects) {
+        return new ReplicationMessage(PROJECTS, seq, System.currentTimeMillis(), null, null, null, userId, projects);
+    }
+
+    String toJson() {
+        return GSON.toJson(this);
+    }
+
+    static ReplicationMessage parse(String line) {
+        return GSON.fromJson(line, ReplicationMessage.class);
+    }
+}
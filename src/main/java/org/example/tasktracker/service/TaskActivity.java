@@ -0,0 +1,10 @@
+package org.example.tasktracker.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Tasks created and completed per bucket, oldest bucket first; bucket {@code i} starts at
+ * {@code start + i * resolution}.
+ */
+public record TaskActivity(String resolution, LocalDateTime start, long[] created, long[] completed) {
+}
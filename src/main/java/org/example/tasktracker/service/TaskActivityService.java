@@ -0,0 +1,175 @@
+package org.example.tasktracker.service;
+
+import jakarta.annotation.PostConstruct;
+import org.example.tasktracker.model.TaskSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Created and completed task counts per minute, hour and day, globally and per user, for throughput charts.
+ *
+ * <p>Each series is a {@link CounterRing}, so a chart reads a fixed number of buckets instead of scanning
+ * tasks. Rings hold only non-zero buckets, and a user's series is dropped once all its counts are back to
+ * zero, so memory follows activity rather than the number of users. The rings are filled in one pass over the loaded tasks at startup and then
+ * follow {@link TaskChangedEvent}s; they always describe the current tasks, so deleting or reopening a task
+ * takes its counts back out, the same as a rebuild after restart would. Archived tasks still count: archiving
+ * events are ignored, and the startup pass also reads the archive segments the longest window reaches.
+ * Buckets use local wall-clock time, like {@code createdAt} and {@code completedAt}.</p>
+ */
+@Service
+public class TaskActivityService {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskActivityService.class);
+
+    public enum Resolution {
+        MINUTE(60, 180),       // 3 hours
+        HOUR(3600, 24 * 14),   // 14 days
+        DAY(86400, 400);       // 400 days
+
+        final long seconds;
+        final int buckets;
+
+        Resolution(long seconds, int buckets) {
+            this.seconds = seconds;
+            this.buckets = buckets;
+        }
+
+        public int getBuckets() {
+            return buckets;
+        }
+
+        long bucketOf(LocalDateTime time) {
+            return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), seconds);
+        }
+
+        LocalDateTime startOf(long bucket) {
+            return LocalDateTime.ofEpochSecond(bucket * seconds, 0, ZoneOffset.UTC);
+        }
+
+        public static Resolution parse(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("resolution must be minute, hour or day");
+            }
+        }
+    }
+
+    // One ring per resolution for each of created and completed
+    private static final class Series {
+        final CounterRing[] created = new CounterRing[Resolution.values().length];
+        final CounterRing[] completed = new CounterRing[Resolution.values().length];
+
+        Series() {
+            for (Resolution resolution : Resolution.values()) {
+                created[resolution.ordinal()] = new CounterRing(resolution.buckets);
+                completed[resolution.ordinal()] = new CounterRing(resolution.buckets);
+            }
+        }
+
+        void add(CounterRing[] rings, LocalDateTime time, int delta) {
+            for (Resolution resolution : Resolution.values()) {
+                rings[resolution.ordinal()].add(resolution.bucketOf(time), delta);
+            }
+        }
+
+        boolean isEmpty() {
+            for (int i = 0; i < created.length; i++) {
+                if (!created[i].isEmpty() || !completed[i].isEmpty()) return false;
+            }
+            return true;
+        }
+    }
+
+    private final TaskService taskService;
+    private final TaskArchiveService archiveService;
+    private final Series global = new Series();
+    private final Map<Long, Series> byUser = new HashMap<>();
+
+    @Autowired
+    public TaskActivityService(TaskService taskService, TaskArchiveService archiveService) {
+        this.taskService = taskService;
+        this.archiveService = archiveService;
+    }
+
+    @PostConstruct
+    public void init() {
+        taskService.whenLoaded(this::seed);
+    }
+
+    private synchronized void seed() {
+        taskService.forEachTask(task -> apply(TaskSnapshot.of(task), 1));
+        // Segments written from here on hold tasks counted by the pass above
+        LocalDateTime since = LocalDateTime.now().minusSeconds(Resolution.DAY.seconds * Resolution.DAY.buckets);
+        try {
+            archiveService.forEachArchived(since, task -> apply(task, 1));
+        } catch (IOException e) {
+            log.error("Activity of archived tasks is missing: reading the archive failed", e);
+        }
+    }
+
+    @EventListener
+    public synchronized void onTaskChanged(TaskChangedEvent event) {
+        if (event.type() == TaskChangedEvent.Type.ARCHIVED) return; // still part of the history
+        TaskSnapshot before = event.before();
+        TaskSnapshot after = event.after();
+        if (before == null || after == null) {
+            apply(before != null ? before : after, before != null ? -1 : 1);
+            return;
+        }
+        // Updates only move the completion; creation time never changes
+        if (before.completed() && before.completedAt() != null) {
+            addCompleted(before.userId(), before.completedAt(), -1);
+        }
+        if (after.completed() && after.completedAt() != null) {
+            addCompleted(after.userId(), after.completedAt(), 1);
+        }
+    }
+
+    /**
+     * The last {@code points} buckets up to now; a null user means all users.
+     */
+    public synchronized TaskActivity getActivity(Long userId, Resolution resolution, int points) {
+        int count = Math.max(1, Math.min(points, resolution.buckets));
+        long last = resolution.bucketOf(LocalDateTime.now());
+        Series series = (userId == null) ? global : byUser.get(userId);
+        long[] created = series == null ? new long[count] : series.created[resolution.ordinal()].read(last, count);
+        long[] completed = series == null ? new long[count] : series.completed[resolution.ordinal()].read(last, count);
+        return new TaskActivity(resolution.name().toLowerCase(Locale.ROOT),
+                resolution.startOf(last - count + 1), created, completed);
+    }
+
+    private void apply(TaskSnapshot task, int sign) {
+        if (task.createdAt() != null) {
+            global.add(global.created, task.createdAt(), sign);
+            Series user = byUser.computeIfAbsent(task.userId(), id -> new Series());
+            user.add(user.created, task.createdAt(), sign);
+            dropIfEmpty(task.userId(), user);
+        }
+        if (task.completed() && task.completedAt() != null) {
+            addCompleted(task.userId(), task.completedAt(), sign);
+        }
+    }
+
+    private void addCompleted(Long userId, LocalDateTime completedAt, int delta) {
+        global.add(global.completed, completedAt, delta);
+        Series user = byUser.computeIfAbsent(userId, id -> new Series());
+        user.add(user.completed, completedAt, delta);
+        dropIfEmpty(userId, user);
+    }
+
+    // A user whose counts are all back to zero (or out of every window) reads the same as one never seen
+    private void dropIfEmpty(Long userId, Series user) {
+        if (user.isEmpty()) byUser.remove(userId);
+    }
+}
@@ -0,0 +1,311 @@
+package org.example.tasktracker.service;
+
+import com.google.gson.Gson;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.tasktracker.model.TaskSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cold tier for tasks completed more than {@code tasktracker.archive.after-days} days ago (default 30, 0 turns
+ * archiving off). Every {@code tasktracker.archive.interval-millis} such tasks are written to an immutable
+ * gzip NDJSON segment under {@code <data-dir>/archive}, at most {@code tasktracker.archive.segment-tasks} per
+ * segment, and then taken out of {@link TaskService}, so they no longer cost memory, scans or saves.
+ *
+ * <p>Only the segment index ({@code segments.json}, which users each segment holds) is read at startup. A
+ * user's history is read from the segments when asked for. A task written to a segment but still live, because
+ * it changed in between or the process stopped before the live set was saved, is ignored there; a copy in a
+ * later segment replaces an earlier one.</p>
+ *
+ * <p>Replication followers do not archive; they drop the tasks when the leader archives them.</p>
+ */
+@Service
+public class TaskArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskArchiveService.class);
+
+    private static final String INDEX_FILE = "segments.json";
+
+    private static final Gson GSON = TaskService.gsonBuilder().create();
+
+    // One archive file and the number of tasks it holds per user id
+    private record Segment(long sequence, String file, int tasks, Map<Long, Integer> users) {
+    }
+
+    // Users in `forgotten` ignore their tasks in segments up to the given sequence; see forgetUser().
+    // Every archived task has an id below `nextTaskId`, which TaskService never hands out again.
+    private record Index(List<Segment> segments, Map<Long, Long> forgotten, long nextTaskId) {
+    }
+
+    private final TaskService taskService;
+    private final File directory;
+    private final int afterDays;
+    private final long intervalMillis;
+    private final int segmentTasks;
+    private final boolean enabled;
+    private volatile Index index = new Index(List.of(), Map.of(), 1);
+    private volatile boolean indexReadable = true; // otherwise new segments could overwrite listed ones
+    private final ScheduledExecutorService archiver = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "task-archiver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Counter archivedTasks;
+    private final Timer writeTimer;
+    private final Timer readTimer;
+
+    @Autowired
+    public TaskArchiveService(TaskService taskService,
+                              MeterRegistry meterRegistry,
+                              @Value("${tasktracker.data-dir:data}") String dataDir,
+                              @Value("${tasktracker.archive.after-days:30}") int afterDays,
+                              @Value("${tasktracker.archive.interval-millis:3600000}") long intervalMillis,
+                              @Value("${tasktracker.archive.segment-tasks:10000}") int segmentTasks,
+                              @Value("${tasktracker.replication.role:}") String replicationRole) {
+        this.taskService = taskService;
+        this.directory = new File(dataDir, "archive");
+        this.afterDays = afterDays;
+        this.intervalMillis = intervalMillis;
+        this.segmentTasks = Math.max(1, segmentTasks);
+        this.enabled = afterDays > 0 && !replicationRole.equals("follower");
+
+        this.archivedTasks = Counter.builder("tasktracker.archive.archived")
+                .description("Tasks moved from memory to archive segments").register(meterRegistry);
+        this.writeTimer = Timer.builder("tasktracker.archive.write")
+                .description("Time to write one archive segment").publishPercentileHistogram().register(meterRegistry);
+        this.readTimer = Timer.builder("tasktracker.archive.read")
+                .description("Time to read one user's archived tasks").publishPercentileHistogram().register(meterRegistry);
+        Gauge.builder("tasktracker.archive.segments", this, service -> service.index.segments().size())
+                .description("Archive segments on disk").register(meterRegistry);
+        Gauge.builder("tasktracker.archive.tasks", this, service -> service.index.segments().stream().mapToInt(Segment::tasks).sum())
+                .description("Tasks in archive segments").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        index = readIndex();
+        taskService.reserveIds(index.nextTaskId());
+        if (enabled) {
+            archiver.scheduleWithFixedDelay(this::archiveQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        archiver.shutdownNow();
+    }
+
+    private void archiveQuietly() {
+        try {
+            archiveNow();
+        } catch (IOException | RuntimeException e) {
+            log.error("Archiving completed tasks failed, will retry", e);
+        }
+    }
+
+    /**
+     * Archive every task completed before the cutoff now, one segment at a time.
+     * Returns the number of tasks taken out of memory; 0 when archiving is off or the index could not be read.
+     */
+    public synchronized int archiveNow() throws IOException {
+        if (!enabled || !indexReadable) return 0;
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(afterDays);
+        int archived = 0;
+        while (true) {
+            List<TaskSnapshot> batch = taskService.findArchivable(cutoff, segmentTasks);
+            if (batch.isEmpty()) break;
+            Segment segment = writeSegment(batch);
+            int removed = taskService.removeArchived(batch);
+            archived += removed;
+            archivedTasks.increment(removed);
+            log.info("Archived {} tasks completed before {} to {}", removed, cutoff.toLocalDate(), segment.file());
+            if (removed == 0) break; // every task changed meanwhile; picked up on the next run
+        }
+        return archived;
+    }
+
+    /**
+     * A user's archived tasks, most recently completed first.
+     */
+    public List<TaskSnapshot> history(Long userId) throws IOException {
+        long started = System.nanoTime();
+        Index current = index;
+        long forgottenUpTo = current.forgotten().getOrDefault(userId, 0L);
+        Map<Long, TaskSnapshot> tasks = new LinkedHashMap<>();
+        for (Segment segment : current.segments()) {
+            if (segment.sequence() <= forgottenUpTo || !segment.users().containsKey(userId)) continue;
+            try (BufferedReader reader = segmentReader(segment)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    TaskSnapshot task = GSON.fromJson(line, TaskSnapshot.class);
+                    if (userId.equals(task.userId())) tasks.put(task.id(), task);
+                }
+            }
+        }
+        List<TaskSnapshot> history = new ArrayList<>();
+        for (TaskSnapshot task : tasks.values()) {
+            if (!taskService.isLive(task.id(), userId)) history.add(task);
+        }
+        history.sort(Comparator.comparing(TaskSnapshot::completedAt).reversed().thenComparing(TaskSnapshot::id));
+        readTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        return history;
+    }
+
+    /**
+     * Every archived task in the segments written since {@code since}, once each, without the tasks of forgotten
+     * users and tasks that are live again, in no particular order. A segment only holds tasks completed before
+     * it was written, so older segments cannot matter to a window starting at {@code since}.
+     */
+    public void forEachArchived(LocalDateTime since, Consumer<TaskSnapshot> action) throws IOException {
+        Index current = index;
+        long sinceMillis = since.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        TaskBitmap seen = new TaskBitmap();
+        // Newest first, since a copy in a later segment replaces an earlier one
+        for (int i = current.segments().size() - 1; i >= 0; i--) {
+            Segment segment = current.segments().get(i);
+            if (new File(directory, segment.file()).lastModified() < sinceMillis) break;
+            try (BufferedReader reader = segmentReader(segment)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    TaskSnapshot task = GSON.fromJson(line, TaskSnapshot.class);
+                    if (!seen.add(task.id())) continue;
+                    if (segment.sequence() <= current.forgotten().getOrDefault(task.userId(), 0L)) continue;
+                    if (!taskService.isLive(task.id(), task.userId())) action.accept(task);
+                }
+            }
+        }
+    }
+
+    /**
+     * Hide everything archived so far for a user, whose tasks have moved to another instance or been
+     * replaced. Segments are immutable, so this is recorded in the index.
+     */
+    public synchronized void forgetUser(Long userId) throws IOException {
+        if (!indexReadable) throw new IOException("The archive index could not be read");
+        Index current = index;
+        if (current.segments().stream().noneMatch(segment -> segment.users().containsKey(userId))) return;
+        Map<Long, Long> forgotten = new HashMap<>(current.forgotten());
+        forgotten.put(userId, current.segments().get(current.segments().size() - 1).sequence());
+        writeIndex(new Index(current.segments(), forgotten, current.nextTaskId()));
+    }
+
+    // Segment first, then the index that lists it, both through a rename, so a crash leaves at most an unlisted file
+    private Segment writeSegment(List<TaskSnapshot> batch) throws IOException {
+        long started = System.nanoTime();
+        Index current = index;
+        long sequence = current.segments().isEmpty() ? 1 : current.segments().get(current.segments().size() - 1).sequence() + 1;
+        String name = String.format("segment-%06d.ndjson.gz", sequence);
+        directory.mkdirs();
+        File file = new File(directory, name);
+        File tempFile = new File(directory, name + ".tmp");
+
+        // Grouped by user, so one user's tasks sit together in the stream
+        List<TaskSnapshot> sorted = new ArrayList<>(batch);
+        sorted.sort(Comparator.comparing(TaskSnapshot::userId).thenComparing(TaskSnapshot::id));
+        Map<Long, Integer> users = new HashMap<>();
+        long nextTaskId = current.nextTaskId();
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(new FileOutputStream(tempFile), 65536), StandardCharsets.UTF_8))) {
+            for (TaskSnapshot task : sorted) {
+                writer.write(GSON.toJson(task));
+                writer.write('\n');
+                users.merge(task.userId(), 1, Integer::sum);
+                nextTaskId = Math.max(nextTaskId, task.id() + 1);
+            }
+        }
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        Segment segment = new Segment(sequence, name, sorted.size(), users);
+        List<Segment> segments = new ArrayList<>(current.segments());
+        segments.add(segment);
+        writeIndex(new Index(segments, current.forgotten(), nextTaskId));
+        writeTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        return segment;
+    }
+
+    private void writeIndex(Index updated) throws IOException {
+        directory.mkdirs();
+        File file = new File(directory, INDEX_FILE);
+        File tempFile = new File(directory, INDEX_FILE + ".tmp");
+        try (Writer writer = new BufferedWriter(new FileWriter(tempFile, StandardCharsets.UTF_8))) {
+            GSON.toJson(updated, writer);
+        }
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        index = updated;
+    }
+
+    private Index readIndex() {
+        File file = new File(directory, INDEX_FILE);
+        if (!file.exists()) return new Index(List.of(), Map.of(), 1);
+        try (Reader reader = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
+            Index stored = GSON.fromJson(reader, Index.class);
+            log.info("Archive index has {} segments", stored.segments().size());
+            long nextTaskId = stored.nextTaskId();
+            if (nextTaskId == 0) {
+                // Written before the index kept the id high-water mark; stored with the next segment
+                for (Segment segment : stored.segments()) nextTaskId = Math.max(nextTaskId, highestId(segment) + 1);
+            }
+            return new Index(List.copyOf(stored.segments()), stored.forgotten() == null ? Map.of() : stored.forgotten(),
+                    Math.max(1, nextTaskId));
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to read the archive index {}; archived tasks are unavailable", file.getAbsolutePath(), e);
+            indexReadable = false;
+            return new Index(List.of(), Map.of(), 1);
+        }
+    }
+
+    private long highestId(Segment segment) throws IOException {
+        long highest = 0;
+        try (BufferedReader reader = segmentReader(segment)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                highest = Math.max(highest, GSON.fromJson(line, TaskSnapshot.class).id());
+            }
+        }
+        return highest;
+    }
+
+    private BufferedReader segmentReader(Segment segment) throws IOException {
+        return new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new FileInputStream(new File(directory, segment.file())), 65536), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,401 @@
+package org.example.tasktracker.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Compressed set of task ids laid out like a Roaring bitmap: ids are split into chunks on their high 16 bits,
+ * and each chunk keeps its low 16 bits either as a sorted array (up to {@value #ARRAY_MAX} values) or as a
+ * 65536-bit bitmap, whichever is smaller. Set operations walk both chunk lists in step and pick the cheaper
+ * path for each pair of containers. Ids must be in {@code [0, 2^32)}. Not thread-safe.
+ */
+final class TaskBitmap {
+
+    static final int ARRAY_MAX = 4096;
+    private static final int WORDS = 1024;
+
+    // One chunk: sorted values while cardinality <= ARRAY_MAX, words otherwise
+    private static final class Container {
+        char[] values;
+        long[] words;
+        int cardinality;
+
+        static Container ofValues(char[] values, int cardinality) {
+            Container container = new Container();
+            container.values = values;
+            container.cardinality = cardinality;
+            return container;
+        }
+
+        static Container ofWords(long[] words, int cardinality) {
+            Container container = new Container();
+            container.words = words;
+            container.cardinality = cardinality;
+            return container.shrinkIfSparse();
+        }
+
+        boolean contains(char low) {
+            if (words != null) return (words[low >>> 6] & (1L << low)) != 0;
+            return Arrays.binarySearch(values, 0, cardinality, low) >= 0;
+        }
+
+        boolean add(char low) {
+            if (words != null) {
+                long before = words[low >>> 6];
+                words[low >>> 6] = before | (1L << low);
+                if (before == words[low >>> 6]) return false;
+                cardinality++;
+                return true;
+            }
+            int index = Arrays.binarySearch(values, 0, cardinality, low);
+            if (index >= 0) return false;
+            if (cardinality == ARRAY_MAX) {
+                toWords();
+                return add(low);
+            }
+            index = -index - 1;
+            if (cardinality == values.length) values = Arrays.copyOf(values, Math.min(ARRAY_MAX, values.length * 2));
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = low;
+            cardinality++;
+            return true;
+        }
+
+        boolean remove(char low) {
+            if (words != null) {
+                long before = words[low >>> 6];
+                words[low >>> 6] = before & ~(1L << low);
+                if (before == words[low >>> 6]) return false;
+                cardinality--;
+                shrinkIfSparse();
+                return true;
+            }
+            int index = Arrays.binarySearch(values, 0, cardinality, low);
+            if (index < 0) return false;
+            System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+            cardinality--;
+            return true;
+        }
+
+        private void toWords() {
+            words = new long[WORDS];
+            for (int i = 0; i < cardinality; i++) words[values[i] >>> 6] |= 1L << values[i];
+            values = null;
+        }
+
+        private Container shrinkIfSparse() {
+            if (words == null || cardinality > ARRAY_MAX) return this;
+            char[] sparse = new char[Math.max(cardinality, 4)];
+            int n = 0;
+            for (int w = 0; w < WORDS; w++) {
+                for (long word = words[w]; word != 0; word &= word - 1) {
+                    sparse[n++] = (char) (w * 64 + Long.numberOfTrailingZeros(word));
+                }
+            }
+            values = sparse;
+            words = null;
+            return this;
+        }
+
+        long sizeInBytes() {
+            return words != null ? 8L * WORDS : 2L * values.length;
+        }
+
+        // Null when the intersection is empty
+        static Container and(Container a, Container b) {
+            if (a.words != null && b.words != null) {
+                long[] words = new long[WORDS];
+                int cardinality = 0;
+                for (int w = 0; w < WORDS; w++) {
+                    words[w] = a.words[w] & b.words[w];
+                    cardinality += Long.bitCount(words[w]);
+                }
+                return cardinality == 0 ? null : ofWords(words, cardinality);
+            }
+            if (a.words != null) return and(b, a);
+            char[] values = new char[Math.min(a.cardinality, b.cardinality)];
+            int n = 0;
+            if (b.words != null) {
+                for (int i = 0; i < a.cardinality; i++) {
+                    if (b.contains(a.values[i])) values[n++] = a.values[i];
+                }
+            } else {
+                int i = 0;
+                int j = 0;
+                while (i < a.cardinality && j < b.cardinality) {
+                    if (a.values[i] < b.values[j]) i++;
+                    else if (a.values[i] > b.values[j]) j++;
+                    else {
+                        values[n++] = a.values[i];
+                        i++;
+                        j++;
+                    }
+                }
+            }
+            return n == 0 ? null : ofValues(values, n);
+        }
+
+        static long andCardinality(Container a, Container b) {
+            if (a.words != null && b.words != null) {
+                long cardinality = 0;
+                for (int w = 0; w < WORDS; w++) cardinality += Long.bitCount(a.words[w] & b.words[w]);
+                return cardinality;
+            }
+            if (a.words != null) return andCardinality(b, a);
+            long cardinality = 0;
+            if (b.words != null) {
+                for (int i = 0; i < a.cardinality; i++) {
+                    if (b.contains(a.values[i])) cardinality++;
+                }
+                return cardinality;
+            }
+            int i = 0;
+            int j = 0;
+            while (i < a.cardinality && j < b.cardinality) {
+                if (a.values[i] < b.values[j]) i++;
+                else if (a.values[i] > b.values[j]) j++;
+                else {
+                    cardinality++;
+                    i++;
+                    j++;
+                }
+            }
+            return cardinality;
+        }
+
+        static Container or(Container a, Container b) {
+            if (a.words == null && b.words == null && a.cardinality + b.cardinality <= ARRAY_MAX) {
+                char[] values = new char[Math.max(a.cardinality + b.cardinality, 4)];
+                int i = 0;
+                int j = 0;
+                int n = 0;
+                while (i < a.cardinality || j < b.cardinality) {
+                    if (j == b.cardinality || (i < a.cardinality && a.values[i] < b.values[j])) values[n++] = a.values[i++];
+                    else if (i == a.cardinality || a.values[i] > b.values[j]) values[n++] = b.values[j++];
+                    else {
+                        values[n++] = a.values[i++];
+                        j++;
+                    }
+                }
+                return ofValues(values, n);
+            }
+            long[] words = new long[WORDS];
+            a.orInto(words);
+            b.orInto(words);
+            int cardinality = 0;
+            for (long word : words) cardinality += Long.bitCount(word);
+            return ofWords(words, cardinality);
+        }
+
+        // Null when nothing of a is left
+        static Container andNot(Container a, Container b) {
+            if (a.words == null) {
+                char[] values = new char[a.cardinality];
+                int n = 0;
+                for (int i = 0; i < a.cardinality; i++) {
+                    if (!b.contains(a.values[i])) values[n++] = a.values[i];
+                }
+                return n == 0 ? null : ofValues(values, n);
+            }
+            long[] words = a.words.clone();
+            if (b.words != null) {
+                for (int w = 0; w < WORDS; w++) words[w] &= ~b.words[w];
+            } else {
+                for (int i = 0; i < b.cardinality; i++) words[b.values[i] >>> 6] &= ~(1L << b.values[i]);
+            }
+            int cardinality = 0;
+            for (long word : words) cardinality += Long.bitCount(word);
+            return cardinality == 0 ? null : ofWords(words, cardinality);
+        }
+
+        private void orInto(long[] target) {
+            if (words != null) {
+                for (int w = 0; w < WORDS; w++) target[w] |= words[w];
+            } else {
+                for (int i = 0; i < cardinality; i++) target[values[i] >>> 6] |= 1L << values[i];
+            }
+        }
+
+        Container copy() {
+            return words != null ? ofWords(words.clone(), cardinality) : ofValues(values.clone(), cardinality);
+        }
+    }
+
+    // Chunks in ascending order of their high bits
+    private char[] keys;
+    private Container[] containers;
+    private int chunks;
+
+    TaskBitmap() {
+        this(4);
+    }
+
+    private TaskBitmap(int capacity) {
+        keys = new char[Math.max(capacity, 1)];
+        containers = new Container[Math.max(capacity, 1)];
+    }
+
+    static TaskBitmap of(Collection<Long> ids) {
+        TaskBitmap bitmap = new TaskBitmap();
+        for (Long id : ids) bitmap.add(id);
+        return bitmap;
+    }
+
+    boolean add(long id) {
+        char high = high(id);
+        int index = Arrays.binarySearch(keys, 0, chunks, high);
+        if (index < 0) {
+            index = -index - 1;
+            insertChunk(index, high, Container.ofValues(new char[4], 0));
+        }
+        return containers[index].add((char) id);
+    }
+
+    boolean remove(long id) {
+        int index = Arrays.binarySearch(keys, 0, chunks, high(id));
+        if (index < 0 || !containers[index].remove((char) id)) return false;
+        if (containers[index].cardinality == 0) {
+            System.arraycopy(keys, index + 1, keys, index, chunks - index - 1);
+            System.arraycopy(containers, index + 1, containers, index, chunks - index - 1);
+            containers[--chunks] = null;
+        }
+        return true;
+    }
+
+    boolean contains(long id) {
+        if (id < 0 || id > 0xFFFF_FFFFL) return false;
+        int index = Arrays.binarySearch(keys, 0, chunks, (char) (id >>> 16));
+        return index >= 0 && containers[index].contains((char) id);
+    }
+
+    long cardinality() {
+        long cardinality = 0;
+        for (int i = 0; i < chunks; i++) cardinality += containers[i].cardinality;
+        return cardinality;
+    }
+
+    boolean isEmpty() {
+        return chunks == 0;
+    }
+
+    // Ids in ascending order
+    List<Long> toList() {
+        List<Long> ids = new ArrayList<>((int) Math.min(cardinality(), Integer.MAX_VALUE));
+        for (int i = 0; i < chunks; i++) {
+            long base = (long) keys[i] << 16;
+            Container container = containers[i];
+            if (container.words == null) {
+                for (int v = 0; v < container.cardinality; v++) ids.add(base | container.values[v]);
+            } else {
+                for (int w = 0; w < WORDS; w++) {
+                    for (long word = container.words[w]; word != 0; word &= word - 1) {
+                        ids.add(base | (w * 64L + Long.numberOfTrailingZeros(word)));
+                    }
+                }
+            }
+        }
+        return ids;
+    }
+
+    // Approximate footprint of the containers, for metrics
+    long sizeInBytes() {
+        long size = 3L * keys.length + 8L * containers.length;
+        for (int i = 0; i < chunks; i++) size += 16 + containers[i].sizeInBytes();
+        return size;
+    }
+
+    TaskBitmap copy() {
+        TaskBitmap copy = new TaskBitmap(chunks);
+        for (int i = 0; i < chunks; i++) copy.appendChunk(keys[i], containers[i].copy());
+        return copy;
+    }
+
+    static TaskBitmap and(TaskBitmap a, TaskBitmap b) {
+        TaskBitmap result = new TaskBitmap(Math.min(a.chunks, b.chunks));
+        int i = 0;
+        int j = 0;
+        while (i < a.chunks && j < b.chunks) {
+            if (a.keys[i] < b.keys[j]) i++;
+            else if (a.keys[i] > b.keys[j]) j++;
+            else {
+                Container container = Container.and(a.containers[i], b.containers[j]);
+                if (container != null) result.appendChunk(a.keys[i], container);
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    // Size of the intersection without building it, for facet counts
+    static long andCardinality(TaskBitmap a, TaskBitmap b) {
+        long cardinality = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.chunks && j < b.chunks) {
+            if (a.keys[i] < b.keys[j]) i++;
+            else if (a.keys[i] > b.keys[j]) j++;
+            else cardinality += Container.andCardinality(a.containers[i++], b.containers[j++]);
+        }
+        return cardinality;
+    }
+
+    static TaskBitmap or(TaskBitmap a, TaskBitmap b) {
+        TaskBitmap result = new TaskBitmap(a.chunks + b.chunks);
+        int i = 0;
+        int j = 0;
+        while (i < a.chunks || j < b.chunks) {
+            if (j == b.chunks || (i < a.chunks && a.keys[i] < b.keys[j])) {
+                result.appendChunk(a.keys[i], a.containers[i++].copy());
+            } else if (i == a.chunks || a.keys[i] > b.keys[j]) {
+                result.appendChunk(b.keys[j], b.containers[j++].copy());
+            } else {
+                result.appendChunk(a.keys[i], Container.or(a.containers[i++], b.containers[j++]));
+            }
+        }
+        return result;
+    }
+
+    // Ids of a that are not in b
+    static TaskBitmap andNot(TaskBitmap a, TaskBitmap b) {
+        TaskBitmap result = new TaskBitmap(a.chunks);
+        int j = 0;
+        for (int i = 0; i < a.chunks; i++) {
+            while (j < b.chunks && b.keys[j] < a.keys[i]) j++;
+            Container container = (j < b.chunks && b.keys[j] == a.keys[i])
+                    ? Container.andNot(a.containers[i], b.containers[j])
+                    : a.containers[i].copy();
+            if (container != null) result.appendChunk(a.keys[i], container);
+        }
+        return result;
+    }
+
+    private static char high(long id) {
+        if (id < 0 || id > 0xFFFF_FFFFL) throw new IllegalArgumentException("Task id out of range: " + id);
+        return (char) (id >>> 16);
+    }
+
+    private void insertChunk(int index, char key, Container container) {
+        ensureCapacity(chunks + 1);
+        System.arraycopy(keys, index, keys, index + 1, chunks - index);
+        System.arraycopy(containers, index, containers, index + 1, chunks - index);
+        keys[index] = key;
+        containers[index] = container;
+        chunks++;
+    }
+
+    private void appendChunk(char key, Container container) {
+        ensureCapacity(chunks + 1);
+        keys[chunks] = key;
+        containers[chunks++] = container;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= keys.length) return;
+        int grown = Math.max(capacity, keys.length * 2);
+        keys = Arrays.copyOf(keys, grown);
+        containers = Arrays.copyOf(containers, grown);
+    }
+}
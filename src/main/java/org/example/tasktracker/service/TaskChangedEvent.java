@@ -0,0 +1,24 @@
+package org.example.tasktracker.service;
+
+import org.example.tasktracker.model.TaskSnapshot;
+
+/**
+ * Published by {@link TaskService} for every change to a task, while the service's write lock is held,
+ * so listeners see changes in commit order. Listeners must be quick and must not modify tasks.
+ * {@code before} is null for CREATED, {@code after} is null for DELETED and ARCHIVED. An ARCHIVED task has
+ * left the live set for {@link TaskArchiveService}; listeners that describe live tasks treat it like a delete.
+ */
+public record TaskChangedEvent(Type type, TaskSnapshot before, TaskSnapshot after, long userVersion) {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED, ARCHIVED
+    }
+
+    public Long userId() {
+        return (after != null ? after : before).userId();
+    }
+
+    public Long taskId() {
+        return (after != null ? after : before).id();
+    }
+}
@@ -0,0 +1,84 @@
+package org.example.tasktracker.service;
+
+import org.example.tasktracker.model.Task;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque pagination cursor. It carries the sort key and id of the last task on a page rather than an offset,
+ * so pages stay stable while tasks are added or removed in between requests.
+ */
+public final class TaskCursor {
+
+    private TaskCursor() {
+    }
+
+    public static String encode(Task last, String sortBy) {
+        String value = sortValue(last, sortBy);
+        String raw = (sortBy == null ? "" : sortBy) + "\n" + last.getId() + "\n" + (value == null ? "" : "v" + value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Rebuild a probe task holding only the id and the sort field, which is all the query comparators read.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed or was issued for another sort order
+     */
+    public static Task decode(String cursor, String sortBy) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+
+        String[] parts = raw.split("\n", 3);
+        if (parts.length != 3) throw new IllegalArgumentException("Malformed cursor");
+        if (!parts[0].equals(sortBy == null ? "" : sortBy)) {
+            throw new IllegalArgumentException("Cursor was issued for a different sort order");
+        }
+
+        String value = parts[2].isEmpty() ? null : parts[2].substring(1);
+        Task probe = new Task(null, null, null);
+        probe.setCreatedAt(null);
+        probe.setPriority(null);
+        try {
+            probe.setId(Long.parseLong(parts[1]));
+            if (sortBy != null) {
+                switch (sortBy) {
+                    case TaskQuery.SORT_TITLE:
+                        probe.setTitle(value);
+                        break;
+                    case TaskQuery.SORT_PRIORITY:
+                        probe.setPriority(value);
+                        break;
+                    case TaskQuery.SORT_DUE_DATE:
+                        probe.setDueDate(value == null ? null : LocalDate.parse(value));
+                        break;
+                    default:
+                        probe.setCreatedAt(value == null ? null : LocalDateTime.parse(value));
+                }
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        return probe;
+    }
+
+    private static String sortValue(Task task, String sortBy) {
+        if (sortBy == null) return null;
+        switch (sortBy) {
+            case TaskQuery.SORT_TITLE:
+                return task.getTitle();
+            case TaskQuery.SORT_PRIORITY:
+                return task.getPriority();
+            case TaskQuery.SORT_DUE_DATE:
+                return task.getDueDate() == null ? null : task.getDueDate().toString();
+            default:
+                return task.getCreatedAt() == null ? null : task.getCreatedAt().toString();
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package org.example.tasktracker.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.example.tasktracker.model.TaskSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compressed bitmap indexes ({@link TaskBitmap}) over all tasks, one per tag, status, priority and due bucket,
+ * plus one per user, kept up to date from {@link TaskChangedEvent}s. A {@link FacetFilter} is answered with
+ * bitmap operations within the user's bitmap, and facet counts are intersection sizes, so neither scans tasks.
+ *
+ * <p>Due dates are indexed per date. The {@code due:*} bitmaps are unions of date ranges, built for the current
+ * day on first use and kept up to date from then on; when the date moves on they are rebuilt once.</p>
+ */
+@Service
+public class TaskFacetService {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskFacetService.class);
+
+    private final TaskService taskService;
+    private final Timer evaluateTimer;
+
+    private final Map<Long, TaskBitmap> byUser = new HashMap<>();
+    // Keyed like filter terms: "tag:work", "status:todo", "priority:high", "due:none" and the due buckets
+    private final Map<String, TaskBitmap> byFacet = new HashMap<>();
+    // userId -> tag -> number of the user's tasks with it, to list a user's tags without a scan
+    private final Map<Long, Map<String, Integer>> tagsByUser = new HashMap<>();
+    private final NavigableMap<LocalDate, TaskBitmap> byDueDate = new TreeMap<>();
+    private LocalDate bucketsDay; // day the dated due buckets in byFacet were built for, null until first use
+
+    @Autowired
+    public TaskFacetService(TaskService taskService, MeterRegistry meterRegistry) {
+        this.taskService = taskService;
+        this.evaluateTimer = Timer.builder("tasktracker.facets.evaluate")
+                .description("Facet filter and facet count evaluation").publishPercentileHistogram().register(meterRegistry);
+        Gauge.builder("tasktracker.facets.bytes", this, TaskFacetService::sizeInBytes)
+                .description("Approximate size of the facet bitmaps").register(meterRegistry);
+    }
+
+    // Seeded once the tasks are loaded; the scan holds the task service's read lock, so no event can slip in between
+    @PostConstruct
+    public void init() {
+        taskService.whenLoaded(this::seed);
+    }
+
+    private synchronized void seed() {
+        taskService.forEachTask(task -> apply(TaskSnapshot.of(task), true));
+        log.info("Facet indexes initialized: {} facets, {} bytes", byFacet.size(), sizeInBytes());
+    }
+
+    @EventListener
+    public synchronized void onTaskChanged(TaskChangedEvent event) {
+        if (event.before() != null) apply(event.before(), false);
+        if (event.after() != null) apply(event.after(), true);
+    }
+
+    private void apply(TaskSnapshot task, boolean add) {
+        long id = task.id();
+        update(byUser, task.userId(), id, add);
+        update(byFacet, FacetFilter.STATUS + ":" + task.status(), id, add);
+        String priority = task.priority() == null ? null : task.priority().toLowerCase();
+        if (FacetFilter.PRIORITIES.contains(priority)) update(byFacet, FacetFilter.PRIORITY + ":" + priority, id, add);
+
+        if (task.tags() != null) {
+            Map<String, Integer> userTags = tagsByUser.computeIfAbsent(task.userId(), k -> new HashMap<>());
+            for (String tag : task.tags()) {
+                update(byFacet, FacetFilter.TAG + ":" + tag, id, add);
+                userTags.merge(tag, add ? 1 : -1, (a, b) -> a + b == 0 ? null : a + b);
+            }
+            if (userTags.isEmpty()) tagsByUser.remove(task.userId());
+        }
+
+        if (task.dueDate() == null) {
+            update(byFacet, FacetFilter.DUE + ":none", id, add);
+        } else {
+            update(byDueDate, task.dueDate(), id, add);
+            if (bucketsDay != null) {
+                update(byFacet, FacetFilter.DUE + ":" + FacetFilter.dueBucket(task.dueDate(), bucketsDay), id, add);
+            }
+        }
+    }
+
+    private static <K> void update(Map<K, TaskBitmap> index, K key, long id, boolean add) {
+        if (add) {
+            index.computeIfAbsent(key, k -> new TaskBitmap()).add(id);
+            return;
+        }
+        TaskBitmap bitmap = index.get(key);
+        if (bitmap != null && bitmap.remove(id) && bitmap.isEmpty()) index.remove(key);
+    }
+
+    // Queries
+    /**
+     * Ids of the user's tasks that match the filter (all of them for null), ascending. When {@code within} is
+     * not null only those ids are considered, e.g. the tasks of a project.
+     */
+    public synchronized List<Long> select(Long userId, FacetFilter filter, List<Long> within) {
+        long started = System.nanoTime();
+        try {
+            return matching(userId, filter, within).toList();
+        } finally {
+            evaluateTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * How many of the tasks selected by {@link #select} fall in each facet value: {@code status}, {@code priority}
+     * and {@code due} list every value, {@code tag} the user's tags by name, with zero counts included so a
+     * sidebar can offer every option.
+     */
+    public synchronized Map<String, Map<String, Long>> countFacets(Long userId, FacetFilter filter, List<Long> within) {
+        long started = System.nanoTime();
+        try {
+            TaskBitmap matching = matching(userId, filter, within);
+            Map<String, Map<String, Long>> counts = new LinkedHashMap<>();
+            counts.put(FacetFilter.STATUS, count(matching, FacetFilter.STATUS, FacetFilter.STATUSES));
+            counts.put(FacetFilter.PRIORITY, count(matching, FacetFilter.PRIORITY, FacetFilter.PRIORITIES));
+            counts.put(FacetFilter.DUE, count(matching, FacetFilter.DUE, FacetFilter.DUE_BUCKETS));
+            counts.put(FacetFilter.TAG, count(matching, FacetFilter.TAG,
+                    getTags(userId)));
+            return counts;
+        } finally {
+            evaluateTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // The user's tags, sorted
+    public synchronized List<String> getTags(Long userId) {
+        return new ArrayList<>(new TreeMap<>(tagsByUser.getOrDefault(userId, Map.of())).keySet());
+    }
+
+    public synchronized long sizeInBytes() {
+        long size = 0;
+        for (TaskBitmap bitmap : byUser.values()) size += bitmap.sizeInBytes();
+        for (TaskBitmap bitmap : byFacet.values()) size += bitmap.sizeInBytes();
+        for (TaskBitmap bitmap : byDueDate.values()) size += bitmap.sizeInBytes();
+        return size;
+    }
+
+    private TaskBitmap matching(Long userId, FacetFilter filter, List<Long> within) {
+        TaskBitmap universe = byUser.get(userId);
+        if (universe == null) return new TaskBitmap();
+        if (within != null) universe = TaskBitmap.and(universe, TaskBitmap.of(within));
+        refreshDueBuckets();
+        if (filter == null) return universe;
+        return filter.evaluate(byFacet::get, universe);
+    }
+
+    private Map<String, Long> count(TaskBitmap matching, String facet, List<String> values) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (String value : values) {
+            TaskBitmap bitmap = byFacet.get(facet + ":" + value);
+            counts.put(value, bitmap == null ? 0 : TaskBitmap.andCardinality(matching, bitmap));
+        }
+        return counts;
+    }
+
+    // Rebuild the dated due buckets when the day has changed since they were built
+    private void refreshDueBuckets() {
+        LocalDate today = LocalDate.now();
+        if (today.equals(bucketsDay)) return;
+        Map<String, TaskBitmap> buckets = new HashMap<>();
+        for (Map.Entry<LocalDate, TaskBitmap> entry : byDueDate.entrySet()) {
+            String key = FacetFilter.DUE + ":" + FacetFilter.dueBucket(entry.getKey(), today);
+            TaskBitmap bucket = buckets.get(key);
+            buckets.put(key, bucket == null ? entry.getValue().copy() : TaskBitmap.or(bucket, entry.getValue()));
+        }
+        for (String bucket : FacetFilter.DUE_BUCKETS) {
+            if (!"none".equals(bucket)) byFacet.remove(FacetFilter.DUE + ":" + bucket);
+        }
+        byFacet.putAll(buckets);
+        bucketsDay = today;
+    }
+}
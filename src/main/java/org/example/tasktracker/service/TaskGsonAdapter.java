@@ -0,0 +1,169 @@
+package org.example.tasktracker.service;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.example.tasktracker.model.Task;
+import org.example.tasktracker.model.User;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Gson adapter for {@link Task} that goes through the getters and the constructor, so text kept in a
+ * {@link org.example.tasktracker.model.TextArena} is written out and read back into one. Writes the same
+ * fields in the same order as Gson's reflective adapter, so the tasks file does not change.
+ */
+final class TaskGsonAdapter implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        if (type.getRawType() != Task.class) return null;
+        return (TypeAdapter<T>) new Adapter(gson.getAdapter(User.class), gson.getAdapter(LocalDateTime.class),
+                gson.getAdapter(LocalDate.class));
+    }
+
+    private static final class Adapter extends TypeAdapter<Task> {
+        private final TypeAdapter<User> users;
+        private final TypeAdapter<LocalDateTime> times;
+        private final TypeAdapter<LocalDate> dates;
+
+        Adapter(TypeAdapter<User> users, TypeAdapter<LocalDateTime> times, TypeAdapter<LocalDate> dates) {
+            this.users = users;
+            this.times = times;
+            this.dates = dates;
+        }
+
+        // Null values are dropped together with their name unless the writer serializes nulls
+        @Override
+        public void write(JsonWriter out, Task task) throws IOException {
+            if (task == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("id").value(task.getId());
+            out.name("title").value(task.getTitle());
+            out.name("description").value(task.getDescription());
+            out.name("completed").value(task.isCompleted());
+            out.name("createdAt");
+            times.write(out, task.getCreatedAt());
+            out.name("updatedAt");
+            times.write(out, task.getUpdatedAt());
+            out.name("user");
+            users.write(out, task.getUser());
+            out.name("inProgress").value(task.isInProgress());
+            out.name("priority").value(task.getPriority());
+            out.name("dueDate");
+            dates.write(out, task.getDueDate());
+            out.name("completedAt");
+            times.write(out, task.getCompletedAt());
+            out.name("projectId").value(task.getProjectId());
+            if (!task.getTags().isEmpty()) {
+                out.name("tags").beginArray();
+                for (String tag : task.getTags()) out.value(tag);
+                out.endArray();
+            }
+            out.endObject();
+        }
+
+        @Override
+        public Task read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            Long id = null;
+            String title = null;
+            String description = null;
+            boolean completed = false;
+            boolean inProgress = false;
+            String priority = null;
+            LocalDate dueDate = null;
+            LocalDateTime createdAt = null;
+            LocalDateTime updatedAt = null;
+            LocalDateTime completedAt = null;
+            Long projectId = null;
+            List<String> tags = null;
+            User user = null;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                switch (name) {
+                    case "id":
+                        id = in.nextLong();
+                        break;
+                    case "title":
+                        title = in.nextString();
+                        break;
+                    case "description":
+                        description = in.nextString();
+                        break;
+                    case "completed":
+                        completed = in.nextBoolean();
+                        break;
+                    case "inProgress":
+                        inProgress = in.nextBoolean();
+                        break;
+                    case "priority":
+                        priority = in.nextString();
+                        break;
+                    case "dueDate":
+                        dueDate = dates.read(in);
+                        break;
+                    case "createdAt":
+                        createdAt = times.read(in);
+                        break;
+                    case "updatedAt":
+                        updatedAt = times.read(in);
+                        break;
+                    case "completedAt":
+                        completedAt = times.read(in);
+                        break;
+                    case "projectId":
+                        projectId = in.nextLong();
+                        break;
+                    case "tags":
+                        tags = new ArrayList<>();
+                        in.beginArray();
+                        while (in.hasNext()) tags.add(in.nextString());
+                        in.endArray();
+                        break;
+                    case "user":
+                        user = users.read(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+
+            // Fields as stored: setCompleted() would otherwise stamp completedAt and clear inProgress
+            Task task = new Task(title, description, user);
+            task.setId(id);
+            task.setCompleted(completed);
+            task.setInProgress(inProgress);
+            task.setPriority(priority);
+            task.setDueDate(dueDate);
+            task.setCreatedAt(createdAt);
+            task.setUpdatedAt(updatedAt);
+            task.setCompletedAt(completedAt);
+            task.setProjectId(projectId);
+            task.setTags(tags);
+            return task;
+        }
+    }
+}
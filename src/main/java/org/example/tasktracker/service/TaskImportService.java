@@ -0,0 +1,205 @@
+package org.example.tasktracker.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.tasktracker.model.Task;
+import org.example.tasktracker.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongFunction;
+
+/**
+ * Bulk import of newline-delimited JSON tasks (same shape as the export).
+ * Lines are parsed and validated one at a time, and accepted tasks are committed in batches
+ * so a large import costs one index update and one file save per batch instead of per task.
+ * A {@code projectId} is kept only when it names one of the owner's projects.
+ */
+@Service
+public class TaskImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskImportService.class);
+
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final TaskService taskService;
+    private final ProjectService projectService;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public TaskImportService(TaskService taskService, ProjectService projectService, ObjectMapper objectMapper) {
+        this.taskService = taskService;
+        this.projectService = projectService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Import every task into {@code owner}'s account; any {@code userId} in the records is ignored.
+     */
+    public ImportResult importForUser(Reader input, User owner, int batchSize) throws IOException {
+        return importTasks(input, userId -> owner, batchSize);
+    }
+
+    /**
+     * Import tasks for the users named by each record's {@code userId}; records for unknown users are rejected.
+     */
+    public ImportResult importTasks(Reader input, LongFunction<User> ownerLookup, int batchSize) throws IOException {
+        int size = Math.max(1, batchSize);
+        long started = System.nanoTime();
+        long lineNumber = 0;
+        long imported = 0;
+        long rejected = 0;
+        int batches = 0;
+        List<ImportResult.LineError> errors = new ArrayList<>();
+        List<Task> batch = new ArrayList<>(size);
+
+        BufferedReader reader = (input instanceof BufferedReader) ? (BufferedReader) input : new BufferedReader(input);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) continue;
+
+            try {
+                batch.add(parseTask(line, ownerLookup));
+            } catch (IllegalArgumentException e) {
+                rejected++;
+                if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add(new ImportResult.LineError(lineNumber, e.getMessage()));
+                }
+                continue;
+            }
+
+            if (batch.size() == size) {
+                taskService.importTasks(batch);
+                imported += batch.size();
+                batches++;
+                batch = new ArrayList<>(size);
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            taskService.importTasks(batch);
+            imported += batch.size();
+            batches++;
+        }
+
+        long elapsedNanos = System.nanoTime() - started;
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        double recordsPerSecond = seconds > 0 ? (imported + rejected) / seconds : 0;
+
+        log.info("Imported {} tasks ({} rejected) in {} batches, {} records/s",
+                imported, rejected, batches, Math.round(recordsPerSecond));
+
+        return new ImportResult(imported, rejected, batches, elapsedNanos / 1_000_000, recordsPerSecond, errors);
+    }
+
+    private Task parseTask(String line, LongFunction<User> ownerLookup) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid JSON: " + e.getOriginalMessage());
+        }
+        if (node == null || !node.isObject()) {
+            throw new IllegalArgumentException("Expected a JSON object");
+        }
+
+        User owner = ownerLookup.apply(node.path("userId").asLong(-1));
+        if (owner == null) {
+            throw new IllegalArgumentException("Unknown userId: " + node.path("userId").asText());
+        }
+
+        String title = text(node, "title");
+        if (title == null || title.isBlank()) throw new IllegalArgumentException("title is required");
+        if (title.length() > 100) throw new IllegalArgumentException("title is longer than 100 characters");
+
+        String description = text(node, "description");
+        if (description != null && description.length() > 500) {
+            throw new IllegalArgumentException("description is longer than 500 characters");
+        }
+
+        Task task = new Task(title, description, owner);
+        task.setCreatedAt(null); // keep the exported creation time, or let the service stamp it
+
+        String priority = text(node, "priority");
+        if (priority != null) {
+            if (!priority.equals("low") && !priority.equals("medium") && !priority.equals("high")) {
+                throw new IllegalArgumentException("priority must be low, medium or high");
+            }
+            task.setPriority(priority);
+        }
+
+        String status = text(node, "status");
+        if (status == null) {
+            status = node.path("completed").asBoolean() ? "completed"
+                    : node.path("inProgress").asBoolean() ? "in_progress" : "todo";
+        }
+        switch (status) {
+            case "todo":
+                break;
+            case "in_progress":
+                task.setInProgress(true);
+                break;
+            case "completed":
+                task.setCompleted(true);
+                break;
+            default:
+                throw new IllegalArgumentException("status must be todo, in_progress or completed");
+        }
+
+        try {
+            String dueDate = text(node, "dueDate");
+            if (dueDate != null) task.setDueDate(LocalDate.parse(dueDate));
+            String createdAt = text(node, "createdAt");
+            if (createdAt != null) task.setCreatedAt(LocalDateTime.parse(createdAt));
+            String updatedAt = text(node, "updatedAt");
+            if (updatedAt != null) task.setUpdatedAt(LocalDateTime.parse(updatedAt));
+            String completedAt = text(node, "completedAt");
+            if (completedAt != null && task.isCompleted()) task.setCompletedAt(LocalDateTime.parse(completedAt));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid date: " + e.getMessage());
+        }
+
+        JsonNode tags = node.get("tags");
+        if (tags != null && !tags.isNull()) {
+            task.setTags(TaskService.parseTags(tagList(tags)));
+        }
+
+        // Project ids are per instance and user, so one from another account or instance is dropped
+        JsonNode projectId = node.get("projectId");
+        if (projectId != null && projectId.canConvertToLong()
+                && projectService.isUsersProject(owner.getId(), projectId.asLong())) {
+            task.setProjectId(projectId.asLong());
+        }
+
+        return task;
+    }
+
+    // Exported as an array; a comma-separated string, as in the forms, is accepted too
+    private static String tagList(JsonNode tags) {
+        if (tags.isTextual()) return tags.asText();
+        if (!tags.isArray()) throw new IllegalArgumentException("tags must be a list of strings");
+        List<String> list = new ArrayList<>();
+        for (JsonNode tag : tags) {
+            if (!tag.isTextual()) throw new IllegalArgumentException("tags must be a list of strings");
+            list.add(tag.asText());
+        }
+        return String.join(",", list);
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return (value == null || value.isNull()) ? null : value.asText();
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.tasktracker.service;
+
+import org.example.tasktracker.model.Task;
+
+import java.util.List;
+
+/**
+ * One page of a filtered task list plus counts over every match, as shown on the task management page.
+ */
+public record TaskListing(List<Task> tasks, long matched, long todo, long inProgress, long completed) {
+
+    public int totalPages(int size) {
+        return (int) Math.max(1, (matched + size - 1) / size);
+    }
+}
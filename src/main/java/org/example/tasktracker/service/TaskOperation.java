@@ -0,0 +1,15 @@
+package org.example.tasktracker.service;
+
+import java.util.Map;
+
+/**
+ * One entry of a batch mutation: the task id, the operation name and its arguments.
+ * Supported operations are {@code status} (args.status), {@code toggle}, {@code priority} (args.priority),
+ * {@code tags} (args.tags, comma separated, replacing the task's tags) and {@code delete}.
+ */
+public record TaskOperation(Long id, String op, Map<String, String> args) {
+
+    public String arg(String name) {
+        return args == null ? null : args.get(name);
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.tasktracker.service;
+
+import org.example.tasktracker.model.Task;
+
+import java.util.List;
+
+/**
+ * One page of a cursor query: the tasks in order and whether more follow the last one.
+ */
+public record TaskPage(List<Task> tasks, boolean hasMore) {
+
+    public Task last() {
+        return tasks.isEmpty() ? null : tasks.get(tasks.size() - 1);
+    }
+}
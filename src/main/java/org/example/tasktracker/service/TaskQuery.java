@@ -0,0 +1,210 @@
+package org.example.tasktracker.service;
+
+import org.example.tasktracker.model.Task;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Filter and sort semantics of the task management page ({@code search}, {@code priority}, {@code sortBy},
+ * the project filter and the facet filter), shared by the HTML views and the JSON API so both always agree on what a query returns.
+ * Every ordering is a total order: ties are broken by task id, which makes it usable as a cursor key.
+ */
+public final class TaskQuery {
+
+    public static final String SORT_TITLE = "title";
+    public static final String SORT_PRIORITY = "priority";
+    public static final String SORT_DUE_DATE = "due_date";
+    public static final String SORT_CREATED = "created";
+
+    private static final Comparator<Task> BY_ID =
+            Comparator.comparing(Task::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private static final Comparator<Task> BY_TITLE =
+            Comparator.comparing(Task::getTitle, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)).thenComparing(BY_ID);
+
+    private static final Comparator<Task> BY_PRIORITY =
+            Comparator.comparingInt((Task task) -> priorityRank(task.getPriority())).thenComparing(BY_ID);
+
+    private static final Comparator<Task> BY_DUE_DATE =
+            Comparator.comparing(Task::getDueDate, Comparator.nullsLast(LocalDate::compareTo)).thenComparing(BY_ID);
+
+    private static final Comparator<Task> BY_CREATED =
+            Comparator.comparing(Task::getCreatedAt, Comparator.nullsLast(LocalDateTime::compareTo)).thenComparing(BY_ID);
+
+    private final String search;      // already lower-cased, null when absent
+    private final String priority;    // null when absent
+    private final String sortBy;      // normalized sort key, null keeps id order
+    private final Set<Long> projects; // null when absent
+    private final FacetFilter filter; // null when absent
+    private final LocalDate today;    // due buckets of the facet filter are judged against it
+    private final Comparator<Task> comparator;
+
+    private TaskQuery(String search, String priority, String sortBy, Set<Long> projects, FacetFilter filter, LocalDate today) {
+        this.search = (search == null || search.isEmpty()) ? null : search.toLowerCase();
+        this.priority = (priority == null || priority.isEmpty()) ? null : priority;
+        this.sortBy = normalizeSort(sortBy);
+        this.projects = projects;
+        this.filter = filter;
+        this.today = today;
+        this.comparator = comparatorFor(this.sortBy);
+    }
+
+    public static TaskQuery of(String search, String priority, String sortBy) {
+        return new TaskQuery(search, priority, sortBy, null, null, null);
+    }
+
+    // Same query, limited to tasks in one of the given projects
+    public TaskQuery inProjects(Set<Long> projects) {
+        return new TaskQuery(search, priority, sortBy, projects, filter, today);
+    }
+
+    // Same query, limited to tasks matching the facet filter (null for none) as of today
+    public TaskQuery withFilter(FacetFilter filter) {
+        return new TaskQuery(search, priority, sortBy, projects, filter, LocalDate.now());
+    }
+
+    public String getSortBy() {
+        return sortBy;
+    }
+
+    public boolean isSorted() {
+        return sortBy != null;
+    }
+
+    public Comparator<Task> comparator() {
+        return comparator;
+    }
+
+    /**
+     * Same rules as the original page: priority must match ignoring case,
+     * and the search term must appear in the title or the description.
+     */
+    public boolean matches(Task task) {
+        if (projects != null && (task.getProjectId() == null || !projects.contains(task.getProjectId()))) {
+            return false;
+        }
+        if (priority != null && (task.getPriority() == null || !task.getPriority().equalsIgnoreCase(priority))) {
+            return false;
+        }
+        if (filter != null && !filter.matches(task, today)) {
+            return false;
+        }
+        if (search != null) {
+            return task.titleContainsIgnoreCase(search) || task.descriptionContainsIgnoreCase(search);
+        }
+        return true;
+    }
+
+    /**
+     * Select the first {@code limit} matching tasks strictly after {@code after} in this query's order.
+     * Only a bounded heap of {@code limit + 1} entries is kept, so the cost does not depend on how many
+     * tasks sort before the requested page.
+     */
+    public TaskPage page(Iterable<Task> candidates, Task after, int limit) {
+        PriorityQueue<Task> heap = new PriorityQueue<>(limit + 2, comparator.reversed());
+        for (Task task : candidates) {
+            if (!matches(task)) continue;
+            if (after != null && comparator.compare(task, after) <= 0) continue;
+            if (heap.size() <= limit) {
+                heap.offer(task);
+            } else if (comparator.compare(task, heap.peek()) < 0) {
+                heap.poll();
+                heap.offer(task);
+            }
+        }
+
+        boolean hasMore = heap.size() > limit;
+        if (hasMore) heap.poll();
+
+        List<Task> page = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) page.add(heap.poll());
+        Collections.reverse(page);
+        return new TaskPage(page, hasMore);
+    }
+
+    /**
+     * Filter, count and paginate in a single traversal of {@code candidates}, which must be in id order.
+     * Status counts cover every match; only the tasks up to the end of the requested page are kept,
+     * in a bounded heap when sorting or directly when the id order is used as is.
+     */
+    public TaskListing select(Iterable<Task> candidates, int offset, int limit) {
+        int keep = offset + limit;
+        PriorityQueue<Task> heap = isSorted() ? new PriorityQueue<>(Math.min(keep, 1024) + 1, comparator.reversed()) : null;
+        List<Task> inOrder = isSorted() ? null : new ArrayList<>(Math.min(limit, 1024));
+        long matched = 0;
+        long todo = 0;
+        long inProgress = 0;
+        long completed = 0;
+
+        for (Task task : candidates) {
+            if (!matches(task)) continue;
+
+            if (task.isCompleted()) completed++;
+            else if (task.isInProgress()) inProgress++;
+            else todo++;
+
+            if (heap != null) {
+                if (heap.size() < keep) {
+                    heap.offer(task);
+                } else if (keep > 0 && comparator.compare(task, heap.peek()) < 0) {
+                    heap.poll();
+                    heap.offer(task);
+                }
+            } else if (matched >= offset && matched < keep) {
+                inOrder.add(task);
+            }
+            matched++;
+        }
+
+        List<Task> page = inOrder;
+        if (heap != null) {
+            // The heap pops worst first; everything beyond the first offset tasks is the page
+            int pageSize = Math.max(0, heap.size() - offset);
+            Task[] sorted = new Task[pageSize];
+            for (int i = pageSize - 1; i >= 0; i--) sorted[i] = heap.poll();
+            page = Arrays.asList(sorted);
+        }
+        return new TaskListing(page, matched, todo, inProgress, completed);
+    }
+
+    public static int priorityRank(String priority) {
+        if ("high".equalsIgnoreCase(priority)) return 1;
+        if ("medium".equalsIgnoreCase(priority)) return 2;
+        if ("low".equalsIgnoreCase(priority)) return 3;
+        return 4; // default for null or unknown
+    }
+
+    private static String normalizeSort(String sortBy) {
+        if (sortBy == null) return null;
+        switch (sortBy) {
+            case SORT_TITLE:
+            case SORT_PRIORITY:
+            case SORT_DUE_DATE:
+                return sortBy;
+            default:
+                return SORT_CREATED;
+        }
+    }
+
+    private static Comparator<Task> comparatorFor(String sortBy) {
+        if (sortBy == null) return BY_ID;
+        switch (sortBy) {
+            case SORT_TITLE:
+                return BY_TITLE;
+            case SORT_PRIORITY:
+                return BY_PRIORITY;
+            case SORT_DUE_DATE:
+                return BY_DUE_DATE;
+            default:
+                return BY_CREATED;
+        }
+    }
+}
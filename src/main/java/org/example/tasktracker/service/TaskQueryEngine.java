@@ -0,0 +1,153 @@
+package org.example.tasktracker.service;
+
+import org.example.tasktracker.model.Task;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Evaluates admin queries over every task in parallel.
+ *
+ * <p>The query runs over a snapshot of the task list, so the service lock is only held for the copy.
+ * The snapshot is split in halves on the fork-join pool down to {@code tasktracker.query.chunk-size} tasks;
+ * each chunk counts its matches and keeps its best {@code limit} tasks in a bounded heap, and partial results
+ * are combined by adding counts and merging the two sorted top lists. Nothing is shared between chunks,
+ * so the work scales with the number of cores.</p>
+ */
+@Service
+public class TaskQueryEngine {
+
+    private static final String[] STATUSES = {"todo", "in_progress", "completed"};
+    private static final String[] PRIORITIES = {"high", "medium", "low", "other"}; // by TaskQuery.priorityRank
+
+    private final TaskService taskService;
+    private final int chunkSize;
+
+    @Autowired
+    public TaskQueryEngine(TaskService taskService, @Value("${tasktracker.query.chunk-size:8192}") int chunkSize) {
+        this.taskService = taskService;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    public AdminQueryResult execute(AdminTaskQuery query, int limit) {
+        return execute(taskService.getAllTasks(), query, limit, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Run the query over {@code tasks} on the given pool; exposed so benchmarks can compare pool sizes.
+     */
+    public AdminQueryResult execute(List<Task> tasks, AdminTaskQuery query, int limit, ForkJoinPool pool) {
+        long started = System.nanoTime();
+        Chunk root = new Chunk(tasks, query, LocalDate.now(), Math.max(0, limit), 0, tasks.size());
+        Partial result = pool.invoke(root);
+
+        Map<String, Long> byStatus = new LinkedHashMap<>();
+        for (int i = 0; i < STATUSES.length; i++) byStatus.put(STATUSES[i], result.byStatus[i]);
+        Map<String, Long> byPriority = new LinkedHashMap<>();
+        for (int i = 0; i < PRIORITIES.length; i++) byPriority.put(PRIORITIES[i], result.byPriority[i]);
+
+        return new AdminQueryResult(result.matched, byStatus, byPriority, result.top, result.chunks,
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private static final class Partial {
+        long matched;
+        final long[] byStatus = new long[STATUSES.length];
+        final long[] byPriority = new long[PRIORITIES.length];
+        List<Task> top; // sorted, at most limit entries
+        int chunks = 1;
+    }
+
+    @SuppressWarnings("serial") // Serializable only through RecursiveTask; never serialized
+    private final class Chunk extends RecursiveTask<Partial> {
+        private final List<Task> tasks;
+        private final AdminTaskQuery query;
+        private final LocalDate today;
+        private final int limit;
+        private final int from;
+        private final int to;
+
+        Chunk(List<Task> tasks, AdminTaskQuery query, LocalDate today, int limit, int from, int to) {
+            this.tasks = tasks;
+            this.query = query;
+            this.today = today;
+            this.limit = limit;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (to - from <= chunkSize) {
+                return scan();
+            }
+            int middle = (from + to) >>> 1;
+            Chunk left = new Chunk(tasks, query, today, limit, from, middle);
+            left.fork();
+            Partial right = new Chunk(tasks, query, today, limit, middle, to).compute();
+            return combine(left.join(), right);
+        }
+
+        private Partial scan() {
+            Comparator<Task> comparator = query.base().comparator();
+            PriorityQueue<Task> heap = new PriorityQueue<>(Math.min(limit, to - from) + 1, comparator.reversed());
+            Partial partial = new Partial();
+            for (int i = from; i < to; i++) {
+                Task task = tasks.get(i);
+                if (!query.matches(task, today)) continue;
+
+                partial.matched++;
+                partial.byStatus[task.isCompleted() ? 2 : task.isInProgress() ? 1 : 0]++;
+                partial.byPriority[TaskQuery.priorityRank(task.getPriority()) - 1]++;
+
+                if (heap.size() < limit) {
+                    heap.offer(task);
+                } else if (limit > 0 && comparator.compare(task, heap.peek()) < 0) {
+                    heap.poll();
+                    heap.offer(task);
+                }
+            }
+            List<Task> top = new ArrayList<>(heap.size());
+            while (!heap.isEmpty()) top.add(heap.poll());
+            Collections.reverse(top);
+            partial.top = top;
+            return partial;
+        }
+
+        private Partial combine(Partial left, Partial right) {
+            Partial combined = new Partial();
+            combined.matched = left.matched + right.matched;
+            for (int i = 0; i < STATUSES.length; i++) combined.byStatus[i] = left.byStatus[i] + right.byStatus[i];
+            for (int i = 0; i < PRIORITIES.length; i++) combined.byPriority[i] = left.byPriority[i] + right.byPriority[i];
+            combined.top = mergeTop(left.top, right.top, query.base().comparator(), limit);
+            combined.chunks = left.chunks + right.chunks;
+            return combined;
+        }
+    }
+
+    // Merge two sorted lists, keeping only the first limit entries
+    static List<Task> mergeTop(List<Task> left, List<Task> right, Comparator<Task> comparator, int limit) {
+        List<Task> merged = new ArrayList<>(Math.min(limit, left.size() + right.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < limit && (i < left.size() || j < right.size())) {
+            if (j >= right.size() || (i < left.size() && comparator.compare(left.get(i), right.get(j)) <= 0)) {
+                merged.add(left.get(i++));
+            } else {
+                merged.add(right.get(j++));
+            }
+        }
+        return merged;
+    }
+}
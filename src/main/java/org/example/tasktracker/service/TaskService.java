@@ -2,34 +2,186 @@ package org.example.tasktracker.service;
 
 import com.google.gson.*;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.example.tasktracker.model.Task;
+import org.example.tasktracker.model.TaskSnapshot;
+import org.example.tasktracker.model.TextArena;
 import org.example.tasktracker.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import java.io.*;
 import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
 
 @Service
 public class TaskService {
 
+    private static final Logger log = LoggerFactory.getLogger(TaskService.class);
+
+    // Tags are lower case so they can be used as filter terms (see FacetFilter)
+    static final int MAX_TAGS = 10;
+    private static final Pattern TAG = Pattern.compile("[a-z0-9][a-z0-9_-]{0,29}");
+
     private List<Task> tasks = new ArrayList<>();
-    private final String filename = "data/tasks.json";
+    private final String filename;
+
+    // Indexes over `tasks`; every per-user list is kept in ascending id order
+    private final Map<Long, Task> tasksById = new HashMap<>();
+    private final Map<Long, List<Task>> tasksByUser = new HashMap<>();
+    private final AtomicLong nextTaskId = new AtomicLong(1);
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Per-user change counters used for ETags; the epoch tells apart counters of different runs
+    private final Map<Long, AtomicLong> userVersions = new ConcurrentHashMap<>();
+    private final AtomicLong globalVersion = new AtomicLong();
+    private final long versionEpoch = System.currentTimeMillis();
+
+    // Single writer thread for the tasks file; see saveTasksAsync()
+    private final ExecutorService saveExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "task-store-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Object saveMonitor = new Object();
+    private CompletableFuture<Void> pendingSave;
+
+    // Background loading (tasktracker.startup.lazy-load): users with an id below the watermark are fully loaded
+    private final boolean lazyLoad;
+    private final Object loadMonitor = new Object();
+    private final List<Runnable> loadedActions = new ArrayList<>();
+    private volatile boolean loadComplete;
+    private volatile long loadWatermark;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Store and lookup metrics, published under tasktracker.*
+    private final Timer saveTimer;
+    private final Timer loadTimer;
+    private final DistributionSummary saveBytes;
+    private final DistributionSummary loadBytes;
+    private final Timer findByIdTimer;
+    private final Timer byUserTimer;
+    private final Timer queryTimer;
+    private final Timer loadWaitTimer;
+
+    public TaskService(ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry, String dataDir, boolean lazyLoad) {
+        this(eventPublisher, meterRegistry, dataDir, lazyLoad, false, 1024);
+    }
+
+    /**
+     * With {@code tasktracker.text.off-heap=true}, task titles and descriptions are kept in a {@link TextArena}
+     * of {@code tasktracker.text.slab-kb} KiB direct buffers instead of heap strings.
+     */
+    @Autowired
+    public TaskService(ApplicationEventPublisher eventPublisher,
+                       MeterRegistry meterRegistry,
+                       @Value("${tasktracker.data-dir:data}") String dataDir,
+                       @Value("${tasktracker.startup.lazy-load:false}") boolean lazyLoad,
+                       @Value("${tasktracker.text.off-heap:false}") boolean offHeapText,
+                       @Value("${tasktracker.text.slab-kb:1024}") int textSlabKb) {
+        this.eventPublisher = eventPublisher;
+        this.filename = new File(dataDir, "tasks.json").getPath();
+        this.lazyLoad = lazyLoad;
+
+        this.saveTimer = storeTimer(meterRegistry, "tasktracker.store.save", "Time to write the tasks file");
+        this.loadTimer = storeTimer(meterRegistry, "tasktracker.store.load", "Time to read and index the tasks file");
+        this.saveBytes = DistributionSummary.builder("tasktracker.store.save.bytes").baseUnit("bytes")
+                .description("Size of each tasks file write").register(meterRegistry);
+        this.loadBytes = DistributionSummary.builder("tasktracker.store.load.bytes").baseUnit("bytes")
+                .description("Size of the tasks file read at startup").register(meterRegistry);
+        this.findByIdTimer = lookupTimer(meterRegistry, "findById");
+        this.byUserTimer = lookupTimer(meterRegistry, "byUser");
+        this.queryTimer = lookupTimer(meterRegistry, "query");
+        this.loadWaitTimer = Timer.builder("tasktracker.store.load.wait")
+                .description("Time requests spent waiting for a background load to reach their data")
+                .publishPercentileHistogram().register(meterRegistry);
+        Gauge.builder("tasktracker.tasks", tasksById, Map::size)
+                .description("Tasks in memory").register(meterRegistry);
+
+        if (offHeapText) {
+            TextArena arena = new TextArena(textSlabKb * 1024);
+            Task.useTextArena(arena);
+            Gauge.builder("tasktracker.text.arena", arena, TextArena::allocatedBytes).tag("bytes", "allocated").baseUnit("bytes")
+                    .description("Direct memory of the task text arena").register(meterRegistry);
+            Gauge.builder("tasktracker.text.arena", arena, TextArena::liveBytes).tag("bytes", "live").baseUnit("bytes")
+                    .description("Direct memory of the task text arena").register(meterRegistry);
+        }
+    }
+
+    private static Timer storeTimer(MeterRegistry registry, String name, String description) {
+        return Timer.builder(name).description(description).publishPercentileHistogram().register(registry);
+    }
+
+    private static Timer lookupTimer(MeterRegistry registry, String operation) {
+        return Timer.builder("tasktracker.tasks.lookup").tag("operation", operation)
+                .description("In-memory task lookups").publishPercentileHistogram().register(registry);
+    }
 
     @PostConstruct
     public void init() {
-        loadTasksFromFile();  // ✅ only once, when app starts
+        if (!lazyLoad) {
+            loadTasksFromFile();  // ✅ only once, when app starts
+            finishLoading();
+            return;
+        }
+        Thread loader = new Thread(this::loadTasksInBackground, "task-store-loader");
+        loader.setDaemon(true);
+        loader.start();
     }
 
-    private Gson getGson() {
+    // Present next to the tasks file once it has been saved grouped by user; see loadTasksInBackground()
+    private static final String GROUPED_SUFFIX = ".grouped";
+
+    // Gson instances are thread-safe and cache their type adapters, so one is shared by every load and save
+    private static final Gson GSON = gsonBuilder()
+            .setPrettyPrinting()
+            .registerTypeAdapterFactory(new TaskGsonAdapter())
+            .create();
+
+    /**
+     * Gson settings shared by every file and message format of the services: dates and times as ISO-8601 strings
+     */
+    static GsonBuilder gsonBuilder() {
         return new GsonBuilder()
-                .setPrettyPrinting()
                 .registerTypeAdapter(LocalDateTime.class, (JsonSerializer<LocalDateTime>) (src, typeOfSrc, context) ->
                         new JsonPrimitive(src.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)))
                 .registerTypeAdapter(LocalDateTime.class, (JsonDeserializer<LocalDateTime>) (json, typeOfT, context) ->
@@ -37,20 +189,89 @@ public class TaskService {
                 .registerTypeAdapter(LocalDate.class, (JsonSerializer<LocalDate>) (src, typeOfSrc, context) ->
                         new JsonPrimitive(src.format(DateTimeFormatter.ISO_LOCAL_DATE)))
                 .registerTypeAdapter(LocalDate.class, (JsonDeserializer<LocalDate>) (json, typeOfT, context) ->
-                        LocalDate.parse(json.getAsString(), DateTimeFormatter.ISO_LOCAL_DATE))
-                .create();
+                        LocalDate.parse(json.getAsString(), DateTimeFormatter.ISO_LOCAL_DATE));
     }
 
-    // Save all tasks to JSON file
+    // Save all tasks to JSON file and wait for the write; failures are reported but not rethrown
     public void saveTasksToFile() {
+        try {
+            saveTasksAsync().join();
+        } catch (CompletionException e) {
+            // already reported by the writer
+        }
+    }
+
+    /**
+     * Request a save and get a future that completes once a write containing every change made so far is on disk.
+     * All saves go through one writer thread, and requests that arrive while a write is running share the next one,
+     * so a burst of changes costs a couple of file writes instead of one per change.
+     */
+    public CompletableFuture<Void> saveTasksAsync() {
+        synchronized (saveMonitor) {
+            if (pendingSave == null) {
+                pendingSave = new CompletableFuture<>();
+                saveExecutor.execute(this::flushPendingSave);
+            }
+            return pendingSave;
+        }
+    }
+
+    private void flushPendingSave() {
+        CompletableFuture<Void> save;
+        synchronized (saveMonitor) {
+            save = pendingSave;
+            pendingSave = null;
+        }
+        if (save == null) return;
+
+        try {
+            writeTasksFile();
+            save.complete(null);
+        } catch (IOException e) {
+            log.error("Failed to save tasks to {}", filename, e);
+            save.completeExceptionally(e);
+        }
+    }
+
+    // Write to a temporary file and rename it over the old one, so a crash never leaves a half-written file
+    private void writeTasksFile() throws IOException {
+        long started = System.nanoTime();
         File file = new File(filename);
         file.getParentFile().mkdirs();
+        File tempFile = new File(filename + ".tmp");
 
-        try (Writer writer = new FileWriter(file)) {
-            getGson().toJson(tasks, writer);
-            System.out.println("✅ Tasks saved successfully to: " + file.getAbsolutePath());
-        } catch (IOException e) {
-            System.out.println("❌ Failed to save tasks: " + e.getMessage());
+        // Tasks are written grouped by ascending user id, which lets a background load release users one by one
+        lock.readLock().lock();
+        try (JsonWriter json = GSON.newJsonWriter(new BufferedWriter(new FileWriter(tempFile)))) {
+            List<Long> userIds = new ArrayList<>(tasksByUser.keySet());
+            Collections.sort(userIds);
+            json.beginArray();
+            for (Long userId : userIds) {
+                for (Task task : tasksByUser.get(userId)) {
+                    GSON.toJson(task, Task.class, json);
+                }
+            }
+            json.endArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        File groupedMarker = new File(filename + GROUPED_SUFFIX);
+        if (!groupedMarker.exists()) {
+            groupedMarker.createNewFile();
+        }
+        saveTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        saveBytes.record(file.length());
+        log.debug("Tasks saved to {}", file.getAbsolutePath());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        saveExecutor.shutdown(); // queued saves still run
+        try {
+            saveExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
 
@@ -58,66 +279,576 @@ public class TaskService {
     private void loadTasksFromFile() {
         File file = new File(filename);
         if (!file.exists() || file.length() == 0) {
-            System.out.println("⚠️ No saved tasks found or file empty, starting fresh. Expected file at: " + file.getAbsolutePath());
+            log.warn("No saved tasks found or file empty, starting fresh. Expected file at: {}", file.getAbsolutePath());
             tasks = new ArrayList<>();
+            rebuildIndexes();
             return;
         }
 
+        long started = System.nanoTime();
         try (Reader reader = new FileReader(file)) {
             Type taskListType = new TypeToken<List<Task>>() {}.getType();
-            List<Task> loadedTasks = getGson().fromJson(reader, taskListType);
+            List<Task> loadedTasks = GSON.fromJson(reader, taskListType);
 
             tasks = (loadedTasks != null) ? loadedTasks : new ArrayList<>();
+            rebuildIndexes();
 
-            // Update next task ID
-            long maxId = tasks.stream()
-                    .mapToLong(Task::getId)
-                    .max()
-                    .orElse(0L);
-            Task.setNextId(maxId + 1);
-
-            System.out.println("✅ Tasks loaded successfully from: " + file.getAbsolutePath());
+            loadTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            loadBytes.record(file.length());
+            log.info("Loaded {} tasks from {}", tasks.size(), file.getAbsolutePath());
         } catch (Exception e) {
-            System.out.println("❌ Failed to load tasks: " + e.getMessage());
-            System.out.println("Starting with empty task list.");
+            log.error("Failed to load tasks, starting with an empty task list", e);
             tasks = new ArrayList<>();
+            rebuildIndexes();
         }
     }
 
+    /**
+     * Stream the tasks file in the background, publishing it one user at a time. When the file is known to be
+     * grouped by ascending user id (it has been saved by this version, see the marker file), reading a task of the
+     * next user means the previous ones are complete, so their requests can go ahead while the rest loads;
+     * otherwise readers wait for the whole file. Writes always wait for the whole file, since new ids follow
+     * the highest id in it.
+     */
+    private void loadTasksInBackground() {
+        File file = new File(filename);
+        if (!file.exists() || file.length() == 0) {
+            log.warn("No saved tasks found or file empty, starting fresh. Expected file at: {}", file.getAbsolutePath());
+            finishLoading();
+            return;
+        }
+
+        long started = System.nanoTime();
+        boolean grouped = new File(filename + GROUPED_SUFFIX).exists();
+        try (JsonReader reader = GSON.newJsonReader(new BufferedReader(new FileReader(file)))) {
+            List<Task> shard = new ArrayList<>();
+            Long shardUserId = null;
+            reader.beginArray();
+            while (reader.hasNext()) {
+                Task task = GSON.fromJson(reader, Task.class);
+                Long userId = task.getUser().getId();
+                if (shardUserId != null && !shardUserId.equals(userId)) {
+                    publishShard(shard);
+                    shard = new ArrayList<>();
+                    if (grouped && userId > shardUserId) {
+                        advanceWatermark(userId);
+                    } else {
+                        grouped = false;
+                    }
+                }
+                shardUserId = userId;
+                shard.add(task);
+            }
+            reader.endArray();
+            publishShard(shard);
+
+            loadTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            loadBytes.record(file.length());
+            log.info("Loaded {} tasks from {} in the background", tasks.size(), file.getAbsolutePath());
+        } catch (Exception e) {
+            log.error("Failed to load tasks, starting with an empty task list", e);
+            lock.writeLock().lock();
+            try {
+                tasks = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        finishLoading();
+    }
+
+    // Make one user's tasks (in id order, as saved) visible to readers
+    private void publishShard(List<Task> shard) {
+        lock.writeLock().lock();
+        try {
+            for (Task task : shard) {
+                tasks.add(task);
+                tasksById.put(task.getId(), task);
+                tasksByUser.computeIfAbsent(task.getUser().getId(), k -> new ArrayList<>()).add(task);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void advanceWatermark(long userId) {
+        synchronized (loadMonitor) {
+            loadWatermark = userId;
+            loadMonitor.notifyAll();
+        }
+    }
+
+    // Final indexes, then the whenLoaded() actions, then open up for writes; no event can be published before that
+    private void finishLoading() {
+        if (lazyLoad) {
+            lock.writeLock().lock();
+            try {
+                rebuildIndexes();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        while (true) {
+            List<Runnable> actions;
+            synchronized (loadMonitor) {
+                if (loadedActions.isEmpty()) {
+                    loadComplete = true;
+                    loadMonitor.notifyAll();
+                    return;
+                }
+                actions = new ArrayList<>(loadedActions);
+                loadedActions.clear();
+            }
+            actions.forEach(Runnable::run);
+        }
+    }
+
+    /**
+     * Run {@code action} once every task is loaded: right away after a normal startup, or on the loader thread
+     * before any write is accepted when loading in the background. Used to seed state from {@link #forEachTask}.
+     */
+    public void whenLoaded(Runnable action) {
+        synchronized (loadMonitor) {
+            if (!loadComplete) {
+                loadedActions.add(action);
+                return;
+            }
+        }
+        action.run();
+    }
+
+    // Block until every task is loaded
+    public void awaitLoaded() {
+        awaitUser(null);
+    }
+
+    // Block until the user's tasks are loaded (null: every task); returns at once after a normal startup
+    private void awaitUser(Long userId) {
+        if (loadComplete || (userId != null && userId < loadWatermark)) return;
+
+        long started = System.nanoTime();
+        synchronized (loadMonitor) {
+            while (!loadComplete && (userId == null || userId >= loadWatermark)) {
+                try {
+                    loadMonitor.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for tasks to load", e);
+                }
+            }
+        }
+        loadWaitTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+    }
+
+    // Rebuild id/user indexes after a load; ids duplicated by older versions are reassigned
+    private void rebuildIndexes() {
+        tasksById.clear();
+        tasksByUser.clear();
+
+        // Ids reserved before the load (see reserveIds()) stay taken
+        long maxId = tasks.stream()
+                .filter(task -> task.getId() != null)
+                .mapToLong(Task::getId)
+                .max()
+                .orElse(0L);
+        maxId = Math.max(maxId, nextTaskId.get() - 1);
+
+        for (Task task : tasks) {
+            if (task.getId() == null || tasksById.containsKey(task.getId())) {
+                log.warn("Task with duplicate or missing id reassigned: {}", task.getId());
+                task.setId(++maxId);
+            }
+            tasksById.put(task.getId(), task);
+        }
+
+        tasks.sort(Comparator.comparing(Task::getId));
+        for (Task task : tasks) {
+            tasksByUser.computeIfAbsent(task.getUser().getId(), k -> new ArrayList<>()).add(task);
+        }
+
+        nextTaskId.set(maxId + 1);
+        Task.setNextId(maxId + 1);
+    }
+
     // CRUD operations
     public void createTask(Task task) {
-        task.setId((long) (tasks.size() + 1)); // simple incremental ID
-        task.setCreatedAt(LocalDateTime.now());
-        tasks.add(task);
+        insertTask(task);
         saveTasksToFile();
     }
 
+    // Completes with the task once it has been written to disk
+    public CompletableFuture<Task> createTaskAsync(Task task) {
+        insertTask(task);
+        return saveTasksAsync().thenApply(saved -> task);
+    }
+
+    private void insertTask(Task task) {
+        awaitLoaded();
+        lock.writeLock().lock();
+        try {
+            task.setId(nextTaskId.getAndIncrement()); // above every live and archived id, see reserveIds()
+            task.setCreatedAt(LocalDateTime.now());
+            tasks.add(task);
+            tasksById.put(task.getId(), task);
+            tasksByUser.computeIfAbsent(task.getUser().getId(), k -> new ArrayList<>()).add(task);
+            recordChange(TaskChangedEvent.Type.CREATED, null, task);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
     public void deleteTaskById(Long id, User user) {
-        Task deletedTask = findTaskById(id, user);
+        Task deletedTask = removeTask(id, user);
 
         if (deletedTask != null) {
-            tasks.remove(deletedTask);
             saveTasksToFile();
-            System.out.println("Task with id " + id + " deleted successfully.");
+            log.debug("Task {} deleted", id);
         } else {
-            System.out.println("Provided Id is wrong or task is already deleted.");
+            log.debug("Task {} not found or already deleted", id);
+        }
+    }
+
+    // Completes with true once the delete is on disk, or false right away if the task is not the user's
+    public CompletableFuture<Boolean> deleteTaskByIdAsync(Long id, User user) {
+        if (removeTask(id, user) == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return saveTasksAsync().thenApply(saved -> true);
+    }
+
+    private Task removeTask(Long id, User user) {
+        awaitLoaded();
+        lock.writeLock().lock();
+        try {
+            Task deletedTask = findTaskById(id, user);
+            if (deletedTask != null) {
+                removeFromIndexes(deletedTask);
+                recordChange(TaskChangedEvent.Type.DELETED, TaskSnapshot.of(deletedTask), null);
+            }
+            return deletedTask;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add a batch of new tasks: one contiguous id block, one index update and a single save.
+     * Tasks that already carry a creation time keep it.
+     */
+    public void importTasks(List<Task> batch) {
+        if (batch.isEmpty()) return;
+        awaitLoaded();
+
+        lock.writeLock().lock();
+        try {
+            long id = nextTaskId.getAndAdd(batch.size());
+            LocalDateTime now = LocalDateTime.now();
+            for (Task task : batch) {
+                task.setId(id++);
+                if (task.getCreatedAt() == null) task.setCreatedAt(now);
+                tasks.add(task);
+                tasksById.put(task.getId(), task);
+                tasksByUser.computeIfAbsent(task.getUser().getId(), k -> new ArrayList<>()).add(task);
+                recordChange(TaskChangedEvent.Type.CREATED, null, task);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        saveTasksToFile();
+    }
+
+    /**
+     * Apply many operations for one user atomically: everything is validated first under the write lock,
+     * then applied in a single pass, with deletes removed from the indexes together and one save at the end.
+     * If any operation is invalid nothing is changed.
+     */
+    public BatchResult applyBatch(User user, List<TaskOperation> operations) {
+        awaitLoaded();
+        List<BatchResult.ItemResult> results = new ArrayList<>(operations.size());
+        boolean valid = true;
+
+        lock.writeLock().lock();
+        try {
+            Set<Long> deleted = new HashSet<>();
+            for (TaskOperation operation : operations) {
+                String error = validate(operation, user, deleted);
+                if (error != null) valid = false;
+                results.add(error == null ? BatchResult.ItemResult.ok(operation) : BatchResult.ItemResult.failed(operation, error));
+            }
+            if (!valid) {
+                return new BatchResult(false, results);
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            for (TaskOperation operation : operations) {
+                Task task = tasksById.get(operation.id());
+                TaskSnapshot before = TaskSnapshot.of(task);
+                switch (operation.op()) {
+                    case "status":
+                        applyStatus(task, operation.arg("status"));
+                        break;
+                    case "toggle":
+                        task.setCompleted(!task.isCompleted());
+                        break;
+                    case "priority":
+                        task.setPriority(operation.arg("priority"));
+                        break;
+                    case "tags":
+                        task.setTags(parseTags(operation.arg("tags")));
+                        break;
+                    default: // delete, removed from the indexes below in one pass
+                        recordChange(TaskChangedEvent.Type.DELETED, before, null);
+                        continue;
+                }
+                task.setUpdatedAt(now);
+                recordChange(TaskChangedEvent.Type.UPDATED, before, task);
+            }
+
+            if (!deleted.isEmpty()) {
+                deleted.forEach(tasksById::remove);
+                tasks.removeIf(task -> deleted.contains(task.getId()));
+                List<Task> userTasks = tasksByUser.get(user.getId());
+                userTasks.removeIf(task -> deleted.contains(task.getId()));
+                if (userTasks.isEmpty()) {
+                    tasksByUser.remove(user.getId());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        saveTasksToFile();
+        return new BatchResult(true, results);
+    }
+
+    // Returns an error message, or null when the operation can be applied; records deletes in `deleted`
+    private String validate(TaskOperation operation, User user, Set<Long> deleted) {
+        if (operation.id() == null || operation.op() == null) return "id and op are required";
+
+        Task task = tasksById.get(operation.id());
+        if (task == null || !Objects.equals(task.getUser().getId(), user.getId())) return "Task not found or access denied";
+        if (deleted.contains(operation.id())) return "Task is deleted earlier in this batch";
+
+        switch (operation.op()) {
+            case "status":
+                String status = operation.arg("status");
+                return isValidStatus(status) ? null : "args.status must be todo, in_progress or completed";
+            case "toggle":
+                return null;
+            case "priority":
+                String priority = operation.arg("priority");
+                return ("low".equals(priority) || "medium".equals(priority) || "high".equals(priority))
+                        ? null : "args.priority must be low, medium or high";
+            case "tags":
+                try {
+                    parseTags(operation.arg("tags"));
+                    return null;
+                } catch (IllegalArgumentException e) {
+                    return "args.tags: " + e.getMessage();
+                }
+            case "delete":
+                deleted.add(operation.id());
+                return null;
+            default:
+                return "Unknown op: " + operation.op();
+        }
+    }
+
+    public static boolean isValidTag(String tag) {
+        return tag != null && TAG.matcher(tag).matches();
+    }
+
+    /**
+     * Parse a comma separated tag list: tags are trimmed, lower-cased, deduplicated and sorted, and blank
+     * entries are skipped. Null gives no tags.
+     *
+     * @throws IllegalArgumentException if a tag is malformed or there are more than {@value #MAX_TAGS}
+     */
+    public static List<String> parseTags(String tags) {
+        if (tags == null) return List.of();
+        Set<String> parsed = new TreeSet<>();
+        for (String tag : tags.split(",")) {
+            String normalized = tag.trim().toLowerCase();
+            if (normalized.isEmpty()) continue;
+            if (!isValidTag(normalized)) {
+                throw new IllegalArgumentException("Invalid tag '" + normalized
+                        + "': use up to 30 letters, digits, '-' or '_', starting with a letter or digit");
+            }
+            parsed.add(normalized);
+        }
+        if (parsed.size() > MAX_TAGS) throw new IllegalArgumentException("At most " + MAX_TAGS + " tags per task");
+        return List.copyOf(parsed);
+    }
+
+    public static boolean isValidStatus(String status) {
+        return "todo".equals(status) || "in_progress".equals(status) || "completed".equals(status);
+    }
+
+    // Same transitions as the status buttons on the task management page
+    public static void applyStatus(Task task, String status) {
+        switch (status) {
+            case "todo":
+                task.setCompleted(false);
+                task.setInProgress(false);
+                break;
+            case "in_progress":
+                task.setCompleted(false);
+                task.setInProgress(true);
+                break;
+            case "completed":
+                task.setCompleted(true);
+                task.setInProgress(false);
+                break;
         }
     }
 
+    // Caller must hold the write lock
+    private void removeFromIndexes(Task task) {
+        tasksById.remove(task.getId());
+        tasks.remove(indexOfId(tasks, task.getId()));
+        List<Task> userTasks = tasksByUser.get(task.getUser().getId());
+        userTasks.remove(indexOfId(userTasks, task.getId()));
+        if (userTasks.isEmpty()) {
+            tasksByUser.remove(task.getUser().getId());
+        }
+    }
+
+    // Binary search in an id-ordered list
+    private static int indexOfId(List<Task> list, long id) {
+        int low = 0;
+        int high = list.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midId = list.get(mid).getId();
+            if (midId < id) low = mid + 1;
+            else if (midId > id) high = mid - 1;
+            else return mid;
+        }
+        return -(low + 1);
+    }
+
     public Task findTaskById(Long id, User user) {
-        return tasks.stream()
-                .filter(task -> Objects.equals(task.getId(), id) && Objects.equals(task.getUser().getId(), user.getId()))
-                .findFirst()
-                .orElse(null);
+        awaitUser(user.getId());
+        long started = System.nanoTime();
+        lock.readLock().lock();
+        try {
+            Task task = tasksById.get(id);
+            if (task != null && Objects.equals(task.getUser().getId(), user.getId())) {
+                return task;
+            }
+            return null;
+        } finally {
+            lock.readLock().unlock();
+            findByIdTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
     }
 
     public List<Task> getAllTasks() {
-        return new ArrayList<>(tasks);
+        awaitLoaded();
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(tasks);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Visit every task in id order under the read lock. No change events are published while this runs,
+     * so a listener can build its initial state here and then keep it current from events; call it from
+     * {@link #whenLoaded} so a background load has finished first.
+     * The visitor must be quick and must not call back into mutating methods.
+     */
+    public void forEachTask(Consumer<Task> visitor) {
+        lock.readLock().lock();
+        try {
+            tasks.forEach(visitor);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to {@code max} tasks with an id greater than {@code afterId}, in id order.
+     * A null user walks every task; used to export large sets chunk by chunk without holding the lock.
+     */
+    public List<Task> getTasksAfter(User user, long afterId, int max) {
+        awaitUser(user == null ? null : user.getId());
+        lock.readLock().lock();
+        try {
+            List<Task> source = (user == null) ? tasks : tasksByUser.getOrDefault(user.getId(), Collections.emptyList());
+            int from = indexOfId(source, afterId);
+            from = (from >= 0) ? from + 1 : -(from + 1);
+            return new ArrayList<>(source.subList(from, Math.min(source.size(), from + max)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * One cursor page of the user's tasks for the given query; only the page itself is materialized.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed or belongs to another sort order
+     */
+    public TaskPage findTasksPage(User user, TaskQuery query, String cursor, int limit) {
+        return findTasksPage(user, query, null, cursor, limit);
+    }
+
+    /**
+     * Same as {@link #findTasksPage(User, TaskQuery, String, int)}, over the given task ids (ascending) when not
+     * null instead of all of the user's tasks; used with the per-project indexes of {@link ProjectService}.
+     */
+    public TaskPage findTasksPage(User user, TaskQuery query, List<Long> candidateIds, String cursor, int limit) {
+        Task after = (cursor == null || cursor.isEmpty()) ? null : TaskCursor.decode(cursor, query.getSortBy());
+        awaitUser(user.getId());
+        long started = System.nanoTime();
+        lock.readLock().lock();
+        try {
+            return query.page(candidates(user, candidateIds), after, limit);
+        } finally {
+            lock.readLock().unlock();
+            queryTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Filter, count and paginate the user's tasks in one pass without copying them; see {@link TaskQuery#select}.
+     */
+    public TaskListing findTaskListing(User user, TaskQuery query, int offset, int limit) {
+        return findTaskListing(user, query, null, offset, limit);
+    }
+
+    // Same, over the given task ids (ascending) when not null
+    public TaskListing findTaskListing(User user, TaskQuery query, List<Long> candidateIds, int offset, int limit) {
+        awaitUser(user.getId());
+        long started = System.nanoTime();
+        lock.readLock().lock();
+        try {
+            return query.select(candidates(user, candidateIds), offset, limit);
+        } finally {
+            lock.readLock().unlock();
+            queryTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Caller holds the read lock: the user's tasks, or those of the ids that exist and are the user's
+    private List<Task> candidates(User user, List<Long> candidateIds) {
+        if (candidateIds == null) return tasksByUser.getOrDefault(user.getId(), Collections.emptyList());
+        List<Task> candidates = new ArrayList<>(candidateIds.size());
+        for (Long id : candidateIds) {
+            Task task = tasksById.get(id);
+            if (task != null && task.getUser().getId().equals(user.getId())) candidates.add(task);
+        }
+        return candidates;
     }
 
     public void updateTask(Long id, Task updatedTask, User user) {
-        Task foundTask = findTaskById(id, user);
-        if (foundTask != null) {
+        awaitLoaded();
+        lock.writeLock().lock();
+        try {
+            Task foundTask = findTaskById(id, user);
+            if (foundTask == null) return;
+            TaskSnapshot before = TaskSnapshot.of(foundTask);
             foundTask.setTitle(updatedTask.getTitle());
             foundTask.setDescription(updatedTask.getDescription());
             foundTask.setUpdatedAt(LocalDateTime.now());
@@ -125,77 +856,479 @@ public class TaskService {
             foundTask.setInProgress(updatedTask.isInProgress());
             foundTask.setPriority(updatedTask.getPriority());
             foundTask.setDueDate(updatedTask.getDueDate());
-            saveTasksToFile();
+            recordChange(TaskChangedEvent.Type.UPDATED, before, foundTask);
+        } finally {
+            lock.writeLock().unlock();
         }
+        saveTasksToFile();
     }
 
     public void updateTaskFields(Long id, String title, String description, User user) {
-        Task foundTask = findTaskById(id, user);
-        if (foundTask != null) {
+        awaitLoaded();
+        lock.writeLock().lock();
+        try {
+            Task foundTask = findTaskById(id, user);
+            if (foundTask == null) return;
+            TaskSnapshot before = TaskSnapshot.of(foundTask);
             foundTask.setTitle(title);
             foundTask.setDescription(description);
             foundTask.setUpdatedAt(LocalDateTime.now());
-            saveTasksToFile();
+            recordChange(TaskChangedEvent.Type.UPDATED, before, foundTask);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        saveTasksToFile();
+    }
+
+    /**
+     * Edit form update: title and description always, priority and due date only when given.
+     * Returns false if the task does not exist or belongs to someone else.
+     */
+    public boolean updateTaskDetails(Long id, String title, String description, String priority, LocalDate dueDate, User user) {
+        awaitLoaded();
+        lock.writeLock().lock();
+        try {
+            Task foundTask = findTaskById(id, user);
+            if (foundTask == null) return false;
+            TaskSnapshot before = TaskSnapshot.of(foundTask);
+            foundTask.setTitle(title);
+            foundTask.setDescription(description);
+            if (priority != null && !priority.isEmpty()) foundTask.setPriority(priority);
+            if (dueDate != null) foundTask.setDueDate(dueDate);
+            foundTask.setUpdatedAt(LocalDateTime.now());
+            recordChange(TaskChangedEvent.Type.UPDATED, before, foundTask);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        saveTasksToFile();
+        return true;
+    }
+
+    /**
+     * Put the user's task in a project, or take it out of its project with null. The caller checks that the
+     * project is the user's. Returns false if the task does not exist or belongs to someone else.
+     */
+    public boolean assignProject(Long id, Long projectId, User user) {
+        awaitLoaded();
+        lock.writeLock().lock();
+        try {
+            Task foundTask = findTaskById(id, user);
+            if (foundTask == null) return false;
+            if (Objects.equals(foundTask.getProjectId(), projectId)) return true;
+            TaskSnapshot before = TaskSnapshot.of(foundTask);
+            foundTask.setProjectId(projectId);
+            foundTask.setUpdatedAt(LocalDateTime.now());
+            recordChange(TaskChangedEvent.Type.UPDATED, before, foundTask);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        saveTasksToFile();
+        return true;
+    }
+
+    /**
+     * Replace the tags of the user's task with already parsed ones (see {@link #parseTags}).
+     * Returns false if the task does not exist or belongs to someone else.
+     */
+    public boolean updateTags(Long id, List<String> tags, User user) {
+        awaitLoaded();
+        lock.writeLock().lock();
+        try {
+            Task foundTask = findTaskById(id, user);
+            if (foundTask == null) return false;
+            if (foundTask.getTags().equals(tags)) return true;
+            TaskSnapshot before = TaskSnapshot.of(foundTask);
+            foundTask.setTags(tags);
+            foundTask.setUpdatedAt(LocalDateTime.now());
+            recordChange(TaskChangedEvent.Type.UPDATED, before, foundTask);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        saveTasksToFile();
+        return true;
+    }
+
+    /**
+     * Move a task to todo, in_progress or completed. Returns false if the task is not the user's.
+     */
+    public boolean updateTaskStatus(Long id, String status, User user) {
+        if (changeStatus(id, status, user) == null) return false;
+        saveTasksToFile();
+        return true;
+    }
+
+    // Completes with the updated task once it is on disk, or with null right away if the task is not the user's
+    public CompletableFuture<Task> updateTaskStatusAsync(Long id, String status, User user) {
+        Task task = changeStatus(id, status, user);
+        if (task == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return saveTasksAsync().thenApply(saved -> task);
+    }
+
+    private Task changeStatus(Long id, String status, User user) {
+        awaitLoaded();
+        lock.writeLock().lock();
+        try {
+            Task foundTask = findTaskById(id, user);
+            if (foundTask == null) return null;
+            TaskSnapshot before = TaskSnapshot.of(foundTask);
+            applyStatus(foundTask, status);
+            recordChange(TaskChangedEvent.Type.UPDATED, before, foundTask);
+            return foundTask;
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
     // ✅ No more loadTasksFromFile() here
     public List<Task> getTasksByUser(User user) {
-        return tasks.stream()
-                .filter(task -> task.getUser().getId().equals(user.getId()))
-                .collect(Collectors.toList());
+        awaitUser(user.getId());
+        long started = System.nanoTime();
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(tasksByUser.getOrDefault(user.getId(), Collections.emptyList()));
+        } finally {
+            lock.readLock().unlock();
+            byUserTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
     }
 
-    // Counters
+    // Counters: counted in place under the read lock, without copying the user's list
     public long getTotalTasksByUser(User user) {
-        return getTasksByUser(user).size();
+        awaitUser(user.getId());
+        lock.readLock().lock();
+        try {
+            return tasksByUser.getOrDefault(user.getId(), Collections.emptyList()).size();
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     public long getCompletedTasksByUser(User user) {
-        return getTasksByUser(user).stream()
-                .filter(Task::isCompleted)
-                .count();
+        return countTasksByUser(user, Task::isCompleted);
     }
 
     public long getPendingTasksByUser(User user) {
-        return getTasksByUser(user).stream()
-                .filter(task -> !task.isCompleted() && !task.isInProgress())
-                .count();
+        return countTasksByUser(user, task -> !task.isCompleted() && !task.isInProgress());
     }
 
     public long getInProgressTasksByUser(User user) {
-        return getTasksByUser(user).stream()
-                .filter(Task::isInProgress)
-                .count();
+        return countTasksByUser(user, Task::isInProgress);
     }
 
-    // Status management
-    public void toggleTaskStatusForUser(Long id, User user) {
-        System.out.println("🔍 toggleTaskStatus called with id: " + id);
-        Task task = findTaskById(id,user);
-        if (task != null) {
-            System.out.println("📝 Found task: " + task.getTitle());
-            System.out.println("📝 Description: " + task.getDescription());
-            System.out.println("📝 Before toggle - Completed: " + task.isCompleted());
+    private long countTasksByUser(User user, Predicate<Task> predicate) {
+        awaitUser(user.getId());
+        lock.readLock().lock();
+        try {
+            long count = 0;
+            for (Task task : tasksByUser.getOrDefault(user.getId(), Collections.emptyList())) {
+                if (predicate.test(task)) count++;
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
 
+    // Status management
+    public boolean toggleTaskStatusForUser(Long id, User user) {
+        awaitLoaded();
+        lock.writeLock().lock();
+        try {
+            Task task = findTaskById(id, user);
+            if (task == null) {
+                log.debug("Toggle: task {} not found", id);
+                return false;
+            }
+            TaskSnapshot before = TaskSnapshot.of(task);
             task.setCompleted(!task.isCompleted());
+            recordChange(TaskChangedEvent.Type.UPDATED, before, task);
 
-            System.out.println("📝 After toggle - Completed: " + task.isCompleted());
-            saveTasksToFile();
-            System.out.println("💾 saveTasksToFile() called");
-        } else {
-            System.out.println("❌ Task with id " + id + " not found!");
+            if (log.isDebugEnabled()) {
+                log.debug("Toggled task {} \"{}\": completed {} -> {}", id, task.getTitle(), before.completed(), task.isCompleted());
+            }
+        } finally {
+            lock.writeLock().unlock();
         }
+        saveTasksToFile();
+        return true;
     }
 
     public void setTaskInProgress(Long id, boolean inProgress, User user) {
-        Task task = findTaskById(id,user);
-        if (task != null) {
+        awaitLoaded();
+        lock.writeLock().lock();
+        try {
+            Task task = findTaskById(id, user);
+            if (task == null) return;
+            TaskSnapshot before = TaskSnapshot.of(task);
             task.setInProgress(inProgress);
             if (inProgress) {
                 task.setCompleted(false);
             }
-            saveTasksToFile();
+            recordChange(TaskChangedEvent.Type.UPDATED, before, task);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        saveTasksToFile();
+    }
+
+    /**
+     * Remove every task of a user, e.g. once the user's data has moved to another instance.
+     * Returns the number of tasks removed.
+     */
+    public int removeTasksOfUser(Long userId) {
+        awaitLoaded();
+        int removed;
+        lock.writeLock().lock();
+        try {
+            List<Task> userTasks = tasksByUser.get(userId);
+            if (userTasks == null) return 0;
+            removed = userTasks.size();
+            for (Task task : new ArrayList<>(userTasks)) {
+                removeFromIndexes(task);
+                recordChange(TaskChangedEvent.Type.DELETED, TaskSnapshot.of(task), null);
+            }
+        } finally {
+            lock.writeLock().unlock();
         }
+        saveTasksToFile();
+        return removed;
+    }
+
+    // Reminders
+    /**
+     * Raise each open task's priority one step (low to medium, medium to high) for {@link ReminderService},
+     * with one save for the batch. Returns the new priority of every task raised; tasks that are gone,
+     * completed or already high are left out.
+     */
+    public Map<Long, String> escalatePriorities(Collection<Long> ids) {
+        awaitLoaded();
+        Map<Long, String> raised = new HashMap<>();
+        lock.writeLock().lock();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            for (Long id : ids) {
+                Task task = tasksById.get(id);
+                if (task == null || task.isCompleted()) continue;
+                String priority = ReminderService.escalated(task.getPriority());
+                if (priority == null) continue;
+                TaskSnapshot before = TaskSnapshot.of(task);
+                task.setPriority(priority);
+                task.setUpdatedAt(now);
+                recordChange(TaskChangedEvent.Type.UPDATED, before, task);
+                raised.put(id, priority);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (!raised.isEmpty()) saveTasksToFile();
+        return raised;
+    }
+
+    // Archive
+    /**
+     * Up to {@code max} completed tasks finished before {@code cutoff}, in id order; see {@link TaskArchiveService}.
+     */
+    public List<TaskSnapshot> findArchivable(LocalDateTime cutoff, int max) {
+        awaitLoaded();
+        lock.readLock().lock();
+        try {
+            List<TaskSnapshot> archivable = new ArrayList<>();
+            for (Task task : tasks) {
+                if (task.isCompleted() && task.getCompletedAt() != null && task.getCompletedAt().isBefore(cutoff)) {
+                    archivable.add(TaskSnapshot.of(task));
+                    if (archivable.size() == max) break;
+                }
+            }
+            return archivable;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Take tasks that have been written to the archive out of the live set in one pass, then save.
+     * A task changed since its snapshot was taken stays live, and its archived copy is ignored ({@link #isLive}).
+     * Returns the number of tasks removed.
+     */
+    public int removeArchived(List<TaskSnapshot> archived) {
+        awaitLoaded();
+        Set<Long> removed = new HashSet<>();
+        lock.writeLock().lock();
+        try {
+            Set<Long> users = new HashSet<>();
+            for (TaskSnapshot snapshot : archived) {
+                Task task = tasksById.get(snapshot.id());
+                if (task == null || !TaskSnapshot.of(task).equals(snapshot)) continue;
+                removed.add(task.getId());
+                users.add(snapshot.userId());
+                recordChange(TaskChangedEvent.Type.ARCHIVED, snapshot, null);
+            }
+            if (removed.isEmpty()) return 0;
+
+            removed.forEach(tasksById::remove);
+            tasks.removeIf(task -> removed.contains(task.getId()));
+            for (Long userId : users) {
+                List<Task> userTasks = tasksByUser.get(userId);
+                userTasks.removeIf(task -> removed.contains(task.getId()));
+                if (userTasks.isEmpty()) {
+                    tasksByUser.remove(userId);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        saveTasksToFile();
+        return removed.size();
+    }
+
+    // Whether the user's task is live; another user's task with the same id, e.g. one handed over by another instance, is not it
+    public boolean isLive(Long id, Long userId) {
+        lock.readLock().lock();
+        try {
+            Task task = tasksById.get(id);
+            return task != null && task.getUser().getId().equals(userId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Never hand out an id below {@code nextId}, e.g. because archived tasks use them. Safe to call before the
+     * tasks have loaded; the load keeps the higher of this and its own highest id.
+     */
+    public void reserveIds(long nextId) {
+        lock.writeLock().lock();
+        try {
+            long next = nextTaskId.accumulateAndGet(nextId, Math::max);
+            Task.setNextId(next);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Replication
+    /**
+     * Apply a change received from the replication leader (see {@link ReplicationFollower}): the task is
+     * inserted, overwritten or removed as the leader's snapshot says, and published like a local change so
+     * caches, statistics and event streams follow. Nothing is saved; a replica resynchronizes on every connect.
+     */
+    public void applyReplicated(TaskChangedEvent.Type type, TaskSnapshot snapshot, User owner) {
+        awaitLoaded();
+        lock.writeLock().lock();
+        try {
+            applyReplicatedLocked(type, snapshot, owner);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Bring every task in line with the leader's full snapshot, publishing only the differences.
+     * Tasks whose owner is not known locally are skipped.
+     */
+    public void applyReplicatedSnapshot(List<TaskSnapshot> snapshot, Function<Long, User> owners) {
+        awaitLoaded();
+        lock.writeLock().lock();
+        try {
+            Map<Long, TaskSnapshot> leaderTasks = new HashMap<>();
+            for (TaskSnapshot task : snapshot) {
+                leaderTasks.put(task.id(), task);
+            }
+            for (Task task : new ArrayList<>(tasks)) {
+                if (!leaderTasks.containsKey(task.getId())) {
+                    applyReplicatedLocked(TaskChangedEvent.Type.DELETED, TaskSnapshot.of(task), task.getUser());
+                }
+            }
+            for (TaskSnapshot task : snapshot) {
+                Task local = tasksById.get(task.id());
+                if (local != null && TaskSnapshot.of(local).equals(task)) continue;
+                User owner = owners.apply(task.userId());
+                if (owner == null) {
+                    log.warn("Replicated task {} skipped: unknown user {}", task.id(), task.userId());
+                    continue;
+                }
+                applyReplicatedLocked(local == null ? TaskChangedEvent.Type.CREATED : TaskChangedEvent.Type.UPDATED, task, owner);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller must hold the write lock
+    private void applyReplicatedLocked(TaskChangedEvent.Type type, TaskSnapshot snapshot, User owner) {
+        Task task = tasksById.get(snapshot.id());
+        if (type == TaskChangedEvent.Type.DELETED || type == TaskChangedEvent.Type.ARCHIVED) {
+            if (task != null) {
+                removeFromIndexes(task);
+                recordChange(type, TaskSnapshot.of(task), null);
+            }
+            return;
+        }
+
+        TaskSnapshot before = (task == null) ? null : TaskSnapshot.of(task);
+        if (task == null) {
+            task = new Task(snapshot.title(), snapshot.description(), owner);
+            task.setId(snapshot.id());
+        } else if (!Objects.equals(task.getUser().getId(), snapshot.userId())) {
+            removeFromIndexes(task); // re-added below under its new owner
+            recordChange(TaskChangedEvent.Type.DELETED, before, null);
+            before = null;
+        }
+        task.setUser(owner);
+        task.setTitle(snapshot.title());
+        task.setDescription(snapshot.description());
+        task.setCompleted(snapshot.completed());
+        task.setInProgress(snapshot.inProgress());
+        task.setPriority(snapshot.priority());
+        task.setDueDate(snapshot.dueDate());
+        task.setCreatedAt(snapshot.createdAt());
+        task.setCompletedAt(snapshot.completedAt());
+        task.setUpdatedAt(snapshot.updatedAt());
+        task.setProjectId(snapshot.projectId());
+        task.setTags(snapshot.tags());
+
+        if (!tasksById.containsKey(task.getId())) {
+            insertInIdOrder(tasks, task);
+            tasksById.put(task.getId(), task);
+            insertInIdOrder(tasksByUser.computeIfAbsent(owner.getId(), k -> new ArrayList<>()), task);
+            nextTaskId.accumulateAndGet(task.getId() + 1, Math::max);
+        }
+        recordChange(before == null ? TaskChangedEvent.Type.CREATED : TaskChangedEvent.Type.UPDATED, before, task);
+    }
+
+    // Replicated tasks usually arrive in id order, so this is mostly an append
+    private static void insertInIdOrder(List<Task> list, Task task) {
+        int index = indexOfId(list, task.getId());
+        list.add(index >= 0 ? index : -(index + 1), task);
+    }
+
+    // Versions
+    /**
+     * Version of a user's task data; it increases on every change to that user's tasks.
+     * Versions restart with the process, so callers pair them with {@link #getVersionEpoch()}.
+     */
+    public long getUserVersion(Long userId) {
+        AtomicLong version = userVersions.get(userId);
+        return version == null ? 0 : version.get();
+    }
+
+    // Version over all users' tasks
+    public long getGlobalVersion() {
+        return globalVersion.get();
+    }
+
+    public long getVersionEpoch() {
+        return versionEpoch;
+    }
+
+    // Caller must hold the write lock: bumps the owner's version and publishes the change in commit order
+    private void recordChange(TaskChangedEvent.Type type, TaskSnapshot before, Task task) {
+        TaskSnapshot after = (task == null) ? null : TaskSnapshot.of(task);
+        Long userId = (after != null ? after : before).userId();
+        long version = userVersions.computeIfAbsent(userId, k -> new AtomicLong()).incrementAndGet();
+        globalVersion.incrementAndGet();
+        eventPublisher.publishEvent(new TaskChangedEvent(type, before, after, version));
     }
 }
@@ -0,0 +1,20 @@
+package org.example.tasktracker.service;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * System-wide task counts as maintained by {@link TaskStatisticsService}; {@code overdue} counts open tasks
+ * whose due date is before {@code asOf}.
+ */
+public record TaskStatistics(long total,
+                             Map<String, Long> byStatus,
+                             Map<String, Long> byPriority,
+                             long overdue,
+                             double completionRate,
+                             int users,
+                             LocalDate asOf) {
+
+    public record UserStatistics(Long userId, long total, long completed, double completionRate) {
+    }
+}
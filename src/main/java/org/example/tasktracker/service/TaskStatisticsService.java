@@ -0,0 +1,112 @@
+package org.example.tasktracker.service;
+
+import jakarta.annotation.PostConstruct;
+import org.example.tasktracker.model.TaskSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Task counters kept up to date from {@link TaskChangedEvent}s, so statistics are read without scanning tasks.
+ *
+ * <p>Every change is applied as "remove the old snapshot, add the new one". Overdue tasks are tracked through
+ * a count of open tasks per due date: when the date moves on, the buckets that just fell due are added to the
+ * overdue count, which costs one step per elapsed day instead of a rescan.</p>
+ */
+@Service
+public class TaskStatisticsService {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskStatisticsService.class);
+
+    private static final String[] STATUSES = {"todo", "in_progress", "completed"};
+
+    private final TaskService taskService;
+
+    private long total;
+    private final long[] byStatus = new long[STATUSES.length];
+    private final Map<String, Long> byPriority = new HashMap<>();
+    private final Map<Long, long[]> byUser = new HashMap<>(); // userId -> {total, completed}
+    private final NavigableMap<LocalDate, Long> openByDueDate = new TreeMap<>();
+    private long overdue;
+    private LocalDate overdueAsOf = LocalDate.now();
+
+    @Autowired
+    public TaskStatisticsService(TaskService taskService) {
+        this.taskService = taskService;
+    }
+
+    // Seeded once the tasks are loaded; the scan holds the service's read lock, so no event can slip in between
+    @PostConstruct
+    public void init() {
+        taskService.whenLoaded(this::seed);
+    }
+
+    private synchronized void seed() {
+        taskService.forEachTask(task -> apply(TaskSnapshot.of(task), 1));
+        log.info("Task statistics initialized: {} tasks, {} overdue", total, overdue);
+    }
+
+    @EventListener
+    public synchronized void onTaskChanged(TaskChangedEvent event) {
+        if (event.before() != null) apply(event.before(), -1);
+        if (event.after() != null) apply(event.after(), 1);
+    }
+
+    public synchronized TaskStatistics getStatistics() {
+        rollOverdue();
+        Map<String, Long> statuses = new LinkedHashMap<>();
+        for (int i = 0; i < STATUSES.length; i++) {
+            statuses.put(STATUSES[i], byStatus[i]);
+        }
+        return new TaskStatistics(total, statuses, new TreeMap<>(byPriority), overdue,
+                rate(byStatus[2], total), byUser.size(), overdueAsOf);
+    }
+
+    public synchronized TaskStatistics.UserStatistics getUserStatistics(Long userId) {
+        long[] counts = byUser.getOrDefault(userId, new long[2]);
+        return new TaskStatistics.UserStatistics(userId, counts[0], counts[1], rate(counts[1], counts[0]));
+    }
+
+    private void apply(TaskSnapshot task, int sign) {
+        rollOverdue();
+        String status = task.status();
+        total += sign;
+        byStatus[status.equals("completed") ? 2 : status.equals("in_progress") ? 1 : 0] += sign;
+        if (task.priority() != null) {
+            byPriority.merge(task.priority(), (long) sign, Long::sum);
+        }
+
+        long[] user = byUser.computeIfAbsent(task.userId(), id -> new long[2]);
+        user[0] += sign;
+        if (task.completed()) user[1] += sign;
+        if (user[0] == 0) byUser.remove(task.userId());
+
+        if (!task.completed() && task.dueDate() != null) {
+            openByDueDate.merge(task.dueDate(), (long) sign, (a, b) -> a + b == 0 ? null : a + b);
+            if (task.dueDate().isBefore(overdueAsOf)) overdue += sign;
+        }
+    }
+
+    // Count the open tasks that have fallen due since the last call
+    private void rollOverdue() {
+        LocalDate today = LocalDate.now();
+        if (!today.isAfter(overdueAsOf)) return;
+        for (long count : openByDueDate.subMap(overdueAsOf, true, today, false).values()) {
+            overdue += count;
+        }
+        overdueAsOf = today;
+    }
+
+    private static double rate(long completed, long total) {
+        return total == 0 ? 0 : (double) completed / total;
+    }
+}
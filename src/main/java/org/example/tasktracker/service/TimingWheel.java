@@ -0,0 +1,136 @@
+package org.example.tasktracker.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel: four levels of 256 slots, where a slot of level {@code n} spans 256<sup>n</sup>
+ * ticks, so about 4.3 billion ticks ahead are addressable without an overflow list. Scheduling and cancelling
+ * cost O(1) (a map lookup and a linked-list splice), and advancing costs one slot per tick plus, every 256
+ * ticks, moving one slot of the next level down. At most one timer is kept per key.
+ *
+ * <p>Not thread-safe; the owner serializes access.</p>
+ */
+final class TimingWheel<T> {
+
+    private static final int SLOT_BITS = 8;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long HORIZON = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    static final class Timer<T> {
+        final long key;
+        final long deadline;
+        final T value;
+        private Timer<T> prev;
+        private Timer<T> next;
+
+        private Timer(long key, long deadline, T value) {
+            this.key = key;
+            this.deadline = deadline;
+            this.value = value;
+        }
+    }
+
+    // One circular list with a sentinel per slot, so a timer is unlinked without knowing its slot
+    private final Timer<T>[][] slots;
+    private final Map<Long, Timer<T>> byKey = new HashMap<>();
+    private long now;
+
+    TimingWheel(long startTick) {
+        this.now = startTick;
+        @SuppressWarnings({"unchecked", "rawtypes"}) // no generic array creation
+        Timer<T>[][] levels = new Timer[LEVELS][SLOTS];
+        this.slots = levels;
+        for (Timer<T>[] level : slots) {
+            for (int i = 0; i < SLOTS; i++) {
+                Timer<T> sentinel = new Timer<>(0, 0, null);
+                sentinel.prev = sentinel;
+                sentinel.next = sentinel;
+                level[i] = sentinel;
+            }
+        }
+    }
+
+    /**
+     * Schedule {@code value} under {@code key} for {@code deadline}, replacing the key's pending timer.
+     * A deadline that has already passed fires on the next tick.
+     */
+    void schedule(long key, long deadline, T value) {
+        cancel(key);
+        Timer<T> timer = new Timer<>(key, deadline, value);
+        byKey.put(key, timer);
+        place(timer, now + 1);
+    }
+
+    // Returns the pending value, or null if there was none
+    T cancel(long key) {
+        Timer<T> timer = byKey.remove(key);
+        if (timer == null) return null;
+        unlink(timer);
+        return timer.value;
+    }
+
+    int size() {
+        return byKey.size();
+    }
+
+    /**
+     * Move the wheel forward to {@code tick}, adding the timers that fell due to {@code expired} in deadline
+     * order. They are no longer scheduled.
+     */
+    void advanceTo(long tick, List<Timer<T>> expired) {
+        while (now < tick) {
+            now++;
+            // Every 256 ticks a slot of the next level has come within range; higher levels first
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((now & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    cascade(level, (int) ((now >>> (SLOT_BITS * level)) & MASK));
+                }
+            }
+            Timer<T> sentinel = slots[0][(int) (now & MASK)];
+            while (sentinel.next != sentinel) {
+                Timer<T> timer = sentinel.next;
+                unlink(timer);
+                byKey.remove(timer.key);
+                expired.add(timer);
+            }
+        }
+    }
+
+    // Put every timer of a slot back at the level that now fits it
+    private void cascade(int level, int slot) {
+        Timer<T> sentinel = slots[level][slot];
+        Timer<T> timer = sentinel.next;
+        sentinel.next = sentinel;
+        sentinel.prev = sentinel;
+        while (timer != sentinel) {
+            Timer<T> next = timer.next;
+            place(timer, now);  // the slot for `now` is processed right after the cascade
+            timer = next;
+        }
+    }
+
+    // Deadlines before `earliest` fire then; ones beyond the horizon wait in the top level and are re-placed
+    private void place(Timer<T> timer, long earliest) {
+        long deadline = Math.max(timer.deadline, earliest);
+        long delta = Math.min(deadline - now, HORIZON);
+        if (delta == HORIZON) deadline = now + HORIZON;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) level++;
+        Timer<T> sentinel = slots[level][(int) ((deadline >>> (SLOT_BITS * level)) & MASK)];
+        timer.prev = sentinel.prev;
+        timer.next = sentinel;
+        sentinel.prev.next = timer;
+        sentinel.prev = timer;
+    }
+
+    private static <T> void unlink(Timer<T> timer) {
+        timer.prev.next = timer.next;
+        timer.next.prev = timer.prev;
+        timer.prev = null;
+        timer.next = null;
+    }
+}
@@ -0,0 +1,14 @@
+package org.example.tasktracker.service;
+
+import org.example.tasktracker.model.User;
+
+/**
+ * Published by {@link UserService} after a user is registered, updated or deleted.
+ * {@code user} is the live object, so listeners that keep it past the event must copy what they need.
+ */
+public record UserChangedEvent(Type type, User user) {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+}
@@ -3,9 +3,16 @@ package org.example.tasktracker.service;
 import com.google.gson.*;
 import com.google.gson.reflect.TypeToken;
 import jakarta.annotation.PostConstruct;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.example.tasktracker.model.Role;
 import org.example.tasktracker.model.User;
 import org.mindrot.jbcrypt.BCrypt;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
@@ -16,19 +23,47 @@ import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.LongPredicate;
 
 @Service
 public class UserService {
 
-    // List to store all users in memory
-    private List<User> users = new ArrayList<>();
+    private static final Logger log = LoggerFactory.getLogger(UserService.class);
+
+    // List to store all users in memory; replaced as a whole when a replica applies changes, see applyReplicated()
+    private volatile List<User> users = new ArrayList<>();
 
     // File where users are persisted
-    private final String filename = "data/users.json";
+    private final String filename;
 
     // Default role assigned to newly registered users
     private static final Role DEFAULT_ROLE = new Role("ROLE_USER");
 
+    // Time spent in BCrypt, which dominates registration and login
+    private final Timer hashTimer;
+    private final Timer verifyTimer;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Ids a new user may get on this instance; see setUserIdFilter()
+    private volatile LongPredicate userIdFilter = id -> true;
+
+    public UserService(ApplicationEventPublisher eventPublisher,
+                       MeterRegistry meterRegistry,
+                       @Value("${tasktracker.data-dir:data}") String dataDir) {
+        this.eventPublisher = eventPublisher;
+        this.filename = new File(dataDir, "users.json").getPath();
+        this.hashTimer = bcryptTimer(meterRegistry, "hash");
+        this.verifyTimer = bcryptTimer(meterRegistry, "verify");
+        Gauge.builder("tasktracker.users", this, service -> service.users.size())
+                .description("Registered users").register(meterRegistry);
+    }
+
+    private static Timer bcryptTimer(MeterRegistry registry, String operation) {
+        return Timer.builder("tasktracker.users.bcrypt").tag("operation", operation)
+                .description("BCrypt password hashing and verification").publishPercentileHistogram().register(registry);
+    }
+
     /**
      * Initialize service by loading users from JSON file
      */
@@ -40,15 +75,13 @@ public class UserService {
     // .............................................................................................
 
     /**
-     * Create Gson instance with custom adapters for LocalDateTime and LocalDate
+     * Shared Gson instance with custom adapters for LocalDateTime and LocalDate; Gson is thread-safe
      */
-    private Gson getGson() {
-        return new GsonBuilder()
-                .setPrettyPrinting()
-                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
-                .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
-                .create();
-    }
+    private static final Gson GSON = new GsonBuilder()
+            .setPrettyPrinting()
+            .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+            .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
+            .create();
 
     /**
      * Custom adapter for LocalDateTime
@@ -93,12 +126,11 @@ public class UserService {
         File file = new File(filename);
         file.getParentFile().mkdirs(); // Ensure directory exists
 
-        try (Writer writer = new FileWriter(file)) {
-            getGson().toJson(users, writer);
-            System.out.println("✅ Users saved successfully to: " + file.getAbsolutePath());
+        try (Writer writer = new BufferedWriter(new FileWriter(file))) {
+            GSON.toJson(users, writer);
+            log.debug("Users saved to {}", file.getAbsolutePath());
         } catch (IOException e) {
-            System.out.println("❌ Failed to save users: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Failed to save users to {}", file.getAbsolutePath(), e);
         }
     }
 
@@ -110,21 +142,21 @@ public class UserService {
     public void loadUsersFromFile() {
         File file = new File(filename);
         if (!file.exists() || file.length() == 0) {
-            System.out.println("⚠️ No saved users found or file empty, starting fresh. Expected file at: " + file.getAbsolutePath());
+            log.warn("No saved users found or file empty, starting fresh. Expected file at: {}", file.getAbsolutePath());
             users = new ArrayList<>();
             return;
         }
 
         try (Reader reader = new FileReader(file)) {
             Type userListType = new TypeToken<List<User>>() {}.getType();
-            List<User> loadedUsers = getGson().fromJson(reader, userListType);
+            List<User> loadedUsers = GSON.fromJson(reader, userListType);
 
             if (loadedUsers != null) {
                 users = loadedUsers;
-                System.out.println("✅ Users loaded successfully from: " + file.getAbsolutePath());
+                log.info("Loaded {} users from {}", users.size(), file.getAbsolutePath());
             } else {
                 users = new ArrayList<>();
-                System.out.println("⚠️ No users found in file, starting with empty list.");
+                log.warn("No users found in file, starting with empty list.");
             }
 
             // Update next user ID
@@ -135,17 +167,16 @@ public class UserService {
             User.setNextId(maxId + 1);
 
         } catch (Exception e) {
-            System.out.println("❌ Failed to load users: " + e.getMessage());
-            System.out.println("🔄 Starting with empty user list. If this persists, try deleting the data/users.json file.");
+            log.error("Failed to load users, starting with an empty user list. If this persists, try deleting the {} file.", filename, e);
 
             // If there's corruption, backup the file and start fresh
             try {
                 File backupFile = new File(filename + ".backup");
                 if (file.renameTo(backupFile)) {
-                    System.out.println("📁 Corrupted file backed up to: " + backupFile.getAbsolutePath());
+                    log.warn("Corrupted file backed up to: {}", backupFile.getAbsolutePath());
                 }
             } catch (Exception backupException) {
-                System.out.println("⚠️ Could not backup corrupted file: " + backupException.getMessage());
+                log.warn("Could not backup corrupted file: {}", backupException.getMessage());
             }
 
             users = new ArrayList<>();
@@ -156,15 +187,21 @@ public class UserService {
 
     /**
      * Register a new user
-     * Hashes the password and assigns default role
+     * Hashes the password and assigns default role; the id is claimed under the lock, so concurrent
+     * registrations never share one
      */
     public void registerUser(User user) {
-        user.setId((long) (users.size() + 1)); // Assign next ID
-        String hashedPassword = BCrypt.hashpw(user.getPassword(), BCrypt.gensalt()); // Hash password
+        String hashedPassword = hashTimer.record(() -> BCrypt.hashpw(user.getPassword(), BCrypt.gensalt())); // Hash password
         user.setPassword(hashedPassword);
         user.getRoles().add(DEFAULT_ROLE); // Assign default role
-        users.add(user);
-        saveUsersToFile(); // Persist users
+        synchronized (this) {
+            long id = users.size() + 1; // Assign next free ID
+            while (findUserById(id) != null || !userIdFilter.test(id)) id++;
+            user.setId(id);
+            users.add(user);
+            saveUsersToFile(); // Persist users
+            eventPublisher.publishEvent(new UserChangedEvent(UserChangedEvent.Type.CREATED, user));
+        }
     }
 
     // .............................................................................................
@@ -174,7 +211,7 @@ public class UserService {
      */
     public List<User> getAllUsers() {
         if (users.isEmpty()) {
-            System.out.println("No Users to display.");
+            log.debug("No Users to display.");
         }
         return users;
     }
@@ -193,6 +230,18 @@ public class UserService {
 
     // .............................................................................................
 
+    /**
+     * Find the first user with this name (names are not unique)
+     */
+    public User findByName(String name) {
+        return users.stream()
+                .filter(u -> Objects.equals(u.getName(), name))
+                .findFirst()
+                .orElse(null);
+    }
+
+    // .............................................................................................
+
     /**
      * Find a user by email
      */
@@ -221,8 +270,9 @@ public class UserService {
                 foundUser.setRoles(updatedUser.getRoles());
             }
             saveUsersToFile();
+            eventPublisher.publishEvent(new UserChangedEvent(UserChangedEvent.Type.UPDATED, foundUser));
         } else {
-            System.out.println("User with id " + id + " not found.");
+            log.debug("User with id {} not found.", id);
         }
     }
 
@@ -231,9 +281,60 @@ public class UserService {
     /**
      * Delete a user by ID
      */
-    public void deleteUserById(Long id) {
+    public synchronized void deleteUserById(Long id) {
+        User user = findUserById(id);
         users.removeIf(u -> Objects.equals(u.getId(), id));
         saveUsersToFile();
+        if (user != null) {
+            eventPublisher.publishEvent(new UserChangedEvent(UserChangedEvent.Type.DELETED, user));
+        }
+    }
+
+    // .............................................................................................
+
+    /**
+     * Restrict the ids given to new users, e.g. to those a partitioned instance owns
+     */
+    public void setUserIdFilter(LongPredicate userIdFilter) {
+        this.userIdFilter = userIdFilter;
+    }
+
+    // .............................................................................................
+
+    /**
+     * Add a user moved here from another instance, keeping its id and password hash; replaces a user with the same id
+     */
+    public synchronized void importUser(User user) {
+        User existing = findUserById(user.getId());
+        if (existing != null) {
+            users.remove(existing);
+        }
+        users.add(user);
+        saveUsersToFile();
+        eventPublisher.publishEvent(new UserChangedEvent(
+                existing == null ? UserChangedEvent.Type.CREATED : UserChangedEvent.Type.UPDATED, user));
+    }
+
+    // .............................................................................................
+
+    /**
+     * Apply a user change received from the replication leader. The list is copied and swapped, so readers
+     * never see it half-updated; nothing is written to disk, since a replica resynchronizes on every connect.
+     */
+    public void applyReplicated(UserChangedEvent.Type type, User user) {
+        List<User> updated = new ArrayList<>(users);
+        updated.removeIf(u -> Objects.equals(u.getId(), user.getId()));
+        if (type != UserChangedEvent.Type.DELETED) {
+            updated.add(user);
+        }
+        users = updated;
+    }
+
+    /**
+     * Replace every user with the leader's snapshot; see {@link #applyReplicated}.
+     */
+    public void replaceReplicated(List<User> snapshot) {
+        users = new ArrayList<>(snapshot);
     }
 
     // .............................................................................................
@@ -273,6 +374,20 @@ public class UserService {
 
     // .............................................................................................
 
+    /**
+     * Find the user with this name whose password matches, or null
+     */
+    public User authenticate(String username, String password) {
+        for (User u : getAllUsers()) {
+            if (u.getName().equals(username) && verifyTimer.record(() -> BCrypt.checkpw(password, u.getPassword()))) {
+                return u;
+            }
+        }
+        return null;
+    }
+
+    // .............................................................................................
+
     /**
      * Check if email is already taken
      */
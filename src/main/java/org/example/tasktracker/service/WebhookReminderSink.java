@@ -0,0 +1,86 @@
+package org.example.tasktracker.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+
+/**
+ * POSTs each reminder as JSON to {@code tasktracker.reminders.webhook-url}. Requests are sent asynchronously
+ * and at most {@code tasktracker.reminders.webhook-max-in-flight} at a time; a reminder raised while that many
+ * are outstanding, or one the endpoint does not accept, is dropped and counted rather than queued without bound.
+ */
+@Component
+@ConditionalOnProperty(name = "tasktracker.reminders.sink", havingValue = "webhook")
+public class WebhookReminderSink implements ReminderSink {
+
+    private static final Logger log = LoggerFactory.getLogger(WebhookReminderSink.class);
+
+    private final ObjectMapper objectMapper;
+    private final URI url;
+    private final Semaphore inFlight;
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final Counter sent;
+    private final Counter dropped;
+
+    @Autowired
+    public WebhookReminderSink(ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry,
+                               @Value("${tasktracker.reminders.webhook-url}") String url,
+                               @Value("${tasktracker.reminders.webhook-max-in-flight:64}") int maxInFlight) {
+        this.objectMapper = objectMapper;
+        this.url = URI.create(url);
+        this.inFlight = new Semaphore(Math.max(1, maxInFlight));
+        this.sent = Counter.builder("tasktracker.reminders.webhook").tag("result", "sent")
+                .description("Reminders posted to the webhook").register(meterRegistry);
+        this.dropped = Counter.builder("tasktracker.reminders.webhook").tag("result", "dropped")
+                .description("Reminders posted to the webhook").register(meterRegistry);
+    }
+
+    @Override
+    public void deliver(Reminder reminder) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(reminder);
+        } catch (JsonProcessingException e) {
+            dropped.increment();
+            return;
+        }
+        if (!inFlight.tryAcquire()) {
+            dropped.increment();
+            return;
+        }
+        HttpRequest request = HttpRequest.newBuilder(url)
+                .timeout(Duration.ofSeconds(10))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            inFlight.release();
+            if (error == null && response.statusCode() / 100 == 2) {
+                sent.increment();
+                return;
+            }
+            dropped.increment();
+            log.debug("Webhook did not take reminder for task {}: {}", reminder.taskId(),
+                    error != null ? error.toString() : "HTTP " + response.statusCode());
+        });
+    }
+}
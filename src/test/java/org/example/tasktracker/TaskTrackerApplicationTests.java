@@ -3,7 +3,7 @@ package org.example.tasktracker;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "tasktracker.data-dir=target/test-data")
 class TaskTrackerApplicationTests {
 
     @Test
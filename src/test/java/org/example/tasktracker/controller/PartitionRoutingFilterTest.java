@@ -0,0 +1,78 @@
+package org.example.tasktracker.controller;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.tasktracker.model.User;
+import org.example.tasktracker.service.PartitionService;
+import org.example.tasktracker.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Checks the write fence of {@link PartitionRoutingFilter} while a user is being handed off: reads still pass,
+ * while posts and the links that change a task with a GET are answered with 503.
+ */
+class PartitionRoutingFilterTest {
+
+    @TempDir
+    Path dataDir;
+
+    private PartitionRoutingFilter filter;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        UserService userService = new UserService(event -> {
+        }, new SimpleMeterRegistry(), dataDir.toString());
+        userService.init();
+        user = new User("alice", "alice@example.com", "secret");
+        userService.registerUser(user);
+
+        // A single instance whose user is always being moved
+        PartitionService partitionService = new PartitionService(userService, null, null, null, new SimpleMeterRegistry(),
+                "a=http://localhost:1", "a", "secret", 16, 60_000) {
+            @Override
+            public boolean beginWrite(Long userId) {
+                return false;
+            }
+        };
+        filter = new PartitionRoutingFilter(partitionService, userService);
+    }
+
+    @Test
+    void readsPassWhileTheUserIsMoved() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        assertEquals(200, send("GET", "/home", chain));
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    void changesAreRefusedWhileTheUserIsMoved() throws Exception {
+        for (String[] change : new String[][] {{"POST", "/tasks/add"}, {"GET", "/home/toggle-task/1"},
+                {"GET", "/home/delete-task/1"}, {"GET", "/tasks/delete/1"}}) {
+            MockFilterChain chain = new MockFilterChain();
+            assertEquals(503, send(change[0], change[1], chain), change[0] + " " + change[1]);
+            assertNull(chain.getRequest());
+        }
+    }
+
+    private int send(String method, String path, MockFilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute("user", user);
+        request.setSession(session);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response.getStatus();
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.tasktracker.controller;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Checks whom {@link RateLimitFilter} counts a login against: the client address, and for a request forwarded
+ * by another instance the client that instance names rather than the instance itself; and that a request
+ * claiming to be the warm-up without its token is limited like any other.
+ */
+class RateLimitFilterTest {
+
+    private static final String PEER = "10.0.0.2";
+
+    @Test
+    void forwardedLoginsAreCountedAgainstTheirClient() throws Exception {
+        RateLimitFilter filter = filter(Optional.empty());
+        for (int i = 0; i < 2; i++) assertEquals(200, login(filter, PEER, "192.0.2.1"));
+        assertEquals(429, login(filter, PEER, "192.0.2.1"));
+        assertEquals(200, login(filter, PEER, "192.0.2.2"));
+        // The instance's own address is a bucket of its own
+        assertEquals(200, login(filter, PEER, null));
+    }
+
+    @Test
+    void onlyTheWarmupsOwnTokenIsLetThrough() throws Exception {
+        TrafficWarmup warmup = new TrafficWarmup(null, null, null, "unused", 1);
+        RateLimitFilter filter = filter(Optional.of(warmup));
+        MockHttpServletRequest request = request("127.0.0.1", null);
+        request.addHeader(TrafficWarmup.TOKEN_HEADER, "guess");
+        assertFalse(warmup.isWarmupRequest(request));
+        for (int i = 0; i < 2; i++) assertEquals(200, send(filter, request));
+        assertEquals(429, send(filter, request));
+    }
+
+    private static RateLimitFilter filter(Optional<TrafficWarmup> warmup) {
+        return new RateLimitFilter(new SimpleMeterRegistry(), warmup, 50, 100, 5, 20, 0.001, 2);
+    }
+
+    private static int login(RateLimitFilter filter, String remoteAddr, String client) throws Exception {
+        return send(filter, request(remoteAddr, client));
+    }
+
+    private static MockHttpServletRequest request(String remoteAddr, String client) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/login");
+        request.setRemoteAddr(remoteAddr);
+        if (client != null) request.setAttribute(RateLimitFilter.CLIENT_ATTRIBUTE, client);
+        return request;
+    }
+
+    private static int send(RateLimitFilter filter, MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response.getStatus();
+    }
+}
@@ -0,0 +1,65 @@
+package org.example.tasktracker.controller;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks {@link TokenBucket} on a simulated clock: the burst, the refill rate and the wait it reports, and that
+ * concurrent callers never get more tokens than the bucket holds.
+ */
+class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void admitsBurstThenRefillRate() {
+        TokenBucket bucket = new TokenBucket(2, 5); // a token every 500 ms, five at most
+        long now = 42 * SECOND;
+        for (int i = 0; i < 5; i++) assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(SECOND / 2, bucket.tryAcquire(now));
+        assertEquals(SECOND / 4, bucket.tryAcquire(now + SECOND / 4));
+        assertEquals(0, bucket.tryAcquire(now + SECOND / 2));
+        assertTrue(bucket.tryAcquire(now + SECOND / 2) > 0);
+
+        // Idle for a long time: full again, and never more than full
+        long later = now + 3600 * SECOND;
+        assertTrue(bucket.isFull(later));
+        int admitted = 0;
+        while (bucket.tryAcquire(later) == 0) admitted++;
+        assertEquals(5, admitted);
+    }
+
+    @Test
+    void concurrentCallersShareTheBurst() throws Exception {
+        TokenBucket bucket = new TokenBucket(1, 100);
+        long now = System.nanoTime();
+        AtomicInteger admitted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < 10_000; i++) {
+                    if (bucket.tryAcquire(now) == 0) admitted.incrementAndGet();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) thread.join();
+        assertEquals(100, admitted.get());
+    }
+}
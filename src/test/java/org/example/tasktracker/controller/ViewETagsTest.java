@@ -0,0 +1,95 @@
+package org.example.tasktracker.controller;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.tasktracker.model.Task;
+import org.example.tasktracker.model.User;
+import org.example.tasktracker.service.TaskService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.FlashMap;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that a view's ETag changes exactly when the user's tasks or the view parameters change, and that a
+ * matching If-None-Match is answered with 304 and a revalidation header, unless flash attributes came along.
+ */
+class ViewETagsTest {
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void etagFollowsTheUsersVersion() {
+        TaskService taskService = new TaskService(event -> { }, new SimpleMeterRegistry(), dataDir.toString(), false);
+        taskService.init();
+        User alice = user(1, "alice");
+        User bob = user(2, "bob");
+        Task task = new Task("Alice's", null, alice);
+        taskService.createTask(task);
+
+        String etag = ViewETags.forUser(taskService, alice, "page", 0);
+        String all = ViewETags.forAllTasks(taskService);
+        assertEquals(etag, ViewETags.forUser(taskService, alice, "page", 0));
+        assertNotEquals(etag, ViewETags.forUser(taskService, alice, "page", 1));
+        assertNotEquals(etag, ViewETags.forUser(taskService, bob, "page", 0));
+
+        // Another user's change leaves the view alone, but not the all-tasks view
+        taskService.createTask(new Task("Bob's", null, bob));
+        assertEquals(etag, ViewETags.forUser(taskService, alice, "page", 0));
+        assertNotEquals(all, ViewETags.forAllTasks(taskService));
+
+        taskService.toggleTaskStatusForUser(task.getId(), alice);
+        assertNotEquals(etag, ViewETags.forUser(taskService, alice, "page", 0));
+
+        // A failed change is not a change
+        String current = ViewETags.forUser(taskService, alice, "page", 0);
+        taskService.toggleTaskStatusForUser(task.getId(), bob);
+        assertEquals(current, ViewETags.forUser(taskService, alice, "page", 0));
+        taskService.shutdown();
+    }
+
+    @Test
+    void matchingIfNoneMatchIsNotModified() {
+        String etag = "\"abc-1-2-3\"";
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/tasks");
+        request.addHeader("If-None-Match", etag);
+        assertTrue(ViewETags.checkNotModified(new ServletWebRequest(request, response), etag));
+        assertEquals(304, response.getStatus());
+        assertEquals("private, no-cache", response.getHeader("Cache-Control"));
+
+        MockHttpServletResponse changed = new MockHttpServletResponse();
+        assertFalse(ViewETags.checkNotModified(new ServletWebRequest(request, changed), "\"abc-1-3-3\""));
+        assertEquals(etag.replace("-2-", "-3-"), changed.getHeader("ETag"));
+    }
+
+    @Test
+    void flashAttributesAreNeverNotModified() {
+        String etag = "\"abc-1-2-3\"";
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/home");
+        request.addHeader("If-None-Match", etag);
+        FlashMap flash = new FlashMap();
+        flash.put("error", "Task not found");
+        request.setAttribute(DispatcherServlet.INPUT_FLASH_MAP_ATTRIBUTE, flash);
+
+        assertFalse(ViewETags.checkNotModified(new ServletWebRequest(request, response), etag));
+        assertEquals(200, response.getStatus());
+    }
+
+    private static User user(long id, String name) {
+        User user = new User(name, name + "@example.com", "secret");
+        user.setId(id);
+        return user;
+    }
+}
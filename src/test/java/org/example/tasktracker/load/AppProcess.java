@@ -0,0 +1,155 @@
+package org.example.tasktracker.load;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The application started as a separate JVM from the test classpath, on a free port with its own data
+ * directory, for tests that need several instances. Output goes to {@code <workDir>/<name>.log}.
+ */
+final class AppProcess implements AutoCloseable {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    final String name;
+    final int port;
+    private final Process process;
+
+    private AppProcess(String name, int port, Process process) {
+        this.name = name;
+        this.port = port;
+        this.process = process;
+    }
+
+    /**
+     * Start an instance and wait until it serves requests.
+     *
+     * @param settings application settings such as {@code tasktracker.replication.role=leader}
+     */
+    static AppProcess start(String name, Path workDir, List<String> settings) throws Exception {
+        return start(name, freePort(), workDir, settings);
+    }
+
+    // On a port chosen in advance, for settings that name the instance's own URL
+    static AppProcess start(String name, int port, Path workDir, List<String> settings) throws Exception {
+        Path dataDir = workDir.resolve(name + "-data");
+        Files.createDirectories(dataDir);
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add("org.example.tasktracker.TaskTrackerApplication");
+        command.add("--server.port=" + port);
+        command.add("--tasktracker.data-dir=" + dataDir.toAbsolutePath());
+        // Test clients all come from one address; throttling them is not what these tests measure
+        if (settings.stream().noneMatch(setting -> setting.startsWith("tasktracker.rate-limit.enabled="))) {
+            command.add("--tasktracker.rate-limit.enabled=false");
+        }
+        for (String setting : settings) {
+            command.add("--" + setting);
+        }
+        Process process = new ProcessBuilder(command).redirectErrorStream(true)
+                .redirectOutput(workDir.resolve(name + ".log").toFile()).start();
+        AppProcess app = new AppProcess(name, port, process);
+        app.awaitReady();
+        return app;
+    }
+
+    static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + port;
+    }
+
+    private void awaitReady() throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) throw new IllegalStateException(name + " exited with " + process.exitValue());
+            try {
+                HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl() + "/login")).build();
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) return;
+            } catch (IOException e) {
+                // not listening yet
+            }
+            Thread.sleep(50);
+        }
+        close();
+        throw new IllegalStateException(name + " did not start within " + STARTUP_TIMEOUT);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        process.waitFor();
+    }
+
+    /**
+     * A browser-like client of one instance: keeps the session cookie and does not follow redirects.
+     */
+    static final class Client {
+        private static final Pattern SESSION_COOKIE = Pattern.compile("JSESSIONID=([^;]+)");
+        private static final HttpClient HTTP = HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        private final String baseUrl;
+        private String session;
+
+        Client(String baseUrl) {
+            this.baseUrl = baseUrl;
+        }
+
+        HttpResponse<String> get(String path) throws IOException, InterruptedException {
+            return send(HttpRequest.newBuilder(URI.create(baseUrl + path)).GET());
+        }
+
+        // Form post
+        HttpResponse<String> post(String path, String form) throws IOException, InterruptedException {
+            return send(HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .header("Content-Type", "application/x-www-form-urlencoded")
+                    .POST(HttpRequest.BodyPublishers.ofString(form)));
+        }
+
+        // True when the login (or registration) redirected to the dashboard
+        boolean login(String username, String password) throws IOException, InterruptedException {
+            return redirectsHome(post("/login", "username=" + username + "&password=" + password.replace("!", "%21")));
+        }
+
+        boolean register(String username, String email, String password) throws IOException, InterruptedException {
+            return redirectsHome(post("/register", "username=" + username + "&email=" + email.replace("@", "%40")
+                    + "&password=" + password.replace("!", "%21")));
+        }
+
+        private static boolean redirectsHome(HttpResponse<String> response) {
+            return response.headers().firstValue("Location").orElse("").replaceFirst(";.*", "").endsWith("/home");
+        }
+
+        private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+            if (session != null) request.header("Cookie", "JSESSIONID=" + session);
+            HttpResponse<String> response = HTTP.send(request.timeout(Duration.ofSeconds(30)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            for (String cookie : response.headers().allValues("Set-Cookie")) {
+                Matcher matcher = SESSION_COOKIE.matcher(cookie);
+                if (matcher.find()) session = matcher.group(1);
+            }
+            return response;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.example.tasktracker.load;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Settings for one load run, read from {@code load.*} system properties.
+ *
+ * @param baseUrl     one instance, or several separated by commas
+ * @param model       "closed": {@code concurrency} users loop back to back; "open": iterations start at {@code rate}
+ *                    per second whether or not earlier ones finished
+ * @param flow        "browser": the page flows; "mvc" or "reactive": list, add, status change and delete through
+ *                    the blocking endpoints or {@code /api/reactive/tasks}; "compare": the mvc flow, then the
+ *                    reactive flow, each for the whole duration, reported side by side
+ * @param users       virtual users registered before the run
+ * @param tasksPerUser tasks each user starts with (data size)
+ */
+record LoadConfig(String baseUrl,
+                  String model,
+                  String flow,
+                  int users,
+                  int concurrency,
+                  double rate,
+                  int tasksPerUser,
+                  Duration warmup,
+                  Duration duration,
+                  Duration thinkTime,
+                  String reportFile) {
+
+    static LoadConfig fromSystemProperties(String defaultBaseUrl) {
+        LoadConfig config = new LoadConfig(
+                System.getProperty("load.baseUrl", defaultBaseUrl),
+                System.getProperty("load.model", "closed"),
+                System.getProperty("load.flow", "browser"),
+                Integer.getInteger("load.users", 50),
+                Integer.getInteger("load.concurrency", 16),
+                Double.parseDouble(System.getProperty("load.rate", "50")),
+                Integer.getInteger("load.tasksPerUser", 20),
+                Duration.ofSeconds(Long.getLong("load.warmupSeconds", 10)),
+                Duration.ofSeconds(Long.getLong("load.durationSeconds", 30)),
+                Duration.ofMillis(Long.getLong("load.thinkMillis", 0)),
+                System.getProperty("load.report", "target/load-report.json"));
+        if (!config.model().equals("closed") && !config.model().equals("open")) {
+            throw new IllegalArgumentException("load.model must be closed or open");
+        }
+        if (!List.of("browser", "mvc", "reactive", "compare").contains(config.flow())) {
+            throw new IllegalArgumentException("load.flow must be browser, mvc, reactive or compare");
+        }
+        return config;
+    }
+
+    // The flows run one after the other, with their operations named after the flow unless it is the browser flow
+    List<String> flows() {
+        return flow.equals("compare") ? List.of("mvc", "reactive") : List.of(flow);
+    }
+
+    boolean usesReactiveApi() {
+        return flow.equals("reactive") || flow.equals("compare");
+    }
+}
@@ -0,0 +1,428 @@
+package org.example.tasktracker.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Drives the browser flows (register, login, dashboard, add, toggle, search, edit, delete) against a running
+ * instance with the JDK HttpClient and reports throughput and latency percentiles per operation.
+ * With {@code load.flow=mvc}, {@code reactive} or {@code compare} it runs the same list, add, status and delete
+ * sequence through the blocking endpoints, the reactive API, or both in turn (see {@link LoadConfig}).
+ *
+ * <p>Latencies go into HdrHistograms in microseconds. In the open model an iteration's latency is measured
+ * from the time it was scheduled to start, so a server that falls behind shows up as queueing delay instead of
+ * silently lowering the offered load.</p>
+ *
+ * <p>With several comma-separated base URLs, the virtual users are spread over them round-robin.</p>
+ *
+ * <p>Runs inside {@code LoadTest} ({@code mvn -Pload test}), or against any URL with {@link #main}.</p>
+ */
+public class LoadHarness {
+
+    private static final String PASSWORD = "Passw0rd!";
+    private static final Pattern SESSION_COOKIE = Pattern.compile("JSESSIONID=([^;]+)");
+    private static final Pattern TASK_ID = Pattern.compile("\"id\":(\\d+)");
+    private static final String FORM = "application/x-www-form-urlencoded";
+    private static final String JSON = "application/json";
+    // Workers sharing a virtual user can pick the same task; the page endpoints redirect when it is gone, these give 404
+    private static final Set<String> MAY_BE_GONE = Set.of("reactive.status", "reactive.delete");
+    private static final String[] SEARCH_TERMS = {"report", "review", "deploy", "meeting"};
+
+    private final LoadConfig config;
+    private final String[] baseUrls;
+    private final HttpClient client;
+    private final Map<String, Histogram> latencies = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> errors = new ConcurrentHashMap<>();
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+    public LoadHarness(LoadConfig config) {
+        this.config = config;
+        this.baseUrls = config.baseUrl().split(",");
+        this.client = HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadHarness harness = new LoadHarness(LoadConfig.fromSystemProperties("http://localhost:8080"));
+        harness.run().print(System.out);
+    }
+
+    /**
+     * One logged-in browser session and the ids of its tasks.
+     */
+    private final class VirtualUser {
+        final int index;
+        final String name;
+        final String email;
+        final String baseUrl;
+        volatile String session;
+        final List<Long> taskIds = new ArrayList<>();
+
+        VirtualUser(int index) {
+            this.index = index;
+            this.name = "Load" + letters(index) + runId.replaceAll("[^a-z]", "");
+            this.email = "load" + index + "." + runId + "@example.com";
+            this.baseUrl = baseUrls[index % baseUrls.length];
+        }
+
+        void register() {
+            HttpResponse<String> response = post(baseUrl, "register", "/register",
+                    form("username", name, "email", email, "password", PASSWORD), null);
+            session = sessionOf(response, session);
+        }
+
+        void login() {
+            HttpResponse<String> response = post(baseUrl, "login", "/login", form("username", name, "password", PASSWORD), null);
+            session = sessionOf(response, session);
+        }
+
+        void seed(int tasks) {
+            for (int i = 0; i < tasks; i++) {
+                send(baseUrl, null, "POST", "/tasks/add", newTaskForm(i), session);
+            }
+            refreshTaskIds(null);
+        }
+
+        // One pass through the given flow
+        void iterate(String flow) {
+            switch (flow) {
+                case "mvc":
+                    iterateMvc();
+                    break;
+                case "reactive":
+                    iterateReactive();
+                    break;
+                default:
+                    iterateBrowser();
+            }
+        }
+
+        // The typical flow of a signed-in user
+        private void iterateBrowser() {
+            get("dashboard", "/home");
+            post(baseUrl, "add", "/tasks/add", newTaskForm(ThreadLocalRandom.current().nextInt(1000)), session);
+            refreshTaskIds("list");
+            Long id = randomTaskId();
+            if (id != null) post(baseUrl, "toggle", "/tasks/toggle/" + id, "", session);
+            get("search", "/tasks?search=" + SEARCH_TERMS[ThreadLocalRandom.current().nextInt(SEARCH_TERMS.length)]
+                    + "&sortBy=priority");
+            id = randomTaskId();
+            if (id != null) {
+                post(baseUrl, "edit", "/tasks/update/" + id, form("title", "Edited task " + id, "description", "Edited by the load test",
+                        "priority", "high", "dueDate", ""), session);
+            }
+            id = removeRandomTaskId();
+            if (id != null) post(baseUrl, "delete", "/tasks/delete/" + id, "", session);
+        }
+
+        // List, add, status change and delete through the blocking endpoints, for comparison with iterateReactive()
+        private void iterateMvc() {
+            refreshTaskIds("mvc.list");
+            post(baseUrl, "mvc.add", "/tasks/add", newTaskForm(ThreadLocalRandom.current().nextInt(1000)), session);
+            Long id = randomTaskId();
+            if (id != null) post(baseUrl, "mvc.status", "/tasks/update-status/" + id, form("status", randomStatus()), session);
+            id = removeRandomTaskId();
+            if (id != null) post(baseUrl, "mvc.delete", "/tasks/delete/" + id, "", session);
+        }
+
+        private void iterateReactive() {
+            updateTaskIds(send(baseUrl, "reactive.list", "GET", "/api/reactive/tasks", null, null, session));
+            int n = ThreadLocalRandom.current().nextInt(1000);
+            String term = SEARCH_TERMS[n % SEARCH_TERMS.length];
+            send(baseUrl, "reactive.add", "POST", "/api/reactive/tasks", JSON,
+                    "{\"title\":\"Load task " + n + " " + term + "\",\"description\":\"Created to " + term
+                            + " under load\",\"priority\":\"" + (n % 3 == 0 ? "high" : n % 3 == 1 ? "medium" : "low") + "\"}",
+                    session);
+            Long id = randomTaskId();
+            if (id != null) post(baseUrl, "reactive.status", "/api/reactive/tasks/" + id + "/status", form("status", randomStatus()), session);
+            id = removeRandomTaskId();
+            if (id != null) send(baseUrl, "reactive.delete", "DELETE", "/api/reactive/tasks/" + id, null, null, session);
+        }
+
+        private void get(String operation, String path) {
+            send(baseUrl, operation, "GET", path, null, session);
+        }
+
+        private void refreshTaskIds(String operation) {
+            updateTaskIds(send(baseUrl, operation, "GET", "/api/tasks?fields=id&limit=500", null, session));
+        }
+
+        // Task ids from a JSON or NDJSON task list
+        private void updateTaskIds(HttpResponse<String> response) {
+            if (response == null || response.statusCode() != 200) return;
+            List<Long> ids = new ArrayList<>();
+            Matcher matcher = TASK_ID.matcher(response.body());
+            while (matcher.find()) ids.add(Long.parseLong(matcher.group(1)));
+            synchronized (taskIds) {
+                taskIds.clear();
+                taskIds.addAll(ids);
+            }
+        }
+
+        private Long randomTaskId() {
+            synchronized (taskIds) {
+                return taskIds.isEmpty() ? null : taskIds.get(ThreadLocalRandom.current().nextInt(taskIds.size()));
+            }
+        }
+
+        private Long removeRandomTaskId() {
+            synchronized (taskIds) {
+                return taskIds.isEmpty() ? null : taskIds.remove(ThreadLocalRandom.current().nextInt(taskIds.size()));
+            }
+        }
+
+        private String randomStatus() {
+            String[] statuses = {"todo", "in_progress", "completed"};
+            return statuses[ThreadLocalRandom.current().nextInt(statuses.length)];
+        }
+
+        private String newTaskForm(int n) {
+            String term = SEARCH_TERMS[n % SEARCH_TERMS.length];
+            return form("title", "Load task " + n + " " + term, "description", "Created to " + term + " under load",
+                    "priority", n % 3 == 0 ? "high" : n % 3 == 1 ? "medium" : "low", "dueDate", "");
+        }
+    }
+
+    public LoadReport run() throws InterruptedException {
+        List<VirtualUser> users = new ArrayList<>(config.users());
+        try (ExecutorService setup = Executors.newFixedThreadPool(Math.min(config.users(), 16))) {
+            for (int i = 0; i < config.users(); i++) {
+                VirtualUser user = new VirtualUser(i);
+                users.add(user);
+                setup.execute(() -> {
+                    user.register();
+                    user.login();
+                    user.seed(config.tasksPerUser());
+                });
+            }
+        }
+
+        for (String flow : config.flows()) {
+            if (!config.warmup().isZero()) drive(users, flow, config.warmup());
+        }
+        latencies.clear();
+        errors.clear();
+
+        // With several flows each gets the full duration in turn, so they are measured under the same load
+        long started = System.nanoTime();
+        long iterations = 0;
+        for (String flow : config.flows()) {
+            iterations += drive(users, flow, config.duration());
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        return new LoadReport(config, iterations, seconds, new TreeMap<>(latencies), errors);
+    }
+
+    // Run the configured workload for the given time; returns the number of completed iterations
+    private long drive(List<VirtualUser> users, String flow, Duration duration) throws InterruptedException {
+        String iteration = flow.equals("browser") ? "iteration" : flow + ".iteration";
+        AtomicLong completed = new AtomicLong();
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            if (config.model().equals("closed")) {
+                for (int w = 0; w < config.concurrency(); w++) {
+                    int worker = w;
+                    workers.execute(() -> {
+                        int n = worker;
+                        while (System.nanoTime() < deadline) {
+                            users.get(n % users.size()).iterate(flow);
+                            completed.incrementAndGet();
+                            n += config.concurrency();
+                            pause(config.thinkTime());
+                        }
+                    });
+                }
+            } else {
+                long interval = (long) (1_000_000_000L / config.rate());
+                AtomicInteger next = new AtomicInteger();
+                for (long intended = System.nanoTime(); intended < deadline; intended += interval) {
+                    long wait = intended - System.nanoTime();
+                    if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+                    long scheduled = intended;
+                    VirtualUser user = users.get(next.getAndIncrement() % users.size());
+                    workers.execute(() -> {
+                        user.iterate(flow);
+                        record(iteration, System.nanoTime() - scheduled);
+                        completed.incrementAndGet();
+                    });
+                }
+            }
+        }
+        return completed.get();
+    }
+
+    private HttpResponse<String> post(String baseUrl, String operation, String path, String body, String session) {
+        return send(baseUrl, operation, "POST", path, body, session);
+    }
+
+    /**
+     * Send one request and record its latency under {@code operation} (null: not recorded).
+     * 4xx/5xx responses, transport errors and redirects to the login page count as errors,
+     * except a 404 for a task that another worker removed first.
+     */
+    private HttpResponse<String> send(String baseUrl, String operation, String method, String path, String body, String session) {
+        return send(baseUrl, operation, method, path, FORM, body, session);
+    }
+
+    private HttpResponse<String> send(String baseUrl, String operation, String method, String path, String contentType,
+                                      String body, String session) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30));
+        if (session != null) request.header("Cookie", "JSESSIONID=" + session);
+        if (body != null) {
+            request.header("Content-Type", contentType)
+                    .method(method, HttpRequest.BodyPublishers.ofString(body));
+        } else {
+            request.method(method, HttpRequest.BodyPublishers.noBody());
+        }
+
+        long started = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            if (operation != null) {
+                record(operation, System.nanoTime() - started);
+                boolean lostSession = response.statusCode() == 302
+                        && response.headers().firstValue("Location").orElse("").endsWith("/login")
+                        && !operation.equals("login");
+                boolean gone = response.statusCode() == 404 && MAY_BE_GONE.contains(operation);
+                if ((response.statusCode() >= 400 && !gone) || lostSession) countError(operation);
+            }
+            return response;
+        } catch (IOException e) {
+            if (operation != null) countError(operation);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private void record(String operation, long nanos) {
+        latencies.computeIfAbsent(operation, k -> new ConcurrentHistogram(3))
+                .recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos)));
+    }
+
+    private void countError(String operation) {
+        errors.computeIfAbsent(operation, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    private static String sessionOf(HttpResponse<String> response, String current) {
+        if (response == null) return current;
+        for (String cookie : response.headers().allValues("Set-Cookie")) {
+            Matcher matcher = SESSION_COOKIE.matcher(cookie);
+            if (matcher.find()) return matcher.group(1);
+        }
+        return current;
+    }
+
+    private static String form(String... pairs) {
+        StringBuilder form = new StringBuilder();
+        for (int i = 0; i < pairs.length; i += 2) {
+            if (form.length() > 0) form.append('&');
+            form.append(pairs[i]).append('=').append(URLEncoder.encode(pairs[i + 1], StandardCharsets.UTF_8));
+        }
+        return form.toString();
+    }
+
+    // User names may only contain letters
+    private static String letters(int n) {
+        StringBuilder letters = new StringBuilder();
+        do {
+            letters.append((char) ('a' + n % 26));
+            n /= 26;
+        } while (n > 0);
+        return letters.toString();
+    }
+
+    private static void pause(Duration duration) {
+        if (duration.isZero()) return;
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Throughput and latency percentiles (milliseconds) per operation.
+     */
+    public record LoadReport(LoadConfig config, long iterations, double seconds,
+                             Map<String, Histogram> latencies, Map<String, AtomicLong> errors) {
+
+        public long totalErrors() {
+            return errors.values().stream().mapToLong(AtomicLong::get).sum();
+        }
+
+        public void print(PrintStream out) {
+            out.printf(Locale.ROOT, "%s model, %s flow, %d users, %s, %.1f s: %d iterations (%.1f/s), %d errors%n",
+                    config.model(), config.flow(), config.users(),
+                    config.model().equals("open") ? config.rate() + " iterations/s offered" : config.concurrency() + " concurrent",
+                    seconds, iterations, iterations / seconds, totalErrors());
+            out.printf(Locale.ROOT, "%-24s %9s %7s %9s %9s %9s %9s %9s%n",
+                    "operation", "count", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+            latencies.forEach((operation, histogram) -> out.printf(Locale.ROOT, "%-24s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    operation, histogram.getTotalCount(), errorsOf(operation), histogram.getTotalCount() / seconds,
+                    millis(histogram, 50), millis(histogram, 99), millis(histogram, 99.9), histogram.getMaxValue() / 1000.0));
+        }
+
+        public void writeJson(Path file) throws IOException {
+            if (file.getParent() != null) Files.createDirectories(file.getParent());
+            try (Writer out = Files.newBufferedWriter(file)) {
+                out.write(String.format(Locale.ROOT,
+                        "{\"model\":\"%s\",\"flow\":\"%s\",\"users\":%d,\"concurrency\":%d,\"rate\":%s,\"seconds\":%.3f,\"iterations\":%d,\"operations\":{",
+                        config.model(), config.flow(), config.users(), config.concurrency(), config.rate(), seconds, iterations));
+                boolean first = true;
+                for (Map.Entry<String, Histogram> entry : latencies.entrySet()) {
+                    Histogram histogram = entry.getValue();
+                    out.write(String.format(Locale.ROOT,
+                            "%s\"%s\":{\"count\":%d,\"errors\":%d,\"throughput\":%.2f,\"p50\":%.3f,\"p99\":%.3f,\"p999\":%.3f,\"max\":%.3f}",
+                            first ? "" : ",", entry.getKey(), histogram.getTotalCount(), errorsOf(entry.getKey()),
+                            histogram.getTotalCount() / seconds, millis(histogram, 50), millis(histogram, 99),
+                            millis(histogram, 99.9), histogram.getMaxValue() / 1000.0));
+                    first = false;
+                }
+                out.write("}}\n");
+            }
+        }
+
+        private long errorsOf(String operation) {
+            AtomicLong count = errors.get(operation);
+            return count == null ? 0 : count.get();
+        }
+
+        private static double millis(Histogram histogram, double percentile) {
+            return histogram.getValueAtPercentile(percentile) / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.example.tasktracker.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.example.tasktracker.controller.TrafficEntry;
+import org.example.tasktracker.controller.TrafficReplayer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Starts the application on a random port with an empty data directory and runs {@link LoadHarness} against it.
+ * Only runs with {@code -Dload=true}, which the {@code load} Maven profile sets:
+ * <pre>mvn -Pload test -Dload.model=open -Dload.rate=100 -Dload.durationSeconds=60</pre>
+ * Application settings can be passed the same way, e.g. {@code -Dtasktracker.fragment-cache.enabled=true}.
+ * To compare the blocking and the reactive task API under the same load (the reactive API is switched on for it):
+ * <pre>mvn -Pload test -Dload.flow=compare -Dload.concurrency=64</pre>
+ *
+ * <p>With {@code -Dload.replay=<traffic log>} a captured traffic log (see
+ * {@code tasktracker.capture.enabled}) is replayed instead, {@code load.replay.passes} times (default 1) at
+ * {@code load.replay.speed} (default 0, as fast as possible), giving a repeatable workload to compare releases:
+ * <pre>mvn -Pload test -Dload.replay=traffic.log.gz -Dload.report=target/replay-report.json</pre></p>
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@EnabledIfSystemProperty(named = "load", matches = "true")
+class LoadTest {
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void dataDir(DynamicPropertyRegistry registry) throws Exception {
+        Path dir = Files.createTempDirectory("tasktracker-load");
+        registry.add("tasktracker.data-dir", dir::toString);
+        // Every simulated user shares one address; -Dtasktracker.rate-limit.enabled=true measures the limiter instead
+        registry.add("tasktracker.rate-limit.enabled", () -> System.getProperty("tasktracker.rate-limit.enabled", "false"));
+        if (LoadConfig.fromSystemProperties("").usesReactiveApi()) {
+            registry.add("tasktracker.reactive.enabled", () -> "true");
+        }
+    }
+
+    @Test
+    @DisabledIfSystemProperty(named = "load.replay", matches = ".+")
+    void userFlowsUnderLoad() throws Exception {
+        LoadConfig config = LoadConfig.fromSystemProperties("http://localhost:" + port);
+        LoadHarness.LoadReport report = new LoadHarness(config).run();
+
+        report.print(System.out);
+        report.writeJson(Path.of(config.reportFile()));
+        assertEquals(0, report.totalErrors(), "requests failed during the load run");
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "load.replay", matches = ".+")
+    void capturedTrafficReplay() throws Exception {
+        List<TrafficEntry> entries = TrafficEntry.read(Path.of(System.getProperty("load.replay")));
+        int passes = Integer.getInteger("load.replay.passes", 1);
+        double speed = Double.parseDouble(System.getProperty("load.replay.speed", "0"));
+
+        Map<String, Histogram> latencies = new TreeMap<>();
+        Map<String, AtomicLong> errors = new ConcurrentHashMap<>();
+        for (TrafficEntry entry : entries) {
+            latencies.computeIfAbsent(entry.operation(), k -> new ConcurrentHistogram(3));
+        }
+        TrafficReplayer replayer = new TrafficReplayer("http://localhost:" + port, "Replay", speed, (entry, status, nanos) -> {
+            latencies.get(entry.operation()).recordValue(TimeUnit.NANOSECONDS.toMicros(nanos));
+            if (status < 0 || status >= 500 || (entry.status() < 400 && status >= 400)) {
+                errors.computeIfAbsent(entry.operation(), k -> new AtomicLong()).incrementAndGet();
+            }
+        });
+
+        long elapsedMillis = 0;
+        for (int pass = 0; pass < passes; pass++) {
+            elapsedMillis += replayer.replay(entries).elapsedMillis();
+        }
+        long actors = entries.stream().map(TrafficEntry::actor).distinct().count();
+        LoadConfig config = new LoadConfig("http://localhost:" + port, "replay", "replay", (int) actors, (int) actors, 0, 0,
+                Duration.ZERO, Duration.ofMillis(elapsedMillis), Duration.ZERO,
+                System.getProperty("load.report", "target/load-report.json"));
+        LoadHarness.LoadReport report = new LoadHarness.LoadReport(config, (long) passes * entries.size(),
+                Math.max(elapsedMillis, 1) / 1000.0, latencies, errors);
+
+        report.print(System.out);
+        report.writeJson(Path.of(config.reportFile()));
+        assertEquals(0, report.totalErrors(), "replayed requests failed");
+    }
+}
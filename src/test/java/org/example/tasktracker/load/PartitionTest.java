@@ -0,0 +1,173 @@
+package org.example.tasktracker.load;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs a user-partitioned deployment as separate processes. Measures {@link LoadHarness} throughput with
+ * {@code partition.counts} instances (default 1,2,4; load settings as in {@code LoadTest}), with the virtual
+ * users spread over all instances, and checks that users and their tasks move when an instance joins and leaves.
+ * Only runs with {@code -Dpartition=true}:
+ * <pre>mvn test -Dtest=PartitionTest -Dpartition=true -Dload.durationSeconds=20</pre>
+ * Throughput only scales when the machine has a core per instance.
+ */
+@EnabledIfSystemProperty(named = "partition", matches = "true")
+class PartitionTest {
+
+    private static final String PASSWORD = "Passw0rd!";
+    private static final String SECRET = "partition-test-secret";
+    private static final Pattern COUNT = Pattern.compile("\"count\":(\\d+)");
+    private static final Pattern USERS = Pattern.compile("\"users\":(\\d+)");
+    private static final Duration CONVERGE_TIMEOUT = Duration.ofSeconds(60);
+    private static final HttpClient HTTP = HttpClient.newHttpClient();
+
+    @TempDir
+    Path workDir;
+
+    @Test
+    void throughputScalesWithInstances() throws Exception {
+        List<String> rows = new ArrayList<>();
+        for (String count : System.getProperty("partition.counts", "1,2,4").split(",")) {
+            int instances = Integer.parseInt(count.trim());
+            List<AppProcess> apps = startPartition("run" + instances + "-", freePorts(instances), instances);
+            try {
+                String baseUrls = String.join(",", apps.stream().map(AppProcess::baseUrl).toList());
+                LoadHarness.LoadReport report = new LoadHarness(LoadConfig.fromSystemProperties(baseUrls)).run();
+                report.print(System.out);
+                assertEquals(0, report.totalErrors(), "requests failed with " + instances + " instances");
+                rows.add(String.format(Locale.ROOT, "%9d %12.1f", instances, report.iterations() / report.seconds()));
+            } finally {
+                for (AppProcess app : apps) app.close();
+            }
+        }
+        System.out.println("instances  iterations/s");
+        rows.forEach(System.out::println);
+    }
+
+    @Test
+    void rebalancesWhenAnInstanceJoins() throws Exception {
+        int users = 12;
+        int tasksPerUser = 3;
+        int[] ports = freePorts(3);
+        List<AppProcess> apps = startPartition("", ports, 2);
+        try {
+            for (int i = 0; i < users; i++) {
+                AppProcess.Client client = new AppProcess.Client(apps.get(i % 2).baseUrl());
+                assertTrue(client.register(name(i), "user" + i + "@example.com", PASSWORD), "registration of " + name(i) + " failed");
+                for (int t = 0; t < tasksPerUser; t++) {
+                    client.post("/tasks/add", "title=Task+" + t + "&description=&priority=low&dueDate=");
+                }
+            }
+            // A user registered on one instance can sign in through the other
+            assertTrue(new AppProcess.Client(apps.get(1).baseUrl()).login(name(0), PASSWORD));
+            assertFalse(new AppProcess.Client(apps.get(1).baseUrl()).register("Duplicate", "user0@example.com", PASSWORD),
+                    "an e-mail address stored on the other instance was registered again");
+
+            String all = spec(ports, 3);
+            apps.add(AppProcess.start("c", ports[2], workDir, settings("c", all)));
+            assertEquals(200, membership(apps.get(0), all).statusCode());
+            awaitTrue(() -> storedUsers(apps.get(2)) > 0, "no users moved to the new instance");
+            awaitTrue(() -> storedUsers(apps.get(0)) + storedUsers(apps.get(1)) + storedUsers(apps.get(2)) == users,
+                    "users were lost or duplicated while moving");
+            assertAllUsersSeeTheirTasks(apps, users, tasksPerUser);
+
+            assertEquals(200, membership(apps.get(0), spec(ports, 2)).statusCode());
+            awaitTrue(() -> storedUsers(apps.get(2)) == 0, "the leaving instance kept users");
+            awaitTrue(() -> storedUsers(apps.get(0)) + storedUsers(apps.get(1)) == users, "users were lost while moving back");
+            assertAllUsersSeeTheirTasks(apps.subList(0, 2), users, tasksPerUser);
+        } finally {
+            for (AppProcess app : apps) app.close();
+        }
+    }
+
+    private static int[] freePorts(int count) throws Exception {
+        int[] ports = new int[count];
+        for (int i = 0; i < count; i++) ports[i] = AppProcess.freePort();
+        return ports;
+    }
+
+    // Instances a, b, c... on the given ports; membership is the first `started` of them
+    private List<AppProcess> startPartition(String prefix, int[] ports, int started) throws Exception {
+        String spec = spec(ports, started);
+        List<AppProcess> apps = new ArrayList<>();
+        for (int i = 0; i < started; i++) {
+            String name = String.valueOf((char) ('a' + i));
+            apps.add(AppProcess.start(prefix + name, ports[i], workDir, settings(name, spec)));
+        }
+        return apps;
+    }
+
+    private static List<String> settings(String self, String spec) {
+        return List.of("tasktracker.partition.instances=" + spec, "tasktracker.partition.self=" + self,
+                "tasktracker.partition.secret=" + SECRET, "tasktracker.partition.rebalance-millis=500");
+    }
+
+    private static String name(int i) {
+        return "Partitioned" + (char) ('A' + i);
+    }
+
+    private void assertAllUsersSeeTheirTasks(List<AppProcess> entries, int users, int tasksPerUser) throws Exception {
+        for (int i = 0; i < users; i++) {
+            AppProcess.Client client = new AppProcess.Client(entries.get(i % entries.size()).baseUrl());
+            int user = i;
+            awaitTrue(() -> client.login(name(user), PASSWORD), name(i) + " could not sign in");
+            Matcher matcher = COUNT.matcher(client.get("/api/tasks?fields=id&limit=500").body());
+            assertTrue(matcher.find());
+            assertEquals(tasksPerUser, Integer.parseInt(matcher.group(1)), "tasks of " + name(i));
+        }
+    }
+
+    private static HttpResponse<String> membership(AppProcess app, String spec) throws Exception {
+        return HTTP.send(HttpRequest.newBuilder(URI.create(app.baseUrl() + "/internal/partition/membership"))
+                .header("X-Partition-Secret", SECRET)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString("instances=" + spec.replace("=", "%3D").replace(":", "%3A")
+                        .replace("/", "%2F").replace(",", "%2C")))
+                .build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static int storedUsers(AppProcess app) throws Exception {
+        String body = HTTP.send(HttpRequest.newBuilder(URI.create(app.baseUrl() + "/internal/partition/status"))
+                .header("X-Partition-Secret", SECRET).build(), HttpResponse.BodyHandlers.ofString()).body();
+        Matcher matcher = USERS.matcher(body);
+        if (!matcher.find()) throw new AssertionError("No status from " + app.name + ": " + body);
+        return Integer.parseInt(matcher.group(1));
+    }
+
+    private static String spec(int[] ports, int instances) {
+        StringBuilder spec = new StringBuilder();
+        for (int i = 0; i < instances; i++) {
+            spec.append(i == 0 ? "" : ",").append((char) ('a' + i)).append("=http://localhost:").append(ports[i]);
+        }
+        return spec.toString();
+    }
+
+    private interface Check {
+        boolean test() throws Exception;
+    }
+
+    private static void awaitTrue(Check check, String message) throws Exception {
+        long deadline = System.nanoTime() + CONVERGE_TIMEOUT.toNanos();
+        while (!check.test()) {
+            if (System.nanoTime() > deadline) throw new AssertionError(message);
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package org.example.tasktracker.load;
+
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs a replication leader and two followers as separate processes: one follower is connected while tasks are
+ * written and receives them as a stream, the other joins afterwards and starts from a snapshot. Reports how long
+ * writes on the leader take to become visible on the follower, and checks that both followers end up serving
+ * exactly the leader's data and refuse writes. Only runs with {@code -Dreplication=true}:
+ * <pre>mvn test -Dtest=ReplicationTest -Dreplication=true</pre>
+ */
+@EnabledIfSystemProperty(named = "replication", matches = "true")
+class ReplicationTest {
+
+    private static final String PASSWORD = "Passw0rd!";
+    private static final Pattern COUNT = Pattern.compile("\"count\":(\\d+)");
+    private static final Pattern GAUGE_VALUE = Pattern.compile("\"value\":([0-9.Ee+-]+)");
+    private static final Duration CONVERGE_TIMEOUT = Duration.ofSeconds(30);
+    private static final String ALL_TASKS = "/api/tasks?limit=500";
+
+    @TempDir
+    Path workDir;
+
+    @Test
+    void followersServeTheLeadersWrites() throws Exception {
+        int tasks = Integer.getInteger("replication.tasks", 300);
+        int replicationPort = AppProcess.freePort();
+        List<String> followerSettings = List.of("tasktracker.replication.role=follower",
+                "tasktracker.replication.leader=127.0.0.1:" + replicationPort);
+
+        try (AppProcess leader = AppProcess.start("leader", workDir, List.of("tasktracker.replication.role=leader",
+                "tasktracker.replication.port=" + replicationPort));
+             AppProcess streamed = AppProcess.start("follower-1", workDir, followerSettings)) {
+
+            AppProcess.Client writer = new AppProcess.Client(leader.baseUrl());
+            assertTrue(writer.register("Replica", "replica@example.com", PASSWORD), "registration on the leader failed");
+
+            AppProcess.Client reader = new AppProcess.Client(streamed.baseUrl());
+            awaitTrue(() -> reader.login("Replica", PASSWORD), "user never reached follower-1");
+
+            // Time from a write's response on the leader until the follower serves it
+            Histogram visible = new Histogram(3);
+            for (int i = 1; i <= tasks; i++) {
+                writer.post("/tasks/add", "title=Replicated+task+" + i + "&description=&priority=" + (i % 2 == 0 ? "high" : "low") + "&dueDate=");
+                if (i % 10 == 0) {
+                    long written = System.nanoTime();
+                    int expected = i;
+                    awaitTrue(() -> count(reader.get("/api/tasks?fields=id&limit=500")) == expected, "task " + i + " never reached follower-1");
+                    visible.recordValue((System.nanoTime() - written) / 1000);
+                }
+            }
+            for (int id = 1; id <= tasks; id += 7) {
+                writer.post("/tasks/toggle/" + id, "");
+            }
+            for (int id = 3; id <= tasks; id += 11) {
+                writer.post("/tasks/delete/" + id, "");
+            }
+
+            try (AppProcess joined = AppProcess.start("follower-2", workDir, followerSettings)) {
+                AppProcess.Client lateReader = new AppProcess.Client(joined.baseUrl());
+                awaitTrue(() -> lateReader.login("Replica", PASSWORD), "user never reached follower-2");
+
+                String expected = writer.get(ALL_TASKS).body();
+                awaitTrue(() -> reader.get(ALL_TASKS).body().equals(expected), "follower-1 did not converge");
+                awaitTrue(() -> lateReader.get(ALL_TASKS).body().equals(expected), "follower-2 did not converge");
+
+                assertEquals(403, reader.post("/tasks/add", "title=Rejected&description=&priority=low&dueDate=").statusCode());
+                assertEquals(403, lateReader.post("/tasks/toggle/1", "").statusCode());
+                assertEquals(expected, writer.get(ALL_TASKS).body(), "a refused write reached the leader");
+
+                awaitTrue(() -> gauge(leader, "tasktracker.replication.lag.records") == 0, "leader still reports lag");
+                assertEquals(2, gauge(leader, "tasktracker.replication.followers"));
+                assertEquals(0, gauge(streamed, "tasktracker.replication.lag.records"));
+                assertEquals(0, gauge(joined, "tasktracker.replication.lag.records"));
+            }
+
+            System.out.printf(Locale.ROOT, "Replication visibility lag over %d writes: p50 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                    visible.getTotalCount(), visible.getValueAtPercentile(50) / 1000.0,
+                    visible.getValueAtPercentile(99) / 1000.0, visible.getMaxValue() / 1000.0);
+        }
+    }
+
+    private static int count(HttpResponse<String> response) {
+        Matcher matcher = COUNT.matcher(response.body());
+        return (response.statusCode() == 200 && matcher.find()) ? Integer.parseInt(matcher.group(1)) : -1;
+    }
+
+    private static double gauge(AppProcess app, String name) throws Exception {
+        String body = new AppProcess.Client(app.baseUrl()).get("/actuator/metrics/" + name).body();
+        Matcher matcher = GAUGE_VALUE.matcher(body);
+        if (!matcher.find()) throw new AssertionError("No value for " + name + " on " + app.name + ": " + body);
+        return Double.parseDouble(matcher.group(1));
+    }
+
+    private interface Check {
+        boolean test() throws Exception;
+    }
+
+    private static void awaitTrue(Check check, String message) throws Exception {
+        long deadline = System.nanoTime() + CONVERGE_TIMEOUT.toNanos();
+        while (!check.test()) {
+            if (System.nanoTime() > deadline) throw new AssertionError(message);
+            Thread.sleep(1);
+        }
+    }
+}
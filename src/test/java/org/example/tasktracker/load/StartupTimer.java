@@ -0,0 +1,216 @@
+package org.example.tasktracker.load;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.tasktracker.model.Role;
+import org.example.tasktracker.model.Task;
+import org.example.tasktracker.model.User;
+import org.example.tasktracker.service.TaskService;
+import org.example.tasktracker.service.UserService;
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Measures time to first request of the packaged application at several data sizes and startup modes.
+ * Run by the {@code fast-startup} profile after the AppCDS training run:
+ * <pre>mvn -Pfast-startup -DskipTests verify -Dstartup.sizes=0,10000,100000</pre>
+ *
+ * <p>For each size a data directory with {@code startup.users} users is generated once. Each mode starts the
+ * startup jar as a separate process and reports, in milliseconds from process launch: the first response
+ * (the login page, which needs no data), and the first task API response for the first and for the last user;
+ * with background loading the last user's tasks are the last to arrive.</p>
+ */
+public class StartupTimer {
+
+    private static final String PASSWORD = "Passw0rd!";
+    private static final Pattern SESSION_COOKIE = Pattern.compile("JSESSIONID=([^;]+)");
+    private static final Duration TIMEOUT = Duration.ofMinutes(5);
+
+    private record Mode(String name, List<String> jvmArgs) {
+    }
+
+    private record Timing(long firstRequest, long firstUser, long lastUser) {
+    }
+
+    private final Path jar;
+    private final Path archive;
+    private final Path workDir;
+    private final int users;
+    private final HttpClient client = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+
+    StartupTimer(Path jar, Path archive, Path workDir, int users) {
+        this.jar = jar;
+        this.archive = archive;
+        this.workDir = workDir;
+        this.users = users;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path startupDir = Path.of(System.getProperty("startup.dir", "target/startup"));
+        Path jar;
+        try (var files = Files.list(startupDir)) {
+            jar = files.filter(file -> file.getFileName().toString().endsWith("-startup.jar")).findFirst()
+                    .orElseThrow(() -> new IllegalStateException("No startup jar in " + startupDir + "; build with -Pfast-startup"));
+        }
+        StartupTimer timer = new StartupTimer(jar, startupDir.resolve("application.jsa"), startupDir.resolve("timing"),
+                Integer.getInteger("startup.users", 100));
+
+        List<Mode> modes = new ArrayList<>();
+        for (String name : System.getProperty("startup.modes", "eager,lazy,cds-aot,cds-aot-lazy").split(",")) {
+            modes.add(timer.mode(name.trim()));
+        }
+
+        System.out.printf(Locale.ROOT, "%-14s %9s %15s %15s %15s%n", "mode", "tasks", "first req ms", "first user ms", "last user ms");
+        for (String size : System.getProperty("startup.sizes", "0,10000,100000").split(",")) {
+            int tasks = Integer.parseInt(size.trim());
+            Path dataDir = timer.generate(tasks);
+            for (Mode mode : modes) {
+                Timing timing = timer.measure(mode, dataDir);
+                System.out.printf(Locale.ROOT, "%-14s %9d %15d %15d %15d%n",
+                        mode.name(), tasks, timing.firstRequest(), timing.firstUser(), timing.lastUser());
+            }
+        }
+    }
+
+    private Mode mode(String name) {
+        List<String> jvmArgs = new ArrayList<>();
+        if (name.startsWith("cds-aot")) {
+            if (!Files.exists(archive)) throw new IllegalStateException("No CDS archive at " + archive);
+            jvmArgs.add("-XX:SharedArchiveFile=" + archive);
+            jvmArgs.add("-Dspring.aot.enabled=true");
+        }
+        if (name.endsWith("lazy")) {
+            jvmArgs.add("-Dtasktracker.startup.lazy-load=true");
+        } else if (!name.equals("eager") && !name.equals("cds-aot")) {
+            throw new IllegalArgumentException("Unknown startup mode: " + name);
+        }
+        return new Mode(name, jvmArgs);
+    }
+
+    // Users share one password hash (cost 4, only checked once per run); tasks are saved by TaskService itself
+    private Path generate(int taskCount) throws IOException {
+        Path dir = workDir.resolve("data-" + taskCount);
+        if (Files.exists(dir.resolve("tasks.json"))) return dir;
+        Files.createDirectories(dir);
+
+        String hash = BCrypt.hashpw(PASSWORD, BCrypt.gensalt(4));
+        List<User> userList = new ArrayList<>(users);
+        for (int i = 1; i <= users; i++) {
+            User user = new User(userName(i), "user" + i + "@example.com", hash);
+            user.setId((long) i);
+            user.getRoles().add(new Role("ROLE_USER"));
+            userList.add(user);
+        }
+        UserService userService = new UserService(event -> { }, new SimpleMeterRegistry(), dir.toString());
+        userService.getAllUsers().addAll(userList);
+        userService.saveUsersToFile();
+
+        SplittableRandom random = new SplittableRandom(taskCount);
+        String[] priorities = {"low", "medium", "high"};
+        List<Task> tasks = new ArrayList<>(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            Task task = new Task("Task " + i, "Generated for startup timing", userList.get(i % users));
+            task.setPriority(priorities[random.nextInt(priorities.length)]);
+            task.setCompleted(random.nextInt(3) == 0);
+            tasks.add(task);
+        }
+        TaskService taskService = new TaskService(event -> { }, new SimpleMeterRegistry(), dir.toString(), false);
+        taskService.init();
+        taskService.importTasks(tasks);
+        taskService.shutdown();
+        return dir;
+    }
+
+    private Timing measure(Mode mode, Path dataDir) throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(mode.jvmArgs());
+        command.add("-Dserver.port=" + port);
+        command.add("-Dtasktracker.data-dir=" + dataDir.toAbsolutePath());
+        command.add("-jar");
+        command.add(jar.toAbsolutePath().toString());
+
+        String baseUrl = "http://localhost:" + port;
+        Path log = workDir.resolve(mode.name() + "-" + dataDir.getFileName() + ".log");
+        long started = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+        try {
+            awaitOk(process, baseUrl + "/login", null);
+            long firstRequest = elapsedMillis(started);
+            awaitOk(process, baseUrl + "/api/tasks?limit=1&fields=id", login(baseUrl, 1));
+            long firstUser = elapsedMillis(started);
+            awaitOk(process, baseUrl + "/api/tasks?limit=1&fields=id", login(baseUrl, users));
+            long lastUser = elapsedMillis(started);
+            return new Timing(firstRequest, firstUser, lastUser);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private String login(String baseUrl, int userId) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/login"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString("username=" + userName(userId) + "&password=" + PASSWORD.replace("!", "%21")))
+                .build();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        for (String cookie : response.headers().allValues("Set-Cookie")) {
+            Matcher matcher = SESSION_COOKIE.matcher(cookie);
+            if (matcher.find()) return matcher.group(1);
+        }
+        throw new IllegalStateException("Login of user " + userId + " failed with status " + response.statusCode());
+    }
+
+    // Poll until the URL answers 200; connection errors just mean the server is not listening yet
+    private void awaitOk(Process process, String url, String session) throws Exception {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) throw new IllegalStateException("Application exited with " + process.exitValue());
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url)).GET();
+            Optional.ofNullable(session).ifPresent(id -> request.header("Cookie", "JSESSIONID=" + id));
+            try {
+                if (client.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode() == 200) return;
+            } catch (IOException e) {
+                // not up yet
+            }
+            Thread.sleep(5);
+        }
+        throw new IllegalStateException("No 200 from " + url + " within " + TIMEOUT);
+    }
+
+    private static long elapsedMillis(long startedNanos) {
+        return (System.nanoTime() - startedNanos) / 1_000_000;
+    }
+
+    // User names may only contain letters
+    private static String userName(int n) {
+        StringBuilder name = new StringBuilder("Startup");
+        do {
+            name.append((char) ('a' + n % 26));
+            n /= 26;
+        } while (n > 0);
+        return name.toString();
+    }
+}
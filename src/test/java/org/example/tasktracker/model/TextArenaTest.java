@@ -0,0 +1,92 @@
+package org.example.tasktracker.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Checks that {@link TextArena} never hands out bytes that are still live: empty text stays on the heap,
+ * recycled slabs are reused once, live bytes match what was stored, and replaced text of a task is only
+ * released once nothing can read it.
+ */
+class TextArenaTest {
+
+    @Test
+    void emptyTextDoesNotRecycleItsSlabTwice() {
+        TextArena arena = new TextArena(1024);
+        long a = arena.store("a".repeat(1000));
+        long empty = arena.store("");
+        assertEquals(TextArena.NONE, empty);
+        arena.release(a);
+        arena.release(empty);
+
+        long c = arena.store("c".repeat(1000));
+        long d = arena.store("d".repeat(1000));
+        assertEquals("c".repeat(1000), arena.read(c));
+        assertEquals("d".repeat(1000), arena.read(d));
+        assertEquals(2000, arena.liveBytes());
+        assertEquals(2048, arena.allocatedBytes());
+    }
+
+    @Test
+    void storedTextReadsBackUntilReleased() {
+        SplittableRandom random = new SplittableRandom(5);
+        TextArena arena = new TextArena(1024);
+        Map<Long, String> stored = new HashMap<>();
+        List<Long> handles = new ArrayList<>();
+        for (int step = 0; step < 20_000; step++) {
+            if (!handles.isEmpty() && random.nextInt(3) == 0) {
+                long handle = handles.remove(random.nextInt(handles.size()));
+                stored.remove(handle);
+                arena.release(handle);
+            } else {
+                String text = "x".repeat(random.nextInt(0, 300)) + (random.nextBoolean() ? "é" : "");
+                long handle = arena.store(text);
+                if (handle == TextArena.NONE) continue;
+                assertNull(stored.put(handle, text), "handle given out twice");
+                handles.add(handle);
+            }
+            if (step % 101 == 0) {
+                stored.forEach((handle, text) -> assertEquals(text, arena.read(handle)));
+            }
+        }
+        long bytes = 0;
+        for (String text : stored.values()) bytes += text.getBytes(StandardCharsets.UTF_8).length;
+        assertEquals(bytes, arena.liveBytes());
+    }
+
+    @Test
+    void replacedTextIsReleasedOnceUnreachable() throws InterruptedException {
+        TextArena arena = new TextArena(4096);
+        Task.useTextArena(arena);
+        try {
+            Task task = new Task("first", "", null);
+            for (int i = 0; i < 50; i++) task.setTitle("title " + i);
+            assertEquals("title 49", task.getTitle());
+            assertEquals("", task.getDescription());
+            awaitLiveBytes(arena, "title 49".length());
+
+            task = null;
+            awaitLiveBytes(arena, 0);
+        } finally {
+            Task.useTextArena(null);
+        }
+    }
+
+    // Released by the cleaner thread after a collection
+    private static void awaitLiveBytes(TextArena arena, long expected) throws InterruptedException {
+        for (int i = 0; i < 100 && arena.liveBytes() != expected; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertEquals(expected, arena.liveBytes());
+    }
+}
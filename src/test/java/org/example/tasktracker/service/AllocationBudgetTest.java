@@ -0,0 +1,218 @@
+package org.example.tasktracker.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingFile;
+import org.example.tasktracker.model.Task;
+import org.example.tasktracker.model.User;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Runs the service calls behind the hot pages under Java Flight Recorder and fails when the bytes allocated
+ * per call exceed the budget in {@code allocation-budgets.properties}. Paths meant to be allocation-free
+ * (lookups, dashboard counters) have budgets near zero, so an added copy or boxing shows up here first.
+ *
+ * <p>Bytes come from the {@code jdk.ThreadAllocationStatistics} events at the start and end of the recording;
+ * when a budget is exceeded, the top allocation sites sampled by {@code jdk.ObjectAllocationSample} are listed
+ * in the failure message. Skip with {@code -Dallocation.skip=true}.</p>
+ */
+@DisabledIfSystemProperty(named = "allocation.skip", matches = "true")
+class AllocationBudgetTest {
+
+    private static final Logger log = LoggerFactory.getLogger(AllocationBudgetTest.class);
+
+    private static final int USERS = 10;
+    private static final int TASKS = 20_000;
+    private static final int ITERATIONS = 10_000;
+    private static final String[] PRIORITIES = {"low", "medium", "high"};
+    private static final String[] WORDS = {"report", "review", "deploy", "invoice", "meeting", "backup"};
+
+    @TempDir
+    static Path dataDir;
+
+    private static Properties budgets;
+    private static TaskService taskService;
+    private static User user;
+    private static long taskId;
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        budgets = new Properties();
+        try (InputStream in = AllocationBudgetTest.class.getResourceAsStream("/allocation-budgets.properties")) {
+            assertNotNull(in, "allocation-budgets.properties not found");
+            budgets.load(in);
+        }
+
+        List<User> users = new ArrayList<>();
+        for (int i = 1; i <= USERS; i++) {
+            User u = new User("user" + i, "user" + i + "@example.com", "hash");
+            u.setId((long) i);
+            users.add(u);
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        List<Task> tasks = new ArrayList<>(TASKS);
+        for (int i = 0; i < TASKS; i++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            Task task = new Task("Task " + i + " " + word, "About the " + word, users.get(i % USERS));
+            task.setPriority(PRIORITIES[random.nextInt(PRIORITIES.length)]);
+            int status = random.nextInt(3);
+            if (status == 1) task.setInProgress(true);
+            if (status == 2) task.setCompleted(true);
+            if (random.nextBoolean()) task.setDueDate(LocalDate.now().plusDays(random.nextInt(-30, 60)));
+            tasks.add(task);
+        }
+
+        taskService = new TaskService(event -> { }, new SimpleMeterRegistry(), dataDir.toString(), false);
+        taskService.init();
+        taskService.importTasks(tasks);
+        user = users.get(0);
+        taskId = taskService.getTasksByUser(user).get(0).getId();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        taskService.shutdown();
+    }
+
+    @Test
+    void findTaskById() throws IOException {
+        assertWithinBudget("tasks.findById", ITERATIONS, () -> taskService.findTaskById(taskId, user));
+    }
+
+    @Test
+    void dashboardCounters() throws IOException {
+        assertWithinBudget("dashboard.counters", ITERATIONS, () -> {
+            taskService.getTotalTasksByUser(user);
+            taskService.getCompletedTasksByUser(user);
+            taskService.getPendingTasksByUser(user);
+            taskService.getInProgressTasksByUser(user);
+        });
+    }
+
+    @Test
+    void dashboardTaskList() throws IOException {
+        assertWithinBudget("dashboard.tasks", ITERATIONS, () -> taskService.getTasksByUser(user));
+    }
+
+    @Test
+    void taskPage() throws IOException {
+        TaskQuery query = TaskQuery.of(null, null, null);
+        assertWithinBudget("tasks.page", ITERATIONS, () -> taskService.findTaskListing(user, query, 100, 50));
+    }
+
+    @Test
+    void taskSearch() throws IOException {
+        assertWithinBudget("tasks.search", ITERATIONS,
+                () -> taskService.findTaskListing(user, TaskQuery.of("Report", null, TaskQuery.SORT_PRIORITY), 0, 50));
+    }
+
+    @Test
+    void saveTasks() throws IOException {
+        // The file is written by the store's writer thread, so its allocations count too
+        assertWithinBudget("store.save", 10, taskService::saveTasksToFile, "task-store-writer");
+    }
+
+    /**
+     * Warm the operation up so the JIT has settled, then record {@code iterations} runs of it and charge it with
+     * what this thread and the named helper threads allocated meanwhile.
+     */
+    private static void assertWithinBudget(String operation, int iterations, Runnable op, String... helperThreads)
+            throws IOException {
+        String budget = budgets.getProperty(operation);
+        assertNotNull(budget, "No budget for " + operation + " in allocation-budgets.properties");
+        long maxBytesPerOp = Long.parseLong(budget.trim());
+
+        for (int i = 0; i < 2 * iterations; i++) op.run();
+
+        Path file = Files.createTempFile(dataDir, operation, ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.ThreadAllocationStatistics").with("period", "everyChunk");
+            recording.enable("jdk.ObjectAllocationSample").with("throttle", "1000/s").withStackTrace();
+            recording.start();
+            for (int i = 0; i < iterations; i++) op.run();
+            recording.stop();
+            recording.dump(file);
+        }
+
+        Set<String> threads = new HashSet<>(List.of(helperThreads));
+        threads.add(Thread.currentThread().getName());
+        // Allocation counters are cumulative per thread: keep the lowest and highest value seen for each
+        Map<Long, long[]> counters = new HashMap<>();
+        Map<String, Long> sites = new HashMap<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            if (event.getEventType().getName().equals("jdk.ThreadAllocationStatistics")) {
+                RecordedThread thread = event.getThread("thread");
+                if (!isMeasured(thread, threads)) continue;
+                long allocated = event.getLong("allocated");
+                long[] range = counters.computeIfAbsent(thread.getJavaThreadId(), k -> new long[]{allocated, allocated});
+                range[0] = Math.min(range[0], allocated);
+                range[1] = Math.max(range[1], allocated);
+            } else if (isMeasured(event.getThread(), threads)) {
+                sites.merge(allocationSite(event), event.getLong("weight"), Long::sum);
+            }
+        }
+        assertTrue(!counters.isEmpty(), "No allocation statistics recorded for " + operation);
+
+        long bytesPerOp = counters.values().stream().mapToLong(range -> range[1] - range[0]).sum() / iterations;
+        log.info("Allocation {}: {} bytes/op (budget {})", operation, bytesPerOp, maxBytesPerOp);
+        if (bytesPerOp > maxBytesPerOp) {
+            String top = sites.entrySet().stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                    .limit(5)
+                    .map(site -> String.format("  %,d sampled bytes: %s", site.getValue(), site.getKey()))
+                    .collect(Collectors.joining("\n"));
+            fail(String.format("%s allocates %,d bytes/op, budget is %,d. Top allocation sites:%n%s",
+                    operation, bytesPerOp, maxBytesPerOp, top));
+        }
+    }
+
+    private static boolean isMeasured(RecordedThread thread, Set<String> names) {
+        return thread != null && names.contains(thread.getJavaName());
+    }
+
+    // Allocated type and the first application frame, or the top frame when nothing of ours is on the stack
+    private static String allocationSite(RecordedEvent event) {
+        String type = event.getClass("objectClass").getName();
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) return type;
+        RecordedFrame frame = stackTrace.getFrames().get(0);
+        for (RecordedFrame candidate : stackTrace.getFrames()) {
+            if (candidate.getMethod().getType().getName().startsWith("org.example.tasktracker")) {
+                frame = candidate;
+                break;
+            }
+        }
+        return type + " at " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + ":" + frame.getLineNumber();
+    }
+}
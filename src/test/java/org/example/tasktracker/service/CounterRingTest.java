@@ -0,0 +1,66 @@
+package org.example.tasktracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks {@link CounterRing} against a map of every bucket ever counted, with the window applied on read:
+ * counts inside the window, the window moving with adds and reads, late events being dropped, and the ring
+ * emptying when its counts return to zero.
+ */
+class CounterRingTest {
+
+    @Test
+    void matchesAFullHistoryInsideTheWindow() {
+        SplittableRandom random = new SplittableRandom(3);
+        int size = 50;
+        CounterRing ring = new CounterRing(size);
+        Map<Long, Long> history = new HashMap<>();
+        long head = 1_000;
+        ring.add(head, 1);
+        history.merge(head, 1L, Long::sum);
+
+        for (int step = 0; step < 20_000; step++) {
+            if (random.nextInt(10) == 0) {
+                head += random.nextInt(1, 30);
+                ring.read(head, 1); // time passes: the window moves on a read too
+            }
+            long bucket = head - random.nextInt(size + 10); // some just out of the window
+            int delta = random.nextBoolean() ? 1 : -1;
+            ring.add(bucket, delta);
+            if (bucket > head - size) history.merge(bucket, (long) delta, Long::sum);
+
+            if (step % 97 == 0) {
+                int points = random.nextInt(1, size + 1);
+                long[] expected = new long[points];
+                for (int i = 0; i < points; i++) expected[i] = history.getOrDefault(head - points + 1 + i, 0L);
+                assertArrayEquals(expected, ring.read(head, points), "step " + step);
+            }
+        }
+    }
+
+    @Test
+    void emptiesWhenCountsReturnToZeroOrLeaveTheWindow() {
+        CounterRing ring = new CounterRing(10);
+        assertTrue(ring.isEmpty());
+        ring.add(100, 2);
+        ring.add(95, 1);
+        ring.add(100, -2);
+        assertEquals(1, ring.read(100, 10)[4]);
+        ring.add(95, -1);
+        assertTrue(ring.isEmpty());
+
+        ring.add(101, 3);
+        ring.read(111, 10); // the window moves past 101
+        assertTrue(ring.isEmpty());
+        ring.add(101, 1);   // too late
+        assertTrue(ring.isEmpty());
+    }
+}
@@ -0,0 +1,189 @@
+package org.example.tasktracker.service;
+
+import org.example.tasktracker.model.Task;
+import org.example.tasktracker.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks how {@link FacetFilter} parses, through its fully parenthesized {@code toString}: precedence,
+ * implicit AND, NOT and parentheses, the messages malformed filters are refused with, and that
+ * {@link FacetFilter#matches} and bitmap evaluation agree on random filters.
+ */
+class FacetFilterTest {
+
+    private static final String[] TAGS = {"work", "home", "urgent"};
+
+    @Test
+    void notBindsTightestThenAndThenOr() {
+        assertParsed("tag:work", "tag:work");
+        assertParsed("(tag:a OR (tag:b AND tag:c))", "tag:a OR tag:b AND tag:c");
+        assertParsed("((tag:a AND tag:b) OR tag:c)", "tag:a AND tag:b OR tag:c");
+        assertParsed("(NOT tag:a AND tag:b)", "NOT tag:a AND tag:b");
+        assertParsed("(NOT tag:a OR tag:b)", "NOT tag:a OR tag:b");
+        assertParsed("(tag:a OR tag:b OR tag:c)", "tag:a OR tag:b OR tag:c");
+        assertParsed("(tag:a AND tag:b AND tag:c)", "tag:a AND tag:b AND tag:c");
+    }
+
+    @Test
+    void termsSideBySideAreAnded() {
+        assertParsed("(tag:a AND tag:b)", "tag:a tag:b");
+        assertParsed("(tag:a AND tag:b AND tag:c)", "tag:a tag:b AND tag:c");
+        assertParsed("((tag:a AND tag:b) OR (tag:c AND NOT tag:d))", "tag:a tag:b OR tag:c NOT tag:d");
+        assertParsed("(tag:a AND tag:b)", "(tag:a)tag:b");
+    }
+
+    @Test
+    void notNestsAndAppliesToGroups() {
+        assertParsed("NOT NOT tag:a", "NOT NOT tag:a");
+        assertParsed("NOT (tag:a OR tag:b)", "NOT (tag:a OR tag:b)");
+        assertParsed("(NOT (tag:a AND tag:b) OR tag:c)", "NOT (tag:a tag:b) OR tag:c");
+    }
+
+    @Test
+    void parenthesesOverridePrecedence() {
+        assertParsed("((tag:a OR tag:b) AND tag:c)", "(tag:a OR tag:b) AND tag:c");
+        assertParsed("(tag:a AND (tag:b OR (tag:c AND tag:d)))", "tag:a (tag:b OR (tag:c tag:d))");
+        assertParsed("tag:a", "((tag:a))");
+        assertParsed("(tag:a OR tag:b)", " ( tag:a\tOR\ntag:b ) ");
+    }
+
+    @Test
+    void keywordsAndValuesAreCaseInsensitive() {
+        assertParsed("(tag:work OR (priority:high AND NOT status:completed))",
+                "Tag:Work or PRIORITY:High aNd not Status:COMPLETED");
+        assertParsed("(due:overdue AND status:in_progress)", "DUE:Overdue status:IN_PROGRESS");
+    }
+
+    @Test
+    void blankFilterIsNoFilter() {
+        assertNull(FacetFilter.parse(null));
+        assertNull(FacetFilter.parse(""));
+        assertNull(FacetFilter.parse(" \t "));
+    }
+
+    @Test
+    void malformedFiltersSayWhatIsWrong() {
+        assertRefused("Filter ends where a term is expected", "tag:work AND");
+        assertRefused("Filter ends where a term is expected", "tag:work OR");
+        assertRefused("Filter ends where a term is expected", "NOT");
+        assertRefused("Filter ends where a term is expected", "(");
+        assertRefused("Missing ')' in filter", "(tag:work");
+        assertRefused("Missing ')' in filter", "((tag:work) OR tag:home");
+        assertRefused("Unexpected ')' in filter", "tag:work)");
+        assertRefused("Unexpected ')' in filter", "(tag:work))");
+        assertRefused("Expected facet:value, found ')'", "()");
+        assertRefused("Expected facet:value, found 'OR'", "tag:work OR OR tag:home");
+        assertRefused("Expected facet:value, found 'AND'", "AND tag:work");
+        assertRefused("Expected facet:value, found 'work'", "work");
+        assertRefused("Expected facet:value, found ':work'", ":work");
+        assertRefused("Expected facet:value, found 'tag:'", "tag:");
+        assertRefused("Unknown facet: colour (use tag, status, priority or due)", "colour:red");
+        assertRefused("status must be one of [todo, in_progress, completed]", "status:done");
+        assertRefused("priority must be one of [high, medium, low]", "priority:urgent");
+        assertRefused("due must be one of [overdue, today, week, later, none]", "due:tomorrow");
+        assertRefused("Invalid tag: no!", "tag:no!");
+        assertRefused("Filter is longer than " + FacetFilter.MAX_LENGTH + " characters",
+                "tag:" + "a".repeat(FacetFilter.MAX_LENGTH));
+        assertRefused("At most " + FacetFilter.MAX_TERMS + " terms per filter",
+                "tag:a ".repeat(FacetFilter.MAX_TERMS + 1));
+        FacetFilter.parse("tag:a ".repeat(FacetFilter.MAX_TERMS));
+    }
+
+    // Random filters over random tasks, evaluated over all tasks and over a random part of them
+    @Test
+    void matchesAgreesWithEvaluate() {
+        SplittableRandom random = new SplittableRandom(23);
+        LocalDate today = LocalDate.now();
+        User user = new User("alice", "alice@example.com", "secret");
+        user.setId(1L);
+        List<Task> tasks = new ArrayList<>();
+        TaskBitmap all = new TaskBitmap();
+        TaskBitmap part = new TaskBitmap();
+        Map<String, TaskBitmap> facets = new HashMap<>();
+        for (long id = 1; id <= 2_000; id++) {
+            Task task = new Task("t" + id, null, user);
+            task.setId(id);
+            TaskService.applyStatus(task, FacetFilter.STATUSES.get(random.nextInt(3)));
+            String priority = FacetFilter.PRIORITIES.get(random.nextInt(3));
+            task.setPriority(random.nextBoolean() ? priority.toUpperCase() : priority);
+            task.setDueDate(random.nextInt(5) == 0 ? null : today.plusDays(random.nextInt(40) - 10));
+            task.setTags(TaskService.parseTags(random.nextInt(4) == 0 ? "" : TAGS[random.nextInt(3)]
+                    + (random.nextBoolean() ? "," + TAGS[random.nextInt(3)] : "")));
+            tasks.add(task);
+            all.add(id);
+            if (random.nextInt(3) == 0) part.add(id);
+            // Keyed the way TaskFacetService indexes tasks
+            index(facets, "status:" + task.getStatus(), id);
+            index(facets, "priority:" + task.getPriority().toLowerCase(), id);
+            index(facets, "due:" + FacetFilter.dueBucket(task.getDueDate(), today), id);
+            for (String tag : task.getTags()) index(facets, "tag:" + tag, id);
+        }
+
+        for (int i = 0; i < 500; i++) {
+            String expression = expression(random, 3);
+            FacetFilter filter = FacetFilter.parse(expression);
+            assertEquals(filter.toString(), FacetFilter.parse(filter.toString()).toString(), expression);
+            for (TaskBitmap universe : List.of(all, part)) {
+                List<Long> expected = tasks.stream()
+                        .filter(task -> universe.contains(task.getId()) && filter.matches(task, today))
+                        .map(Task::getId).toList();
+                assertEquals(expected, filter.evaluate(facets::get, universe).toList(), expression);
+            }
+        }
+    }
+
+    private static String expression(SplittableRandom random, int depth) {
+        int kind = depth == 0 ? 0 : random.nextInt(5);
+        switch (kind) {
+            case 1:
+                return "NOT " + expression(random, depth - 1);
+            case 2:
+                return "(" + expression(random, depth - 1) + ")";
+            case 3:
+                return expression(random, depth - 1) + (random.nextBoolean() ? " AND " : " ") + expression(random, depth - 1);
+            case 4:
+                return expression(random, depth - 1) + (random.nextBoolean() ? " OR " : " or ") + expression(random, depth - 1);
+            default:
+                return term(random);
+        }
+    }
+
+    private static String term(SplittableRandom random) {
+        switch (random.nextInt(5)) {
+            case 0:
+                return "status:" + FacetFilter.STATUSES.get(random.nextInt(FacetFilter.STATUSES.size()));
+            case 1:
+                return "priority:" + FacetFilter.PRIORITIES.get(random.nextInt(FacetFilter.PRIORITIES.size()));
+            case 2:
+                return "due:" + FacetFilter.DUE_BUCKETS.get(random.nextInt(FacetFilter.DUE_BUCKETS.size()));
+            case 3:
+                return "tag:missing";
+            default:
+                return "tag:" + TAGS[random.nextInt(TAGS.length)];
+        }
+    }
+
+    private static void index(Map<String, TaskBitmap> facets, String key, long id) {
+        facets.computeIfAbsent(key, k -> new TaskBitmap()).add(id);
+    }
+
+    private static void assertParsed(String expected, String expression) {
+        assertEquals(expected, FacetFilter.parse(expression).toString(), expression);
+    }
+
+    private static void assertRefused(String message, String expression) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> FacetFilter.parse(expression));
+        assertEquals(message, e.getMessage(), expression);
+    }
+}
@@ -0,0 +1,215 @@
+package org.example.tasktracker.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.tasktracker.model.Project;
+import org.example.tasktracker.model.Task;
+import org.example.tasktracker.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks {@link ProjectService}'s counters against a recount from the tasks: rolled-up counters follow task
+ * changes and subtree moves, nesting stops at {@link ProjectService#MAX_DEPTH}, tasks count only in their own
+ * user's projects, held projects cannot be deleted, and handed-off and replicated projects keep their tasks.
+ */
+class ProjectServiceTest {
+
+    @TempDir
+    Path dataDir;
+
+    private final List<ProjectsChangedEvent> projectEvents = new ArrayList<>();
+    private TaskService taskService;
+    private ProjectService projectService;
+    private User alice;
+    private User bob;
+
+    @BeforeEach
+    void setUp() {
+        taskService = new TaskService(event -> {
+            if (projectService != null) projectService.onTaskChanged((TaskChangedEvent) event);
+        }, new SimpleMeterRegistry(), dataDir.toString(), false);
+        taskService.init();
+        projectService = projectService();
+        alice = user(1, "alice");
+        bob = user(2, "bob");
+    }
+
+    @AfterEach
+    void tearDown() {
+        taskService.shutdown();
+    }
+
+    @Test
+    void movingASubtreeMovesItsCounters() {
+        Project work = projectService.createProject(alice.getId(), "Work", null);
+        Project home = projectService.createProject(alice.getId(), "Home", null);
+        Project team = projectService.createProject(alice.getId(), "Team", work.getId());
+        Project sprint = projectService.createProject(alice.getId(), "Sprint", team.getId());
+        addTask(alice, team.getId(), false, null);
+        addTask(alice, sprint.getId(), true, null);
+        addTask(alice, sprint.getId(), false, LocalDate.now().minusDays(1));
+        addTask(alice, work.getId(), false, null);
+        assertCounters(alice);
+        assertEquals(4, projectService.getProject(alice.getId(), work.getId()).rolledUpTasks());
+
+        assertTrue(projectService.moveProject(alice.getId(), team.getId(), home.getId()));
+        assertCounters(alice);
+        ProjectSummary moved = projectService.getProject(alice.getId(), home.getId());
+        assertEquals(3, moved.rolledUpTasks());
+        assertEquals(1, moved.rolledUpCompleted());
+        assertEquals(1, moved.rolledUpOverdue());
+        assertEquals(1, projectService.getProject(alice.getId(), work.getId()).rolledUpTasks());
+        assertEquals(2, projectService.getProject(alice.getId(), sprint.getId()).depth());
+
+        assertTrue(projectService.moveProject(alice.getId(), team.getId(), null));
+        assertCounters(alice);
+        assertEquals(0, projectService.getProject(alice.getId(), home.getId()).rolledUpTasks());
+        assertThrows(IllegalArgumentException.class, () -> projectService.moveProject(alice.getId(), team.getId(), sprint.getId()));
+    }
+
+    @Test
+    void nestingIsLimited() {
+        List<Project> chain = new ArrayList<>();
+        Long parentId = null;
+        for (int depth = 0; depth < ProjectService.MAX_DEPTH; depth++) {
+            Project project = projectService.createProject(alice.getId(), "Level " + depth, parentId);
+            chain.add(project);
+            parentId = project.getId();
+        }
+        Long deepest = parentId;
+        assertThrows(IllegalArgumentException.class, () -> projectService.createProject(alice.getId(), "Too deep", deepest));
+
+        // A two-level subtree fits under a project only while the result stays within the limit
+        Project other = projectService.createProject(alice.getId(), "Other", null);
+        projectService.createProject(alice.getId(), "Child", other.getId());
+        Long fits = chain.get(ProjectService.MAX_DEPTH - 3).getId();
+        Long tooDeep = chain.get(ProjectService.MAX_DEPTH - 2).getId();
+        assertThrows(IllegalArgumentException.class, () -> projectService.moveProject(alice.getId(), other.getId(), tooDeep));
+        assertTrue(projectService.moveProject(alice.getId(), other.getId(), fits));
+    }
+
+    @Test
+    void tasksCountOnlyInTheirOwnUsersProjects() {
+        Project project = projectService.createProject(alice.getId(), "Alice's", null);
+        addTask(bob, project.getId(), false, null); // e.g. moved here with a foreign project id
+        assertEquals(0, projectService.getProject(alice.getId(), project.getId()).tasks());
+        assertTrue(projectService.getTaskIds(Set.of(project.getId())).isEmpty());
+        assertTrue(projectService.deleteProject(alice.getId(), project.getId()));
+    }
+
+    @Test
+    void heldProjectCannotBeDeleted() {
+        Project project = projectService.createProject(alice.getId(), "Work", null);
+        Task task = addTask(alice, null, false, null);
+        assertNull(projectService.withProject(bob.getId(), project.getId(), () -> true));
+
+        Boolean assigned = projectService.withProject(alice.getId(), project.getId(), () -> {
+            // A delete that slips in before the task has moved
+            assertThrows(IllegalStateException.class, () -> projectService.deleteProject(alice.getId(), project.getId()));
+            return taskService.assignProject(task.getId(), project.getId(), alice);
+        });
+        assertTrue(assigned);
+        assertEquals(1, projectService.getProject(alice.getId(), project.getId()).tasks());
+        assertThrows(IllegalStateException.class, () -> projectService.deleteProject(alice.getId(), project.getId()));
+
+        taskService.assignProject(task.getId(), null, alice);
+        assertTrue(projectService.deleteProject(alice.getId(), project.getId()));
+    }
+
+    @Test
+    void importedProjectsGetNewIdsAndKeepTheirTree() {
+        projectService.createProject(bob.getId(), "Bob's", null); // takes the ids the import must not reuse
+        List<Project> moved = new ArrayList<>();
+        moved.add(project(1, "Work", null, alice.getId()));
+        moved.add(project(2, "Team", 1L, alice.getId()));
+
+        Map<Long, Long> ids = projectService.importProjects(alice.getId(), moved);
+        assertNotEquals(1L, ids.get(1L));
+        List<Project> projects = projectService.getUsersProjects(alice.getId());
+        assertEquals(List.of("Work", "Team"), projects.stream().map(Project::getName).toList());
+        assertEquals(ids.get(1L), projects.get(1).getParentId());
+        assertEquals(1, projectService.getUsersProjects(bob.getId()).size());
+
+        projectService.removeProjectsOfUser(alice.getId());
+        assertTrue(projectService.getUsersProjects(alice.getId()).isEmpty());
+        assertEquals(List.of(), projectEvents.get(projectEvents.size() - 1).projects());
+    }
+
+    @Test
+    void replicatedProjectsCountExistingTasks() {
+        Task task = addTask(alice, 40L, true, null); // replicated before its project
+        projectService.replaceReplicated(null, List.of(project(40, "Work", null, alice.getId())));
+        assertEquals(1, projectService.getProject(alice.getId(), 40L).completed());
+
+        projectService.replaceReplicated(alice.getId(), List.of(project(40, "Work", null, alice.getId()),
+                project(41, "Team", 40L, alice.getId())));
+        taskService.assignProject(task.getId(), 41L, alice);
+        assertCounters(alice);
+        assertEquals(1, projectService.getProject(alice.getId(), 40L).rolledUpTasks());
+
+        // Every change is published with all of the user's projects
+        int published = projectEvents.size();
+        projectService.renameProject(alice.getId(), 41L, "Renamed");
+        assertEquals(published + 1, projectEvents.size());
+        assertEquals(List.of("Work", "Renamed"), projectEvents.get(published).projects().stream().map(Project::getName).toList());
+        assertFalse(projectService.getUsersProjects(alice.getId()).isEmpty());
+    }
+
+    // Every project's own and rolled-up counters equal a recount over the user's tasks
+    private void assertCounters(User user) {
+        List<Task> tasks = taskService.getTasksByUser(user);
+        for (ProjectSummary summary : projectService.getProjects(user.getId())) {
+            Set<Long> subtree = projectService.getSubtree(user.getId(), summary.id());
+            long own = tasks.stream().filter(t -> summary.id().equals(t.getProjectId())).count();
+            long all = tasks.stream().filter(t -> t.getProjectId() != null && subtree.contains(t.getProjectId())).count();
+            long completed = tasks.stream().filter(t -> t.getProjectId() != null && subtree.contains(t.getProjectId()) && t.isCompleted()).count();
+            assertEquals(own, summary.tasks(), summary.name());
+            assertEquals(all, summary.rolledUpTasks(), summary.name());
+            assertEquals(completed, summary.rolledUpCompleted(), summary.name());
+        }
+    }
+
+    private Task addTask(User user, Long projectId, boolean completed, LocalDate dueDate) {
+        Task task = new Task("Task", null, user);
+        task.setProjectId(projectId);
+        task.setCompleted(completed);
+        task.setDueDate(dueDate);
+        taskService.createTask(task);
+        return task;
+    }
+
+    private ProjectService projectService() {
+        ProjectService service = new ProjectService(taskService, event -> projectEvents.add((ProjectsChangedEvent) event),
+                new SimpleMeterRegistry(), dataDir.toString());
+        service.init();
+        return service;
+    }
+
+    private static Project project(long id, String name, Long parentId, Long userId) {
+        Project project = new Project(name, parentId, userId);
+        project.setId(id);
+        return project;
+    }
+
+    private static User user(long id, String name) {
+        User user = new User(name, name + "@example.com", "secret");
+        user.setId(id);
+        return user;
+    }
+}
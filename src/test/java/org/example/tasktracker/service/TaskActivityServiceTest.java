@@ -0,0 +1,96 @@
+package org.example.tasktracker.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.tasktracker.model.Task;
+import org.example.tasktracker.model.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that archiving a task leaves its created and completed counts in the activity series, both while
+ * running and after a restart, when they come from the archive segments.
+ */
+class TaskActivityServiceTest {
+
+    @TempDir
+    Path dataDir;
+
+    private TaskActivityService activity;
+
+    @Test
+    void archivedTasksKeepTheirActivity() throws Exception {
+        TaskService taskService = taskService();
+        TaskArchiveService archive = archive(taskService);
+        activity = activity(taskService, archive);
+
+        User alice = new User("Alice", "alice@example.com", "secret");
+        alice.setId(1L);
+        LocalDateTime now = LocalDateTime.now();
+        taskService.importTasks(List.of(
+                completed(alice, now.minusDays(45), now.minusDays(40)),
+                completed(alice, now.minusDays(2), now.minusDays(1)),
+                new Task("Open", null, alice)));
+        assertCounts(3, 2);
+
+        assertEquals(1, archive.archiveNow());
+        assertCounts(3, 2);
+
+        archive.shutdown();
+        taskService.shutdown();
+        taskService = taskService();
+        archive = archive(taskService);
+        activity = activity(taskService, archive);
+        assertEquals(2, taskService.getAllTasks().size());
+        assertCounts(3, 2);
+
+        // Deleting a live task still takes its counts out
+        taskService.removeTasksOfUser(alice.getId());
+        assertCounts(1, 1);
+        archive.shutdown();
+        taskService.shutdown();
+    }
+
+    private void assertCounts(long created, long completed) {
+        for (Long userId : Arrays.asList(null, 1L)) {
+            TaskActivity days = activity.getActivity(userId, TaskActivityService.Resolution.DAY, 90);
+            assertEquals(created, Arrays.stream(days.created()).sum(), "created, user " + userId);
+            assertEquals(completed, Arrays.stream(days.completed()).sum(), "completed, user " + userId);
+        }
+    }
+
+    private static Task completed(User user, LocalDateTime createdAt, LocalDateTime completedAt) {
+        Task task = new Task("Done", null, user);
+        task.setCreatedAt(createdAt);
+        task.setCompleted(true);
+        task.setCompletedAt(completedAt);
+        return task;
+    }
+
+    // Events go to the activity service created next
+    private TaskService taskService() {
+        TaskService service = new TaskService(event -> activity.onTaskChanged((TaskChangedEvent) event),
+                new SimpleMeterRegistry(), dataDir.toString(), false);
+        service.init();
+        return service;
+    }
+
+    private TaskArchiveService archive(TaskService taskService) {
+        TaskArchiveService archive = new TaskArchiveService(taskService, new SimpleMeterRegistry(), dataDir.toString(),
+                30, 3_600_000, 1000, "");
+        archive.init();
+        return archive;
+    }
+
+    private static TaskActivityService activity(TaskService taskService, TaskArchiveService archive) {
+        TaskActivityService activity = new TaskActivityService(taskService, archive);
+        activity.init();
+        return activity;
+    }
+}
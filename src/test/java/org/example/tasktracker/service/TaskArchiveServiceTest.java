@@ -0,0 +1,171 @@
+package org.example.tasktracker.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.tasktracker.model.Task;
+import org.example.tasktracker.model.TaskSnapshot;
+import org.example.tasktracker.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks {@link TaskArchiveService} against segments in a temporary directory: archived tasks leave memory
+ * and come back through {@code history()}, a task that is live again hides its archived copy while another
+ * user's task with the same id does not, a later copy replaces an earlier one, forgotten users see only what
+ * is archived afterwards, and new tasks never get an archived task's id after a restart.
+ */
+class TaskArchiveServiceTest {
+
+    @TempDir
+    Path dataDir;
+
+    private TaskService taskService;
+    private TaskArchiveService archiveService;
+    private User alice;
+    private User bob;
+
+    @BeforeEach
+    void setUp() {
+        start();
+        alice = user(1, "alice");
+        bob = user(2, "bob");
+    }
+
+    @AfterEach
+    void tearDown() {
+        archiveService.shutdown();
+        taskService.shutdown();
+    }
+
+    @Test
+    void archivedTasksLeaveMemoryAndComeBackInHistory() throws Exception {
+        Task older = completed("Older", alice, 50);
+        Task newer = completed("Newer", alice, 40);
+        Task open = new Task("Open", null, alice);
+        taskService.createTask(open);
+        Task bobs = completed("Bob's", bob, 60);
+
+        assertEquals(3, archiveService.archiveNow());
+        // Two tasks per segment
+        assertTrue(new File(dataDir.toFile(), "archive/segment-000002.ndjson.gz").exists());
+        assertTrue(new File(dataDir.toFile(), "archive/segments.json").exists());
+        assertEquals(List.of(open.getId()), taskService.getTasksByUser(alice).stream().map(Task::getId).toList());
+
+        assertEquals(List.of(newer.getId(), older.getId()), ids(archiveService.history(alice.getId())));
+        assertEquals(List.of(bobs.getId()), ids(archiveService.history(bob.getId())));
+        assertEquals(0, archiveService.archiveNow());
+    }
+
+    @Test
+    void aTaskLiveAgainHidesItsArchivedCopy() throws Exception {
+        TaskSnapshot archived = TaskSnapshot.of(completed("First", alice, 40));
+        archiveService.archiveNow();
+
+        taskService.applyReplicated(TaskChangedEvent.Type.CREATED, archived, alice);
+        assertEquals(List.of(), archiveService.history(alice.getId()));
+        assertEquals(List.of(), forEachArchived());
+
+        // Another user's live task with the same id is a different task
+        taskService.applyReplicated(TaskChangedEvent.Type.DELETED, archived, alice);
+        taskService.applyReplicated(TaskChangedEvent.Type.CREATED, withOwner(archived, bob), bob);
+        assertEquals(List.of(archived.id()), ids(archiveService.history(alice.getId())));
+        assertEquals(List.of(archived.id()), ids(forEachArchived()));
+    }
+
+    @Test
+    void aLaterCopyReplacesAnEarlierOne() throws Exception {
+        TaskSnapshot first = TaskSnapshot.of(completed("First", alice, 40));
+        archiveService.archiveNow();
+
+        // Back in the live set, renamed and archived again into a second segment
+        taskService.applyReplicated(TaskChangedEvent.Type.CREATED, first, alice);
+        taskService.applyReplicated(TaskChangedEvent.Type.UPDATED, new TaskSnapshot(first.id(), first.userId(), "Second",
+                first.description(), true, false, first.priority(), first.dueDate(), first.createdAt(),
+                first.completedAt().plusDays(1), first.updatedAt(), first.projectId(), first.tags()), alice);
+        assertEquals(1, archiveService.archiveNow());
+
+        List<TaskSnapshot> history = archiveService.history(alice.getId());
+        assertEquals(List.of("Second"), history.stream().map(TaskSnapshot::title).toList());
+        assertEquals(List.of("Second"), forEachArchived().stream().map(TaskSnapshot::title).toList());
+    }
+
+    @Test
+    void aForgottenUserSeesOnlyLaterArchives() throws Exception {
+        completed("Before", alice, 40);
+        Task bobs = completed("Bob's", bob, 40);
+        archiveService.archiveNow();
+
+        archiveService.forgetUser(alice.getId());
+        assertEquals(List.of(), archiveService.history(alice.getId()));
+        assertEquals(List.of(bobs.getId()), ids(forEachArchived()));
+
+        Task after = completed("After", alice, 40);
+        archiveService.archiveNow();
+        assertEquals(List.of(after.getId()), ids(archiveService.history(alice.getId())));
+        assertEquals(List.of(bobs.getId()), ids(archiveService.history(bob.getId())));
+    }
+
+    @Test
+    void idsOfArchivedTasksAreNotReusedAfterARestart() throws Exception {
+        completed("Kept", alice, 40);
+        Task newest = completed("Newest", alice, 40);
+        archiveService.archiveNow();
+        assertEquals(List.of(), taskService.getAllTasks());
+
+        tearDown();
+        start();
+        Task task = new Task("New", null, alice);
+        taskService.createTask(task);
+        assertTrue(task.getId() > newest.getId(), task.getId() + " should be above " + newest.getId());
+        assertEquals(2, archiveService.history(alice.getId()).size());
+    }
+
+    private void start() {
+        taskService = new TaskService(event -> {
+        }, new SimpleMeterRegistry(), dataDir.toString(), false);
+        taskService.init();
+        archiveService = new TaskArchiveService(taskService, new SimpleMeterRegistry(), dataDir.toString(),
+                30, 3_600_000, 2, "");
+        archiveService.init();
+    }
+
+    private Task completed(String title, User user, int daysAgo) {
+        Task task = new Task(title, null, user);
+        task.setCompleted(true);
+        task.setCompletedAt(LocalDateTime.now().minusDays(daysAgo));
+        taskService.createTask(task);
+        return task;
+    }
+
+    private List<TaskSnapshot> forEachArchived() throws Exception {
+        List<TaskSnapshot> archived = new ArrayList<>();
+        archiveService.forEachArchived(LocalDateTime.now().minusDays(1), archived::add);
+        return archived;
+    }
+
+    private static TaskSnapshot withOwner(TaskSnapshot task, User owner) {
+        return new TaskSnapshot(task.id(), owner.getId(), task.title(), task.description(), task.completed(),
+                task.inProgress(), task.priority(), task.dueDate(), task.createdAt(), null, task.updatedAt(),
+                task.projectId(), task.tags());
+    }
+
+    private static List<Long> ids(List<TaskSnapshot> tasks) {
+        return tasks.stream().map(TaskSnapshot::id).toList();
+    }
+
+    private static User user(long id, String name) {
+        User user = new User(name, name + "@example.com", "secret");
+        user.setId(id);
+        return user;
+    }
+}
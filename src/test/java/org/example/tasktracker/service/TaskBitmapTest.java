@@ -0,0 +1,127 @@
+package org.example.tasktracker.service;
+
+import org.example.tasktracker.model.Task;
+import org.example.tasktracker.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks {@link TaskBitmap} against sorted sets on sparse and dense chunks, so both container kinds and the
+ * conversions between them are exercised, and that a {@link FacetFilter} gives the same answer on bitmaps as
+ * on the tasks themselves.
+ */
+class TaskBitmapTest {
+
+    @Test
+    void matchesSortedSets() {
+        SplittableRandom random = new SplittableRandom(7);
+        TaskBitmap a = new TaskBitmap();
+        TaskBitmap b = new TaskBitmap();
+        NavigableSet<Long> setA = new TreeSet<>();
+        NavigableSet<Long> setB = new TreeSet<>();
+        // Chunk 0 dense in both, chunk 1 dense in one and sparse in the other, chunk 5 sparse, chunk 9 only in b
+        long[][] ranges = {{0, 60_000}, {65_536, 65_536 + 20_000}, {5 * 65_536L, 5 * 65_536L + 65_535}, {9 * 65_536L, 9 * 65_536L + 100}};
+        int[][] counts = {{30_000, 20_000}, {15_000, 500}, {300, 200}, {0, 50}};
+        for (int r = 0; r < ranges.length; r++) {
+            for (int i = 0; i < counts[r][0]; i++) add(a, setA, ranges[r][0] + random.nextLong(ranges[r][1] - ranges[r][0]));
+            for (int i = 0; i < counts[r][1]; i++) add(b, setB, ranges[r][0] + random.nextLong(ranges[r][1] - ranges[r][0]));
+        }
+        // Thin the dense chunk 0 of a below the array threshold, then chunk 1 of b above it
+        for (long id = 0; id < 60_000; id++) {
+            if (id % 8 != 0) assertEquals(setA.remove(id), a.remove(id));
+        }
+        for (int i = 0; i < 8_000; i++) add(b, setB, 65_536 + random.nextLong(20_000));
+        check(setA, a);
+        check(setB, b);
+
+        NavigableSet<Long> and = new TreeSet<>(setA);
+        and.retainAll(setB);
+        NavigableSet<Long> or = new TreeSet<>(setA);
+        or.addAll(setB);
+        NavigableSet<Long> andNot = new TreeSet<>(setA);
+        andNot.removeAll(setB);
+
+        check(and, TaskBitmap.and(a, b));
+        check(or, TaskBitmap.or(a, b));
+        check(andNot, TaskBitmap.andNot(a, b));
+        check(new TreeSet<>(), TaskBitmap.andNot(b, b));
+        assertEquals(and.size(), TaskBitmap.andCardinality(a, b));
+        assertEquals(and.size(), TaskBitmap.andCardinality(b, a));
+        check(setA, a.copy());
+    }
+
+    @Test
+    void facetFilterAgreesWithTaskMatching() {
+        SplittableRandom random = new SplittableRandom(11);
+        LocalDate today = LocalDate.now();
+        User user = new User("alice", "alice@example.com", "secret");
+        user.setId(1L);
+        List<Task> tasks = new ArrayList<>();
+        TaskBitmap all = new TaskBitmap();
+        Map<String, TaskBitmap> facets = new HashMap<>();
+        String[] tags = {"work", "home", "urgent"};
+        for (long id = 1; id <= 5_000; id++) {
+            Task task = new Task("t" + id, null, user);
+            task.setId(id);
+            TaskService.applyStatus(task, FacetFilter.STATUSES.get(random.nextInt(3)));
+            task.setPriority(FacetFilter.PRIORITIES.get(random.nextInt(3)));
+            task.setDueDate(random.nextInt(4) == 0 ? null : today.plusDays(random.nextInt(30) - 10));
+            task.setTags(TaskService.parseTags(tags[random.nextInt(3)] + (random.nextBoolean() ? "," + tags[random.nextInt(3)] : "")));
+            tasks.add(task);
+            all.add(id);
+            index(facets, "status:" + task.getStatus(), id);
+            index(facets, "priority:" + task.getPriority(), id);
+            index(facets, "due:" + FacetFilter.dueBucket(task.getDueDate(), today), id);
+            for (String tag : task.getTags()) index(facets, "tag:" + tag, id);
+        }
+
+        String[] expressions = {
+                "tag:work",
+                "tag:work AND NOT status:completed",
+                "tag:Work priority:HIGH or due:overdue",
+                "NOT (tag:home OR tag:urgent) AND (due:week OR due:today)",
+                "not not status:todo and not due:none",
+                "tag:missing OR (priority:low AND NOT NOT tag:home)"
+        };
+        for (String expression : expressions) {
+            FacetFilter filter = FacetFilter.parse(expression);
+            Predicate<Task> matches = task -> filter.matches(task, today);
+            List<Long> expected = tasks.stream().filter(matches).map(Task::getId).toList();
+            assertEquals(expected, filter.evaluate(facets::get, all).toList(), expression);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> FacetFilter.parse("tag:work AND"));
+        assertThrows(IllegalArgumentException.class, () -> FacetFilter.parse("(tag:work"));
+        assertThrows(IllegalArgumentException.class, () -> FacetFilter.parse("colour:red"));
+        assertThrows(IllegalArgumentException.class, () -> FacetFilter.parse("status:done"));
+        assertThrows(IllegalArgumentException.class, () -> TaskService.parseTags("ok, not ok"));
+    }
+
+    private static void add(TaskBitmap bitmap, NavigableSet<Long> set, long id) {
+        assertEquals(set.add(id), bitmap.add(id));
+    }
+
+    private static void index(Map<String, TaskBitmap> facets, String key, long id) {
+        facets.computeIfAbsent(key, k -> new TaskBitmap()).add(id);
+    }
+
+    private static void check(NavigableSet<Long> expected, TaskBitmap actual) {
+        assertEquals(expected.size(), actual.cardinality());
+        assertEquals(new ArrayList<>(expected), actual.toList());
+        for (long probe : new long[]{0, 1, 65_535, 65_536, 5 * 65_536L + 7, 9 * 65_536L + 3}) {
+            assertEquals(expected.contains(probe), actual.contains(probe));
+        }
+    }
+}
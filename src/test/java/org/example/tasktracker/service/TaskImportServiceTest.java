@@ -0,0 +1,159 @@
+package org.example.tasktracker.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.tasktracker.controller.TaskJsonWriter;
+import org.example.tasktracker.model.Project;
+import org.example.tasktracker.model.Task;
+import org.example.tasktracker.model.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Imports NDJSON through {@link TaskImportService} into a task store in a temporary directory: valid lines are
+ * committed in batches and survive a restart, invalid ones are reported by line number and change nothing,
+ * and an export imports back with its tags and, for the same user only, its project.
+ */
+class TaskImportServiceTest {
+
+    @TempDir
+    Path dataDir;
+
+    private ProjectService projectService;
+
+    @Test
+    void importsValidLinesInBatchesAndReportsTheRest() throws IOException {
+        User alice = user(1, "alice");
+        User bob = user(2, "bob");
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 25; i++) {
+            input.append("{\"userId\":2,\"title\":\"Imported ").append(i).append("\",\"priority\":\"high\"}\n");
+        }
+        input.append("\n")                                                       // blank: skipped, not an error
+                .append("{\"title\":\"Done\",\"status\":\"completed\",\"createdAt\":\"2024-01-02T03:04:05\","
+                        + "\"completedAt\":\"2024-01-03T00:00:00\",\"dueDate\":\"2024-01-05\"}\n")
+                .append("{\"title\":\"Legacy flags\",\"inProgress\":true}\n")
+                .append("not json\n")                                             // line 29
+                .append("{\"title\":\"\"}\n")                                     // line 30
+                .append("{\"title\":\"Bad priority\",\"priority\":\"urgent\"}\n") // line 31
+                .append("{\"title\":\"Bad date\",\"dueDate\":\"soon\"}\n")        // line 32
+                .append("[1, 2]\n");                                              // line 33
+
+        TaskService taskService = taskService();
+        TaskImportService importService = importService(taskService);
+        ImportResult result = importService.importForUser(new StringReader(input.toString()), alice, 10);
+
+        assertEquals(27, result.imported());
+        assertEquals(5, result.rejected());
+        assertEquals(3, result.batches());
+        assertEquals(List.of(29L, 30L, 31L, 32L, 33L), result.errors().stream().map(ImportResult.LineError::line).toList());
+        assertTrue(result.errors().get(2).message().contains("priority"), result.errors().get(2).message());
+
+        // userId in the records is ignored: everything belongs to the importing user
+        assertEquals(27, taskService.getTotalTasksByUser(alice));
+        assertEquals(0, taskService.getTotalTasksByUser(bob));
+        taskService.shutdown();
+
+        // Reloaded from disk with ids, statuses and dates as imported
+        TaskService reloaded = taskService();
+        List<Task> tasks = reloaded.getTasksByUser(alice);
+        assertEquals(27, tasks.size());
+        assertEquals(List.of("Imported 0", "Imported 24", "Done", "Legacy flags"),
+                List.of(tasks.get(0).getTitle(), tasks.get(24).getTitle(), tasks.get(25).getTitle(), tasks.get(26).getTitle()));
+        for (int i = 1; i < tasks.size(); i++) assertEquals(tasks.get(i - 1).getId() + 1, tasks.get(i).getId());
+        Task done = tasks.get(25);
+        assertEquals("completed", done.getStatus());
+        assertEquals(LocalDateTime.of(2024, 1, 2, 3, 4, 5), done.getCreatedAt());
+        assertEquals(LocalDateTime.of(2024, 1, 3, 0, 0), done.getCompletedAt());
+        assertEquals(LocalDate.of(2024, 1, 5), done.getDueDate());
+        assertEquals("in_progress", tasks.get(26).getStatus());
+        assertEquals("high", tasks.get(0).getPriority());
+        reloaded.shutdown();
+    }
+
+    @Test
+    void rejectsRecordsOfUnknownUsers() throws IOException {
+        User alice = user(1, "alice");
+        TaskService taskService = taskService();
+        TaskImportService importService = importService(taskService);
+        String input = "{\"userId\":1,\"title\":\"Mine\"}\n{\"userId\":9,\"title\":\"Nobody's\"}\n{\"title\":\"No user\"}\n";
+
+        ImportResult result = importService.importTasks(new StringReader(input), id -> id == 1 ? alice : null, 100);
+
+        assertEquals(1, result.imported());
+        assertEquals(2, result.rejected());
+        assertEquals("Unknown userId: 9", result.errors().get(0).message());
+        assertEquals(1, taskService.getTotalTasksByUser(alice));
+        assertNull(taskService.getTasksByUser(alice).get(0).getDescription());
+        taskService.shutdown();
+    }
+
+    @Test
+    void exportedTagsAndProjectsImportBack() throws IOException {
+        User alice = user(1, "alice");
+        User bob = user(2, "bob");
+        TaskService taskService = taskService();
+        TaskImportService importService = importService(taskService);
+        Project work = projectService.createProject(alice.getId(), "Work", null);
+        Task task = new Task("Tagged", null, alice);
+        task.setTags(List.of("home", "work"));
+        task.setProjectId(work.getId());
+        taskService.createTask(task);
+
+        StringWriter export = new StringWriter();
+        try (JsonGenerator gen = new ObjectMapper().getFactory().createGenerator(export)) {
+            TaskJsonWriter.write(gen, task, TaskJsonWriter.ALL_FIELDS);
+        }
+        String input = export + "\n{\"title\":\"Form tags\",\"tags\":\"Urgent, home\"}\n"
+                + "{\"title\":\"Bad tags\",\"tags\":[\"not ok\"]}\n"
+                + "{\"title\":\"Not a list\",\"tags\":{\"a\":1}}\n";
+
+        ImportResult mine = importService.importForUser(new StringReader(input), alice, 100);
+        assertEquals(2, mine.imported());
+        assertEquals(List.of(3L, 4L), mine.errors().stream().map(ImportResult.LineError::line).toList());
+        assertTrue(mine.errors().get(0).message().startsWith("Invalid tag 'not ok'"), mine.errors().get(0).message());
+        List<Task> tasks = taskService.getTasksByUser(alice);
+        assertEquals(List.of("home", "work"), tasks.get(1).getTags());
+        assertEquals(work.getId(), tasks.get(1).getProjectId());
+        assertEquals(List.of("home", "urgent"), tasks.get(2).getTags());
+        assertNull(tasks.get(2).getProjectId());
+
+        // Alice's project id means nothing in bob's account
+        importService.importForUser(new StringReader(export.toString()), bob, 100);
+        Task bobs = taskService.getTasksByUser(bob).get(0);
+        assertEquals(List.of("home", "work"), bobs.getTags());
+        assertNull(bobs.getProjectId());
+        taskService.shutdown();
+    }
+
+    private TaskImportService importService(TaskService taskService) {
+        projectService = new ProjectService(taskService, event -> { }, new SimpleMeterRegistry(), dataDir.toString());
+        projectService.init();
+        return new TaskImportService(taskService, projectService, new ObjectMapper());
+    }
+
+    private TaskService taskService() {
+        TaskService taskService = new TaskService(event -> { }, new SimpleMeterRegistry(), dataDir.toString(), false);
+        taskService.init();
+        return taskService;
+    }
+
+    private static User user(long id, String name) {
+        User user = new User(name, name + "@example.com", "secret");
+        user.setId(id);
+        return user;
+    }
+}
@@ -0,0 +1,133 @@
+package org.example.tasktracker.service;
+
+import org.example.tasktracker.model.Task;
+import org.example.tasktracker.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks keyset paging with {@link TaskCursor}: walking every page in each sort order gives the same tasks as
+ * sorting them all, ties and missing sort values included, a page boundary survives inserts and deletes in
+ * between requests, and cursors that are malformed or were issued for another order are rejected.
+ */
+class TaskQueryTest {
+
+    private static final String[] SORTS = {null, TaskQuery.SORT_TITLE, TaskQuery.SORT_PRIORITY,
+            TaskQuery.SORT_DUE_DATE, TaskQuery.SORT_CREATED};
+
+    @Test
+    void pagesMatchTheFullSortInEveryOrder() {
+        List<Task> tasks = tasks(500, 3);
+        for (String sort : SORTS) {
+            TaskQuery query = TaskQuery.of(null, null, sort);
+            List<Task> expected = new ArrayList<>(tasks);
+            expected.sort(query.comparator());
+            for (int limit : new int[]{1, 7, 50, 500}) {
+                assertEquals(ids(expected), ids(walk(query, tasks, limit)), "sort " + sort + ", limit " + limit);
+            }
+        }
+
+        // Filters apply before paging
+        TaskQuery high = TaskQuery.of("report", "high", TaskQuery.SORT_DUE_DATE);
+        List<Task> expected = tasks.stream().filter(high::matches).sorted(high.comparator()).toList();
+        assertTrue(expected.size() > 10);
+        assertEquals(ids(expected), ids(walk(high, tasks, 4)));
+    }
+
+    @Test
+    void cursorSurvivesChangesBetweenPages() {
+        List<Task> tasks = tasks(100, 5);
+        TaskQuery query = TaskQuery.of(null, null, TaskQuery.SORT_TITLE);
+        TaskPage first = query.page(tasks, null, 10);
+        String cursor = TaskCursor.encode(first.last(), query.getSortBy());
+
+        // Remove the last task shown and add one that sorts before it: the next page starts where the first ended
+        tasks.remove(first.last());
+        Task early = task(1_000, "AAA first", "low", null);
+        tasks.add(early);
+        TaskPage second = query.page(tasks, TaskCursor.decode(cursor, query.getSortBy()), 10);
+        for (Task task : second.tasks()) {
+            assertTrue(query.comparator().compare(task, first.last()) > 0);
+        }
+        assertFalse(second.tasks().contains(early));
+        assertEquals(10, second.tasks().size());
+        assertTrue(second.hasMore());
+    }
+
+    @Test
+    void rejectsForeignAndMalformedCursors() {
+        Task task = task(42, "Line one\nline two", "high", LocalDate.of(2024, 2, 29));
+        for (String sort : SORTS) {
+            Task probe = TaskCursor.decode(TaskCursor.encode(task, sort), sort);
+            assertEquals(0, TaskQuery.of(null, null, sort).comparator().compare(task, probe), "sort " + sort);
+        }
+        String byTitle = TaskCursor.encode(task, TaskQuery.SORT_TITLE);
+        assertThrows(IllegalArgumentException.class, () -> TaskCursor.decode(byTitle, TaskQuery.SORT_PRIORITY));
+        assertThrows(IllegalArgumentException.class, () -> TaskCursor.decode(byTitle, null));
+        assertThrows(IllegalArgumentException.class, () -> TaskCursor.decode("not base64!", null));
+        assertThrows(IllegalArgumentException.class, () -> TaskCursor.decode(encoded("due_date\nx\nv2024-01-01"), TaskQuery.SORT_DUE_DATE));
+        assertThrows(IllegalArgumentException.class, () -> TaskCursor.decode(encoded("due_date\n7\nvyesterday"), TaskQuery.SORT_DUE_DATE));
+        assertThrows(IllegalArgumentException.class, () -> TaskCursor.decode(encoded("title"), TaskQuery.SORT_TITLE));
+    }
+
+    // Every page of the query, following the cursor of each page's last task
+    private static List<Task> walk(TaskQuery query, List<Task> tasks, int limit) {
+        List<Task> all = new ArrayList<>();
+        String cursor = null;
+        while (true) {
+            Task after = cursor == null ? null : TaskCursor.decode(cursor, query.getSortBy());
+            TaskPage page = query.page(tasks, after, limit);
+            all.addAll(page.tasks());
+            if (!page.hasMore()) return all;
+            assertEquals(limit, page.tasks().size());
+            cursor = TaskCursor.encode(page.last(), query.getSortBy());
+        }
+    }
+
+    // Few distinct titles, priorities and dates, so most sort keys are tied, and some are missing
+    private static List<Task> tasks(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        String[] titles = {"report", "Review", "deploy", "invoice", null};
+        String[] priorities = {"low", "medium", "high", "urgent"};
+        LocalDateTime created = LocalDateTime.of(2024, 1, 1, 9, 0);
+        List<Task> tasks = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            String title = titles[random.nextInt(titles.length)];
+            LocalDate due = random.nextInt(4) == 0 ? null : LocalDate.of(2024, 3, 1 + random.nextInt(5));
+            Task task = task(id, title, priorities[random.nextInt(priorities.length)], due);
+            task.setCreatedAt(random.nextInt(10) == 0 ? null : created.plusMinutes(random.nextInt(20)));
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    private static Task task(long id, String title, String priority, LocalDate due) {
+        User user = new User("alice", "alice@example.com", "secret");
+        user.setId(1L);
+        Task task = new Task(title, title == null ? "no title" : "About the " + title, user);
+        task.setId(id);
+        task.setPriority(priority);
+        task.setDueDate(due);
+        return task;
+    }
+
+    private static List<Long> ids(List<Task> tasks) {
+        return tasks.stream().map(Task::getId).toList();
+    }
+
+    private static String encoded(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,128 @@
+package org.example.tasktracker.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.tasktracker.model.Task;
+import org.example.tasktracker.model.TaskSnapshot;
+import org.example.tasktracker.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that {@link TaskService#applyBatch} is all-or-nothing: one invalid operation leaves every task, the
+ * version and the file untouched and publishes no events, while a valid batch applies every operation in order.
+ */
+class TaskServiceBatchTest {
+
+    @TempDir
+    Path dataDir;
+
+    private final List<TaskChangedEvent> events = new ArrayList<>();
+    private TaskService taskService;
+    private User alice;
+    private User bob;
+    private List<Long> ids;
+
+    @BeforeEach
+    void setUp() {
+        taskService = taskService();
+        alice = user(1, "alice");
+        bob = user(2, "bob");
+        for (int i = 0; i < 4; i++) taskService.createTask(new Task("Task " + i, null, alice));
+        taskService.createTask(new Task("Bob's", null, bob));
+        ids = taskService.getAllTasks().stream().map(Task::getId).toList();
+        events.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        taskService.shutdown();
+    }
+
+    @Test
+    void invalidBatchChangesNothing() {
+        List<TaskSnapshot> before = snapshots();
+        long version = taskService.getUserVersion(alice.getId());
+
+        BatchResult result = taskService.applyBatch(alice, List.of(
+                op(ids.get(0), "status", Map.of("status", "completed")),
+                op(ids.get(1), "delete", null),
+                op(ids.get(1), "toggle", null),                       // deleted earlier in the batch
+                op(ids.get(2), "priority", Map.of("priority", "urgent")),
+                op(ids.get(4), "toggle", null),                       // bob's
+                op(ids.get(3), "tags", Map.of("tags", "ok, not ok")),
+                op(ids.get(3), "rename", null)));
+
+        assertFalse(result.applied());
+        assertEquals(List.of(true, true, false, false, false, false, false),
+                result.results().stream().map(BatchResult.ItemResult::ok).toList());
+        assertNull(result.results().get(0).error());
+        assertEquals("Unknown op: rename", result.results().get(6).error());
+        assertEquals(before, snapshots());
+        assertEquals(version, taskService.getUserVersion(alice.getId()));
+        assertTrue(events.isEmpty());
+        assertEquals(before, reloaded());
+    }
+
+    @Test
+    void validBatchAppliesEveryOperation() {
+        BatchResult result = taskService.applyBatch(alice, List.of(
+                op(ids.get(0), "status", Map.of("status", "in_progress")),
+                op(ids.get(0), "toggle", null),
+                op(ids.get(1), "delete", null),
+                op(ids.get(2), "priority", Map.of("priority", "high")),
+                op(ids.get(3), "tags", Map.of("tags", "Work, home,work"))));
+
+        assertTrue(result.applied());
+        List<Task> tasks = taskService.getTasksByUser(alice);
+        assertEquals(List.of(ids.get(0), ids.get(2), ids.get(3)), tasks.stream().map(Task::getId).toList());
+        assertEquals("completed", tasks.get(0).getStatus());
+        assertEquals("high", tasks.get(1).getPriority());
+        assertEquals(List.of("home", "work"), tasks.get(2).getTags());
+        assertEquals(1, taskService.getTotalTasksByUser(bob));
+        assertEquals(List.of(TaskChangedEvent.Type.UPDATED, TaskChangedEvent.Type.UPDATED, TaskChangedEvent.Type.DELETED,
+                TaskChangedEvent.Type.UPDATED, TaskChangedEvent.Type.UPDATED), events.stream().map(TaskChangedEvent::type).toList());
+        assertEquals(snapshots(), reloaded());
+    }
+
+    private List<TaskSnapshot> snapshots() {
+        return taskService.getAllTasks().stream().map(TaskSnapshot::of).toList();
+    }
+
+    // What a fresh service reads back from the tasks file
+    private List<TaskSnapshot> reloaded() {
+        TaskService other = new TaskService(event -> { }, new SimpleMeterRegistry(), dataDir.toString(), false);
+        other.init();
+        List<TaskSnapshot> snapshots = other.getAllTasks().stream().map(TaskSnapshot::of).toList();
+        other.shutdown();
+        return snapshots;
+    }
+
+    private TaskService taskService() {
+        TaskService service = new TaskService(event -> events.add((TaskChangedEvent) event),
+                new SimpleMeterRegistry(), dataDir.toString(), false);
+        service.init();
+        return service;
+    }
+
+    private static TaskOperation op(Long id, String op, Map<String, String> args) {
+        return new TaskOperation(id, op, args);
+    }
+
+    private static User user(long id, String name) {
+        User user = new User(name, name + "@example.com", "secret");
+        user.setId(id);
+        return user;
+    }
+}
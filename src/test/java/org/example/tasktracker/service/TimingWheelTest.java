@@ -0,0 +1,66 @@
+package org.example.tasktracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that every timer of a {@link TimingWheel} fires on its deadline tick, across all levels and cascades,
+ * and that cancelled and replaced timers do not fire.
+ */
+class TimingWheelTest {
+
+    @Test
+    void firesEachTimerOnItsDeadline() {
+        long start = 1_000;
+        TimingWheel<Long> wheel = new TimingWheel<>(start);
+        SplittableRandom random = new SplittableRandom(42);
+        Map<Long, Long> deadlines = new HashMap<>();
+        long[] ranges = {1, 300, 70_000, 20_000_000};
+        for (long key = 0; key < 20_000; key++) {
+            long deadline = start + 1 + random.nextLong(ranges[(int) (key % ranges.length)]);
+            wheel.schedule(key, deadline, deadline);
+            deadlines.put(key, deadline);
+        }
+        // Cancelled and replaced timers
+        for (long key = 0; key < 1_000; key++) {
+            wheel.cancel(key);
+            deadlines.remove(key);
+        }
+        for (long key = 1_000; key < 2_000; key++) {
+            long deadline = start + 1 + random.nextLong(100_000);
+            wheel.schedule(key, deadline, deadline);
+            deadlines.put(key, deadline);
+        }
+        assertEquals(deadlines.size(), wheel.size());
+
+        List<TimingWheel.Timer<Long>> expired = new ArrayList<>();
+        for (long tick = start + 1; tick <= start + 20_000_000; tick++) {
+            wheel.advanceTo(tick, expired);
+            for (TimingWheel.Timer<Long> timer : expired) {
+                assertEquals(deadlines.remove(timer.key), timer.value, "timer " + timer.key + " fired twice or was cancelled");
+                assertEquals(tick, timer.deadline, "timer " + timer.key + " fired off its deadline");
+            }
+            expired.clear();
+        }
+        assertTrue(deadlines.isEmpty(), deadlines.size() + " timers never fired");
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void pastDeadlinesFireOnTheNextTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(500);
+        wheel.schedule(1, 10, "late");
+        List<TimingWheel.Timer<String>> expired = new ArrayList<>();
+        wheel.advanceTo(501, expired);
+        assertEquals(1, expired.size());
+        assertEquals("late", expired.get(0).value);
+    }
+}